@@ -0,0 +1,92 @@
+import api from './axios';
+import { ApiResponse } from '../types';
+
+export type StreamEventName =
+  | 'connected'
+  | 'candidate-status'
+  | 'document'
+  | 'payment'
+  | 'dashboard-counters'
+  | 'resync';
+
+export interface StreamToken {
+  token: string;
+  expiresInMs: number;
+}
+
+export const eventsApi = {
+  // EventSource cannot send the Authorization header, so the stream is opened with a short-lived token
+  getStreamToken: async (): Promise<StreamToken> => {
+    const response = await api.post<ApiResponse<StreamToken>>('/api/events/stream-token');
+    return response.data.data;
+  },
+};
+
+const MAX_RETRY_DELAY_MS = 30000;
+
+/**
+ * Subscribe to /api/events/stream. Every (re)connect fetches a fresh stream token, since the
+ * one in the URL expires within a minute. After a reconnect or a "resync" event the handler
+ * for 'resync' should refetch, as events may have been missed.
+ * Returns a function that closes the stream.
+ */
+export const openEventStream = (
+  handlers: Partial<Record<StreamEventName, (data: any) => void>>
+): (() => void) => {
+  let source: EventSource | null = null;
+  let retryTimer: ReturnType<typeof setTimeout> | undefined;
+  let retryDelay = 1000;
+  let connectedBefore = false;
+  let closed = false;
+
+  const scheduleReconnect = () => {
+    if (closed) return;
+    retryTimer = setTimeout(connect, retryDelay);
+    retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MS);
+  };
+
+  const connect = async () => {
+    let streamToken: StreamToken;
+    try {
+      streamToken = await eventsApi.getStreamToken();
+    } catch (error) {
+      console.error('Failed to get event stream token:', error);
+      scheduleReconnect();
+      return;
+    }
+    if (closed) return;
+
+    const url = `${api.defaults.baseURL}/api/events/stream?token=${encodeURIComponent(streamToken.token)}`;
+    source = new EventSource(url);
+
+    source.addEventListener('connected', (event) => {
+      retryDelay = 1000;
+      const reconnected = connectedBefore;
+      connectedBefore = true;
+      handlers.connected?.(JSON.parse((event as MessageEvent).data));
+      if (reconnected) {
+        handlers.resync?.({ reconnected: true });
+      }
+    });
+    (Object.keys(handlers) as StreamEventName[])
+      .filter((name) => name !== 'connected')
+      .forEach((name) => {
+        source?.addEventListener(name, (event) => handlers[name]?.(JSON.parse((event as MessageEvent).data)));
+      });
+
+    // The browser would retry with the same, soon expired, token; reconnect with a new one instead
+    source.onerror = () => {
+      source?.close();
+      source = null;
+      scheduleReconnect();
+    };
+  };
+
+  connect();
+
+  return () => {
+    closed = true;
+    clearTimeout(retryTimer);
+    source?.close();
+  };
+};
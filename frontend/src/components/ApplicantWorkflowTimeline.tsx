@@ -2,6 +2,7 @@ import React, { useEffect, useState } from 'react';
 import { candidateApi } from '../api/candidates';
 import { CandidateWorkflowDTO } from '../types/workflow';
 import { useAuth } from '../context/AuthContext';
+import { openEventStream } from '../api/events';
 
 const WORKFLOW_STEPS = [
   'Application Submitted',
@@ -27,12 +28,20 @@ export const ApplicantWorkflowTimeline: React.FC = () => {
   const [error, setError] = useState('');
 
   useEffect(() => {
-    if (user?.email) {
-      candidateApi.getApplicantWorkflow(user.email)
-        .then(setWorkflow)
-        .catch((err: any) => setError('Failed to load workflow: ' + (err.response?.data?.message || err.message)))
-        .finally(() => setLoading(false));
-    }
+    if (!user?.email) return;
+    const email = user.email;
+    const load = () => candidateApi.getApplicantWorkflow(email)
+      .then(setWorkflow)
+      .catch((err: any) => setError('Failed to load workflow: ' + (err.response?.data?.message || err.message)))
+      .finally(() => setLoading(false));
+    load();
+
+    // The stream only carries this applicant's own candidate events
+    return openEventStream({
+      'candidate-status': load,
+      document: load,
+      resync: load,
+    });
   }, [user]);
 
   if (loading) return <div className="p-6">Loading workflow...</div>;
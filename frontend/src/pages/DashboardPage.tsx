@@ -4,6 +4,7 @@ import { Layout } from '../components/Layout';
 import { useAuth } from '../context/AuthContext';
 import { candidateApi } from '../api/candidates';
 import { dashboardApi, DashboardStats, EmployerDashboardStats } from '../api/dashboard';
+import { openEventStream } from '../api/events';
 import { Candidate, CandidateStatus } from '../types';
 import { StatusBadge } from '../components/StatusBadge';
 import ApplicantWorkflowTimeline from '../components/ApplicantWorkflowTimeline';
@@ -27,6 +28,25 @@ export const DashboardPage: React.FC = () => {
     loadStats();
   }, []);
 
+  // Staff dashboards follow pushed changes instead of polling; bursts of events cause one reload
+  useEffect(() => {
+    if (!isStaff) return;
+    let reloadTimer: ReturnType<typeof setTimeout> | undefined;
+    const scheduleReload = () => {
+      clearTimeout(reloadTimer);
+      reloadTimer = setTimeout(loadStats, 1000);
+    };
+    const close = openEventStream({
+      'dashboard-counters': scheduleReload,
+      'candidate-status': scheduleReload,
+      resync: scheduleReload,
+    });
+    return () => {
+      clearTimeout(reloadTimer);
+      close();
+    };
+  }, [isStaff]);
+
   const loadStats = async () => {
     try {
       if (isEmployer && user?.email) {
@@ -0,0 +1,28 @@
+package com.roms.config;
+
+import com.roms.service.ReadReplicaRoutingService;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Picks the primary or replica pool per physical connection. It sits behind a
+ * LazyConnectionDataSourceProxy, so the choice is made at the first statement, by which
+ * time the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReadReplicaRoutingService routingService;
+
+    public ReplicaRoutingDataSource(ReadReplicaRoutingService routingService) {
+        this.routingService = routingService;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return routingService.useReplica() ? Target.REPLICA : Target.PRIMARY;
+    }
+}
@@ -1,6 +1,7 @@
 package com.roms.config;
 
 import com.roms.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -57,8 +58,11 @@ public class SecurityConfig {
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOriginPatterns(List.of("http://localhost:*", "http://127.0.0.1:*", "https://*.onrender.com"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Read by resumable upload clients
+        configuration.setExposedHeaders(Arrays.asList("Location", "Tus-Resumable", "Upload-Offset", "Upload-Length",
+                "Upload-Expires"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -74,8 +78,12 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches (event streams, streaming exports) were authorised on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Health check for Render
                 .requestMatchers("/actuator/health", "/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("SUPER_ADMIN")
 
                 // Setup endpoint (only for initial deployment)
                 .requestMatchers("/api/setup/**").permitAll()
@@ -85,6 +93,8 @@ public class SecurityConfig {
                 .requestMatchers("/api/public/**").permitAll()
                 .requestMatchers("/api/candidates/apply").permitAll()  // Job application endpoint
                 .requestMatchers(HttpMethod.POST, "/api/candidates/*/documents").permitAll()  // Document upload for applicants
+                .requestMatchers(HttpMethod.POST, "/api/candidates/*/uploads").permitAll()  // Resumable document upload
+                .requestMatchers("/api/uploads/**").permitAll()  // Resumable upload chunks, addressed by their random upload id
                 .requestMatchers("/api/employers").permitAll()  // Employer registration endpoint
                 .requestMatchers(HttpMethod.GET, "/api/job-orders").permitAll()  // Public job listings
                 .requestMatchers(HttpMethod.GET, "/api/job-orders/*").permitAll()  // Public job details
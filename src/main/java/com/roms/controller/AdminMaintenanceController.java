@@ -0,0 +1,198 @@
+package com.roms.controller;
+
+import com.roms.dto.ApiResponse;
+import com.roms.dto.ExpiryCheckResult;
+import com.roms.service.ClusterCacheInvalidationService;
+import com.roms.service.DocumentReplicationService;
+import com.roms.service.ExpiryMonitoringService;
+import com.roms.service.LocalFileStorageService;
+import com.roms.service.LocalStoreMaintenanceService;
+import com.roms.service.ReadReplicaRoutingService;
+import com.roms.service.ScheduledJobRunner;
+import com.roms.service.SecondLevelCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Admin Maintenance Controller
+ * Manual triggers for scheduled maintenance jobs - restricted to SUPER_ADMIN only
+ */
+@RestController
+@RequestMapping("/api/admin/maintenance")
+@PreAuthorize("hasRole('SUPER_ADMIN')")
+public class AdminMaintenanceController {
+
+    @Autowired
+    private ExpiryMonitoringService expiryMonitoringService;
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @Autowired
+    private ClusterCacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private ScheduledJobRunner jobRunner;
+
+    @Autowired
+    private ReadReplicaRoutingService readReplicaRoutingService;
+
+    @Autowired
+    private DocumentReplicationService documentReplicationService;
+
+    /** Absent when documents are not stored on local disk */
+    @Autowired(required = false)
+    private LocalFileStorageService localFileStorageService;
+
+    @Autowired(required = false)
+    private LocalStoreMaintenanceService localStoreMaintenanceService;
+
+    /**
+     * Run the expiry check now and report how many candidates changed flag
+     */
+    @PostMapping("/expiry-check")
+    public ResponseEntity<?> runExpiryCheck() {
+        ExpiryCheckResult result = expiryMonitoringService.runManualExpiryCheck();
+        return ResponseEntity.ok(ApiResponse.success("Expiry check completed", result));
+    }
+
+    /**
+     * Rebuild the expiry index from candidate and document dates, then process anything due today
+     */
+    @PostMapping("/expiry-index/rebuild")
+    public ResponseEntity<?> rebuildExpiryIndex() {
+        int indexed = expiryMonitoringService.runIndexRebuild();
+        int processed = expiryMonitoringService.processDueExpiries(LocalDate.now());
+        return ResponseEntity.ok(ApiResponse.success("Expiry index rebuilt",
+                Map.of("candidatesIndexed", indexed, "dueProcessed", processed)));
+    }
+
+    /**
+     * Hits, misses and hit ratio per second-level cache region, for sizing application.conf
+     */
+    @GetMapping("/second-level-cache")
+    public ResponseEntity<?> getSecondLevelCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success("Second-level cache statistics retrieved",
+                secondLevelCacheService.getRegionStats()));
+    }
+
+    /**
+     * Evict the whole second-level cache, e.g. after editing job_orders, employers or app_users outside the application
+     */
+    @PostMapping("/second-level-cache/evict")
+    public ResponseEntity<?> evictSecondLevelCache() {
+        secondLevelCacheService.evictAll();
+        return ResponseEntity.ok(ApiResponse.success("Second-level cache evicted"));
+    }
+
+    /**
+     * This node's cluster cache invalidation state: whether it is listening, keys sent, notifications received
+     */
+    @GetMapping("/cache-invalidation")
+    public ResponseEntity<?> getCacheInvalidationStats() {
+        return ResponseEntity.ok(ApiResponse.success("Cache invalidation statistics retrieved",
+                cacheInvalidationService.getStats()));
+    }
+
+    /**
+     * Cluster-wide scheduled jobs with their lease holder and latest run
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<?> getJobs() {
+        return ResponseEntity.ok(ApiResponse.success("Scheduled jobs retrieved", jobRunner.getJobs()));
+    }
+
+    /**
+     * Run history of one job, newest first, with checkpoints and progress counters
+     */
+    @GetMapping("/jobs/{jobName}/runs")
+    public ResponseEntity<?> getJobRuns(@PathVariable String jobName,
+                                        @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(ApiResponse.success("Job runs retrieved", jobRunner.getRuns(jobName, limit)));
+    }
+
+    /**
+     * Replica lag, availability and how read-only transactions were routed
+     */
+    @GetMapping("/read-replica")
+    public ResponseEntity<?> getReadReplicaStats() {
+        return ResponseEntity.ok(ApiResponse.success("Read replica routing statistics retrieved",
+                readReplicaRoutingService.getStats()));
+    }
+
+    /**
+     * Write-behind replication backlog: queued, pending and failed uploads
+     */
+    @GetMapping("/storage-replication")
+    public ResponseEntity<?> getStorageReplicationStats() {
+        return ResponseEntity.ok(ApiResponse.success("Storage replication statistics retrieved",
+                documentReplicationService.getStats()));
+    }
+
+    /**
+     * Retry uploads that exhausted their replication attempts
+     */
+    @PostMapping("/storage-replication/retry-failed")
+    public ResponseEntity<?> retryFailedReplications() {
+        int retried = documentReplicationService.retryFailed();
+        return ResponseEntity.ok(ApiResponse.success("Failed replications queued for retry", Map.of("retried", retried)));
+    }
+
+    /**
+     * Content-addressed local store: files written and duplicate uploads stored only once
+     */
+    @GetMapping("/local-store")
+    public ResponseEntity<?> getLocalStoreStats() {
+        if (localFileStorageService == null) {
+            return localStoreDisabled();
+        }
+        return ResponseEntity.ok(ApiResponse.success("Local store statistics retrieved", localFileStorageService.getStats()));
+    }
+
+    /**
+     * Move files from the old flat upload directory into the content-addressed store.
+     * Resumable; progress is recorded under /jobs/local-store-migration/runs.
+     */
+    @PostMapping("/local-store/migrate")
+    public ResponseEntity<?> migrateLocalStore() {
+        if (localStoreMaintenanceService == null) {
+            return localStoreDisabled();
+        }
+        return localStoreMaintenanceService.runMigration()
+                .<ResponseEntity<?>>map(migrated -> ResponseEntity.ok(ApiResponse.success("Local store migration completed",
+                        Map.of("migrated", migrated))))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(ApiResponse.error("Local store migration is already running")));
+    }
+
+    /**
+     * Remove stored files no document refers to any more
+     */
+    @PostMapping("/local-store/cleanup")
+    public ResponseEntity<?> cleanUpLocalStore() {
+        if (localStoreMaintenanceService == null) {
+            return localStoreDisabled();
+        }
+        return localStoreMaintenanceService.runCleanUp()
+                .<ResponseEntity<?>>map(removed -> ResponseEntity.ok(ApiResponse.success("Local store cleanup completed",
+                        Map.of("removed", removed))))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(ApiResponse.error("Local store cleanup is already running")));
+    }
+
+    private ResponseEntity<?> localStoreDisabled() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.error("Documents are not stored on local disk in this storage mode"));
+    }
+}
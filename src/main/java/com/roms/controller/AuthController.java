@@ -5,10 +5,12 @@ import com.roms.dto.AuthResponse;
 import com.roms.dto.LoginRequest;
 import com.roms.dto.RegisterRequest;
 import com.roms.entity.User;
+import com.roms.event.UserAccountChangedEvent;
 import com.roms.repository.UserRepository;
 import com.roms.security.JwtTokenProvider;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -34,6 +36,9 @@ public class AuthController {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
@@ -91,6 +96,7 @@ public class AuthController {
                 .build();
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(user.getId(), null, user.getUsername()));
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("User registered successfully"));
@@ -3,23 +3,37 @@ import com.roms.dto.CandidateWorkflowDTO;
 import com.roms.service.CandidateWorkflowQueryService;
 
 import com.roms.dto.ApiResponse;
+import com.roms.dto.BulkTransitionRequest;
+import com.roms.dto.BulkTransitionResult;
+import com.roms.dto.CandidateActionsDTO;
+import com.roms.dto.CandidateFilter;
 import com.roms.dto.JobApplicationRequest;
 import com.roms.entity.Candidate;
 import com.roms.enums.CandidateStatus;
+import com.roms.event.CacheInvalidationEvent;
+import com.roms.event.CandidateStatusChangedEvent;
 import com.roms.repository.CandidateRepository;
+import com.roms.service.CandidateActionsService;
+import com.roms.service.CandidateExportService;
+import com.roms.service.CandidateListingService;
+import com.roms.service.CandidateStatusEventService;
 import com.roms.service.CandidateWorkflowService;
+import com.roms.service.ClusterCacheInvalidationService;
 import com.roms.service.JobApplicationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/candidates")
@@ -36,6 +50,25 @@ public class CandidateController {
 
     @Autowired
     private CandidateWorkflowQueryService workflowQueryService;
+
+    @Autowired
+    private CandidateListingService candidateListingService;
+
+    @Autowired
+    private CandidateExportService candidateExportService;
+
+    @Autowired
+    private CandidateActionsService candidateActionsService;
+
+    @Autowired
+    private CandidateStatusEventService candidateStatusEventService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ClusterCacheInvalidationService cacheInvalidationService;
+
     @GetMapping("/applicant/workflow")
     @PreAuthorize("hasRole('APPLICANT')")
     public ResponseEntity<?> getApplicantWorkflow(@RequestParam String email) {
@@ -66,6 +99,40 @@ public class CandidateController {
         return ResponseEntity.ok(ApiResponse.success("Candidates retrieved successfully", candidates));
     }
 
+    /**
+     * Paginated candidate list for the list view (keyset cursor, lightweight rows)
+     * Filters: status, expiryFlag, country, createdFrom/createdTo, passportExpiryFrom/passportExpiryTo (ISO dates),
+     * missingDocument (DocumentType)
+     */
+    @GetMapping("/list")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF', 'FINANCE_MANAGER')")
+    public ResponseEntity<?> listCandidates(CandidateFilter filter,
+                                            @RequestParam(required = false) Long cursor,
+                                            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(ApiResponse.success("Candidates retrieved successfully",
+                candidateListingService.listCandidates(filter, cursor, size)));
+    }
+
+    /**
+     * Stream all candidates matching the listing filters as CSV or NDJSON (format=csv|ndjson)
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF')")
+    public ResponseEntity<StreamingResponseBody> exportCandidates(CandidateFilter filter,
+                                                                  @RequestParam(defaultValue = "csv") String format) {
+        CandidateExportService.Format exportFormat = CandidateExportService.Format.from(format);
+        boolean csv = exportFormat == CandidateExportService.Format.CSV;
+
+        StreamingResponseBody body = out -> candidateExportService.export(filter, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"candidates." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+
     @GetMapping("/me")
     @PreAuthorize("hasRole('APPLICANT')")
     public ResponseEntity<?> getMyApplications(@RequestParam String email) {
@@ -92,6 +159,8 @@ public class CandidateController {
 
         candidate.setCurrentStatus(CandidateStatus.APPLICATION_SUBMITTED);
         Candidate savedCandidate = candidateRepository.save(candidate);
+        eventPublisher.publishEvent(new CandidateStatusChangedEvent(
+                savedCandidate.getId(), null, savedCandidate.getCurrentStatus()));
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Candidate created successfully", savedCandidate));
     }
@@ -137,6 +206,9 @@ public class CandidateController {
         }
 
         Candidate updatedCandidate = candidateRepository.save(candidate);
+        // Interview fields feed the workflow guards shown to the applicant
+        workflowQueryService.evict(updatedCandidate.getId());
+        cacheInvalidationService.publish(CacheInvalidationEvent.key(CacheInvalidationEvent.CANDIDATE, updatedCandidate.getId()));
         return ResponseEntity.ok(ApiResponse.success("Candidate updated successfully", updatedCandidate));
     }
 
@@ -148,6 +220,8 @@ public class CandidateController {
 
         candidate.softDelete();
         candidateRepository.save(candidate);
+        eventPublisher.publishEvent(new CandidateStatusChangedEvent(
+                candidate.getId(), candidate.getCurrentStatus(), null));
 
         return ResponseEntity.ok(ApiResponse.success("Candidate deleted successfully"));
     }
@@ -165,6 +239,28 @@ public class CandidateController {
         }
     }
 
+    /**
+     * Move a cohort of candidates (up to 5000) to one status, with a per-candidate success/failure report
+     */
+    @PostMapping("/bulk-transition")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF')")
+    public ResponseEntity<?> bulkTransition(@Valid @RequestBody BulkTransitionRequest request) {
+        BulkTransitionResult result = workflowService.bulkTransition(request.getCandidateIds(), request.getStatus());
+        return ResponseEntity.ok(ApiResponse.success(
+                "Bulk transition completed: " + result.getSucceeded() + " succeeded, " + result.getFailed() + " failed",
+                result));
+    }
+
+    /**
+     * Stage history from the status event log, oldest first
+     */
+    @GetMapping("/{id}/status-history")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF', 'FINANCE_MANAGER')")
+    public ResponseEntity<?> getStatusHistory(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success("Status history retrieved successfully",
+                candidateStatusEventService.getHistory(id)));
+    }
+
     @GetMapping("/{id}/can-transition/{status}")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF')")
     public ResponseEntity<?> canTransition(@PathVariable Long id, @PathVariable String status) {
@@ -188,22 +284,11 @@ public class CandidateController {
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF', 'FINANCE_MANAGER', 'APPLICANT')")
     public ResponseEntity<?> getAllowedTransitions(@PathVariable Long id) {
         try {
-            Candidate candidate = candidateRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Candidate not found with id: " + id));
-            CandidateStatus currentStatus = candidate.getCurrentStatus();
-
-            // List all possible statuses except current
-            List<CandidateStatus> allStatuses = Arrays.asList(CandidateStatus.values());
-            List<CandidateStatus> allowed = allStatuses.stream()
-                    .filter(status -> status != currentStatus)
-                    .filter(status -> {
-                        try {
-                            return workflowService.canTransition(id, status);
-                        } catch (Exception e) {
-                            return false;
-                        }
-                    })
-                    .collect(Collectors.toList());
+            CandidateActionsDTO actions = candidateActionsService.getActions(List.of(id)).get(id);
+            if (actions == null) {
+                throw new RuntimeException("Candidate not found with id: " + id);
+            }
+            List<CandidateStatus> allowed = actions.getAllowedTransitions();
 
             return ResponseEntity.ok(ApiResponse.success("Allowed transitions fetched", allowed));
         } catch (Exception e) {
@@ -211,6 +296,17 @@ public class CandidateController {
         }
     }
 
+    /**
+     * Allowed and guard-blocked transitions for a page of candidates (list view action buttons)
+     * ids: comma-separated candidate ids, at most 200
+     */
+    @GetMapping("/actions")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF')")
+    public ResponseEntity<?> getCandidateActions(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(ApiResponse.success("Candidate actions fetched",
+                candidateActionsService.getActions(ids).values()));
+    }
+
     /**
      * Staff endpoint: Review documents and auto-transition
      */
@@ -1,17 +1,12 @@
 package com.roms.controller;
 
 import com.roms.dto.ApiResponse;
-import com.roms.entity.Assignment;
-import com.roms.entity.Candidate;
+import com.roms.dto.DashboardStatsDTO;
+import com.roms.dto.EmployerDashboardStatsDTO;
 import com.roms.entity.Employer;
-import com.roms.entity.JobOrder;
-import com.roms.enums.AssignmentStatus;
-import com.roms.enums.CandidateStatus;
-import com.roms.enums.JobOrderStatus;
-import com.roms.repository.AssignmentRepository;
-import com.roms.repository.CandidateRepository;
 import com.roms.repository.EmployerRepository;
-import com.roms.repository.JobOrderRepository;
+import com.roms.service.DashboardCounterService;
+import com.roms.service.EmployerStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -20,130 +15,60 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
 
-    @Autowired
-    private CandidateRepository candidateRepository;
-
     @Autowired
     private EmployerRepository employerRepository;
 
     @Autowired
-    private JobOrderRepository jobOrderRepository;
+    private EmployerStatsService employerStatsService;
 
     @Autowired
-    private AssignmentRepository assignmentRepository;
+    private DashboardCounterService dashboardCounterService;
 
     @GetMapping("/stats")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF', 'FINANCE_MANAGER')")
     public ResponseEntity<?> getDashboardStats() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // Total candidates
-        long totalCandidates = candidateRepository.findAllActive().size();
-        stats.put("totalCandidates", totalCandidates);
-        
-        // Total employers
-        long totalEmployers = employerRepository.findAllActive().size();
-        stats.put("totalEmployers", totalEmployers);
-        
-        // Total job orders
-        long totalJobOrders = jobOrderRepository.findAllActive().size();
-        stats.put("totalJobOrders", totalJobOrders);
-        
-        // Open positions (sum of headcount required for open job orders)
-        int openPositions = jobOrderRepository.findByStatus(JobOrderStatus.OPEN)
-                .stream()
-                .mapToInt(job -> job.getHeadcountRequired())
-                .sum();
-        stats.put("openPositions", openPositions);
+        // Totals, job orders and open positions (sum of headcount required for open job orders)
+        DashboardStatsDTO stats = dashboardCounterService.getDashboardStats();
         
         return ResponseEntity.ok(ApiResponse.success("Dashboard stats retrieved successfully", stats));
     }
 
+    /**
+     * All in-memory dashboard counters (per status, per employer, per job order)
+     */
+    @GetMapping("/counters")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF', 'FINANCE_MANAGER')")
+    public ResponseEntity<?> getDashboardCounters() {
+        return ResponseEntity.ok(ApiResponse.success("Dashboard counters retrieved successfully",
+                dashboardCounterService.getCounters()));
+    }
+
     @GetMapping("/employer/stats")
     @PreAuthorize("hasRole('EMPLOYER')")
     public ResponseEntity<?> getEmployerDashboardStats(@RequestParam String email) {
         try {
-            Map<String, Object> stats = new HashMap<>();
-            
-            // Debug: Log the email being searched
-            System.out.println("Searching for employer with email: " + email);
-            
             // Find employer by contact email
             Employer employer = employerRepository.findByContactEmail(email)
                     .orElse(null);
             
-            System.out.println("Employer found: " + (employer != null ? employer.getCompanyName() : "NULL"));
-            
             if (employer == null) {
-                System.out.println("No employer found with email: " + email);
                 // If no employer found, return empty stats
-                stats.put("totalJobsPosted", 0);
-                stats.put("totalHeadcountRequired", 0);
-                stats.put("pendingPositionsHeadcount", 0);
-                stats.put("totalApplicationsReceived", 0);
-                stats.put("totalPlaced", 0);
-                stats.put("filledPositions", 0);
-                return ResponseEntity.ok(ApiResponse.success("No employer profile found. Please contact admin to link your account.", stats));
+                return ResponseEntity.ok(ApiResponse.success("No employer profile found. Please contact admin to link your account.",
+                        EmployerDashboardStatsDTO.empty()));
             }
             
-            // Get all job orders for this employer
-            List<JobOrder> allJobs = jobOrderRepository.findByEmployerId(employer.getId());
-            System.out.println("Jobs found for employer: " + allJobs.size());
-            
-            // Total jobs posted by this employer
-            stats.put("totalJobsPosted", allJobs.size());
-            
-            // Total headcount required (sum of headcount for all jobs)
-            int totalHeadcount = allJobs.stream()
-                    .mapToInt(JobOrder::getHeadcountRequired)
-                    .sum();
-            stats.put("totalHeadcountRequired", totalHeadcount);
-            
-            // Pending positions headcount (sum of unfilled positions for OPEN jobs)
-            int pendingPositions = allJobs.stream()
-                    .filter(job -> job.getStatus() == JobOrderStatus.OPEN)
-                    .mapToInt(job -> job.getHeadcountRequired() - job.getHeadcountFilled())
-                    .sum();
-            stats.put("pendingPositionsHeadcount", pendingPositions);
-            
-            // Total applications received (count of assignments across all job orders)
-            int totalApplications = (int) assignmentRepository.findAll().size();
-            stats.put("totalApplicationsReceived", totalApplications);
-            
-            // Total placed candidates (count of PLACED assignments)
-            int totalPlaced = (int) assignmentRepository.findAll().stream()
-                    .filter(a -> a.getStatus() == AssignmentStatus.PLACED)
-                    .count();
-            stats.put("totalPlaced", totalPlaced);
-            
-            // Filled positions (total headcount filled)
-            int filledPositions = allJobs.stream()
-                    .mapToInt(JobOrder::getHeadcountFilled)
-                    .sum();
-            stats.put("filledPositions", filledPositions);
-            
-            System.out.println("Stats calculated: " + stats);
+            // Job order totals plus applications per job order and per status, scoped to this employer
+            EmployerDashboardStatsDTO stats = employerStatsService.getEmployerStats(employer.getId());
             
             return ResponseEntity.ok(ApiResponse.success("Employer dashboard stats retrieved successfully", stats));
         } catch (Exception e) {
             e.printStackTrace();
             // Return error with empty stats
-            Map<String, Object> emptyStats = new HashMap<>();
-            emptyStats.put("totalJobsPosted", 0);
-            emptyStats.put("totalHeadcountRequired", 0);
-            emptyStats.put("pendingPositionsHeadcount", 0);
-            emptyStats.put("totalApplicationsReceived", 0);
-            emptyStats.put("totalPlaced", 0);
-            emptyStats.put("filledPositions", 0);
-            return ResponseEntity.ok(ApiResponse.success("Error loading stats: " + e.getMessage(), emptyStats));
+            return ResponseEntity.ok(ApiResponse.success("Error loading stats: " + e.getMessage(), EmployerDashboardStatsDTO.empty()));
         }
     }
 }
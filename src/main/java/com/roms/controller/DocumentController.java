@@ -5,23 +5,24 @@ import com.roms.entity.Candidate;
 import com.roms.entity.CandidateDocument;
 import com.roms.entity.User;
 import com.roms.enums.DocumentType;
+import com.roms.event.DocumentChangedEvent;
+import com.roms.exception.BusinessValidationException;
+import com.roms.exception.ResourceNotFoundException;
 import com.roms.repository.CandidateDocumentRepository;
 import com.roms.repository.CandidateRepository;
 import com.roms.repository.UserRepository;
-import com.roms.service.GoogleDriveService;
+import com.roms.service.DocumentCompletenessService;
+import com.roms.service.DocumentStorageService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -40,13 +41,13 @@ public class DocumentController {
     private UserRepository userRepository;
 
     @Autowired
-    private GoogleDriveService driveService;
+    private DocumentStorageService documentStorageService;
 
-    @Autowired(required = false)
-    private com.roms.service.LocalFileStorageService localFileStorageService;
+    @Autowired
+    private DocumentCompletenessService documentCompletenessService;
 
-    @Autowired(required = false)
-    private com.roms.service.CloudinaryService cloudinaryService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @PostMapping("/candidates/{candidateId}/documents")
     public ResponseEntity<?> uploadDocument(
@@ -85,40 +86,31 @@ public class DocumentController {
             }
             // If authentication is null or anonymous, allow upload (for registration process)
 
-            // Upload to Cloudinary, local storage, or Google Drive
-            String driveFileId;
-
-            if (cloudinaryService != null) {
-                // Use Cloudinary for production (cloud mode)
-                driveFileId = cloudinaryService.uploadFile(file, candidateId);
-            } else if (localFileStorageService != null) {
-                // Use local file storage for development
-                driveFileId = localFileStorageService.storeFile(file);
-            } else {
-                // Use Google Drive as fallback
-                driveFileId = driveService.uploadFile(file, candidateId);
-            }
-
             // Create document metadata
             CandidateDocument document = new CandidateDocument();
             document.setCandidate(candidate);
             document.setDocType(docType);  // Use docType field
             document.setDocumentNumber(documentNumber);
-            document.setDriveFileId(driveFileId);
             document.setFileName(file.getOriginalFilename());
-            document.setFileSize(file.getSize());
-            document.setContentType(file.getContentType());  // Use contentType field
             // description field is optional
+
+            // Validate and store in the configured backend (sets contentType and fileSize from the
+            // content itself, driveFileId and storageBackend)
+            documentStorageService.store(document, file);
             
             if (expiryDate != null && !expiryDate.isEmpty()) {
                 document.setExpiryDate(LocalDate.parse(expiryDate));
             }
 
-            CandidateDocument savedDocument = documentRepository.save(document);
+            CandidateDocument savedDocument = documentCompletenessService.addDocument(document);
+            eventPublisher.publishEvent(new DocumentChangedEvent(
+                    savedDocument.getId(), candidate.getId(), savedDocument.getDocType(), false));
 
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("Document uploaded successfully", savedDocument));
 
+        } catch (BusinessValidationException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Failed to upload document: " + e.getMessage()));
@@ -157,7 +149,8 @@ public class DocumentController {
 
     @GetMapping("/documents/{documentId}/download")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF', 'APPLICANT')")
-    public ResponseEntity<?> downloadDocument(@PathVariable Long documentId, Authentication authentication) {
+    public ResponseEntity<?> downloadDocument(@PathVariable Long documentId, Authentication authentication,
+                                              HttpServletRequest request) {
         
         try {
             // Get document metadata
@@ -183,44 +176,12 @@ public class DocumentController {
                 }
             }
 
-            // Download from Cloudinary, local storage, or Google Drive
-            if (cloudinaryService != null) {
-                // For Cloudinary, redirect to the direct URL
-                String fileUrl = cloudinaryService.getFileUrl(document.getDriveFileId());
-                HttpHeaders headers = new HttpHeaders();
-                headers.setLocation(java.net.URI.create(fileUrl));
-                return ResponseEntity.status(HttpStatus.FOUND).headers(headers).build();
-            } else if (localFileStorageService != null) {
-                // For local storage, serve the file directly
-                java.nio.file.Path filePath = localFileStorageService.loadFile(document.getDriveFileId());
-                Resource resource = new org.springframework.core.io.FileSystemResource(filePath.toFile());
-
-                HttpHeaders headers = new HttpHeaders();
-                headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + document.getFileName() + "\"");
-                headers.setContentType(MediaType.parseMediaType(document.getContentType()));
-
-                return ResponseEntity.ok()
-                        .headers(headers)
-                        .body(resource);
-            } else {
-                // Download from Google Drive (backend streams file - no direct Drive URLs exposed)
-                InputStream inputStream = driveService.downloadFile(document.getDriveFileId());
-                byte[] fileData = inputStream.readAllBytes();
-
-                // Prepare resource
-                Resource resource = new ByteArrayResource(fileData);
-
-                // Set headers for file download
-                HttpHeaders headers = new HttpHeaders();
-                headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + document.getFileName() + "\"");
-                headers.setContentType(MediaType.parseMediaType(document.getContentType()));
-
-                return ResponseEntity.ok()
-                        .headers(headers)
-                        .contentLength(fileData.length)
-                        .body(resource);
-            }
+            // Stream, or redirect to, the backend the document is stored in
+            return documentStorageService.download(document, request);
 
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Failed to download document: " + e.getMessage()));
@@ -236,17 +197,13 @@ public class DocumentController {
             CandidateDocument document = documentRepository.findById(documentId)
                     .orElseThrow(() -> new RuntimeException("Document not found"));
 
-            // Delete from storage (Cloudinary, local, or Google Drive)
-            if (cloudinaryService != null) {
-                cloudinaryService.deleteFile(document.getDriveFileId());
-            } else if (localFileStorageService != null) {
-                localFileStorageService.deleteFile(document.getDriveFileId());
-            } else {
-                driveService.deleteFile(document.getDriveFileId());
-            }
+            // Delete from the backend the document is stored in
+            documentStorageService.delete(document);
 
             // Delete from database
-            documentRepository.delete(document);
+            documentCompletenessService.removeDocument(document);
+            eventPublisher.publishEvent(new DocumentChangedEvent(
+                    document.getId(), document.getCandidate().getId(), document.getDocType(), true));
 
             return ResponseEntity.ok(ApiResponse.success("Document deleted successfully", null));
 
@@ -5,10 +5,13 @@ import com.roms.dto.EmployerRegistrationRequest;
 import com.roms.entity.Employer;
 import com.roms.entity.User;
 import com.roms.enums.UserRole;
+import com.roms.event.EmployerChangedEvent;
+import com.roms.event.UserAccountChangedEvent;
 import com.roms.repository.EmployerRepository;
 import com.roms.repository.UserRepository;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -31,6 +34,9 @@ public class EmployerController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Public endpoint for employer registration
      * Creates both user account and employer record
@@ -63,6 +69,7 @@ public class EmployerController {
                     .build();
 
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserAccountChangedEvent(user.getId(), null, user.getUsername()));
 
             // Create employer record (use same email as user account for matching)
             Employer employer = Employer.builder()
@@ -76,6 +83,8 @@ public class EmployerController {
                     .build();
 
             Employer savedEmployer = employerRepository.save(employer);
+            // Other nodes may hold a cached "no employer with this contact email" lookup
+            eventPublisher.publishEvent(new EmployerChangedEvent(savedEmployer.getId(), false, true));
 
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("Employer registered successfully! You can now login.", savedEmployer));
@@ -125,6 +134,8 @@ public class EmployerController {
         employer.setIndustry(employerDetails.getIndustry());
 
         Employer updatedEmployer = employerRepository.save(employer);
+        boolean active = !updatedEmployer.isDeleted();
+        eventPublisher.publishEvent(new EmployerChangedEvent(id, active, active));
         return ResponseEntity.ok(ApiResponse.success("Employer updated successfully", updatedEmployer));
     }
 
@@ -137,8 +148,10 @@ public class EmployerController {
         Employer employer = employerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Employer not found with id: " + id));
 
+        boolean previouslyActive = !employer.isDeleted();
         employer.softDelete();
         employerRepository.save(employer);
+        eventPublisher.publishEvent(new EmployerChangedEvent(id, previouslyActive, false));
 
         return ResponseEntity.ok(ApiResponse.success("Employer deleted successfully"));
     }
@@ -0,0 +1,59 @@
+package com.roms.controller;
+
+import com.roms.dto.ApiResponse;
+import com.roms.security.AuthenticatedUser;
+import com.roms.security.JwtTokenProvider;
+import com.roms.service.EventStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+/**
+ * Server-Sent Events stream of workflow, document, payment and dashboard counter changes.
+ * Replaces polling of the workflow, dashboard and document endpoints; on a "resync" event
+ * (or after reconnecting) clients refetch those endpoints once.
+ *
+ * EventSource cannot set headers, so a browser first fetches a short-lived stream token with its
+ * Bearer token and opens /stream?token=..., fetching a new one each time it reconnects.
+ */
+@RestController
+@RequestMapping("/api/events")
+public class EventStreamController {
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @PostMapping("/stream-token")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF', 'FINANCE_MANAGER', 'APPLICANT')")
+    public ResponseEntity<?> getStreamToken(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(ApiResponse.success("Stream token issued", Map.of(
+                "token", tokenProvider.generateStreamToken(user),
+                "expiresInMs", tokenProvider.getStreamTokenExpiration())));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF', 'FINANCE_MANAGER', 'APPLICANT')")
+    public SseEmitter stream(@AuthenticationPrincipal AuthenticatedUser user) {
+        return eventStreamService.subscribe(user);
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<?> getStats() {
+        return ResponseEntity.ok(ApiResponse.success("Event stream stats retrieved successfully", Map.of(
+                "subscribers", eventStreamService.getSubscriberCount(),
+                "overflows", eventStreamService.getOverflowCount())));
+    }
+}
@@ -6,10 +6,12 @@ import com.roms.entity.Employer;
 import com.roms.entity.JobOrder;
 import com.roms.entity.User;
 import com.roms.enums.JobOrderStatus;
+import com.roms.event.JobOrderChangedEvent;
 import com.roms.repository.EmployerRepository;
 import com.roms.repository.JobOrderRepository;
 import com.roms.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -33,6 +35,9 @@ public class JobOrderController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Get all job orders (accessible to all authenticated users)
      */
@@ -103,6 +108,8 @@ public class JobOrderController {
         jobOrder.setHeadcountFilled(0);
 
         JobOrder savedJobOrder = jobOrderRepository.save(jobOrder);
+        eventPublisher.publishEvent(new JobOrderChangedEvent(savedJobOrder.getId(), savedJobOrder.getEmployer().getId(),
+                null, null, savedJobOrder.getStatus(), savedJobOrder.getHeadcountRequired()));
 
         String message = isAdmin
             ? "Job order created successfully and is now open"
@@ -124,8 +131,11 @@ public class JobOrderController {
         String status = request.get("status");
         try {
             JobOrderStatus newStatus = JobOrderStatus.valueOf(status);
+            JobOrderStatus previousStatus = jobOrder.getStatus();
             jobOrder.setStatus(newStatus);
             JobOrder updatedJobOrder = jobOrderRepository.save(jobOrder);
+            eventPublisher.publishEvent(new JobOrderChangedEvent(updatedJobOrder.getId(), updatedJobOrder.getEmployer().getId(),
+                    previousStatus, updatedJobOrder.getHeadcountRequired(), newStatus, updatedJobOrder.getHeadcountRequired()));
             return ResponseEntity.ok(ApiResponse.success("Job order status updated successfully", updatedJobOrder));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
@@ -142,6 +152,8 @@ public class JobOrderController {
         JobOrder jobOrder = jobOrderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Job order not found with id: " + id));
 
+        Integer previousHeadcount = jobOrder.getHeadcountRequired();
+
         // Update fields
         jobOrder.setJobTitle(jobOrderDetails.getJobTitle());
         jobOrder.setDescription(jobOrderDetails.getDescription());
@@ -155,6 +167,8 @@ public class JobOrderController {
         jobOrder.setRequiredSkills(jobOrderDetails.getRequiredSkills());
 
         JobOrder updatedJobOrder = jobOrderRepository.save(jobOrder);
+        eventPublisher.publishEvent(new JobOrderChangedEvent(updatedJobOrder.getId(), updatedJobOrder.getEmployer().getId(),
+                updatedJobOrder.getStatus(), previousHeadcount, updatedJobOrder.getStatus(), updatedJobOrder.getHeadcountRequired()));
         return ResponseEntity.ok(ApiResponse.success("Job order updated successfully", updatedJobOrder));
     }
 
@@ -169,6 +183,8 @@ public class JobOrderController {
 
         jobOrder.softDelete();
         jobOrderRepository.save(jobOrder);
+        eventPublisher.publishEvent(new JobOrderChangedEvent(jobOrder.getId(), jobOrder.getEmployer().getId(),
+                jobOrder.getStatus(), jobOrder.getHeadcountRequired(), null, null));
 
         return ResponseEntity.ok(ApiResponse.success("Job order deleted successfully"));
     }
@@ -0,0 +1,211 @@
+package com.roms.controller;
+
+import com.roms.dto.ApiResponse;
+import com.roms.entity.Candidate;
+import com.roms.entity.DocumentUploadSession;
+import com.roms.entity.User;
+import com.roms.enums.DocumentType;
+import com.roms.exception.BusinessValidationException;
+import com.roms.exception.ResourceNotFoundException;
+import com.roms.repository.CandidateDocumentRepository;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.UserRepository;
+import com.roms.service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resumable document uploads in the style of tus 1.0 (core, creation, termination, expiration)
+ *
+ * - POST /api/candidates/{id}/uploads with Upload-Length creates an upload; its URL is in Location.
+ *   docType, fileName, documentNumber and expiryDate come as parameters or in Upload-Metadata.
+ * - HEAD on the upload URL reports Upload-Offset: how much to skip when resuming.
+ * - PATCH with Upload-Offset and an application/offset+octet-stream body sends the next chunk.
+ *   The chunk that completes the upload is answered with 201 and the new document.
+ * - DELETE abandons the upload.
+ *
+ * The random upload id in the URL is the client's handle on the upload, so chunk requests need no
+ * login, like the single-shot upload they replace.
+ */
+@RestController
+@RequestMapping("/api")
+public class ResumableUploadController {
+
+    private static final String TUS_RESUMABLE = "Tus-Resumable";
+    private static final String TUS_VERSION = "1.0.0";
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+    private static final String UPLOAD_EXPIRES = "Upload-Expires";
+    private static final String OFFSET_OCTET_STREAM = "application/offset+octet-stream";
+
+    @Autowired
+    private ResumableUploadService resumableUploadService;
+
+    @Autowired
+    private CandidateRepository candidateRepository;
+
+    @Autowired
+    private CandidateDocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @PostMapping("/candidates/{candidateId}/uploads")
+    public ResponseEntity<?> createUpload(
+            @PathVariable Long candidateId,
+            @RequestHeader(UPLOAD_LENGTH) long uploadLength,
+            @RequestHeader(value = "Upload-Metadata", required = false) String uploadMetadata,
+            @RequestParam(required = false) DocumentType docType,
+            @RequestParam(required = false) String fileName,
+            @RequestParam(required = false) String documentNumber,
+            @RequestParam(required = false) String expiryDate,
+            Authentication authentication) {
+
+        try {
+            Candidate candidate = candidateRepository.findById(candidateId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Candidate not found with id: " + candidateId));
+
+            // Same rule as the single-shot upload: an applicant only uploads to their own application
+            String username = null;
+            if (authentication != null && authentication.isAuthenticated() &&
+                !"anonymousUser".equals(authentication.getPrincipal())) {
+                username = authentication.getName();
+                if (authentication.getAuthorities().stream()
+                        .anyMatch(auth -> auth.getAuthority().equals("ROLE_APPLICANT"))) {
+                    Optional<User> userOpt = userRepository.findByUsername(username);
+                    if (userOpt.isEmpty() || candidate.getEmail() == null
+                            || !candidate.getEmail().equals(userOpt.get().getEmail())) {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                                .body(ApiResponse.error("You can only upload documents to your own application"));
+                    }
+                }
+            }
+
+            Map<String, String> metadata = parseMetadata(uploadMetadata);
+            if (docType == null && metadata.containsKey("docType")) {
+                docType = DocumentType.valueOf(metadata.get("docType"));
+            }
+            String name = fileName != null ? fileName : metadata.get("filename");
+            String number = documentNumber != null ? documentNumber : metadata.get("documentNumber");
+            String expiry = expiryDate != null ? expiryDate : metadata.get("expiryDate");
+
+            DocumentUploadSession session = resumableUploadService.create(candidateId, docType, name, uploadLength,
+                    number, expiry != null && !expiry.isEmpty() ? LocalDate.parse(expiry) : null, username);
+
+            return ResponseEntity.created(URI.create("/api/uploads/" + session.getUploadId()))
+                    .headers(uploadHeaders(session))
+                    .body(ApiResponse.success("Upload created", session));
+
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+        } catch (BusinessValidationException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to create upload: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Where the upload stands; a client resumes by sending from Upload-Offset
+     */
+    @RequestMapping(value = "/uploads/{uploadId}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> getUploadOffset(@PathVariable String uploadId) {
+        try {
+            DocumentUploadSession session = resumableUploadService.get(uploadId);
+            return ResponseEntity.ok().headers(uploadHeaders(session)).build();
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).header(TUS_RESUMABLE, TUS_VERSION).build();
+        }
+    }
+
+    @PatchMapping(value = "/uploads/{uploadId}", consumes = OFFSET_OCTET_STREAM)
+    public ResponseEntity<?> appendChunk(@PathVariable String uploadId,
+                                         @RequestHeader(UPLOAD_OFFSET) long uploadOffset,
+                                         HttpServletRequest request) {
+        try {
+            DocumentUploadSession session = resumableUploadService.appendChunk(uploadId, uploadOffset,
+                    request.getInputStream());
+            if (session.getDocumentId() == null) {
+                return ResponseEntity.noContent().headers(uploadHeaders(session)).build();
+            }
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .headers(uploadHeaders(session))
+                    .body(ApiResponse.success("Document uploaded successfully",
+                            documentRepository.findById(session.getDocumentId()).orElse(null)));
+
+        } catch (ResumableUploadService.UploadConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(TUS_RESUMABLE, TUS_VERSION)
+                    .header(UPLOAD_OFFSET, String.valueOf(e.getCurrentOffset()))
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+        } catch (BusinessValidationException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to upload chunk: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> terminateUpload(@PathVariable String uploadId) {
+        try {
+            resumableUploadService.terminate(uploadId);
+            return ResponseEntity.noContent().header(TUS_RESUMABLE, TUS_VERSION).build();
+        } catch (ResumableUploadService.UploadConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to delete upload: " + e.getMessage()));
+        }
+    }
+
+    private static HttpHeaders uploadHeaders(DocumentUploadSession session) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(TUS_RESUMABLE, TUS_VERSION);
+        headers.set(UPLOAD_OFFSET, String.valueOf(session.getUploadOffset()));
+        headers.set(UPLOAD_LENGTH, String.valueOf(session.getUploadLength()));
+        headers.set(UPLOAD_EXPIRES, DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                session.getExpiresAt().atZone(ZoneId.systemDefault())));
+        headers.setCacheControl("no-store");
+        return headers;
+    }
+
+    /**
+     * tus Upload-Metadata: comma-separated "key base64value" pairs
+     */
+    private static Map<String, String> parseMetadata(String header) {
+        Map<String, String> metadata = new HashMap<>();
+        if (header == null || header.isBlank()) {
+            return metadata;
+        }
+        for (String pair : header.split(",")) {
+            String[] parts = pair.trim().split(" ", 2);
+            String value = parts.length > 1
+                    ? new String(Base64.getDecoder().decode(parts[1].trim()), StandardCharsets.UTF_8)
+                    : "";
+            metadata.put(parts[0], value);
+        }
+        return metadata;
+    }
+}
@@ -4,9 +4,12 @@ import com.roms.dto.ApiResponse;
 import com.roms.dto.RegisterRequest;
 import com.roms.entity.User;
 import com.roms.enums.UserRole;
+import com.roms.event.UserAccountChangedEvent;
 import com.roms.repository.UserRepository;
+import com.roms.security.TokenRevocationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -30,6 +33,12 @@ public class UserController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Get all users
      */
@@ -70,6 +79,7 @@ public class UserController {
         user.setIsEmailVerified(true); // Admin-created users are auto-verified
 
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(savedUser.getId(), null, savedUser.getUsername()));
 
         return ResponseEntity
                 .status(HttpStatus.CREATED)
@@ -114,6 +124,12 @@ public class UserController {
                     .body(ApiResponse.error("Email is already in use!"));
         }
 
+        // Tokens carry username and role as claims - changing either, or the password, invalidates them
+        String previousUsername = user.getUsername();
+        boolean identityChanged = !user.getUsername().equals(updateRequest.getUsername())
+                || user.getRole() != updateRequest.getRole()
+                || (updateRequest.getPassword() != null && !updateRequest.getPassword().isEmpty());
+
         // Update user fields
         user.setUsername(updateRequest.getUsername());
         user.setEmail(updateRequest.getEmail());
@@ -126,6 +142,10 @@ public class UserController {
         }
 
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(updatedUser.getId(), previousUsername, updatedUser.getUsername()));
+        if (identityChanged) {
+            revocationService.revokeUserTokens(updatedUser.getId());
+        }
         
         return ResponseEntity.ok(ApiResponse.success("User updated successfully", updatedUser));
     }
@@ -148,6 +168,8 @@ public class UserController {
         // Soft delete by deactivating
         user.setIsActive(false);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(user.getId(), user.getUsername(), user.getUsername()));
+        revocationService.revokeUserTokens(user.getId());
         
         return ResponseEntity.ok(ApiResponse.success(null, "User deactivated successfully"));
     }
@@ -162,8 +184,41 @@ public class UserController {
 
         user.setIsActive(!user.getIsActive());
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(updatedUser.getId(), updatedUser.getUsername(), updatedUser.getUsername()));
+        if (!updatedUser.getIsActive()) {
+            revocationService.revokeUserTokens(updatedUser.getId());
+        }
         
         String message = updatedUser.getIsActive() ? "User activated" : "User deactivated";
         return ResponseEntity.ok(ApiResponse.success(message, updatedUser));
     }
+
+    /**
+     * Lock/Unlock user
+     */
+    @PatchMapping("/{id}/toggle-lock")
+    public ResponseEntity<?> toggleUserLock(@PathVariable Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+
+        // Prevent locking super admin
+        if (user.getRole() == UserRole.SUPER_ADMIN && !user.getIsLocked()) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(ApiResponse.error("Cannot lock super admin user!"));
+        }
+
+        user.setIsLocked(!user.getIsLocked());
+        if (!user.getIsLocked()) {
+            user.setFailedLoginAttempts(0);
+        }
+        User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(updatedUser.getId(), updatedUser.getUsername(), updatedUser.getUsername()));
+        if (updatedUser.getIsLocked()) {
+            revocationService.revokeUserTokens(updatedUser.getId());
+        }
+
+        String message = updatedUser.getIsLocked() ? "User locked" : "User unlocked";
+        return ResponseEntity.ok(ApiResponse.success(message, updatedUser));
+    }
 }
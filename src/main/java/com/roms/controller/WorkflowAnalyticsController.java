@@ -0,0 +1,34 @@
+package com.roms.controller;
+
+import com.roms.dto.ApiResponse;
+import com.roms.service.WorkflowAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Workflow analytics - funnel conversion, time in stage and backlog aging
+ */
+@RestController
+@RequestMapping("/api/analytics/workflow")
+@PreAuthorize("hasAnyRole('SUPER_ADMIN', 'OPERATIONS_STAFF', 'FINANCE_MANAGER')")
+public class WorkflowAnalyticsController {
+
+    @Autowired
+    private WorkflowAnalyticsService workflowAnalyticsService;
+
+    @GetMapping
+    public ResponseEntity<?> getWorkflowAnalytics() {
+        return ResponseEntity.ok(ApiResponse.success("Workflow analytics retrieved successfully",
+                workflowAnalyticsService.getAnalytics()));
+    }
+
+    @GetMapping("/backlog-aging")
+    public ResponseEntity<?> getBacklogAging() {
+        return ResponseEntity.ok(ApiResponse.success("Backlog aging retrieved successfully",
+                workflowAnalyticsService.getBacklogAging()));
+    }
+}
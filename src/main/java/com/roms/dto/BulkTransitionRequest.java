@@ -0,0 +1,23 @@
+package com.roms.dto;
+
+import com.roms.enums.CandidateStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransitionRequest {
+    @NotEmpty(message = "Candidate IDs are required")
+    private List<Long> candidateIds;
+
+    @NotNull(message = "Target status is required")
+    private CandidateStatus status;
+}
@@ -0,0 +1,35 @@
+package com.roms.dto;
+
+import com.roms.enums.CandidateStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk workflow transition - one item per distinct candidate id, in request order
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransitionResult {
+    private CandidateStatus targetStatus;
+    private int requested;
+    private int succeeded;
+    private int failed;
+    private long durationMs;
+    private List<Item> results;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private Long candidateId;
+        private boolean success;
+        private CandidateStatus previousStatus;
+        private String error;
+    }
+}
@@ -0,0 +1,22 @@
+package com.roms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hit/miss counts for one Hibernate second-level cache region since startup (or the last statistics reset)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheRegionStatsDTO {
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    private Double hitRatio;
+    private long elementsInMemory;
+}
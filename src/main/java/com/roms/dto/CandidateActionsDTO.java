@@ -0,0 +1,25 @@
+package com.roms.dto;
+
+import com.roms.enums.CandidateStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Workflow actions for one candidate: transitions that would succeed now, and those the
+ * transition table allows but a guard currently blocks (with the reason, for disabled buttons).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandidateActionsDTO {
+    private Long candidateId;
+    private CandidateStatus currentStatus;
+    private List<CandidateStatus> allowedTransitions;
+    private Map<CandidateStatus, String> blockedTransitions;
+}
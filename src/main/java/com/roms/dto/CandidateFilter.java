@@ -0,0 +1,64 @@
+package com.roms.dto;
+
+import com.roms.enums.CandidateStatus;
+import com.roms.enums.DocumentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for candidate listing and export, bound from query parameters.
+ * Date ranges are inclusive; null fields are ignored.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandidateFilter {
+    private CandidateStatus status;
+    private String expiryFlag;
+    private String country;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate passportExpiryFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate passportExpiryTo;
+
+    /**
+     * Only candidates with no document of this type on file
+     */
+    private DocumentType missingDocument;
+
+    /**
+     * Inclusive lower bound on createdAt
+     */
+    public LocalDateTime createdFromTime() {
+        return createdFrom != null ? createdFrom.atStartOfDay() : null;
+    }
+
+    /**
+     * Exclusive upper bound on createdAt (start of the day after createdTo)
+     */
+    public LocalDateTime createdBeforeTime() {
+        return createdTo != null ? createdTo.plusDays(1).atStartOfDay() : null;
+    }
+
+    /**
+     * Document mask bit that must be clear
+     */
+    public Long missingDocumentBit() {
+        return missingDocument != null ? missingDocument.bit() : null;
+    }
+}
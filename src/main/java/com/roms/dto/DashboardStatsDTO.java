@@ -0,0 +1,20 @@
+package com.roms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Admin dashboard figures, computed with aggregate queries
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardStatsDTO {
+    private Long totalCandidates;
+    private Long totalEmployers;
+    private Long totalJobOrders;
+    private Long openPositions;
+}
@@ -0,0 +1,59 @@
+package com.roms.dto;
+
+import com.roms.enums.AssignmentStatus;
+import com.roms.enums.JobOrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Employer dashboard figures, scoped to the employer's own job orders
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployerDashboardStatsDTO {
+    private long totalJobsPosted;
+    private long totalHeadcountRequired;
+    private long pendingPositionsHeadcount;
+    private long totalApplicationsReceived;
+    private long totalPlaced;
+    private long filledPositions;
+
+    @Builder.Default
+    private Map<AssignmentStatus, Long> applicationsByStatus = new EnumMap<>(AssignmentStatus.class);
+
+    @Builder.Default
+    private List<JobOrderStats> jobOrders = new ArrayList<>();
+
+    /**
+     * Stats for an employer with no job orders (or no employer profile)
+     */
+    public static EmployerDashboardStatsDTO empty() {
+        return EmployerDashboardStatsDTO.builder().build();
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class JobOrderStats {
+        private Long jobOrderId;
+        private String jobOrderRef;
+        private String jobTitle;
+        private JobOrderStatus status;
+        private Integer headcountRequired;
+        private Integer headcountFilled;
+        private long totalApplications;
+
+        @Builder.Default
+        private Map<AssignmentStatus, Long> applicationsByStatus = new EnumMap<>(AssignmentStatus.class);
+    }
+}
@@ -0,0 +1,27 @@
+package com.roms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of an expiry monitoring run - number of candidates moved into each flag
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiryCheckResult {
+    private LocalDate runDate;
+    private int expired;
+    private int expiringSoon;
+    private int cleared;
+    private long durationMs;
+
+    public int getTotalChanged() {
+        return expired + expiringSoon + cleared;
+    }
+}
@@ -0,0 +1,25 @@
+package com.roms.dto;
+
+import com.roms.entity.ScheduledJobRun;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A cluster-wide scheduled job: who holds its lease and how its latest run went
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledJobStatusDTO {
+    private String jobName;
+    private String leaseOwner;
+    private LocalDateTime leaseExpiresAt;
+    private LocalDateTime heartbeatAt;
+    private boolean runningOnThisNode;
+    private ScheduledJobRun lastRun;
+}
@@ -0,0 +1,67 @@
+package com.roms.dto;
+
+import com.roms.enums.CandidateStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Workflow analytics from the candidate status event log
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowAnalyticsDTO {
+    private List<FunnelStep> funnel;
+    private List<StageTiming> timeInStage;
+    private List<StageAging> backlogAging;
+    private long eventsProcessed;
+    private LocalDateTime computedAt;
+
+    /**
+     * Entries into a canonical stage and the share that went on to enter the next one
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class FunnelStep {
+        private CandidateStatus status;
+        private long entries;
+        private Double conversionToNext;
+    }
+
+    /**
+     * Time spent in a stage by candidates who have left it (hours; percentiles from a log-scale histogram, within ~5%)
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class StageTiming {
+        private CandidateStatus status;
+        private long exits;
+        private Double medianHours;
+        private Double p90Hours;
+        private Double meanHours;
+    }
+
+    /**
+     * Candidates currently in a stage, by time since entering it
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class StageAging {
+        private CandidateStatus status;
+        private long total;
+        private long under7Days;
+        private long days7To30;
+        private long days30To90;
+        private long over90Days;
+        private long unknownAge;
+    }
+}
@@ -10,6 +10,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Past;
 import lombok.*;
 import org.hibernate.envers.Audited;
+import org.hibernate.envers.NotAudited;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -20,7 +21,13 @@ import java.util.List;
        indexes = {
            @Index(name = "idx_internal_ref_no", columnList = "internal_ref_no"),
            @Index(name = "idx_passport_no", columnList = "passport_no"),
-           @Index(name = "idx_current_status", columnList = "current_status")
+           @Index(name = "idx_current_status", columnList = "current_status"),
+           @Index(name = "idx_candidate_status_id", columnList = "current_status, id"),
+           @Index(name = "idx_candidate_expiry_flag_id", columnList = "expiry_flag, id"),
+           @Index(name = "idx_candidate_country_id", columnList = "country, id"),
+           @Index(name = "idx_candidate_passport_expiry", columnList = "passport_expiry"),
+           @Index(name = "idx_candidate_medical_expiry", columnList = "medical_expiry"),
+           @Index(name = "idx_candidate_status_changed", columnList = "current_status, status_changed_at")
        })
 @Getter
 @Setter
@@ -89,6 +96,13 @@ public class Candidate extends BaseAuditEntity {
     @Builder.Default
     private CandidateStatus currentStatus = CandidateStatus.APPLICATION_SUBMITTED;
 
+    /**
+     * When currentStatus was last entered (written with each candidate_status_events row); null for older rows
+     */
+    @NotAudited
+    @Column(name = "status_changed_at")
+    private java.time.LocalDateTime statusChangedAt;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "medical_status")
     @Builder.Default
@@ -103,6 +117,14 @@ public class Candidate extends BaseAuditEntity {
     @Column(name = "expiry_flag", length = 20)
     private String expiryFlag; // EXPIRING_SOON, EXPIRED, VALID
 
+    /**
+     * DocumentType.bit() of every document type on file. Maintained by DocumentCompletenessService;
+     * null until backfilled for rows created before the column existed.
+     */
+    @NotAudited
+    @Column(name = "document_mask")
+    private Long documentMask;
+
     // Interview scheduling fields
     @Column(name = "interview_date")
     private LocalDate interviewDate;
@@ -153,6 +175,9 @@ public class Candidate extends BaseAuditEntity {
     @PrePersist
     protected void onCreate() {
         super.onCreate();
+        if (documentMask == null) {
+            documentMask = 0L;
+        }
         if (internalRefNo == null) {
             // Generate reference number - can be customized
             internalRefNo = "CND" + System.currentTimeMillis();
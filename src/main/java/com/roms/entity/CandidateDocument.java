@@ -14,7 +14,8 @@ import java.time.LocalDate;
 @Table(name = "candidate_documents",
        indexes = {
            @Index(name = "idx_doc_type", columnList = "doc_type"),
-           @Index(name = "idx_candidate_doc", columnList = "candidate_id, doc_type")
+           @Index(name = "idx_candidate_doc", columnList = "candidate_id, doc_type"),
+           @Index(name = "idx_doc_content_hash", columnList = "content_hash")
        })
 @Getter
 @Setter
@@ -45,6 +46,20 @@ public class CandidateDocument extends BaseAuditEntity {
     @Column(name = "drive_file_id", nullable = false, unique = true, length = 500)
     private String driveFileId;
 
+    /**
+     * DocumentStorage backend holding driveFileId ("local", "cloudinary", "drive");
+     * null for documents stored before backends were recorded, which live in the configured mode's backend
+     */
+    @Column(name = "storage_backend", length = 20)
+    private String storageBackend;
+
+    /**
+     * SHA-256 of content stored by the local content-addressed store; the local documents sharing it
+     * are the references to that one file. Null for files stored elsewhere or not yet migrated.
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "file_size")
     private Long fileSize;
 
@@ -0,0 +1,54 @@
+package com.roms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted snapshot of an in-memory dashboard counter.
+ * Used to warm the counters after a restart; not audited.
+ */
+@Entity
+@Table(name = "dashboard_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardCounter implements Persistable<String> {
+
+    @Id
+    @Column(name = "counter_key", length = 150)
+    private String counterKey;
+
+    @Column(name = "counter_value", nullable = false)
+    private Long counterValue;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * The snapshot loads existing rows before saving, so a built counter is a new key and save() can insert without a lookup
+     */
+    @Transient
+    @Builder.Default
+    private boolean newCounter = true;
+
+    @Override
+    public String getId() {
+        return counterKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newCounter;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newCounter = false;
+    }
+}
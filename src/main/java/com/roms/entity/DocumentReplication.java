@@ -0,0 +1,73 @@
+package com.roms.entity;
+
+import com.roms.enums.ReplicationStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox of write-behind uploads: a file accepted onto local disk that still has to reach the
+ * cloud backend. Written before the document row, so nothing is lost if the node dies between
+ * the two; a row whose document never appears is discarded. Not audited.
+ */
+@Entity
+@Table(name = "document_replication_outbox",
+       indexes = {
+           @Index(name = "idx_doc_replication_due", columnList = "status, next_attempt_at")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentReplication {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Id of the file in the local backend, as stored on the document until replication completes
+     */
+    @Column(name = "local_storage_id", nullable = false, unique = true, length = 500)
+    private String localStorageId;
+
+    @Column(name = "target_backend", nullable = false, length = 20)
+    private String targetBackend;
+
+    @Column(name = "candidate_id", nullable = false)
+    private Long candidateId;
+
+    @Column(name = "file_name", nullable = false, length = 255)
+    private String fileName;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReplicationStatus status;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    /**
+     * Earliest time of the next attempt; pushed forward while a node is working on the row
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "remote_storage_id", length = 500)
+    private String remoteStorageId;
+
+    @Column(name = "last_error", length = 2000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "replicated_at")
+    private LocalDateTime replicatedAt;
+}
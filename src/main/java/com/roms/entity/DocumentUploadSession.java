@@ -0,0 +1,85 @@
+package com.roms.entity;
+
+import com.roms.enums.DocumentType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A resumable document upload in progress: the bytes received so far sit in a partial file named
+ * after uploadId, and uploadOffset is how many of them are known to be on disk. Once uploadOffset
+ * reaches uploadLength the file is stored and the document created; the row is kept, with its
+ * documentId, until it expires so a client that missed the answer can ask again. Not audited.
+ */
+@Entity
+@Table(name = "document_upload_sessions",
+       indexes = {
+           @Index(name = "idx_upload_session_expires", columnList = "expires_at")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentUploadSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Random id used in the upload URL; knowing it is what allows sending chunks
+     */
+    @Column(name = "upload_id", nullable = false, unique = true, length = 36)
+    private String uploadId;
+
+    @Column(name = "candidate_id", nullable = false)
+    private Long candidateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "doc_type", nullable = false)
+    private DocumentType docType;
+
+    @Column(name = "file_name", nullable = false, length = 255)
+    private String fileName;
+
+    @Column(name = "document_number", length = 100)
+    private String documentNumber;
+
+    @Column(name = "expiry_date")
+    private LocalDate expiryDate;
+
+    /**
+     * Total size the client declared when creating the upload
+     */
+    @Column(name = "upload_length", nullable = false)
+    private Long uploadLength;
+
+    @Column(name = "upload_offset", nullable = false)
+    @Builder.Default
+    private Long uploadOffset = 0L;
+
+    /**
+     * Set once the upload has been stored and its document created
+     */
+    @Column(name = "document_id")
+    private Long documentId;
+
+    @Column(name = "created_by", length = 100)
+    private String createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Pushed forward by every chunk; after this the partial file is deleted
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public boolean isComplete() {
+        return uploadOffset.equals(uploadLength);
+    }
+}
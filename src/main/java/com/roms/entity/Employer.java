@@ -5,19 +5,26 @@ import com.roms.entity.base.BaseAuditEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.envers.Audited;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "employers")
+@Table(name = "employers",
+       indexes = {
+           @Index(name = "idx_employer_contact_email", columnList = "contact_email")
+       })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Audited
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employers")
 public class Employer extends BaseAuditEntity {
 
     @Id
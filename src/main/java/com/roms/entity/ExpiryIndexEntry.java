@@ -0,0 +1,52 @@
+package com.roms.entity;
+
+import com.roms.enums.ExpirySource;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * One tracked expiry date for a candidate (passport, medical, visa or police clearance).
+ *
+ * nextDueDate is the next day on which this date moves the candidate's expiry flag
+ * (start of the warning window, then the expiry itself) and is null once expired,
+ * so the due scheduler only ever reads rows that need work. Derived data; not audited.
+ */
+@Entity
+@Table(name = "expiry_index",
+       indexes = {
+           @Index(name = "idx_expiry_index_next_due", columnList = "next_due_date"),
+           @Index(name = "idx_expiry_index_candidate", columnList = "candidate_id"),
+           @Index(name = "idx_expiry_index_expiry", columnList = "expiry_date, candidate_id")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpiryIndexEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "candidate_id", nullable = false)
+    private Long candidateId;
+
+    /**
+     * Source document, null for the candidate's own passport/medical expiry fields
+     */
+    @Column(name = "document_id")
+    private Long documentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private ExpirySource source;
+
+    @Column(name = "expiry_date", nullable = false)
+    private LocalDate expiryDate;
+
+    @Column(name = "next_due_date")
+    private LocalDate nextDueDate;
+}
@@ -7,6 +7,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.envers.Audited;
 
 import java.math.BigDecimal;
@@ -18,7 +20,8 @@ import java.util.List;
 @Table(name = "job_orders",
        indexes = {
            @Index(name = "idx_job_order_ref", columnList = "job_order_ref"),
-           @Index(name = "idx_status", columnList = "status")
+           @Index(name = "idx_status", columnList = "status"),
+           @Index(name = "idx_job_order_employer", columnList = "employer_id")
        })
 @Getter
 @Setter
@@ -26,6 +29,8 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Audited
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "jobOrders")
 public class JobOrder extends BaseAuditEntity {
 
     @Id
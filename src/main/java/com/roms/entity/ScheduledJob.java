@@ -0,0 +1,42 @@
+package com.roms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease row for a cluster-wide scheduled job (see ScheduledJobRunner).
+ *
+ * The node that sets leaseOwner with a single conditional UPDATE runs the job; it pushes
+ * leaseExpiresAt forward on every heartbeat and checkpoint, and clears the lease when done.
+ * A lease that is not renewed expires, letting another node take over. Not audited.
+ */
+@Entity
+@Table(name = "scheduled_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledJob {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    /**
+     * Node id of the current holder, null when no node is running the job
+     */
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
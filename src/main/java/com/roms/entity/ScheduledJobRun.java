@@ -0,0 +1,78 @@
+package com.roms.entity;
+
+import com.roms.enums.JobRunStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * History of scheduled job executions, one row per run.
+ *
+ * checkpoint is the job's own progress marker (e.g. the last id processed), written with each
+ * chunk; a run left RUNNING by a crashed node is picked up from it by the next lease holder
+ * rather than started over. Not audited.
+ */
+@Entity
+@Table(name = "scheduled_job_runs",
+       indexes = {
+           @Index(name = "idx_job_run_job", columnList = "job_name, id"),
+           @Index(name = "idx_job_run_status", columnList = "status")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledJobRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    /**
+     * What the run covers (e.g. the business date); a resumed run keeps its original parameters
+     */
+    @Column(length = 255)
+    private String parameters;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobRunStatus status;
+
+    /**
+     * Node currently (or last) executing the run
+     */
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String checkpoint;
+
+    @Column(name = "chunks_completed", nullable = false)
+    @Builder.Default
+    private Integer chunksCompleted = 0;
+
+    @Column(name = "items_processed", nullable = false)
+    @Builder.Default
+    private Long itemsProcessed = 0L;
+
+    @Column(name = "resume_count", nullable = false)
+    @Builder.Default
+    private Integer resumeCount = 0;
+
+    @Column(name = "error_message", length = 2000)
+    private String errorMessage;
+}
@@ -0,0 +1,68 @@
+package com.roms.enums;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * File formats accepted for candidate documents, recognised by their leading bytes rather than
+ * the client's Content-Type. The names (and aliases) are what roms.document.allowed-types lists.
+ */
+public enum DocumentFormat {
+    PDF("application/pdf", List.of("PDF"), "%PDF-".getBytes(StandardCharsets.US_ASCII)),
+    JPEG("image/jpeg", List.of("JPEG", "JPG"), new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+    PNG("image/png", List.of("PNG"), new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+
+    /**
+     * PDF readers accept the header anywhere in the first 1024 bytes, after junk some scanners write
+     */
+    private static final int PDF_HEADER_WINDOW = 1024;
+
+    private final String mediaType;
+    private final List<String> names;
+    private final byte[] magic;
+
+    DocumentFormat(String mediaType, List<String> names, byte[] magic) {
+        this.mediaType = mediaType;
+        this.names = names;
+        this.magic = magic;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * The format named in configuration, or null if none is (case-insensitive)
+     */
+    public static DocumentFormat fromName(String name) {
+        return Arrays.stream(values())
+                .filter(format -> format.names.stream().anyMatch(alias -> alias.equalsIgnoreCase(name.trim())))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * The format whose signature starts the given header bytes, or null if none does
+     */
+    public static DocumentFormat detect(byte[] header, int length) {
+        for (DocumentFormat format : values()) {
+            int window = format == PDF ? Math.min(length, PDF_HEADER_WINDOW) : Math.min(length, format.magic.length);
+            for (int offset = 0; offset + format.magic.length <= window; offset++) {
+                if (matchesAt(header, offset, format.magic)) {
+                    return format;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean matchesAt(byte[] header, int offset, byte[] magic) {
+        for (int i = 0; i < magic.length; i++) {
+            if (header[offset + i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
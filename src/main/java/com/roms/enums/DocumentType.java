@@ -1,5 +1,7 @@
 package com.roms.enums;
 
+import java.util.Collection;
+
 public enum DocumentType {
     PASSPORT,
     NATIONAL_ID,
@@ -12,5 +14,21 @@ public enum DocumentType {
     OFFER_LETTER,
     CONTRACT,
     VISA,
-    OTHER
+    OTHER;
+
+    /**
+     * Bit for this type in Candidate.documentMask. Bits follow declaration order,
+     * so new types must be added at the end.
+     */
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    public static long maskOf(Collection<DocumentType> types) {
+        long mask = 0L;
+        for (DocumentType type : types) {
+            mask |= type.bit();
+        }
+        return mask;
+    }
 }
@@ -0,0 +1,27 @@
+package com.roms.enums;
+
+/**
+ * Dates tracked by the expiry index - candidate passport/medical fields and expiring document types
+ */
+public enum ExpirySource {
+    PASSPORT,
+    MEDICAL,
+    VISA,
+    POLICE_CLEARANCE;
+
+    /**
+     * Source tracked for an uploaded document type, or null if that type is not tracked
+     */
+    public static ExpirySource fromDocumentType(DocumentType docType) {
+        if (docType == null) {
+            return null;
+        }
+        return switch (docType) {
+            case PASSPORT -> PASSPORT;
+            case MEDICAL_REPORT -> MEDICAL;
+            case VISA -> VISA;
+            case POLICE_CLEARANCE -> POLICE_CLEARANCE;
+            default -> null;
+        };
+    }
+}
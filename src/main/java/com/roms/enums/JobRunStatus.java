@@ -0,0 +1,26 @@
+package com.roms.enums;
+
+/**
+ * Status of one execution of a cluster-wide scheduled job
+ */
+public enum JobRunStatus {
+    /**
+     * Executing, or interrupted (node crashed or lost its lease) and waiting to resume from its checkpoint
+     */
+    RUNNING,
+
+    /**
+     * Finished successfully
+     */
+    COMPLETED,
+
+    /**
+     * The job threw; the next trigger starts a fresh run
+     */
+    FAILED,
+
+    /**
+     * Interrupted and then superseded by a run with different parameters
+     */
+    ABANDONED
+}
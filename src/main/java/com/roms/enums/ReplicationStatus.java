@@ -0,0 +1,26 @@
+package com.roms.enums;
+
+/**
+ * State of a write-behind upload waiting to be copied from local disk to the cloud backend
+ */
+public enum ReplicationStatus {
+    /**
+     * Waiting for its first attempt or a retry
+     */
+    PENDING,
+
+    /**
+     * Copied; the document now points at the remote object and the local copy is gone
+     */
+    DONE,
+
+    /**
+     * Gave up after max-attempts; retried only when an admin asks
+     */
+    FAILED,
+
+    /**
+     * The document was never saved or has been deleted, so there was nothing to replicate
+     */
+    DISCARDED
+}
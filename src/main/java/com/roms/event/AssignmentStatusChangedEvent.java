@@ -0,0 +1,18 @@
+package com.roms.event;
+
+import com.roms.enums.AssignmentStatus;
+import lombok.Value;
+
+/**
+ * Published when an assignment is created or changes status.
+ * previousStatus is null for a new assignment.
+ */
+@Value
+public class AssignmentStatusChangedEvent {
+    Long assignmentId;
+    Long candidateId;
+    Long jobOrderId;
+    Long employerId;
+    AssignmentStatus previousStatus;
+    AssignmentStatus newStatus;
+}
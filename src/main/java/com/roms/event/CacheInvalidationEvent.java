@@ -0,0 +1,46 @@
+package com.roms.event;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published on this node when another node reports changed entities, so in-process caches
+ * can drop what is now stale. Keys are "namespace:id" (see the constants).
+ * fullFlush means changes may have been missed (e.g. after reconnecting) and everything cached must go;
+ * keys then only holds USER_TOKENS revocations, which are never folded into a flush.
+ */
+@Value
+public class CacheInvalidationEvent {
+
+    public static final String USER = "user";
+    public static final String USERNAME = "username";
+    public static final String USER_TOKENS = "userTokens";
+    public static final String CANDIDATE = "candidate";
+    public static final String JOB_ORDER = "jobOrder";
+    public static final String EMPLOYER = "employer";
+    public static final String DASHBOARD_COUNTERS = "dashboardCounters";
+
+    Set<String> keys;
+    boolean fullFlush;
+
+    public static String key(String namespace, Object id) {
+        return id != null ? namespace + ":" + id : namespace;
+    }
+
+    /**
+     * Ids of the keys in a namespace, e.g. idsFor(CANDIDATE) for "candidate:42" gives "42"
+     */
+    public List<String> idsFor(String namespace) {
+        String prefix = namespace + ":";
+        return keys.stream()
+                .filter(key -> key.startsWith(prefix))
+                .map(key -> key.substring(prefix.length()))
+                .toList();
+    }
+
+    public boolean contains(String key) {
+        return keys.contains(key);
+    }
+}
@@ -0,0 +1,15 @@
+package com.roms.event;
+
+import com.roms.enums.CandidateStatus;
+import lombok.Value;
+
+/**
+ * Published when a candidate's workflow status changes.
+ * previousStatus is null for a new candidate; newStatus is null when the candidate is deleted.
+ */
+@Value
+public class CandidateStatusChangedEvent {
+    Long candidateId;
+    CandidateStatus previousStatus;
+    CandidateStatus newStatus;
+}
@@ -0,0 +1,13 @@
+package com.roms.event;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Published when in-memory dashboard counters change, with the delta per counter key
+ */
+@Value
+public class DashboardCountersChangedEvent {
+    Map<String, Long> deltas;
+}
@@ -0,0 +1,15 @@
+package com.roms.event;
+
+import com.roms.enums.DocumentType;
+import lombok.Value;
+
+/**
+ * Published when a candidate document is uploaded or deleted
+ */
+@Value
+public class DocumentChangedEvent {
+    Long documentId;
+    Long candidateId;
+    DocumentType docType;
+    boolean deleted;
+}
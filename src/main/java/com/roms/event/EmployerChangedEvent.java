@@ -0,0 +1,14 @@
+package com.roms.event;
+
+import lombok.Value;
+
+/**
+ * Published when an employer is registered, updated or soft-deleted.
+ * previouslyActive is false for a new employer; active is false once it is deleted.
+ */
+@Value
+public class EmployerChangedEvent {
+    Long employerId;
+    boolean previouslyActive;
+    boolean active;
+}
@@ -0,0 +1,18 @@
+package com.roms.event;
+
+import com.roms.enums.JobOrderStatus;
+import lombok.Value;
+
+/**
+ * Published when a job order is created, deleted, or its status or headcount changes.
+ * previous* fields are null for a new job order; new* fields are null when it is deleted.
+ */
+@Value
+public class JobOrderChangedEvent {
+    Long jobOrderId;
+    Long employerId;
+    JobOrderStatus previousStatus;
+    Integer previousHeadcountRequired;
+    JobOrderStatus newStatus;
+    Integer newHeadcountRequired;
+}
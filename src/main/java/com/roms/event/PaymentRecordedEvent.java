@@ -0,0 +1,20 @@
+package com.roms.event;
+
+import com.roms.enums.TransactionType;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Published when a commission payment or reversal is posted to the ledger
+ */
+@Value
+public class PaymentRecordedEvent {
+    Long paymentId;
+    Long candidateId;
+    UUID agreementId;
+    TransactionType transactionType;
+    BigDecimal amount;
+    boolean reversal;
+}
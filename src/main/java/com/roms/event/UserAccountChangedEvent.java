@@ -0,0 +1,14 @@
+package com.roms.event;
+
+import lombok.Value;
+
+/**
+ * Published when a user account is created, updated, activated/deactivated, locked/unlocked or deleted.
+ * previousUsername differs from username only when the username was changed.
+ */
+@Value
+public class UserAccountChangedEvent {
+    Long userId;
+    String previousUsername;
+    String username;
+}
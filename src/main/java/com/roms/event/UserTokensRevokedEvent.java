@@ -0,0 +1,12 @@
+package com.roms.event;
+
+import lombok.Value;
+
+/**
+ * Published when every token issued to a user up to revokedAt (epoch millis) is revoked
+ */
+@Value
+public class UserTokensRevokedEvent {
+    Long userId;
+    long revokedAt;
+}
@@ -2,11 +2,13 @@ package com.roms.repository;
 
 import com.roms.entity.AgencyCommissionAgreement;
 import com.roms.enums.AgreementStatus;
+import com.roms.repository.projection.AgreementPaymentTotal;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,6 +22,17 @@ public interface AgencyCommissionAgreementRepository extends JpaRepository<Agenc
     @Query("SELECT a FROM AgencyCommissionAgreement a WHERE a.assignment.id = :assignmentId AND a.status = 'ACTIVE'")
     Optional<AgencyCommissionAgreement> findActiveByAssignmentId(@Param("assignmentId") Long assignmentId);
 
+    /**
+     * Active agreements for a batch of assignments with the net amount paid against each (workflow guards)
+     */
+    @Query("SELECT a.assignment.id AS assignmentId, a.requiredDownpaymentAmount AS requiredDownpaymentAmount, " +
+           "a.totalCommissionAmount AS totalCommissionAmount, " +
+           "COALESCE(SUM(CASE WHEN p.type = 'DEBIT' THEN p.amount ELSE -p.amount END), 0) AS totalPaid " +
+           "FROM AgencyCommissionAgreement a LEFT JOIN Payment p ON p.agreement = a AND p.isReversal = false " +
+           "WHERE a.assignment.id IN :assignmentIds AND a.status = 'ACTIVE' " +
+           "GROUP BY a.id, a.assignment.id, a.requiredDownpaymentAmount, a.totalCommissionAmount")
+    List<AgreementPaymentTotal> findActivePaymentTotalsByAssignmentIdIn(@Param("assignmentIds") Collection<Long> assignmentIds);
+
     /**
      * Find all agreements for a candidate
      */
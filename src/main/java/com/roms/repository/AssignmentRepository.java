@@ -2,11 +2,14 @@ package com.roms.repository;
 
 import com.roms.entity.Assignment;
 import com.roms.enums.AssignmentStatus;
+import com.roms.repository.projection.ActiveAssignmentRef;
+import com.roms.repository.projection.AssignmentStatusCount;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -58,4 +61,18 @@ public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
      */
     @Query("SELECT a FROM Assignment a WHERE a.status = :status AND a.isActive = true")
     List<Assignment> findActiveByStatus(@Param("status") AssignmentStatus status);
+
+    /**
+     * Assignment counts per employer, job order and status (dashboard counter reconciliation)
+     */
+    @Query("SELECT j.employer.id AS employerId, j.id AS jobOrderId, a.status AS status, COUNT(a) AS total " +
+           "FROM Assignment a JOIN a.jobOrder j GROUP BY j.employer.id, j.id, a.status")
+    List<AssignmentStatusCount> countByEmployerJobOrderAndStatus();
+
+    /**
+     * Active assignments for a batch of candidates, most recent first per candidate
+     */
+    @Query("SELECT a.candidate.id AS candidateId, a.id AS assignmentId FROM Assignment a " +
+           "WHERE a.candidate.id IN :candidateIds AND a.isActive = true ORDER BY a.assignedAt DESC")
+    List<ActiveAssignmentRef> findActiveRefsByCandidateIdIn(@Param("candidateIds") Collection<Long> candidateIds);
 }
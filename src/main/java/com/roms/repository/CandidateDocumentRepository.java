@@ -2,11 +2,15 @@ package com.roms.repository;
 
 import com.roms.entity.CandidateDocument;
 import com.roms.enums.DocumentType;
+import com.roms.repository.projection.CandidateDocumentType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,8 +24,83 @@ public interface CandidateDocumentRepository extends JpaRepository<CandidateDocu
     Optional<CandidateDocument> findByCandidateIdAndDocType(@Param("candidateId") Long candidateId, 
                                                              @Param("docType") DocumentType docType);
     
+    /**
+     * Most recent document of a type, tolerating candidates that hold several
+     */
+    Optional<CandidateDocument> findFirstByCandidateIdAndDocTypeAndDeletedAtIsNullOrderByIdDesc(Long candidateId,
+                                                                                              DocumentType docType);
+
     Optional<CandidateDocument> findByDriveFileId(String driveFileId);
+
+    boolean existsByDriveFileIdAndStorageBackend(String driveFileId, String storageBackend);
+
+    /**
+     * Repoint a document at its replicated copy - 0 if it was deleted or already moved
+     */
+    @Modifying
+    @Query("UPDATE CandidateDocument d SET d.driveFileId = :toId, d.storageBackend = :toBackend " +
+           "WHERE d.driveFileId = :fromId AND d.storageBackend = :fromBackend")
+    int moveStorage(@Param("fromId") String fromId, @Param("fromBackend") String fromBackend,
+                    @Param("toId") String toId, @Param("toBackend") String toBackend);
+
+    /**
+     * Other local documents sharing a content-addressed file (reference count on delete)
+     */
+    @Query("SELECT COUNT(d) FROM CandidateDocument d WHERE d.contentHash = :hash " +
+           "AND d.storageBackend = 'local' AND d.driveFileId <> :excludedId")
+    long countLocalReferences(@Param("hash") String hash, @Param("excludedId") String excludedId);
+
+    /**
+     * Which of a batch of content hashes are still referenced by a local document (store cleanup)
+     */
+    @Query("SELECT DISTINCT d.contentHash FROM CandidateDocument d WHERE d.contentHash IN :hashes " +
+           "AND d.storageBackend = 'local'")
+    List<String> findReferencedLocalHashes(@Param("hashes") Collection<String> hashes);
+
+    /**
+     * Local documents still in the flat upload directory, after an id (store migration).
+     * Documents with no recorded backend are included when local is the configured mode.
+     */
+    @Query("SELECT d FROM CandidateDocument d WHERE d.id > :afterId AND d.driveFileId NOT LIKE 'sha256:%' " +
+           "AND (d.storageBackend = 'local' OR (:includeUnrecorded = true AND d.storageBackend IS NULL)) " +
+           "ORDER BY d.id")
+    List<CandidateDocument> findFlatLocalAfter(@Param("afterId") Long afterId,
+                                               @Param("includeUnrecorded") boolean includeUnrecorded,
+                                               Pageable pageable);
+
+    /**
+     * Repoint a migrated document at its content-addressed file - 0 if it changed meanwhile
+     */
+    @Modifying
+    @Query("UPDATE CandidateDocument d SET d.driveFileId = :toId, d.contentHash = :hash, d.storageBackend = 'local' " +
+           "WHERE d.id = :id AND d.driveFileId = :fromId")
+    int relocate(@Param("id") Long id, @Param("fromId") String fromId,
+                 @Param("toId") String toId, @Param("hash") String hash);
+
+    /**
+     * Whether the candidate holds another document of this type besides the excluded one (document mask on delete)
+     */
+    @Query("SELECT COUNT(d) > 0 FROM CandidateDocument d WHERE d.candidate.id = :candidateId AND d.docType = :docType " +
+           "AND d.id <> :excludedId AND d.deletedAt IS NULL")
+    boolean existsOtherOfType(@Param("candidateId") Long candidateId,
+                              @Param("docType") DocumentType docType,
+                              @Param("excludedId") Long excludedId);
+
+    /**
+     * Distinct document types held by each of a batch of candidates (document mask rebuild)
+     */
+    @Query("SELECT DISTINCT d.candidate.id AS candidateId, d.docType AS docType FROM CandidateDocument d " +
+           "WHERE d.candidate.id IN :candidateIds AND d.deletedAt IS NULL")
+    List<CandidateDocumentType> findDocumentTypesByCandidateIdIn(@Param("candidateIds") Collection<Long> candidateIds);
     
+    /**
+     * Documents of the given types that carry an expiry date, for a batch of candidates (expiry index)
+     */
+    @Query("SELECT d FROM CandidateDocument d WHERE d.candidate.id IN :candidateIds AND d.docType IN :docTypes " +
+           "AND d.expiryDate IS NOT NULL AND d.deletedAt IS NULL")
+    List<CandidateDocument> findWithExpiryByCandidateIdIn(@Param("candidateIds") Collection<Long> candidateIds,
+                                                          @Param("docTypes") Collection<DocumentType> docTypes);
+
     @Query("SELECT d FROM CandidateDocument d WHERE d.isVerified = :verified AND d.deletedAt IS NULL")
     List<CandidateDocument> findByVerificationStatus(@Param("verified") Boolean verified);
 }
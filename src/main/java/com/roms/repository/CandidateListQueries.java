@@ -0,0 +1,25 @@
+package com.roms.repository;
+
+import com.roms.dto.CandidateFilter;
+import com.roms.repository.projection.CandidateListItem;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * List-view queries for active candidates, newest first. Only the filters that are set
+ * become predicates, so each combination gets its own plan instead of one catch-all statement.
+ */
+public interface CandidateListQueries {
+
+    /**
+     * Keyset page: at most limit rows strictly below the cursor id (null for the first page)
+     */
+    List<CandidateListItem> findListPage(CandidateFilter filter, Long cursor, int limit);
+
+    /**
+     * Every matching row, streamed from a server-side cursor with a fixed fetch size.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    Stream<CandidateListItem> streamList(CandidateFilter filter);
+}
@@ -0,0 +1,90 @@
+package com.roms.repository;
+
+import com.roms.dto.CandidateFilter;
+import com.roms.entity.Candidate;
+import com.roms.repository.projection.CandidateListItem;
+import com.roms.repository.projection.CandidateListRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class CandidateListQueriesImpl implements CandidateListQueries {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<CandidateListItem> findListPage(CandidateFilter filter, Long cursor, int limit) {
+        return new ArrayList<>(listQuery(filter, cursor).setMaxResults(limit).getResultList());
+    }
+
+    @Override
+    public Stream<CandidateListItem> streamList(CandidateFilter filter) {
+        return listQuery(filter, null)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(CandidateListItem.class::cast);
+    }
+
+    private TypedQuery<CandidateListRow> listQuery(CandidateFilter filter, Long cursor) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CandidateListRow> query = cb.createQuery(CandidateListRow.class);
+        Root<Candidate> c = query.from(Candidate.class);
+
+        query.select(cb.construct(CandidateListRow.class,
+                        c.get("id"), c.get("internalRefNo"), c.get("firstName"), c.get("lastName"),
+                        c.get("email"), c.get("phoneNumber"), c.get("country"), c.get("expectedPosition"),
+                        c.get("currentStatus"), c.get("expiryFlag"), c.get("passportExpiry"),
+                        c.get("medicalExpiry"), c.get("createdAt")))
+                .where(predicates(cb, c, filter != null ? filter : new CandidateFilter(), cursor))
+                .orderBy(cb.desc(c.get("id")));
+        return entityManager.createQuery(query);
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder cb, Root<Candidate> c, CandidateFilter filter, Long cursor) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isNull(c.get("deletedAt")));
+        if (cursor != null) {
+            predicates.add(cb.lessThan(c.get("id"), cursor));
+        }
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(c.get("currentStatus"), filter.getStatus()));
+        }
+        if (filter.getExpiryFlag() != null) {
+            predicates.add(cb.equal(c.get("expiryFlag"), filter.getExpiryFlag()));
+        }
+        if (filter.getCountry() != null) {
+            predicates.add(cb.equal(c.get("country"), filter.getCountry()));
+        }
+        if (filter.createdFromTime() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(c.get("createdAt"), filter.createdFromTime()));
+        }
+        if (filter.createdBeforeTime() != null) {
+            predicates.add(cb.lessThan(c.get("createdAt"), filter.createdBeforeTime()));
+        }
+        if (filter.getPassportExpiryFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(c.get("passportExpiry"), filter.getPassportExpiryFrom()));
+        }
+        if (filter.getPassportExpiryTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(c.get("passportExpiry"), filter.getPassportExpiryTo()));
+        }
+        if (filter.missingDocumentBit() != null) {
+            // The document's bit in the mask is clear
+            predicates.add(cb.equal(cb.function("mod", Long.class,
+                    cb.quot(c.<Long>get("documentMask"), filter.missingDocumentBit()), cb.literal(2L)), 0L));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
@@ -2,16 +2,25 @@ package com.roms.repository;
 
 import com.roms.entity.Candidate;
 import com.roms.enums.CandidateStatus;
+import com.roms.enums.DocumentType;
+import com.roms.repository.projection.StageBacklogRow;
+import com.roms.repository.projection.StatusCount;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CandidateRepository extends JpaRepository<Candidate, Long> {
+public interface CandidateRepository extends JpaRepository<Candidate, Long>, CandidateListQueries {
 
     Optional<Candidate> findByInternalRefNo(String internalRefNo);
 
@@ -28,4 +37,100 @@ public interface CandidateRepository extends JpaRepository<Candidate, Long> {
     List<Candidate> findAllByEmailAndDeletedAtIsNull(String email);
 
     boolean existsByPassportNoAndDeletedAtIsNull(String passportNo);
+
+    /**
+     * Active candidates grouped by workflow status (dashboard counter reconciliation)
+     */
+    @Query("SELECT c.currentStatus AS status, COUNT(c) AS total FROM Candidate c " +
+           "WHERE c.deletedAt IS NULL GROUP BY c.currentStatus")
+    List<StatusCount<CandidateStatus>> countActiveByStatus();
+
+    /**
+     * Active candidates per status, bucketed by time since entering that status (backlog aging)
+     */
+    @Query("SELECT c.currentStatus AS status, COUNT(c) AS total, " +
+           "SUM(CASE WHEN c.statusChangedAt >= :days7 THEN 1 ELSE 0 END) AS under7Days, " +
+           "SUM(CASE WHEN c.statusChangedAt < :days7 AND c.statusChangedAt >= :days30 THEN 1 ELSE 0 END) AS days7To30, " +
+           "SUM(CASE WHEN c.statusChangedAt < :days30 AND c.statusChangedAt >= :days90 THEN 1 ELSE 0 END) AS days30To90, " +
+           "SUM(CASE WHEN c.statusChangedAt < :days90 THEN 1 ELSE 0 END) AS over90Days, " +
+           "SUM(CASE WHEN c.statusChangedAt IS NULL THEN 1 ELSE 0 END) AS unknownAge " +
+           "FROM Candidate c WHERE c.deletedAt IS NULL GROUP BY c.currentStatus")
+    List<StageBacklogRow> countBacklogAging(@Param("days7") LocalDateTime days7,
+                                            @Param("days30") LocalDateTime days30,
+                                            @Param("days90") LocalDateTime days90);
+
+    /**
+     * Next chunk of active candidates with a passport, medical or tracked document expiry in the past
+     * that are not yet flagged EXPIRED. Reads the dates themselves, not the expiry index (reconciliation).
+     * The OR across the three sources cannot use the expiry indexes, so the passes of the
+     * reconciliation walk the candidates in primary key order: a full scan, spread over chunks.
+     */
+    @Query("SELECT c FROM Candidate c WHERE c.deletedAt IS NULL AND c.id > :afterId " +
+           "AND (c.passportExpiry < :today OR c.medicalExpiry < :today " +
+           "OR EXISTS (SELECT d.id FROM CandidateDocument d WHERE d.candidate = c AND d.docType IN :docTypes " +
+           "AND d.expiryDate < :today AND d.deletedAt IS NULL)) " +
+           "AND (c.expiryFlag IS NULL OR c.expiryFlag <> 'EXPIRED') " +
+           "ORDER BY c.id")
+    List<Candidate> findNewlyExpired(@Param("afterId") Long afterId,
+                                     @Param("today") LocalDate today,
+                                     @Param("docTypes") Collection<DocumentType> docTypes,
+                                     Pageable pageable);
+
+    /**
+     * Next chunk of active candidates with nothing expired but a passport, medical or tracked document
+     * expiry inside the warning window, not yet flagged EXPIRING_SOON
+     */
+    @Query("SELECT c FROM Candidate c WHERE c.deletedAt IS NULL AND c.id > :afterId " +
+           "AND (c.passportExpiry < :threshold OR c.medicalExpiry < :threshold " +
+           "OR EXISTS (SELECT d.id FROM CandidateDocument d WHERE d.candidate = c AND d.docType IN :docTypes " +
+           "AND d.expiryDate < :threshold AND d.deletedAt IS NULL)) " +
+           "AND (c.passportExpiry IS NULL OR c.passportExpiry >= :today) " +
+           "AND (c.medicalExpiry IS NULL OR c.medicalExpiry >= :today) " +
+           "AND NOT EXISTS (SELECT d.id FROM CandidateDocument d WHERE d.candidate = c AND d.docType IN :docTypes " +
+           "AND d.expiryDate < :today AND d.deletedAt IS NULL) " +
+           "AND (c.expiryFlag IS NULL OR c.expiryFlag <> 'EXPIRING_SOON') " +
+           "ORDER BY c.id")
+    List<Candidate> findNewlyExpiringSoon(@Param("afterId") Long afterId,
+                                          @Param("today") LocalDate today,
+                                          @Param("threshold") LocalDate threshold,
+                                          @Param("docTypes") Collection<DocumentType> docTypes,
+                                          Pageable pageable);
+
+    /**
+     * Next chunk of flagged candidates whose passport, medical and tracked document expiries have all
+     * since been renewed past the warning window
+     */
+    @Query("SELECT c FROM Candidate c WHERE c.deletedAt IS NULL AND c.id > :afterId " +
+           "AND c.expiryFlag IN ('EXPIRED', 'EXPIRING_SOON') " +
+           "AND (c.passportExpiry IS NULL OR c.passportExpiry >= :threshold) " +
+           "AND (c.medicalExpiry IS NULL OR c.medicalExpiry >= :threshold) " +
+           "AND NOT EXISTS (SELECT d.id FROM CandidateDocument d WHERE d.candidate = c AND d.docType IN :docTypes " +
+           "AND d.expiryDate < :threshold AND d.deletedAt IS NULL) " +
+           "ORDER BY c.id")
+    List<Candidate> findNoLongerExpiring(@Param("afterId") Long afterId,
+                                         @Param("threshold") LocalDate threshold,
+                                         @Param("docTypes") Collection<DocumentType> docTypes,
+                                         Pageable pageable);
+
+    /**
+     * Next chunk of active candidate ids after the given id (expiry index rebuild)
+     */
+    @Query("SELECT c.id FROM Candidate c WHERE c.deletedAt IS NULL AND c.id > :afterId ORDER BY c.id")
+    List<Long> findActiveIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Candidates locked for update, so concurrent document uploads serialise their document mask changes
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Candidate c WHERE c.id IN :ids ORDER BY c.id")
+    List<Candidate> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Next chunk of candidate ids whose document mask has not been computed yet
+     */
+    @Query("SELECT c.id FROM Candidate c WHERE c.documentMask IS NULL ORDER BY c.id")
+    List<Long> findIdsWithoutDocumentMask(Pageable pageable);
+
+    @Query("SELECT c FROM Candidate c WHERE c.deletedAt IS NULL AND c.expiryFlag IN :flags")
+    List<Candidate> findActiveByExpiryFlagIn(@Param("flags") List<String> flags);
 }
@@ -0,0 +1,47 @@
+package com.roms.repository;
+
+import com.roms.entity.CandidateStatusEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CandidateStatusEventRepository extends JpaRepository<CandidateStatusEvent, Long> {
+
+    /**
+     * Next chunk of events after the given id that are old enough to have committed (analytics fold)
+     */
+    @Query("SELECT e FROM CandidateStatusEvent e WHERE e.id > :afterId AND e.occurredAt <= :settledBefore ORDER BY e.id")
+    List<CandidateStatusEvent> findSettledAfter(@Param("afterId") Long afterId,
+                                                @Param("settledBefore") LocalDateTime settledBefore,
+                                                Pageable pageable);
+
+    /**
+     * Events with the given ids that are old enough to have committed (ids the fold skipped over)
+     */
+    @Query("SELECT e FROM CandidateStatusEvent e WHERE e.id IN :ids AND e.occurredAt <= :settledBefore")
+    List<CandidateStatusEvent> findSettledByIdIn(@Param("ids") Collection<Long> ids,
+                                                 @Param("settledBefore") LocalDateTime settledBefore);
+
+    /**
+     * Events at or below the given id that occurred in (from, to] - ids from a node's sequence block
+     * used after higher ids from other nodes were folded
+     */
+    @Query("SELECT e FROM CandidateStatusEvent e WHERE e.id <= :maxId AND e.occurredAt > :from " +
+           "AND e.occurredAt <= :to ORDER BY e.id")
+    List<CandidateStatusEvent> findOccurredBetweenAtOrBelow(@Param("maxId") Long maxId,
+                                                            @Param("from") LocalDateTime from,
+                                                            @Param("to") LocalDateTime to);
+
+    /**
+     * A candidate's stage history, oldest first
+     */
+    @Query("SELECT e FROM CandidateStatusEvent e WHERE e.candidateId = :candidateId ORDER BY e.occurredAt, e.id")
+    List<CandidateStatusEvent> findByCandidateId(@Param("candidateId") Long candidateId);
+}
@@ -0,0 +1,47 @@
+package com.roms.repository;
+
+import com.roms.entity.DocumentReplication;
+import com.roms.enums.ReplicationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentReplicationRepository extends JpaRepository<DocumentReplication, Long> {
+
+    Optional<DocumentReplication> findByLocalStorageId(String localStorageId);
+
+    long countByStatus(ReplicationStatus status);
+
+    /**
+     * Pending rows due for an attempt, oldest first; rows created after settledBefore are left
+     * alone so the upload that wrote them can commit its document first
+     */
+    @Query("SELECT r.id FROM DocumentReplication r WHERE r.status = com.roms.enums.ReplicationStatus.PENDING " +
+           "AND r.nextAttemptAt <= :now AND r.createdAt <= :settledBefore ORDER BY r.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, @Param("settledBefore") LocalDateTime settledBefore,
+                          Pageable pageable);
+
+    /**
+     * Take a due row for this node until claimedUntil - 1 if claimed, 0 if another node got it first
+     */
+    @Modifying
+    @Query("UPDATE DocumentReplication r SET r.nextAttemptAt = :claimedUntil " +
+           "WHERE r.id = :id AND r.status = com.roms.enums.ReplicationStatus.PENDING AND r.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    /**
+     * Give rows that exhausted their attempts another round
+     */
+    @Modifying
+    @Query("UPDATE DocumentReplication r SET r.status = com.roms.enums.ReplicationStatus.PENDING, r.attempts = 0, " +
+           "r.nextAttemptAt = :now WHERE r.status = com.roms.enums.ReplicationStatus.FAILED")
+    int retryFailed(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,48 @@
+package com.roms.repository;
+
+import com.roms.entity.DocumentUploadSession;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentUploadSessionRepository extends JpaRepository<DocumentUploadSession, Long> {
+
+    Optional<DocumentUploadSession> findByUploadId(String uploadId);
+
+    /**
+     * Record bytes written at the expected offset - 0 if another request moved it first
+     */
+    @Modifying
+    @Query("UPDATE DocumentUploadSession s SET s.uploadOffset = :newOffset, s.expiresAt = :expiresAt " +
+           "WHERE s.uploadId = :uploadId AND s.uploadOffset = :expectedOffset AND s.documentId IS NULL")
+    int advanceOffset(@Param("uploadId") String uploadId, @Param("expectedOffset") long expectedOffset,
+                      @Param("newOffset") long newOffset, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Upload ids past their expiry, oldest first (partial upload cleanup)
+     */
+    @Query("SELECT s.uploadId FROM DocumentUploadSession s WHERE s.expiresAt < :now ORDER BY s.expiresAt")
+    List<String> findExpiredUploadIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Delete an upload if it is still expired - 0 if a chunk arrived meanwhile or another node got it
+     */
+    @Modifying
+    @Query("DELETE FROM DocumentUploadSession s WHERE s.uploadId = :uploadId AND s.expiresAt < :now")
+    int deleteIfExpired(@Param("uploadId") String uploadId, @Param("now") LocalDateTime now);
+
+    /**
+     * Which of a batch of upload ids still have a row (orphaned partial file cleanup)
+     */
+    @Query("SELECT s.uploadId FROM DocumentUploadSession s WHERE s.uploadId IN :uploadIds")
+    List<String> findExistingUploadIds(@Param("uploadIds") Collection<String> uploadIds);
+}
@@ -1,8 +1,11 @@
 package com.roms.repository;
 
 import com.roms.entity.Employer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,8 +18,21 @@ public interface EmployerRepository extends JpaRepository<Employer, Long> {
     
     Optional<Employer> findByCompanyName(String companyName);
     
+    /**
+     * Employer for a contact email - looked up on every employer dashboard call, so served from the query cache
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "employerQueries")
+    })
     Optional<Employer> findByContactEmail(String contactEmail);
     
     @Query("SELECT e FROM Employer e WHERE e.deletedAt IS NULL")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "employerQueries")
+    })
     List<Employer> findAllActive();
+    
+    long countByDeletedAtIsNull();
 }
@@ -0,0 +1,35 @@
+package com.roms.repository;
+
+import com.roms.entity.ExpiryIndexEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ExpiryIndexRepository extends JpaRepository<ExpiryIndexEntry, Long> {
+
+    List<ExpiryIndexEntry> findByCandidateIdIn(Collection<Long> candidateIds);
+
+    @Modifying
+    @Query("DELETE FROM ExpiryIndexEntry e WHERE e.candidateId IN :candidateIds")
+    int deleteByCandidateIdIn(@Param("candidateIds") Collection<Long> candidateIds);
+
+    /**
+     * Candidates with at least one entry due on or before the given day - reads only due rows via idx_expiry_index_next_due
+     */
+    @Query("SELECT DISTINCT e.candidateId FROM ExpiryIndexEntry e WHERE e.nextDueDate <= :today ORDER BY e.candidateId")
+    List<Long> findDueCandidateIds(@Param("today") LocalDate today, Pageable pageable);
+
+    /**
+     * Earliest upcoming due date (for logging when the scheduler next has work)
+     */
+    @Query("SELECT MIN(e.nextDueDate) FROM ExpiryIndexEntry e WHERE e.nextDueDate > :today")
+    LocalDate findNextDueDateAfter(@Param("today") LocalDate today);
+}
@@ -1,9 +1,15 @@
 package com.roms.repository;
 
+import com.roms.dto.DashboardStatsDTO;
 import com.roms.entity.JobOrder;
 import com.roms.enums.JobOrderStatus;
+import com.roms.repository.projection.JobOrderAssignmentCount;
+import com.roms.repository.projection.StatusCount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +19,13 @@ import java.util.Optional;
 @Repository
 public interface JobOrderRepository extends JpaRepository<JobOrder, Long> {
     
+    /**
+     * Job order by its reference (natural key)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "jobOrderQueries")
+    })
     Optional<JobOrder> findByJobOrderRef(String jobOrderRef);
     
     List<JobOrder> findByStatus(JobOrderStatus status);
@@ -21,8 +34,58 @@ public interface JobOrderRepository extends JpaRepository<JobOrder, Long> {
     List<JobOrder> findByEmployerId(@Param("employerId") Long employerId);
     
     @Query("SELECT j FROM JobOrder j WHERE j.status = :status AND j.deletedAt IS NULL")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "jobOrderQueries")
+    })
     List<JobOrder> findActiveByStatus(@Param("status") JobOrderStatus status);
     
+    /**
+     * Active job orders (public job listings). Cached; any write to job_orders invalidates it.
+     */
     @Query("SELECT j FROM JobOrder j WHERE j.deletedAt IS NULL")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "jobOrderQueries")
+    })
     List<JobOrder> findAllActive();
+
+    /**
+     * Admin dashboard totals in a single round trip.
+     * Candidate and employer counts are scalar subqueries; job order figures aggregate over job_orders.
+     */
+    @Query("SELECT new com.roms.dto.DashboardStatsDTO(" +
+           "(SELECT COUNT(c) FROM Candidate c WHERE c.deletedAt IS NULL), " +
+           "(SELECT COUNT(e) FROM Employer e WHERE e.deletedAt IS NULL), " +
+           "COUNT(CASE WHEN j.deletedAt IS NULL THEN 1 END), " +
+           "COALESCE(SUM(CASE WHEN j.status = com.roms.enums.JobOrderStatus.OPEN THEN j.headcountRequired ELSE 0 END), 0L)) " +
+           "FROM JobOrder j")
+    DashboardStatsDTO aggregateDashboardStats();
+
+    /**
+     * Assignment counts for an employer's job orders, grouped by job order and assignment status.
+     * Drives off idx_job_order_employer and idx_assignment_job_order - no scan of other employers' rows.
+     */
+    @Query("SELECT j.id AS jobOrderId, j.jobOrderRef AS jobOrderRef, j.jobTitle AS jobTitle, " +
+           "j.status AS jobOrderStatus, j.headcountRequired AS headcountRequired, j.headcountFilled AS headcountFilled, " +
+           "a.status AS assignmentStatus, COUNT(a) AS assignmentCount " +
+           "FROM JobOrder j LEFT JOIN j.assignments a " +
+           "WHERE j.employer.id = :employerId AND j.deletedAt IS NULL " +
+           "GROUP BY j.id, j.jobOrderRef, j.jobTitle, j.status, j.headcountRequired, j.headcountFilled, a.status " +
+           "ORDER BY j.id")
+    List<JobOrderAssignmentCount> countAssignmentsByJobOrderAndStatus(@Param("employerId") Long employerId);
+
+    /**
+     * Active job orders grouped by status (dashboard counter reconciliation)
+     */
+    @Query("SELECT j.status AS status, COUNT(j) AS total FROM JobOrder j " +
+           "WHERE j.deletedAt IS NULL GROUP BY j.status")
+    List<StatusCount<JobOrderStatus>> countActiveByStatus();
+
+    /**
+     * Sum of headcount required across active OPEN job orders
+     */
+    @Query("SELECT COALESCE(SUM(j.headcountRequired), 0L) FROM JobOrder j " +
+           "WHERE j.status = com.roms.enums.JobOrderStatus.OPEN AND j.deletedAt IS NULL")
+    Long sumOpenHeadcount();
 }
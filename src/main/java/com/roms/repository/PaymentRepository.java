@@ -2,6 +2,7 @@ package com.roms.repository;
 
 import com.roms.entity.Payment;
 import com.roms.enums.TransactionType;
+import com.roms.repository.projection.StatusCount;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -51,4 +52,10 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
            "ORDER BY p.paymentDate DESC")
     List<Payment> findByAgreementIdAndTransactionType(@Param("agreementId") UUID agreementId,
                                                        @Param("transactionType") TransactionType transactionType);
+    
+    /**
+     * Ledger entries grouped by transaction type (dashboard counter reconciliation)
+     */
+    @Query("SELECT p.transactionType AS status, COUNT(p) AS total FROM Payment p GROUP BY p.transactionType")
+    List<StatusCount<TransactionType>> countByTransactionType();
 }
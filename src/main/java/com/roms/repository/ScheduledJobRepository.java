@@ -0,0 +1,47 @@
+package com.roms.repository;
+
+import com.roms.entity.ScheduledJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ScheduledJobRepository extends JpaRepository<ScheduledJob, String> {
+
+    /**
+     * Take the lease if nobody holds it or it has expired - 1 if this node now owns the job, 0 otherwise.
+     * Lease times come from the database clock, so nodes with skewed clocks agree on expiry.
+     */
+    @Modifying
+    @Query("UPDATE ScheduledJob j SET j.leaseOwner = :owner, j.leaseExpiresAt = local datetime + :leaseSeconds second, " +
+           "j.heartbeatAt = local datetime " +
+           "WHERE j.jobName = :jobName AND (j.leaseOwner IS NULL OR j.leaseExpiresAt < local datetime)")
+    int acquireLease(@Param("jobName") String jobName, @Param("owner") String owner,
+                     @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * Extend a lease this node still holds, from the database clock - 0 means it expired and was taken over.
+     * local datetime is the transaction's start, so a checkpoint closing a long chunk extends a little less.
+     */
+    @Modifying
+    @Query("UPDATE ScheduledJob j SET j.leaseExpiresAt = local datetime + :leaseSeconds second, " +
+           "j.heartbeatAt = local datetime " +
+           "WHERE j.jobName = :jobName AND j.leaseOwner = :owner")
+    int renewLease(@Param("jobName") String jobName, @Param("owner") String owner,
+                   @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * The database clock, which all lease and run times are taken from
+     */
+    @Query("SELECT local datetime")
+    LocalDateTime databaseTime();
+
+    @Modifying
+    @Query("UPDATE ScheduledJob j SET j.leaseOwner = NULL, j.leaseExpiresAt = NULL " +
+           "WHERE j.jobName = :jobName AND j.leaseOwner = :owner")
+    int releaseLease(@Param("jobName") String jobName, @Param("owner") String owner);
+}
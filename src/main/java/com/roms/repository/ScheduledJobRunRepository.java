@@ -0,0 +1,47 @@
+package com.roms.repository;
+
+import com.roms.entity.ScheduledJobRun;
+import com.roms.enums.JobRunStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledJobRunRepository extends JpaRepository<ScheduledJobRun, Long> {
+
+    Optional<ScheduledJobRun> findFirstByJobNameAndStatusOrderByIdDesc(String jobName, JobRunStatus status);
+
+    List<ScheduledJobRun> findByJobNameOrderByIdDesc(String jobName, Pageable pageable);
+
+    /**
+     * Runs still marked RUNNING whose job lease has lapsed - their node crashed or lost the lease mid-run
+     */
+    @Query("SELECT r FROM ScheduledJobRun r, ScheduledJob j WHERE j.jobName = r.jobName " +
+           "AND r.status = com.roms.enums.JobRunStatus.RUNNING " +
+           "AND (j.leaseOwner IS NULL OR j.leaseExpiresAt < local datetime) ORDER BY r.id")
+    List<ScheduledJobRun> findInterrupted();
+
+    @Modifying
+    @Query("UPDATE ScheduledJobRun r SET r.checkpoint = :checkpoint, r.heartbeatAt = local datetime, " +
+           "r.chunksCompleted = r.chunksCompleted + 1, r.itemsProcessed = r.itemsProcessed + :items WHERE r.id = :id")
+    int recordCheckpoint(@Param("id") Long id, @Param("checkpoint") String checkpoint, @Param("items") long items);
+
+    @Modifying
+    @Query("UPDATE ScheduledJobRun r SET r.heartbeatAt = local datetime WHERE r.id = :id")
+    int heartbeat(@Param("id") Long id);
+
+    /**
+     * Close a run this node is still executing
+     */
+    @Modifying
+    @Query("UPDATE ScheduledJobRun r SET r.status = :status, r.finishedAt = local datetime, r.errorMessage = :error " +
+           "WHERE r.id = :id AND r.nodeId = :nodeId AND r.status = com.roms.enums.JobRunStatus.RUNNING")
+    int finish(@Param("id") Long id, @Param("nodeId") String nodeId, @Param("status") JobRunStatus status,
+               @Param("error") String error);
+}
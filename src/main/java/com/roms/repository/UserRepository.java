@@ -1,19 +1,41 @@
 package com.roms.repository;
 
 import com.roms.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
+    /**
+     * Login-name lookup; ids come from the query cache, rows from the users region
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "userQueries")
+    })
     Optional<User> findByUsername(String username);
     
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "userQueries")
+    })
     Optional<User> findByEmail(String email);
     
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+
+    /**
+     * Ids of users that must not hold valid tokens (inactive, locked or deleted)
+     */
+    @Query("SELECT u.id FROM User u WHERE u.isActive = false OR u.isLocked = true OR u.deletedAt IS NOT NULL")
+    List<Long> findDisabledUserIds();
 }
@@ -0,0 +1,10 @@
+package com.roms.repository.projection;
+
+/**
+ * A candidate's active assignment id (bulk workflow guard prefetch)
+ */
+public interface ActiveAssignmentRef {
+    Long getCandidateId();
+
+    Long getAssignmentId();
+}
@@ -0,0 +1,16 @@
+package com.roms.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Active commission agreement amounts with the net total paid against it (bulk workflow guard prefetch)
+ */
+public interface AgreementPaymentTotal {
+    Long getAssignmentId();
+
+    BigDecimal getRequiredDownpaymentAmount();
+
+    BigDecimal getTotalCommissionAmount();
+
+    BigDecimal getTotalPaid();
+}
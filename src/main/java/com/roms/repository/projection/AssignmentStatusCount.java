@@ -0,0 +1,17 @@
+package com.roms.repository.projection;
+
+import com.roms.enums.AssignmentStatus;
+
+/**
+ * Assignment count per (employer, job order, assignment status)
+ */
+public interface AssignmentStatusCount {
+
+    Long getEmployerId();
+
+    Long getJobOrderId();
+
+    AssignmentStatus getStatus();
+
+    Long getTotal();
+}
@@ -0,0 +1,12 @@
+package com.roms.repository.projection;
+
+import com.roms.enums.DocumentType;
+
+/**
+ * A document type held by a candidate (document mask rebuild)
+ */
+public interface CandidateDocumentType {
+    Long getCandidateId();
+
+    DocumentType getDocType();
+}
@@ -0,0 +1,38 @@
+package com.roms.repository.projection;
+
+import com.roms.enums.CandidateStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Columns needed by the candidate list view - no associations, nothing lazy to trigger during serialization.
+ */
+public interface CandidateListItem {
+
+    Long getId();
+
+    String getInternalRefNo();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    String getPhoneNumber();
+
+    String getCountry();
+
+    String getExpectedPosition();
+
+    CandidateStatus getCurrentStatus();
+
+    String getExpiryFlag();
+
+    LocalDate getPassportExpiry();
+
+    LocalDate getMedicalExpiry();
+
+    LocalDateTime getCreatedAt();
+}
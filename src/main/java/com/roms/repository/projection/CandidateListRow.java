@@ -0,0 +1,27 @@
+package com.roms.repository.projection;
+
+import com.roms.enums.CandidateStatus;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * CandidateListItem built by the criteria list query (constructor arguments in select order)
+ */
+@Value
+public class CandidateListRow implements CandidateListItem {
+    Long id;
+    String internalRefNo;
+    String firstName;
+    String lastName;
+    String email;
+    String phoneNumber;
+    String country;
+    String expectedPosition;
+    CandidateStatus currentStatus;
+    String expiryFlag;
+    LocalDate passportExpiry;
+    LocalDate medicalExpiry;
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,27 @@
+package com.roms.repository.projection;
+
+import com.roms.enums.AssignmentStatus;
+import com.roms.enums.JobOrderStatus;
+
+/**
+ * One row per (job order, assignment status) from the employer stats query.
+ * Job orders without assignments come back once with a null assignment status and a zero count.
+ */
+public interface JobOrderAssignmentCount {
+
+    Long getJobOrderId();
+
+    String getJobOrderRef();
+
+    String getJobTitle();
+
+    JobOrderStatus getJobOrderStatus();
+
+    Integer getHeadcountRequired();
+
+    Integer getHeadcountFilled();
+
+    AssignmentStatus getAssignmentStatus();
+
+    Long getAssignmentCount();
+}
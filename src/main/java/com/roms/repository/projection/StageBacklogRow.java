@@ -0,0 +1,22 @@
+package com.roms.repository.projection;
+
+import com.roms.enums.CandidateStatus;
+
+/**
+ * Active candidates in one status bucketed by how long ago they entered it (backlog aging)
+ */
+public interface StageBacklogRow {
+    CandidateStatus getStatus();
+
+    Long getTotal();
+
+    Long getUnder7Days();
+
+    Long getDays7To30();
+
+    Long getDays30To90();
+
+    Long getOver90Days();
+
+    Long getUnknownAge();
+}
@@ -0,0 +1,11 @@
+package com.roms.repository.projection;
+
+/**
+ * Row of a GROUP BY status count query
+ */
+public interface StatusCount<S extends Enum<S>> {
+
+    S getStatus();
+
+    Long getTotal();
+}
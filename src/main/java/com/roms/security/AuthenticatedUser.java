@@ -0,0 +1,113 @@
+package com.roms.security;
+
+import com.roms.entity.User;
+import com.roms.enums.UserRole;
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Authenticated principal
+ *
+ * Built from the database at login and from verified JWT claims on every
+ * other request, so the filter never has to query app_users.
+ * Candidate and employer ids link APPLICANT and EMPLOYER users to their records (matched by email).
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_CANDIDATE_ID = "cid";
+    public static final String CLAIM_EMPLOYER_ID = "eid";
+
+    private final Long userId;
+    private final String username;
+    private final UserRole role;
+    private final Long candidateId;
+    private final Long employerId;
+    private final boolean enabled;
+    private final boolean accountNonLocked;
+    private String password;
+
+    public AuthenticatedUser(Long userId, String username, String password, UserRole role,
+                             Long candidateId, Long employerId, boolean enabled, boolean accountNonLocked) {
+        this.userId = userId;
+        this.username = username;
+        this.password = password;
+        this.role = role;
+        this.candidateId = candidateId;
+        this.employerId = employerId;
+        this.enabled = enabled;
+        this.accountNonLocked = accountNonLocked;
+    }
+
+    public static AuthenticatedUser fromUser(User user, Long candidateId, Long employerId) {
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getRole(),
+                candidateId,
+                employerId,
+                Boolean.TRUE.equals(user.getIsActive()),
+                !Boolean.TRUE.equals(user.getIsLocked())
+        );
+    }
+
+    /**
+     * Rebuild the principal from verified token claims.
+     * Returns null for tokens issued before these claims existed.
+     */
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+
+        return new AuthenticatedUser(
+                userId,
+                claims.getSubject(),
+                null,
+                UserRole.valueOf(role),
+                claims.get(CLAIM_CANDIDATE_ID, Long.class),
+                claims.get(CLAIM_EMPLOYER_ID, Long.class),
+                true,
+                true
+        );
+    }
+
+    /**
+     * Independent copy, so erasing credentials on a handed-out principal never touches a cached one
+     */
+    public AuthenticatedUser copy() {
+        return new AuthenticatedUser(userId, username, password, role, candidateId, employerId, enabled, accountNonLocked);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+}
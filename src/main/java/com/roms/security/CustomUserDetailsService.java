@@ -1,28 +1,98 @@
 package com.roms.security;
 
+import com.roms.entity.Candidate;
+import com.roms.entity.Employer;
 import com.roms.entity.User;
+import com.roms.enums.UserRole;
+import com.roms.event.CacheInvalidationEvent;
+import com.roms.event.UserAccountChangedEvent;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.EmployerRepository;
 import com.roms.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.util.Collection;
-import java.util.Collections;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * Loads users for login and for tokens without identity claims
+ *
+ * Results are cached per username in the "userDetails" cache (bounded, time-limited,
+ * hit/miss stats exposed as cache.gets metrics) and evicted as soon as the account changes.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    public static final String USER_DETAILS_CACHE = "userDetails";
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CandidateRepository candidateRepository;
+
+    @Autowired
+    private EmployerRepository employerRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        Cache cache = cacheManager.getCache(USER_DETAILS_CACHE);
+        AuthenticatedUser cached = cache != null ? cache.get(username, AuthenticatedUser.class) : null;
+        if (cached != null) {
+            return cached.copy();
+        }
+
+        // Inactive, deleted and locked users throw, so they are never cached
+        AuthenticatedUser loaded = loadFromDatabase(username);
+        if (cache != null) {
+            cache.put(username, loaded);
+        }
+        return loaded.copy();
+    }
+
+    /**
+     * Evict both the old and new username as soon as an account changes
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        Cache cache = cacheManager.getCache(USER_DETAILS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (event.getPreviousUsername() != null) {
+            cache.evict(event.getPreviousUsername());
+        }
+        if (event.getUsername() != null) {
+            cache.evict(event.getUsername());
+        }
+    }
+
+    /**
+     * Accounts changed on another node
+     */
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        Cache cache = cacheManager.getCache(USER_DETAILS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (event.isFullFlush()) {
+            cache.clear();
+            return;
+        }
+        event.idsFor(CacheInvalidationEvent.USERNAME).forEach(cache::evict);
+    }
+
+    private AuthenticatedUser loadFromDatabase(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
@@ -34,18 +104,19 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new RuntimeException("User account is locked: " + username);
         }
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                user.getIsActive(),
-                true, // accountNonExpired
-                true, // credentialsNonExpired
-                !user.getIsLocked(), // accountNonLocked
-                getAuthorities(user)
-        );
-    }
+        Long candidateId = null;
+        Long employerId = null;
+        if (user.getRole() == UserRole.APPLICANT) {
+            candidateId = candidateRepository.findAllByEmailAndDeletedAtIsNull(user.getEmail()).stream()
+                    .findFirst()
+                    .map(Candidate::getId)
+                    .orElse(null);
+        } else if (user.getRole() == UserRole.EMPLOYER) {
+            employerId = employerRepository.findByContactEmail(user.getEmail())
+                    .map(Employer::getId)
+                    .orElse(null);
+        }
 
-    private Collection<? extends GrantedAuthority> getAuthorities(User user) {
-        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
+        return AuthenticatedUser.fromUser(user, candidateId, employerId);
     }
 }
@@ -1,5 +1,6 @@
 package com.roms.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,28 +20,43 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    static final String EVENT_STREAM_PATH = "/api/events/stream";
+    static final String STREAM_TOKEN_PARAMETER = "token";
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationService revocationService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                     HttpServletResponse response, 
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
-            String jwt = getJwtFromRequest(request);
+            String bearer = getJwtFromRequest(request);
+            boolean streamToken = bearer == null && EVENT_STREAM_PATH.equals(request.getServletPath());
+            String jwt = streamToken ? request.getParameter(STREAM_TOKEN_PARAMETER) : bearer;
+
+            // A stream token opens the event stream and nothing else; a session token never comes in the URL
+            Claims claims = tokenProvider.validateAndGetClaims(jwt)
+                    .filter(verified -> streamToken == JwtTokenProvider.SCOPE_EVENT_STREAM.equals(
+                            verified.get(JwtTokenProvider.CLAIM_SCOPE, String.class)))
+                    .orElse(null);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            if (claims != null) {
+                UserDetails userDetails = resolvePrincipal(claims);
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -49,6 +65,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Principal from the token's identity claims, or null if the user's tokens were revoked.
+     * Tokens issued before identity claims existed fall back to a database lookup.
+     */
+    private UserDetails resolvePrincipal(Claims claims) {
+        AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
+        if (principal == null) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        if (revocationService.isRevoked(principal.getUserId(), claims.getIssuedAt())) {
+            return null;
+        }
+        return principal;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
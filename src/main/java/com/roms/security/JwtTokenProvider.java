@@ -1,20 +1,33 @@
 package com.roms.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
+    /**
+     * Scope claim of tokens that only open the event stream
+     */
+    public static final String CLAIM_SCOPE = "scope";
+    public static final String SCOPE_EVENT_STREAM = "event-stream";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -24,8 +37,56 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
+    @Value("${jwt.stream-token-expiration:60000}")
+    private long streamTokenExpiration = 60000L;
+
+    @Value("${jwt.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    /**
+     * Recently verified tokens and their claims, each held until the token's own exp.
+     * A hit skips the HMAC check; the key is the full compact token, so a forged
+     * token can never match an entry.
+     */
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        long remainingMillis = expiration != null
+                                ? expiration.getTime() - System.currentTimeMillis()
+                                : jwtExpiration;
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        return signingKey;
     }
 
     public String generateToken(Authentication authentication) {
@@ -37,15 +98,49 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(username)
-                .claim("authorities", authorities)
+                .claim("authorities", authorities);
+
+        // Identity claims let the filter rebuild the principal without a database lookup
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            builder.claim(AuthenticatedUser.CLAIM_USER_ID, user.getUserId())
+                    .claim(AuthenticatedUser.CLAIM_ROLE, user.getRole().name())
+                    .claim(AuthenticatedUser.CLAIM_CANDIDATE_ID, user.getCandidateId())
+                    .claim(AuthenticatedUser.CLAIM_EMPLOYER_ID, user.getEmployerId());
+        }
+
+        return builder
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(getSigningKey())
                 .compact();
     }
 
+    /**
+     * A token that only opens the event stream. Browsers' EventSource cannot send an Authorization
+     * header, so it travels in the URL, where it may be logged - hence the narrow scope and short life.
+     * It is checked once, when the stream connects.
+     */
+    public String generateStreamToken(AuthenticatedUser user) {
+        Date now = new Date();
+        return Jwts.builder()
+                .subject(user.getUsername())
+                .claim(CLAIM_SCOPE, SCOPE_EVENT_STREAM)
+                .claim(AuthenticatedUser.CLAIM_USER_ID, user.getUserId())
+                .claim(AuthenticatedUser.CLAIM_ROLE, user.getRole().name())
+                .claim(AuthenticatedUser.CLAIM_CANDIDATE_ID, user.getCandidateId())
+                .claim(AuthenticatedUser.CLAIM_EMPLOYER_ID, user.getEmployerId())
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + streamTokenExpiration))
+                .signWith(getSigningKey())
+                .compact();
+    }
+
+    public long getStreamTokenExpiration() {
+        return streamTokenExpiration;
+    }
+
     public String generateRefreshToken(Authentication authentication) {
         String username = authentication.getName();
         Date now = new Date();
@@ -59,26 +154,43 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Validate a token and return its verified claims in a single parse.
+     * Empty if the token is malformed, badly signed or expired.
+     */
+    public Optional<Claims> validateAndGetClaims(String token) {
+        if (!StringUtils.hasText(token)) {
+            return Optional.empty();
+        }
 
-        return claims.getSubject();
-    }
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
 
-    public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = parseClaims(token);
+            verifiedTokens.put(token, claims);
+            return Optional.of(claims);
         } catch (JwtException | IllegalArgumentException e) {
-            // Log the exception
-            return false;
+            return Optional.empty();
         }
     }
+
+    /**
+     * Verify the signature and expiry of a token, bypassing the cache
+     */
+    Claims parseClaims(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
+    public String getUsernameFromToken(String token) {
+        return validateAndGetClaims(token)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"));
+    }
+
+    public boolean validateToken(String token) {
+        return validateAndGetClaims(token).isPresent();
+    }
 }
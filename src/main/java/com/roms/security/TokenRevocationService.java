@@ -0,0 +1,98 @@
+package com.roms.security;
+
+import com.roms.event.CacheInvalidationEvent;
+import com.roms.event.UserTokensRevokedEvent;
+import com.roms.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory token revocation
+ *
+ * Maps user id to the time their tokens were revoked. Any token for that user
+ * issued at or before that time is rejected - one map lookup per request.
+ * Entries are dropped once every token they could match has expired.
+ *
+ * On startup, users that are already inactive, locked or deleted are revoked,
+ * since the map does not survive a restart. Revocations are announced so other
+ * nodes in the cluster apply them too.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    private final Map<Long, Long> revokedAt = new ConcurrentHashMap<>();
+
+    /**
+     * Revoke every token issued to the user up to now
+     */
+    public void revokeUserTokens(Long userId) {
+        long now = System.currentTimeMillis();
+        revokedAt.put(userId, now);
+        eventPublisher.publishEvent(new UserTokensRevokedEvent(userId, now));
+        log.info("Revoked tokens for user {}", userId);
+    }
+
+    /**
+     * Whether a token for the user issued at the given time has been revoked
+     */
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        Long revokedTime = revokedAt.get(userId);
+        if (revokedTime == null) {
+            return false;
+        }
+        // iat has second precision - treat anything issued in the revocation second as revoked
+        return issuedAt == null || issuedAt.getTime() <= revokedTime;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void revokeDisabledUsers() {
+        List<Long> disabled = userRepository.findDisabledUserIds();
+        long now = System.currentTimeMillis();
+        disabled.forEach(userId -> revokedAt.put(userId, now));
+        log.info("Token revocation initialised for {} disabled users", disabled.size());
+    }
+
+    /**
+     * Apply revocations made on other nodes. After a full flush (changes may have been missed)
+     * disabled users are revoked again, as on startup, besides any revocations sent with it.
+     */
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isFullFlush()) {
+            revokeDisabledUsers();
+        }
+        for (String id : event.idsFor(CacheInvalidationEvent.USER_TOKENS)) {
+            // "<userId>@<revokedAt>"
+            int separator = id.indexOf('@');
+            revokedAt.merge(Long.valueOf(id.substring(0, separator)), Long.valueOf(id.substring(separator + 1)), Math::max);
+        }
+    }
+
+    /**
+     * Drop entries older than the token lifetime - no token they match can still be valid
+     */
+    @Scheduled(fixedDelay = 3600000)
+    public void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - jwtExpiration;
+        revokedAt.values().removeIf(revokedTime -> revokedTime < cutoff);
+    }
+}
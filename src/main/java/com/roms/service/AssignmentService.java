@@ -7,10 +7,12 @@ import com.roms.entity.Candidate;
 import com.roms.entity.JobOrder;
 import com.roms.enums.AssignmentStatus;
 import com.roms.enums.JobOrderStatus;
+import com.roms.event.AssignmentStatusChangedEvent;
 import com.roms.repository.AssignmentRepository;
 import com.roms.repository.CandidateRepository;
 import com.roms.repository.JobOrderRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +27,7 @@ public class AssignmentService {
     private final AssignmentRepository assignmentRepository;
     private final CandidateRepository candidateRepository;
     private final JobOrderRepository jobOrderRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a new assignment with business rule validation
@@ -72,6 +75,8 @@ public class AssignmentService {
         jobOrder.setHeadcountFilled((int) currentAssignments + 1);
         jobOrderRepository.save(jobOrder);
 
+        publishStatusChange(assignment, null);
+
         return toDTO(assignment);
     }
 
@@ -147,6 +152,7 @@ public class AssignmentService {
         }
 
         // Deactivate assignment
+        AssignmentStatus previousStatus = assignment.getStatus();
         assignment.deactivate();
         assignmentRepository.save(assignment);
 
@@ -155,6 +161,8 @@ public class AssignmentService {
         long activeAssignments = assignmentRepository.countActiveByJobOrderId(jobOrder.getId());
         jobOrder.setHeadcountFilled((int) activeAssignments);
         jobOrderRepository.save(jobOrder);
+
+        publishStatusChange(assignment, previousStatus);
     }
 
     /**
@@ -169,8 +177,10 @@ public class AssignmentService {
             throw new RuntimeException("Cannot issue offer for inactive assignment");
         }
 
+        AssignmentStatus previousStatus = assignment.getStatus();
         assignment.issueOffer();
         assignment = assignmentRepository.save(assignment);
+        publishStatusChange(assignment, previousStatus);
         return toDTO(assignment);
     }
 
@@ -190,8 +200,10 @@ public class AssignmentService {
             throw new RuntimeException("Cannot confirm placement before offer is issued");
         }
 
+        AssignmentStatus previousStatus = assignment.getStatus();
         assignment.confirmPlacement();
         assignment = assignmentRepository.save(assignment);
+        publishStatusChange(assignment, previousStatus);
         return toDTO(assignment);
     }
 
@@ -206,6 +218,20 @@ public class AssignmentService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Publish assignment status change (delivered to listeners after commit)
+     */
+    private void publishStatusChange(Assignment assignment, AssignmentStatus previousStatus) {
+        JobOrder jobOrder = assignment.getJobOrder();
+        eventPublisher.publishEvent(new AssignmentStatusChangedEvent(
+                assignment.getId(),
+                assignment.getCandidate().getId(),
+                jobOrder.getId(),
+                jobOrder.getEmployer().getId(),
+                previousStatus,
+                assignment.getStatus()));
+    }
+
     /**
      * Convert entity to DTO
      */
@@ -0,0 +1,169 @@
+package com.roms.service;
+
+import com.roms.dto.CandidateActionsDTO;
+import com.roms.entity.Candidate;
+import com.roms.enums.CandidateStatus;
+import com.roms.enums.DocumentType;
+import com.roms.exception.BusinessValidationException;
+import com.roms.repository.AgencyCommissionAgreementRepository;
+import com.roms.repository.AssignmentRepository;
+import com.roms.repository.CandidateDocumentRepository;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.projection.ActiveAssignmentRef;
+import com.roms.repository.projection.AgreementPaymentTotal;
+import com.roms.repository.projection.CandidateDocumentType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Allowed next workflow actions for a page of candidates
+ *
+ * Guard facts for the whole page are prefetched up front - candidates (with their document
+ * mask), active assignments, and agreement payment totals - so a page costs three queries
+ * however many candidates or guards are involved. Candidates the mask backfill has not reached
+ * yet cost one more, which reads their document types.
+ */
+@Service
+@RequiredArgsConstructor
+public class CandidateActionsService {
+
+    public static final int MAX_CANDIDATES = 200;
+
+    private final CandidateRepository candidateRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final AgencyCommissionAgreementRepository agreementRepository;
+    private final CandidateDocumentRepository documentRepository;
+    private final CandidateWorkflowGuards workflowGuards;
+
+    /**
+     * Actions keyed by candidate id, in the order requested. Unknown ids are omitted.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, CandidateActionsDTO> getActions(Collection<Long> candidateIds) {
+        if (candidateIds.size() > MAX_CANDIDATES) {
+            throw new BusinessValidationException("At most " + MAX_CANDIDATES + " candidates per request");
+        }
+        Map<Long, CandidateActionsDTO> result = new LinkedHashMap<>();
+        if (candidateIds.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, Candidate> candidates = new HashMap<>();
+        for (Candidate candidate : candidateRepository.findAllById(candidateIds)) {
+            candidates.put(candidate.getId(), candidate);
+        }
+
+        Map<Long, WorkflowGuardFacts> facts = prefetchFacts(candidates.values());
+        for (Long id : candidateIds) {
+            Candidate candidate = candidates.get(id);
+            if (candidate == null || result.containsKey(id)) {
+                continue;
+            }
+            result.put(id, evaluate(candidate, facts.get(id)));
+        }
+        return result;
+    }
+
+    /**
+     * Guard facts for already loaded candidates, in two queries (active assignments, agreement payment totals),
+     * plus one for the document types of candidates without a document mask
+     */
+    public Map<Long, WorkflowGuardFacts> prefetchFacts(Collection<Candidate> candidates) {
+        Map<Long, WorkflowGuardFacts> facts = new HashMap<>();
+        if (candidates.isEmpty()) {
+            return facts;
+        }
+        List<Long> candidateIds = candidates.stream().map(Candidate::getId).toList();
+
+        // Most recent active assignment per candidate (rows arrive newest first)
+        Map<Long, Long> assignmentByCandidate = new HashMap<>();
+        for (ActiveAssignmentRef ref : assignmentRepository.findActiveRefsByCandidateIdIn(candidateIds)) {
+            assignmentByCandidate.putIfAbsent(ref.getCandidateId(), ref.getAssignmentId());
+        }
+
+        Map<Long, AgreementPaymentTotal> agreementByAssignment = new HashMap<>();
+        if (!assignmentByCandidate.isEmpty()) {
+            for (AgreementPaymentTotal total : agreementRepository.findActivePaymentTotalsByAssignmentIdIn(assignmentByCandidate.values())) {
+                agreementByAssignment.put(total.getAssignmentId(), total);
+            }
+        }
+
+        // Not backfilled yet - derive the mask from the documents, as for a single candidate
+        Map<Long, Long> derivedMasks = new HashMap<>();
+        List<Long> unmasked = candidates.stream()
+                .filter(candidate -> candidate.getDocumentMask() == null)
+                .map(Candidate::getId)
+                .toList();
+        if (!unmasked.isEmpty()) {
+            for (CandidateDocumentType row : documentRepository.findDocumentTypesByCandidateIdIn(unmasked)) {
+                derivedMasks.merge(row.getCandidateId(), row.getDocType().bit(), (a, b) -> a | b);
+            }
+        }
+
+        for (Candidate candidate : candidates) {
+            Long assignmentId = assignmentByCandidate.get(candidate.getId());
+            AgreementPaymentTotal agreement = assignmentId != null ? agreementByAssignment.get(assignmentId) : null;
+            long documentMask = candidate.getDocumentMask() != null
+                    ? candidate.getDocumentMask()
+                    : derivedMasks.getOrDefault(candidate.getId(), 0L);
+            facts.put(candidate.getId(), new PrefetchedFacts(documentMask, assignmentId, agreement));
+        }
+        return facts;
+    }
+
+    private CandidateActionsDTO evaluate(Candidate candidate, WorkflowGuardFacts facts) {
+        List<CandidateStatus> allowed = new ArrayList<>();
+        Map<CandidateStatus, String> blocked = new EnumMap<>(CandidateStatus.class);
+
+        for (CandidateStatus target : CandidateTransitionTable.targetsFrom(candidate.getCurrentStatus())) {
+            String reason = workflowGuards.blockReason(candidate, target, facts);
+            if (reason == null) {
+                allowed.add(target);
+            } else {
+                blocked.put(target, reason);
+            }
+        }
+
+        return CandidateActionsDTO.builder()
+                .candidateId(candidate.getId())
+                .currentStatus(candidate.getCurrentStatus())
+                .allowedTransitions(allowed)
+                .blockedTransitions(blocked)
+                .build();
+    }
+
+    private record PrefetchedFacts(long documentMask, Long assignmentId, AgreementPaymentTotal agreement)
+            implements WorkflowGuardFacts {
+
+        @Override
+        public boolean hasDocuments(DocumentType... types) {
+            long required = DocumentType.maskOf(Arrays.asList(types));
+            return (documentMask & required) == required;
+        }
+
+        @Override
+        public boolean hasActiveAssignment() {
+            return assignmentId != null;
+        }
+
+        @Override
+        public boolean isDownpaymentComplete() {
+            return agreement != null && agreement.getTotalPaid().compareTo(agreement.getRequiredDownpaymentAmount()) >= 0;
+        }
+
+        @Override
+        public boolean isFullPaymentComplete() {
+            return agreement != null && agreement.getTotalPaid().compareTo(agreement.getTotalCommissionAmount()) >= 0;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.roms.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.roms.dto.CandidateFilter;
+import com.roms.exception.BusinessValidationException;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.projection.CandidateListItem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streaming candidate export (CSV or NDJSON)
+ *
+ * Rows come from a server-side cursor as projections, which never enter the
+ * persistence context, and are written out one at a time - heap use does not
+ * depend on how many candidates match.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CandidateExportService {
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format from(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BusinessValidationException("Unsupported export format: " + value + " (use csv or ndjson)");
+        }
+    }
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    /**
+     * Export columns, in output order
+     */
+    private static final Map<String, Function<CandidateListItem, Object>> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("id", CandidateListItem::getId);
+        COLUMNS.put("internalRefNo", CandidateListItem::getInternalRefNo);
+        COLUMNS.put("firstName", CandidateListItem::getFirstName);
+        COLUMNS.put("lastName", CandidateListItem::getLastName);
+        COLUMNS.put("email", CandidateListItem::getEmail);
+        COLUMNS.put("phoneNumber", CandidateListItem::getPhoneNumber);
+        COLUMNS.put("country", CandidateListItem::getCountry);
+        COLUMNS.put("expectedPosition", CandidateListItem::getExpectedPosition);
+        COLUMNS.put("currentStatus", CandidateListItem::getCurrentStatus);
+        COLUMNS.put("expiryFlag", CandidateListItem::getExpiryFlag);
+        COLUMNS.put("passportExpiry", CandidateListItem::getPassportExpiry);
+        COLUMNS.put("medicalExpiry", CandidateListItem::getMedicalExpiry);
+        COLUMNS.put("createdAt", CandidateListItem::getCreatedAt);
+    }
+
+    private final CandidateRepository candidateRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Write every candidate matching the filter to the stream. Returns the number of rows written.
+     * The caller owns (and closes) the output stream.
+     */
+    @Transactional(readOnly = true)
+    public long export(CandidateFilter filter, Format format, OutputStream out) throws IOException {
+        CandidateFilter criteria = filter != null ? filter : new CandidateFilter();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        if (format == Format.CSV) {
+            writer.write(String.join(",", COLUMNS.keySet()));
+            writer.write("\r\n");
+        }
+
+        long rows = 0;
+        try (Stream<CandidateListItem> stream = candidateRepository.streamList(criteria)) {
+
+            for (CandidateListItem item : (Iterable<CandidateListItem>) stream::iterator) {
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, item);
+                } else {
+                    writeJsonLine(writer, jsonWriter, item);
+                }
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        log.info("Exported {} candidates as {}", rows, format);
+        return rows;
+    }
+
+    private void writeCsvRow(Writer writer, CandidateListItem item) throws IOException {
+        boolean first = true;
+        for (Function<CandidateListItem, Object> column : COLUMNS.values()) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            Object value = column.apply(item);
+            if (value != null) {
+                writer.write(csvEscape(value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeJsonLine(Writer writer, ObjectWriter jsonWriter, CandidateListItem item) throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        COLUMNS.forEach((name, column) -> row.put(name, column.apply(item)));
+        jsonWriter.writeValue(writer, row);
+        writer.write('\n');
+    }
+
+    /**
+     * RFC 4180 quoting. Values starting with a formula character are prefixed with a quote
+     * so spreadsheets do not evaluate them.
+     */
+    static String csvEscape(String value) {
+        String safe = !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (safe.indexOf(',') >= 0 || safe.indexOf('"') >= 0 || safe.indexOf('\n') >= 0 || safe.indexOf('\r') >= 0) {
+            return '"' + safe.replace("\"", "\"\"") + '"';
+        }
+        return safe;
+    }
+}
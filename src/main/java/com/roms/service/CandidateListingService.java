@@ -0,0 +1,45 @@
+package com.roms.service;
+
+import com.roms.dto.CandidateFilter;
+import com.roms.dto.CursorPage;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.projection.CandidateListItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Keyset-paginated candidate listing
+ *
+ * Pages are fetched by id below the previous page's last id, so the cost of a page
+ * does not grow with its position, and rows are projections rather than entities.
+ */
+@Service
+@RequiredArgsConstructor
+public class CandidateListingService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final CandidateRepository candidateRepository;
+
+    @Transactional(readOnly = true)
+    public CursorPage<CandidateListItem> listCandidates(CandidateFilter filter, Long cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        CandidateFilter criteria = filter != null ? filter : new CandidateFilter();
+
+        // One extra row tells us whether another page exists without a count query
+        List<CandidateListItem> rows = candidateRepository.findListPage(criteria, cursor, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<CandidateListItem> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        return CursorPage.<CandidateListItem>builder()
+                .items(items)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+}
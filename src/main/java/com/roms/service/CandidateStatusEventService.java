@@ -0,0 +1,95 @@
+package com.roms.service;
+
+import com.roms.entity.Candidate;
+import com.roms.entity.CandidateStatusEvent;
+import com.roms.event.CandidateStatusChangedEvent;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.CandidateStatusEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes candidate_status_events rows for workflow transitions
+ */
+@Service
+@RequiredArgsConstructor
+public class CandidateStatusEventService {
+
+    static final String SYSTEM_ACTOR = "system";
+
+    private final CandidateStatusEventRepository eventRepository;
+    private final CandidateRepository candidateRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Logs the change before the publishing transaction commits, so the row commits or rolls
+     * back with the status change itself
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCandidateStatusChanged(CandidateStatusChangedEvent event) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            record(event);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> record(event));
+        }
+    }
+
+    /**
+     * Append the transition to the log and stamp the candidate's stage entry time.
+     * Joins the publishing transaction when there is one.
+     */
+    @Transactional
+    public void record(CandidateStatusChangedEvent event) {
+        if (event.getNewStatus() == null || event.getNewStatus() == event.getPreviousStatus()) {
+            return;
+        }
+        Candidate candidate = candidateRepository.findById(event.getCandidateId()).orElse(null);
+        if (candidate == null) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Long timeInPreviousStage = null;
+        if (event.getPreviousStatus() != null && candidate.getStatusChangedAt() != null) {
+            timeInPreviousStage = Math.max(0L, Duration.between(candidate.getStatusChangedAt(), now).getSeconds());
+        }
+
+        eventRepository.save(CandidateStatusEvent.builder()
+                .candidateId(candidate.getId())
+                .fromStatus(event.getPreviousStatus())
+                .toStatus(event.getNewStatus())
+                .actor(currentActor())
+                .occurredAt(now)
+                .timeInPreviousStageSeconds(timeInPreviousStage)
+                .build());
+        candidate.setStatusChangedAt(now);
+    }
+
+    /**
+     * A candidate's stage history, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<CandidateStatusEvent> getHistory(Long candidateId) {
+        return eventRepository.findByCandidateId(candidateId);
+    }
+
+    private String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication.getName() == null
+                || "anonymousUser".equals(authentication.getName())) {
+            return SYSTEM_ACTOR;
+        }
+        return authentication.getName();
+    }
+}
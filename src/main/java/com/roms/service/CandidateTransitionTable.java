@@ -0,0 +1,121 @@
+package com.roms.service;
+
+import com.roms.entity.Candidate;
+import com.roms.enums.CandidateStatus;
+import com.roms.enums.MedicalStatus;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.roms.enums.CandidateStatus.*;
+
+/**
+ * Candidate workflow transition table
+ *
+ * Each target status lists the statuses it may be entered from, with the message shown
+ * when it is attempted from anywhere else. PLACED and REJECTED are terminal.
+ * APPLICATION_SUBMITTED has no source restriction and may be re-entered from any
+ * non-terminal status; REJECTED likewise.
+ */
+public final class CandidateTransitionTable {
+
+    private static final Set<CandidateStatus> TERMINAL = EnumSet.of(PLACED, REJECTED);
+
+    private static final Map<CandidateStatus, Edge> EDGES = new EnumMap<>(CandidateStatus.class);
+    private static final Map<CandidateStatus, Set<CandidateStatus>> TARGETS = new EnumMap<>(CandidateStatus.class);
+
+    static {
+        edge(UNDER_REVIEW, "Can only set UNDER_REVIEW from APPLICATION_SUBMITTED status",
+                APPLICATION_SUBMITTED);
+        edge(DOCUMENTS_INSUFFICIENT, "Can only set DOCUMENTS_INSUFFICIENT from UNDER_REVIEW status",
+                UNDER_REVIEW);
+        edge(DOCUMENTS_APPROVED, "Can only approve documents from UNDER_REVIEW or DOCUMENTS_INSUFFICIENT status",
+                UNDER_REVIEW, DOCUMENTS_INSUFFICIENT);
+        edge(INTERVIEW_SCHEDULED, "Can only schedule interview after documents are approved",
+                DOCUMENTS_APPROVED);
+        edge(INTERVIEW_PASSED, "Can only pass interview after it is scheduled",
+                INTERVIEW_SCHEDULED);
+        edge(MEDICAL_PENDING, "Can only set MEDICAL_PENDING after interview is passed",
+                INTERVIEW_PASSED);
+        edge(MEDICAL_PASSED, "Can only pass medical from MEDICAL_PENDING status",
+                MEDICAL_PENDING);
+        edge(VISA_PROCESSING, "Can only start visa processing after medical is passed",
+                MEDICAL_PASSED);
+        edge(OFFER_ISSUED, "Can only issue offer after visa processing",
+                VISA_PROCESSING);
+        edge(OFFER_ACCEPTED, "Can only accept offer after it is issued",
+                OFFER_ISSUED);
+        edge(DEPLOYMENT_PENDING, "Can only set DEPLOYMENT_PENDING after offer is accepted",
+                OFFER_ACCEPTED);
+        edge(PLACED, "Can only place candidate after deployment is pending",
+                DEPLOYMENT_PENDING);
+        anySource(REJECTED);
+        anySource(APPLICATION_SUBMITTED);
+
+        for (CandidateStatus from : CandidateStatus.values()) {
+            Set<CandidateStatus> targets = EnumSet.noneOf(CandidateStatus.class);
+            for (CandidateStatus to : CandidateStatus.values()) {
+                if (to != from && check(from, to) == null) {
+                    targets.add(to);
+                }
+            }
+            TARGETS.put(from, Collections.unmodifiableSet(targets));
+        }
+    }
+
+    private CandidateTransitionTable() {
+    }
+
+    /**
+     * Null if the table allows from -> to, otherwise the reason it does not (guards not included)
+     */
+    public static String check(CandidateStatus from, CandidateStatus to) {
+        if (TERMINAL.contains(from)) {
+            return "Cannot transition from terminal status: " + from;
+        }
+        Edge edge = EDGES.get(to);
+        if (edge.sources != null && !edge.sources.contains(from)) {
+            return edge.message;
+        }
+        return null;
+    }
+
+    /**
+     * Every status the table allows leaving from to, excluding from itself
+     */
+    public static Set<CandidateStatus> targetsFrom(CandidateStatus from) {
+        return TARGETS.get(from);
+    }
+
+    /**
+     * Apply the side effects of entering a status (after guards have passed)
+     */
+    public static void applyEntryEffects(Candidate candidate, CandidateStatus newStatus) {
+        switch (newStatus) {
+            case MEDICAL_PENDING:
+                // Set medical status to in progress
+                candidate.setMedicalStatus(MedicalStatus.PENDING);
+                break;
+            case MEDICAL_PASSED:
+                // Set medical status to passed
+                candidate.setMedicalStatus(MedicalStatus.PASSED);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void edge(CandidateStatus to, String message, CandidateStatus first, CandidateStatus... rest) {
+        EDGES.put(to, new Edge(EnumSet.of(first, rest), message));
+    }
+
+    private static void anySource(CandidateStatus to) {
+        EDGES.put(to, new Edge(null, null));
+    }
+
+    private record Edge(Set<CandidateStatus> sources, String message) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.roms.service;
+
+import com.roms.entity.Candidate;
+import com.roms.enums.CandidateStatus;
+import com.roms.enums.DocumentType;
+import com.roms.enums.MedicalStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Workflow guard rules, evaluated against WorkflowGuardFacts so the same rules serve
+ * single transitions and batched "allowed next actions". Pure checks - no side effects.
+ */
+@Component
+public class CandidateWorkflowGuards {
+
+    private static final DocumentType[] REQUIRED_DOCUMENTS = {
+            DocumentType.PASSPORT,
+            DocumentType.CV,
+            DocumentType.EDUCATIONAL_CERTIFICATE
+    };
+
+    @Value("${roms.passport.min-validity-months:6}")
+    private int passportMinValidityMonths = 6;
+
+    /**
+     * Null if the candidate may move to the target status, otherwise why not
+     */
+    public String blockReason(Candidate candidate, CandidateStatus target, WorkflowGuardFacts facts) {
+        String edgeReason = CandidateTransitionTable.check(candidate.getCurrentStatus(), target);
+        if (edgeReason != null) {
+            return edgeReason;
+        }
+        return guardReason(candidate, target, facts);
+    }
+
+    private String guardReason(Candidate candidate, CandidateStatus target, WorkflowGuardFacts facts) {
+        switch (target) {
+            case UNDER_REVIEW:
+                // Ensure required documents are uploaded
+                for (DocumentType type : REQUIRED_DOCUMENTS) {
+                    if (!facts.hasDocuments(type)) {
+                        return "Cannot review documents: Missing required document - " + type;
+                    }
+                }
+                return null;
+            case DOCUMENTS_APPROVED:
+                // Ensure passport validity before approval
+                return passportReason(candidate, facts);
+            case INTERVIEW_SCHEDULED:
+                // Ensure interview details are set
+                return candidate.getInterviewDate() == null
+                        ? "Cannot schedule interview: Interview date is required" : null;
+            case OFFER_ISSUED:
+                // Medical Rule: Cannot issue offer unless medical status is PASSED
+                return candidate.getMedicalStatus() != MedicalStatus.PASSED
+                        ? "Cannot issue offer: Medical status must be PASSED" : null;
+            case VISA_PROCESSING:
+                // CRITICAL PHASE 2B RULE: Downpayment required before visa processing
+                if (!facts.hasActiveAssignment()) {
+                    return "Cannot process visa: No active assignment found";
+                }
+                return !facts.isDownpaymentComplete()
+                        ? "Downpayment required before visa processing. Please complete the required downpayment through the commission agreement."
+                        : null;
+            case PLACED:
+                // Fulfillment Rule: Check active assignment
+                if (!facts.hasActiveAssignment()) {
+                    return "Cannot place candidate: No active assignment found. Candidate must be assigned to a job order first.";
+                }
+                // CRITICAL PHASE 2B RULE: Full commission payment required before placement
+                return !facts.isFullPaymentComplete()
+                        ? "Full commission payment required before placement. Outstanding balance must be paid."
+                        : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Validate passport validity (Document Rule)
+     */
+    private String passportReason(Candidate candidate, WorkflowGuardFacts facts) {
+        LocalDate minValidDate = LocalDate.now().plusMonths(passportMinValidityMonths);
+
+        if (candidate.getPassportExpiry() == null) {
+            return "Passport expiry date is required";
+        }
+        if (candidate.getPassportExpiry().isBefore(minValidDate)) {
+            return String.format("Passport must be valid for at least %d months (until %s)",
+                    passportMinValidityMonths, minValidDate);
+        }
+        if (!facts.hasDocuments(DocumentType.PASSPORT)) {
+            return "Passport document must be uploaded";
+        }
+        return null;
+    }
+}
@@ -4,15 +4,43 @@ package com.roms.service;
 import com.roms.dto.CandidateWorkflowDTO;
 import com.roms.entity.Candidate;
 import com.roms.enums.CandidateStatus;
+import com.roms.event.AssignmentStatusChangedEvent;
+import com.roms.event.CacheInvalidationEvent;
+import com.roms.event.CandidateStatusChangedEvent;
+import com.roms.event.DocumentChangedEvent;
+import com.roms.event.PaymentRecordedEvent;
 import com.roms.repository.CandidateRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
 import java.util.Collections;
 import java.util.List;
-import com.roms.service.DocumentEvaluationService;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+/**
+ * Applicant-facing view of where a candidate is in the workflow
+ *
+ * The view is assembled from one prefetch (candidate, active assignment, agreement payment
+ * totals - plus the passport row while documents are under review) and cached per candidate
+ * in the "applicantWorkflow" cache, so steady-state polling is served from memory. Entries
+ * are evicted after commit of status transitions, document uploads and deletes, payments and
+ * assignment changes; the cache's expireAfterWrite bounds anything else (e.g. passport validity
+ * crossing the minimum as days pass).
+ */
 @Service
 public class CandidateWorkflowQueryService {
+
+    public static final String APPLICANT_WORKFLOW_CACHE = "applicantWorkflow";
+    public static final String APPLICANT_CANDIDATE_IDS_CACHE = "applicantCandidateIds";
+
+    private static final int GENERATION_STRIPES = 1024;
+
     @Autowired
     private CandidateRepository candidateRepository;
 
@@ -20,13 +48,113 @@ public class CandidateWorkflowQueryService {
     private DocumentEvaluationService documentEvaluationService;
 
     @Autowired
-    private CandidateWorkflowService workflowService;
+    private CandidateActionsService candidateActionsService;
 
+    @Autowired
+    private CandidateWorkflowGuards workflowGuards;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Bumped on every eviction, so a view computed from state read before the eviction is not cached
+     */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
 
     public CandidateWorkflowDTO getWorkflowForApplicant(String email) {
-        Candidate candidate = candidateRepository.findByEmailAndDeletedAtIsNull(email)
-                .orElseThrow(() -> new RuntimeException("No active application found for applicant"));
+        Cache views = cacheManager.getCache(APPLICANT_WORKFLOW_CACHE);
+        Cache candidateIds = cacheManager.getCache(APPLICANT_CANDIDATE_IDS_CACHE);
+
+        Long candidateId = candidateIds != null ? candidateIds.get(email, Long.class) : null;
+        if (candidateId != null && views != null) {
+            CachedView cached = views.get(candidateId, CachedView.class);
+            if (cached != null && cached.email().equals(email)) {
+                return cached.view();
+            }
+        }
+
+        // Capture the generation before reading, so an eviction racing the read is noticed
+        long generation = candidateId != null ? generations.get(stripe(candidateId)) : 0L;
+        Candidate candidate = candidateId != null ? loadActive(candidateId, email) : null;
+        boolean cacheable = candidate != null;
+        if (candidate == null) {
+            // First lookup for this email: remember the id, cache the view from the next poll on
+            candidate = candidateRepository.findByEmailAndDeletedAtIsNull(email)
+                    .orElseThrow(() -> new RuntimeException("No active application found for applicant"));
+        }
+
+        CandidateWorkflowDTO view = buildView(candidate);
+
+        if (candidateIds != null) {
+            candidateIds.put(email, candidate.getId());
+        }
+        if (cacheable && views != null) {
+            views.put(candidate.getId(), new CachedView(email, view));
+            // Evicted while we were reading - drop what may be a stale view
+            if (generations.get(stripe(candidate.getId())) != generation) {
+                views.evict(candidate.getId());
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Drop the cached view for a candidate, e.g. after editing fields the workflow guards read
+     */
+    public void evict(Long candidateId) {
+        if (candidateId == null) {
+            return;
+        }
+        generations.incrementAndGet(stripe(candidateId));
+        Cache views = cacheManager.getCache(APPLICANT_WORKFLOW_CACHE);
+        if (views != null) {
+            views.evict(candidateId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCandidateStatusChanged(CandidateStatusChangedEvent event) {
+        evict(event.getCandidateId());
+    }
 
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        evict(event.getCandidateId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentRecorded(PaymentRecordedEvent event) {
+        evict(event.getCandidateId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAssignmentStatusChanged(AssignmentStatusChangedEvent event) {
+        evict(event.getCandidateId());
+    }
+
+    /**
+     * Candidates changed on another node
+     */
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (!event.isFullFlush()) {
+            event.idsFor(CacheInvalidationEvent.CANDIDATE).forEach(id -> evict(Long.valueOf(id)));
+            return;
+        }
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        Cache views = cacheManager.getCache(APPLICANT_WORKFLOW_CACHE);
+        if (views != null) {
+            views.clear();
+        }
+        Cache candidateIds = cacheManager.getCache(APPLICANT_CANDIDATE_IDS_CACHE);
+        if (candidateIds != null) {
+            candidateIds.clear();
+        }
+    }
+
+    private CandidateWorkflowDTO buildView(Candidate candidate) {
         CandidateStatus status = candidate.getCurrentStatus();
         String blockReason = null;
         boolean blocked = false;
@@ -35,25 +163,17 @@ public class CandidateWorkflowQueryService {
         // Document evaluation for document-related stages
         if (status == CandidateStatus.UNDER_REVIEW || status == CandidateStatus.DOCUMENTS_INSUFFICIENT) {
             var eval = documentEvaluationService.evaluateDocuments(candidate);
-            missingDocs = eval.missingDocuments;
+            missingDocs = List.copyOf(eval.missingDocuments);
             if (!eval.missingDocuments.isEmpty()) {
                 blocked = true;
                 blockReason = "Missing or invalid documents";
             }
         }
 
-        // Payment/visa block
-        if (status == CandidateStatus.VISA_PROCESSING) {
-            String reason = workflowService.getTransitionBlockReason(candidate.getId(), CandidateStatus.VISA_PROCESSING);
-            if (reason != null) {
-                blocked = true;
-                blockReason = reason;
-            }
-        }
-
-        // General workflow block (guards)
+        // General workflow block (guards) - covers the payment/visa block in VISA_PROCESSING too
         if (!blocked) {
-            String reason = workflowService.getTransitionBlockReason(candidate.getId(), status);
+            WorkflowGuardFacts facts = candidateActionsService.prefetchFacts(List.of(candidate)).get(candidate.getId());
+            String reason = workflowGuards.blockReason(candidate, status, facts);
             if (reason != null) {
                 blocked = true;
                 blockReason = reason;
@@ -70,6 +190,19 @@ public class CandidateWorkflowQueryService {
         );
     }
 
+    private Candidate loadActive(Long candidateId, String email) {
+        return candidateRepository.findById(candidateId)
+                .filter(candidate -> !candidate.isDeleted() && Objects.equals(candidate.getEmail(), email))
+                .orElse(null);
+    }
+
+    private static int stripe(Long candidateId) {
+        return (int) (candidateId & (GENERATION_STRIPES - 1));
+    }
+
+    private record CachedView(String email, CandidateWorkflowDTO view) {
+    }
+
     private String getStageTitle(CandidateStatus status) {
         switch (status) {
             case APPLICATION_SUBMITTED: return "Application Submitted";
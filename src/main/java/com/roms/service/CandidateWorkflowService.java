@@ -1,22 +1,27 @@
 package com.roms.service;
 
+import com.roms.dto.BulkTransitionResult;
 import com.roms.entity.Candidate;
-import com.roms.entity.CandidateDocument;
 import com.roms.entity.JobOrder;
 import com.roms.enums.CandidateStatus;
 import com.roms.enums.DocumentType;
 import com.roms.enums.MedicalStatus;
+import com.roms.event.CandidateStatusChangedEvent;
+import com.roms.exception.BusinessValidationException;
 import com.roms.exception.WorkflowException;
-import com.roms.repository.CandidateDocumentRepository;
 import com.roms.repository.CandidateRepository;
 import com.roms.repository.JobOrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDate;
-import java.util.Optional;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Workflow State Machine Service
@@ -29,15 +34,16 @@ import java.util.Optional;
  * Canonical State Flow:
  * APPLICATION_SUBMITTED → UNDER_REVIEW → DOCUMENTS_INSUFFICIENT → DOCUMENTS_APPROVED → INTERVIEW_SCHEDULED → INTERVIEW_PASSED → MEDICAL_PENDING → MEDICAL_PASSED → VISA_PROCESSING → OFFER_ISSUED → OFFER_ACCEPTED → DEPLOYMENT_PENDING → PLACED → REJECTED
  * OFFER_ACCEPTED → VISA_PROCESSING → VISA_APPROVED → DEPLOYED → PLACED
+ *
+ * Allowed edges live in CandidateTransitionTable, guard rules in CandidateWorkflowGuards.
  */
 @Service
 public class CandidateWorkflowService {
 
-    @Autowired
-    private CandidateRepository candidateRepository;
+    public static final int BULK_MAX_CANDIDATES = 5000;
 
     @Autowired
-    private CandidateDocumentRepository documentRepository;
+    private CandidateRepository candidateRepository;
 
     @Autowired
     private AssignmentService assignmentService;
@@ -48,11 +54,26 @@ public class CandidateWorkflowService {
     @Autowired
     private DocumentEvaluationService documentEvaluationService;
 
+    @Autowired
+    private DocumentCompletenessService documentCompletenessService;
+
+    @Autowired
+    private CandidateWorkflowGuards workflowGuards;
+
+    @Autowired
+    private CandidateActionsService candidateActionsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${roms.workflow.bulk-chunk-size:200}")
+    private int bulkChunkSize = 200;
+
     @Autowired
     private JobOrderRepository jobOrderRepository;
 
-    @Value("${roms.passport.min-validity-months:6}")
-    private int passportMinValidityMonths;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * Validate and transition candidate to new status
@@ -64,16 +85,83 @@ public class CandidateWorkflowService {
 
         CandidateStatus currentStatus = candidate.getCurrentStatus();
 
-        // Validate transition
-        validateTransition(candidate, currentStatus, newStatus);
+        // Validate transition against the table and guards
+        String blockReason = workflowGuards.blockReason(candidate, newStatus, guardFacts(candidate));
+        if (blockReason != null) {
+            throw new WorkflowException(blockReason);
+        }
 
-        // Apply guard logic
-        applyGuardLogic(candidate, newStatus);
+        CandidateTransitionTable.applyEntryEffects(candidate, newStatus);
 
         // Update status
         candidate.setCurrentStatus(newStatus);
 
-        return candidateRepository.save(candidate);
+        Candidate saved = candidateRepository.save(candidate);
+        publishStatusChange(saved, currentStatus);
+        return saved;
+    }
+
+    /**
+     * Move a cohort of candidates to the same status, reporting success or failure per candidate.
+     *
+     * Ids are processed in chunks, one transaction per chunk: the chunk's candidates are loaded
+     * and locked in one query, guard facts prefetched in two more, and the updates flushed as
+     * JDBC batches. A failure while committing a chunk fails every item of that chunk only.
+     */
+    public BulkTransitionResult bulkTransition(List<Long> candidateIds, CandidateStatus newStatus) {
+        List<Long> ids = candidateIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.size() > BULK_MAX_CANDIDATES) {
+            throw new BusinessValidationException("At most " + BULK_MAX_CANDIDATES + " candidates per bulk transition");
+        }
+        long started = System.currentTimeMillis();
+        Map<Long, BulkTransitionResult.Item> items = new HashMap<>();
+
+        for (int from = 0; from < ids.size(); from += bulkChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + bulkChunkSize, ids.size()));
+            try {
+                Map<Long, BulkTransitionResult.Item> chunkItems = transactionTemplate.execute(
+                        status -> transitionChunk(chunk, newStatus));
+                items.putAll(chunkItems);
+            } catch (RuntimeException e) {
+                for (Long id : chunk) {
+                    items.put(id, new BulkTransitionResult.Item(id, false, null, "Transition failed: " + e.getMessage()));
+                }
+            }
+        }
+
+        List<BulkTransitionResult.Item> results = ids.stream().map(items::get).toList();
+        int succeeded = (int) results.stream().filter(BulkTransitionResult.Item::isSuccess).count();
+        return BulkTransitionResult.builder()
+                .targetStatus(newStatus)
+                .requested(ids.size())
+                .succeeded(succeeded)
+                .failed(ids.size() - succeeded)
+                .durationMs(System.currentTimeMillis() - started)
+                .results(results)
+                .build();
+    }
+
+    private Map<Long, BulkTransitionResult.Item> transitionChunk(List<Long> ids, CandidateStatus newStatus) {
+        List<Candidate> candidates = candidateRepository.findAllByIdForUpdate(ids);
+        Map<Long, WorkflowGuardFacts> facts = candidateActionsService.prefetchFacts(candidates);
+
+        Map<Long, BulkTransitionResult.Item> items = new HashMap<>();
+        for (Candidate candidate : candidates) {
+            CandidateStatus previousStatus = candidate.getCurrentStatus();
+            String blockReason = workflowGuards.blockReason(candidate, newStatus, facts.get(candidate.getId()));
+            if (blockReason != null) {
+                items.put(candidate.getId(), new BulkTransitionResult.Item(candidate.getId(), false, previousStatus, blockReason));
+                continue;
+            }
+            CandidateTransitionTable.applyEntryEffects(candidate, newStatus);
+            candidate.setCurrentStatus(newStatus);
+            publishStatusChange(candidate, previousStatus);
+            items.put(candidate.getId(), new BulkTransitionResult.Item(candidate.getId(), true, previousStatus, null));
+        }
+        for (Long id : ids) {
+            items.putIfAbsent(id, new BulkTransitionResult.Item(id, false, null, "Candidate not found with id: " + id));
+        }
+        return items;
     }
 
     /**
@@ -97,7 +185,9 @@ public class CandidateWorkflowService {
             candidate.setCurrentStatus(CandidateStatus.DOCUMENTS_INSUFFICIENT);
         }
 
-        return candidateRepository.save(candidate);
+        Candidate saved = candidateRepository.save(candidate);
+        publishStatusChange(saved, CandidateStatus.UNDER_REVIEW);
+        return saved;
     }
 
     /**
@@ -129,7 +219,9 @@ public class CandidateWorkflowService {
             candidate.setMedicalStatus(MedicalStatus.PENDING);
         }
 
-        return candidateRepository.save(candidate);
+        Candidate saved = candidateRepository.save(candidate);
+        publishStatusChange(saved, CandidateStatus.DOCUMENTS_APPROVED);
+        return saved;
     }
 
     /**
@@ -145,259 +237,61 @@ public class CandidateWorkflowService {
         }
 
         candidate.setCurrentStatus(CandidateStatus.OFFER_ACCEPTED);
-        return candidateRepository.save(candidate);
-    }
-
-    /**
-     * Validate if transition is allowed
-     */
-    private void validateTransition(Candidate candidate, CandidateStatus from, CandidateStatus to) {
-        // Cannot transition if already in terminal states
-        if (from == CandidateStatus.PLACED || from == CandidateStatus.REJECTED) {
-            throw new WorkflowException("Cannot transition from terminal status: " + from);
-        }
-
-        // Define valid transitions for canonical workflow
-        switch (to) {
-            case UNDER_REVIEW:
-                if (from != CandidateStatus.APPLICATION_SUBMITTED) {
-                    throw new WorkflowException("Can only set UNDER_REVIEW from APPLICATION_SUBMITTED status");
-                }
-                break;
-            case DOCUMENTS_INSUFFICIENT:
-                if (from != CandidateStatus.UNDER_REVIEW) {
-                    throw new WorkflowException("Can only set DOCUMENTS_INSUFFICIENT from UNDER_REVIEW status");
-                }
-                break;
-            case DOCUMENTS_APPROVED:
-                if (from != CandidateStatus.UNDER_REVIEW && from != CandidateStatus.DOCUMENTS_INSUFFICIENT) {
-                    throw new WorkflowException("Can only approve documents from UNDER_REVIEW or DOCUMENTS_INSUFFICIENT status");
-                }
-                break;
-            case INTERVIEW_SCHEDULED:
-                if (from != CandidateStatus.DOCUMENTS_APPROVED) {
-                    throw new WorkflowException("Can only schedule interview after documents are approved");
-                }
-                break;
-            case INTERVIEW_PASSED:
-                if (from != CandidateStatus.INTERVIEW_SCHEDULED) {
-                    throw new WorkflowException("Can only pass interview after it is scheduled");
-                }
-                break;
-            case MEDICAL_PENDING:
-                if (from != CandidateStatus.INTERVIEW_PASSED) {
-                    throw new WorkflowException("Can only set MEDICAL_PENDING after interview is passed");
-                }
-                break;
-            case MEDICAL_PASSED:
-                if (from != CandidateStatus.MEDICAL_PENDING) {
-                    throw new WorkflowException("Can only pass medical from MEDICAL_PENDING status");
-                }
-                break;
-            case VISA_PROCESSING:
-                if (from != CandidateStatus.MEDICAL_PASSED) {
-                    throw new WorkflowException("Can only start visa processing after medical is passed");
-                }
-                break;
-            case OFFER_ISSUED:
-                if (from != CandidateStatus.VISA_PROCESSING) {
-                    throw new WorkflowException("Can only issue offer after visa processing");
-                }
-                break;
-            case OFFER_ACCEPTED:
-                if (from != CandidateStatus.OFFER_ISSUED) {
-                    throw new WorkflowException("Can only accept offer after it is issued");
-                }
-                break;
-            case DEPLOYMENT_PENDING:
-                if (from != CandidateStatus.OFFER_ACCEPTED) {
-                    throw new WorkflowException("Can only set DEPLOYMENT_PENDING after offer is accepted");
-                }
-                break;
-            case PLACED:
-                if (from != CandidateStatus.DEPLOYMENT_PENDING) {
-                    throw new WorkflowException("Can only place candidate after deployment is pending");
-                }
-                break;
-            case REJECTED:
-                // Can reject from any non-terminal status
-                break;
-            default:
-                break;
-        }
+        Candidate saved = candidateRepository.save(candidate);
+        publishStatusChange(saved, CandidateStatus.OFFER_ISSUED);
+        return saved;
     }
 
     /**
-     * Apply guard logic rules before transition
+     * Publish status change for dashboard counters and other listeners (delivered after commit)
      */
-    private void applyGuardLogic(Candidate candidate, CandidateStatus newStatus) {
-        switch (newStatus) {
-            case UNDER_REVIEW:
-                // Ensure required documents are uploaded
-                validateRequiredDocuments(candidate);
-                break;
-            case DOCUMENTS_APPROVED:
-                // Ensure passport validity before approval
-                validatePassportValidity(candidate);
-                break;
-            case INTERVIEW_SCHEDULED:
-                // Ensure interview details are set
-                if (candidate.getInterviewDate() == null) {
-                    throw new WorkflowException("Cannot schedule interview: Interview date is required");
-                }
-                break;
-            case MEDICAL_PENDING:
-                // Set medical status to in progress
-                candidate.setMedicalStatus(MedicalStatus.PENDING);
-                break;
-            case MEDICAL_PASSED:
-                // Set medical status to passed
-                candidate.setMedicalStatus(MedicalStatus.PASSED);
-                break;
-            case OFFER_ISSUED:
-                // Medical Rule: Cannot issue offer unless medical status is PASSED
-                if (candidate.getMedicalStatus() != MedicalStatus.PASSED) {
-                    throw new WorkflowException("Cannot issue offer: Medical status must be PASSED");
-                }
-                break;
-            case VISA_PROCESSING:
-                // CRITICAL PHASE 2B RULE: Downpayment required before visa processing
-                validateDownpaymentPaid(candidate);
-                break;
-            case PLACED:
-                // Fulfillment Rule: Check active assignment
-                validateActiveAssignment(candidate);
-                // CRITICAL PHASE 2B RULE: Full commission payment required before placement
-                validateFullPaymentComplete(candidate);
-                break;
-            default:
-                break;
-        }
+    private void publishStatusChange(Candidate candidate, CandidateStatus previousStatus) {
+        eventPublisher.publishEvent(new CandidateStatusChangedEvent(
+                candidate.getId(), previousStatus, candidate.getCurrentStatus()));
     }
 
     /**
-     * Phase 2B: Validate downpayment is complete
-     * BLOCKS VISA_PROCESSING transition
+     * Check if candidate can transition to a specific status
      */
-    private void validateDownpaymentPaid(Candidate candidate) {
-        // Get active assignment
-        var activeAssignment = assignmentService.getActiveAssignment(candidate.getId());
-        if (activeAssignment == null) {
-            throw new WorkflowException("Cannot process visa: No active assignment found");
-        }
-
-        // Check downpayment status
-        boolean downpaymentComplete = commissionPaymentService.isDownpaymentComplete(activeAssignment.getId());
-        if (!downpaymentComplete) {
-            throw new WorkflowException("Downpayment required before visa processing. Please complete the required downpayment through the commission agreement.");
-        }
+    public boolean canTransition(Long candidateId, CandidateStatus newStatus) {
+        return getTransitionBlockReason(candidateId, newStatus) == null;
     }
 
     /**
-     * Phase 2B: Validate full commission payment is complete
-     * BLOCKS PLACED transition
+     * Get reason why transition is not allowed
      */
-    private void validateFullPaymentComplete(Candidate candidate) {
-        // Get active assignment
-        var activeAssignment = assignmentService.getActiveAssignment(candidate.getId());
-        if (activeAssignment == null) {
-            throw new WorkflowException("Cannot place candidate: No active assignment found");
-        }
-
-        // Check full payment status
-        boolean fullPaymentComplete = commissionPaymentService.isFullPaymentComplete(activeAssignment.getId());
-        if (!fullPaymentComplete) {
-            throw new WorkflowException("Full commission payment required before placement. Outstanding balance must be paid.");
-        }
+    public String getTransitionBlockReason(Long candidateId, CandidateStatus newStatus) {
+        return candidateRepository.findById(candidateId)
+                .map(candidate -> workflowGuards.blockReason(candidate, newStatus, guardFacts(candidate)))
+                .orElse("Candidate not found");
     }
 
     /**
-     * Validate required documents are uploaded
+     * Guard facts for one candidate, each loaded only if a guard asks for it
      */
-    private void validateRequiredDocuments(Candidate candidate) {
-        // Check for essential documents
-        DocumentType[] requiredDocs = {
-            DocumentType.PASSPORT,
-            DocumentType.CV,
-            DocumentType.EDUCATIONAL_CERTIFICATE
-        };
-
-        for (DocumentType docType : requiredDocs) {
-            Optional<CandidateDocument> doc = documentRepository
-                .findByCandidateIdAndDocType(candidate.getId(), docType);
-            
-            if (doc.isEmpty()) {
-                throw new WorkflowException(
-                    "Cannot review documents: Missing required document - " + docType
-                );
+    private WorkflowGuardFacts guardFacts(Candidate candidate) {
+        return new WorkflowGuardFacts() {
+            @Override
+            public boolean hasDocuments(DocumentType... types) {
+                return documentCompletenessService.hasDocuments(candidate, types);
             }
-        }
-    }
-
-    /**
-     * Validate passport validity (Document Rule)
-     */
-    private void validatePassportValidity(Candidate candidate) {
-        LocalDate minValidDate = LocalDate.now().plusMonths(passportMinValidityMonths);
-
-        if (candidate.getPassportExpiry() == null) {
-            throw new WorkflowException("Passport expiry date is required");
-        }
-
-        if (candidate.getPassportExpiry().isBefore(minValidDate)) {
-            throw new WorkflowException(
-                String.format("Passport must be valid for at least %d months (until %s)", 
-                    passportMinValidityMonths, minValidDate)
-            );
-        }
 
-        // Optionally verify passport document exists
-        Optional<CandidateDocument> passportDoc = documentRepository
-            .findByCandidateIdAndDocType(candidate.getId(), DocumentType.PASSPORT);
-
-        if (passportDoc.isEmpty()) {
-            throw new WorkflowException("Passport document must be uploaded");
-        }
-    }
-
-    /**
-     * Validate candidate has active assignment (Fulfillment Rule)
-     */
-    private void validateActiveAssignment(Candidate candidate) {
-        if (!assignmentService.hasActiveAssignment(candidate.getId())) {
-            throw new WorkflowException("Cannot place candidate: No active assignment found. Candidate must be assigned to a job order first.");
-        }
-    }
+            @Override
+            public boolean hasActiveAssignment() {
+                return assignmentService.hasActiveAssignment(candidate.getId());
+            }
 
-    /**
-     * Check if candidate can transition to a specific status
-     */
-    public boolean canTransition(Long candidateId, CandidateStatus newStatus) {
-        try {
-            Candidate candidate = candidateRepository.findById(candidateId)
-                    .orElseThrow(() -> new WorkflowException("Candidate not found"));
-
-            validateTransition(candidate, candidate.getCurrentStatus(), newStatus);
-            applyGuardLogic(candidate, newStatus);
-            return true;
-        } catch (WorkflowException e) {
-            return false;
-        }
-    }
+            @Override
+            public boolean isDownpaymentComplete() {
+                var activeAssignment = assignmentService.getActiveAssignment(candidate.getId());
+                return activeAssignment != null && commissionPaymentService.isDownpaymentComplete(activeAssignment.getId());
+            }
 
-    /**
-     * Get reason why transition is not allowed
-     */
-    public String getTransitionBlockReason(Long candidateId, CandidateStatus newStatus) {
-        try {
-            Candidate candidate = candidateRepository.findById(candidateId)
-                    .orElseThrow(() -> new WorkflowException("Candidate not found"));
-
-            validateTransition(candidate, candidate.getCurrentStatus(), newStatus);
-            applyGuardLogic(candidate, newStatus);
-            return null;
-        } catch (WorkflowException e) {
-            return e.getMessage();
-        }
+            @Override
+            public boolean isFullPaymentComplete() {
+                var activeAssignment = assignmentService.getActiveAssignment(candidate.getId());
+                return activeAssignment != null && commissionPaymentService.isFullPaymentComplete(activeAssignment.getId());
+            }
+        };
     }
 }
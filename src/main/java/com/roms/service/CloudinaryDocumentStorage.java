@@ -0,0 +1,53 @@
+package com.roms.service;
+
+import com.roms.entity.CandidateDocument;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+
+/**
+ * Documents in Cloudinary; downloads redirect to the asset URL
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "roms.storage.mode", havingValue = "cloud")
+public class CloudinaryDocumentStorage implements DocumentStorage {
+
+    private final CloudinaryService cloudinaryService;
+
+    @Override
+    public String getName() {
+        return CLOUDINARY;
+    }
+
+    @Override
+    public String store(MultipartFile file, Long candidateId) throws IOException {
+        return cloudinaryService.uploadFile(file, candidateId);
+    }
+
+    @Override
+    public String store(Path file, String fileName, String contentType, Long candidateId) throws IOException {
+        return cloudinaryService.uploadFile(file, fileName, candidateId);
+    }
+
+    @Override
+    public void delete(String storageId) throws IOException {
+        cloudinaryService.deleteFile(storageId);
+    }
+
+    @Override
+    public ResponseEntity<?> download(CandidateDocument document, HttpServletRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setLocation(URI.create(cloudinaryService.getFileUrl(document.getDriveFileId())));
+        return ResponseEntity.status(HttpStatus.FOUND).headers(headers).build();
+    }
+}
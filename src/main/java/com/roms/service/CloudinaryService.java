@@ -10,6 +10,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
@@ -77,6 +78,38 @@ public class CloudinaryService {
         }
     }
 
+    /**
+     * Upload a file already on disk to Cloudinary (write-behind replication)
+     * @param path The file to upload
+     * @param originalFileName Name the file was uploaded under
+     * @param candidateId The candidate ID for organizing files
+     * @return Cloudinary public ID
+     */
+    public String uploadFile(Path path, String originalFileName, Long candidateId) throws IOException {
+        log.info("Uploading stored file {} for candidate {} to Cloudinary", originalFileName, candidateId);
+
+        try {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            String publicId = String.format("roms/candidate_%d/%s_%s",
+                candidateId, timestamp, originalFileName.replaceAll("[^a-zA-Z0-9._-]", "_"));
+
+            // The SDK streams a File from disk rather than reading it into memory
+            Map<?, ?> uploadResult = cloudinary.uploader().upload(path.toFile(), ObjectUtils.asMap(
+                "public_id", publicId,
+                "resource_type", "auto",
+                "folder", "roms/documents"
+            ));
+
+            String fileId = (String) uploadResult.get("public_id");
+            log.info("File uploaded successfully to Cloudinary. Public ID: {}", fileId);
+            return fileId;
+
+        } catch (IOException e) {
+            log.error("Failed to upload file to Cloudinary: {}", e.getMessage());
+            throw new IOException("Failed to upload file to Cloudinary: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Generate shareable URL for file
      * @param publicId Cloudinary public ID
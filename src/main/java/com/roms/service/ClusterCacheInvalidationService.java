@@ -0,0 +1,417 @@
+package com.roms.service;
+
+import com.roms.event.AssignmentStatusChangedEvent;
+import com.roms.event.CacheInvalidationEvent;
+import com.roms.event.CandidateStatusChangedEvent;
+import com.roms.event.DocumentChangedEvent;
+import com.roms.event.EmployerChangedEvent;
+import com.roms.event.JobOrderChangedEvent;
+import com.roms.event.PaymentRecordedEvent;
+import com.roms.event.UserAccountChangedEvent;
+import com.roms.event.UserTokensRevokedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-wide invalidation of in-process caches over Postgres LISTEN/NOTIFY
+ *
+ * Each node keeps user details, applicant workflow views, second-level cache regions,
+ * dashboard counters and token revocations in memory. Entity changes are turned into keys
+ * ("candidate:42", "username:jdoe", ...) after commit, coalesced for a short window and
+ * sent as one NOTIFY per window; every other node republishes them locally as a
+ * {@link CacheInvalidationEvent} and the cache owners evict what they hold.
+ *
+ * - A burst larger than max-keys-per-flush is sent as a single flush-everything marker
+ * - Token revocations are never folded into that marker: a flush drops cached data that can be
+ *   reloaded, but a revocation only exists in the key, so they are always sent one by one
+ * - NOTIFY failures put the keys back for the next window
+ * - The listener holds its own connection (not a pool slot); when it is lost, anything sent
+ *   meanwhile is gone, so after re-LISTENing the node flushes every cache
+ *
+ * Only active against PostgreSQL; elsewhere (H2 in tests, single-node dev) caches stay local.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterCacheInvalidationService {
+
+    static final String CHANNEL = "roms_cache_invalidation";
+    static final String FLUSH_ALL = "*";
+    /** NOTIFY payloads must be shorter than 8000 bytes */
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${roms.cluster.invalidation.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${roms.cluster.invalidation.max-keys-per-flush:1000}")
+    private int maxKeysPerFlush = 1000;
+
+    @Value("${roms.cluster.invalidation.poll-timeout-ms:5000}")
+    private int pollTimeoutMs = 5000;
+
+    @Value("${roms.cluster.invalidation.reconnect-backoff-ms:1000}")
+    private long reconnectBackoffMs = 1000L;
+
+    @Value("${roms.cluster.invalidation.max-reconnect-backoff-ms:60000}")
+    private long maxReconnectBackoffMs = 60000L;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    /** USER_TOKENS keys, kept apart from pending so a flush-everything marker cannot replace them */
+    private final Set<String> pendingRevocations = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushAllPending = new AtomicBoolean();
+    private final AtomicLong keysSent = new AtomicLong();
+    private final AtomicLong notificationsSent = new AtomicLong();
+    private final AtomicLong notificationsReceived = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    private volatile boolean active = false;
+    private volatile boolean listening = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        String url = dataSourceProperties.determineUrl();
+        if (!enabled || url == null || !url.startsWith("jdbc:postgresql:")) {
+            log.info("Cluster cache invalidation disabled, caches are local to this node");
+            return;
+        }
+        active = true;
+        Thread listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+        log.info("Cluster cache invalidation started as node {}", nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        active = false;
+    }
+
+    /**
+     * Announce changed keys to the other nodes once the current transaction commits
+     * (immediately when there is none). Keys are built with {@link CacheInvalidationEvent#key}.
+     */
+    public void publish(String... keys) {
+        if (!active) {
+            return;
+        }
+        List<String> changed = List.of(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(changed);
+                }
+            });
+        } else {
+            enqueue(changed);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", nodeId);
+        stats.put("active", active);
+        stats.put("listening", listening);
+        stats.put("pendingKeys", pending.size() + pendingRevocations.size());
+        stats.put("keysSent", keysSent.get());
+        stats.put("notificationsSent", notificationsSent.get());
+        stats.put("notificationsReceived", notificationsReceived.get());
+        stats.put("reconnects", reconnects.get());
+        return stats;
+    }
+
+    // ------------------------------------------------------------------
+    // Domain events to keys (already after commit, so enqueued directly)
+    // ------------------------------------------------------------------
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        List<String> keys = new ArrayList<>();
+        keys.add(CacheInvalidationEvent.key(CacheInvalidationEvent.USER, event.getUserId()));
+        if (event.getPreviousUsername() != null) {
+            keys.add(CacheInvalidationEvent.key(CacheInvalidationEvent.USERNAME, event.getPreviousUsername()));
+        }
+        if (event.getUsername() != null) {
+            keys.add(CacheInvalidationEvent.key(CacheInvalidationEvent.USERNAME, event.getUsername()));
+        }
+        enqueue(keys);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserTokensRevoked(UserTokensRevokedEvent event) {
+        enqueue(List.of(CacheInvalidationEvent.key(CacheInvalidationEvent.USER_TOKENS,
+                event.getUserId() + "@" + event.getRevokedAt())));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCandidateStatusChanged(CandidateStatusChangedEvent event) {
+        enqueue(List.of(CacheInvalidationEvent.key(CacheInvalidationEvent.CANDIDATE, event.getCandidateId()),
+                CacheInvalidationEvent.DASHBOARD_COUNTERS));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        enqueue(List.of(CacheInvalidationEvent.key(CacheInvalidationEvent.CANDIDATE, event.getCandidateId())));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentRecorded(PaymentRecordedEvent event) {
+        enqueue(List.of(CacheInvalidationEvent.key(CacheInvalidationEvent.CANDIDATE, event.getCandidateId()),
+                CacheInvalidationEvent.DASHBOARD_COUNTERS));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAssignmentStatusChanged(AssignmentStatusChangedEvent event) {
+        // Creating and cancelling assignments also rewrites the job order's headcountFilled
+        enqueue(List.of(CacheInvalidationEvent.key(CacheInvalidationEvent.CANDIDATE, event.getCandidateId()),
+                CacheInvalidationEvent.key(CacheInvalidationEvent.JOB_ORDER, event.getJobOrderId()),
+                CacheInvalidationEvent.DASHBOARD_COUNTERS));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEmployerChanged(EmployerChangedEvent event) {
+        List<String> keys = new ArrayList<>();
+        keys.add(CacheInvalidationEvent.key(CacheInvalidationEvent.EMPLOYER, event.getEmployerId()));
+        if (event.isPreviouslyActive() != event.isActive()) {
+            keys.add(CacheInvalidationEvent.DASHBOARD_COUNTERS);
+        }
+        enqueue(keys);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onJobOrderChanged(JobOrderChangedEvent event) {
+        enqueue(List.of(CacheInvalidationEvent.key(CacheInvalidationEvent.JOB_ORDER, event.getJobOrderId()),
+                CacheInvalidationEvent.DASHBOARD_COUNTERS));
+    }
+
+    // ------------------------------------------------------------------
+    // Sending
+    // ------------------------------------------------------------------
+
+    /**
+     * Send everything enqueued since the last window
+     */
+    @Scheduled(fixedDelayString = "${roms.cluster.invalidation.coalesce-ms:100}")
+    public void flush() {
+        if (!active) {
+            return;
+        }
+        boolean flushAll = flushAllPending.getAndSet(false);
+        List<String> revocations = drain(pendingRevocations);
+        List<String> keys = new ArrayList<>(revocations);
+        if (flushAll) {
+            pending.clear();
+            keys.add(FLUSH_ALL);
+        } else {
+            keys.addAll(drain(pending));
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (String payload : encode(nodeId, keys)) {
+                jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+                notificationsSent.incrementAndGet();
+            }
+            keysSent.addAndGet(keys.size());
+        } catch (DataAccessException e) {
+            // Try again next window; chunks already sent are harmless to repeat
+            log.warn("Could not send {} cache invalidation keys: {}", keys.size(), e.getMessage());
+            pendingRevocations.addAll(revocations);
+            if (flushAll) {
+                flushAllPending.set(true);
+            } else {
+                enqueue(keys.subList(revocations.size(), keys.size()));
+            }
+        }
+    }
+
+    void enqueue(Collection<String> keys) {
+        if (!active) {
+            return;
+        }
+        List<String> cacheKeys = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            if (isRevocation(key)) {
+                pendingRevocations.add(key);
+            } else {
+                cacheKeys.add(key);
+            }
+        }
+        if (pending.size() + cacheKeys.size() > maxKeysPerFlush) {
+            // Cheaper for everyone to drop their caches than to evict key by key
+            flushAllPending.set(true);
+            pending.clear();
+            return;
+        }
+        pending.addAll(cacheKeys);
+    }
+
+    private static boolean isRevocation(String key) {
+        return key.startsWith(CacheInvalidationEvent.USER_TOKENS + ":");
+    }
+
+    private static List<String> drain(Set<String> keys) {
+        List<String> drained = new ArrayList<>();
+        for (Iterator<String> it = keys.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    /**
+     * One payload per chunk: the origin node id, then the keys, newline-separated
+     */
+    static List<String> encode(String origin, Collection<String> keys) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(origin);
+        int bytes = origin.length();
+        for (String key : keys) {
+            int keyBytes = key.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (bytes + keyBytes > MAX_PAYLOAD_BYTES && payload.length() > origin.length()) {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(origin);
+                bytes = origin.length();
+            }
+            payload.append('\n').append(key);
+            bytes += keyBytes;
+        }
+        payloads.add(payload.toString());
+        return payloads;
+    }
+
+    // ------------------------------------------------------------------
+    // Receiving
+    // ------------------------------------------------------------------
+
+    private void listen() {
+        long backoff = reconnectBackoffMs;
+        boolean missedChanges = false;
+        while (active) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                listening = true;
+                backoff = reconnectBackoffMs;
+                if (missedChanges) {
+                    // Listening again, so nothing from here on is lost - drop whatever went stale meanwhile
+                    reconnects.incrementAndGet();
+                    log.warn("Cache invalidation listener reconnected, flushing local caches");
+                    dispatch(new CacheInvalidationEvent(Set.of(), true));
+                    missedChanges = false;
+                }
+
+                while (active) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null && notifications.length > 0) {
+                        List<String> payloads = new ArrayList<>(notifications.length);
+                        for (PGNotification notification : notifications) {
+                            payloads.add(notification.getParameter());
+                        }
+                        onNotifications(payloads);
+                    } else {
+                        // Idle: make sure the connection is still there rather than silently dead
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                listening = false;
+                missedChanges = true;
+                if (!active) {
+                    return;
+                }
+                log.warn("Cache invalidation listener disconnected, retrying in {} ms: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, maxReconnectBackoffMs);
+            }
+        }
+        listening = false;
+    }
+
+    /**
+     * Merge one batch of received notifications (skipping this node's own) into a single event
+     */
+    void onNotifications(List<String> payloads) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String payload : payloads) {
+            String[] parts = payload.split("\n");
+            if (parts[0].equals(nodeId)) {
+                continue;
+            }
+            notificationsReceived.incrementAndGet();
+            for (int i = 1; i < parts.length; i++) {
+                keys.add(parts[i]);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (keys.contains(FLUSH_ALL)) {
+            // Everything cached goes anyway, but the revocations sent alongside must still be applied
+            keys.removeIf(key -> !isRevocation(key));
+            dispatch(new CacheInvalidationEvent(Set.copyOf(keys), true));
+        } else {
+            dispatch(new CacheInvalidationEvent(Set.copyOf(keys), false));
+        }
+    }
+
+    private void dispatch(CacheInvalidationEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            // One failing cache owner must not stop the listener
+            log.error("Applying cache invalidation failed", e);
+        }
+    }
+}
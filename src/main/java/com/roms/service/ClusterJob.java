@@ -0,0 +1,14 @@
+package com.roms.service;
+
+/**
+ * A batch job run by ScheduledJobRunner on exactly one node of the cluster.
+ *
+ * Work should be done in chunks, each ending with {@link JobRunContext#checkpoint} - ideally
+ * inside the chunk's own transaction, so the chunk and its checkpoint commit together. On
+ * resume the job continues from {@link JobRunContext#getCheckpoint()}.
+ */
+@FunctionalInterface
+public interface ClusterJob<T> {
+
+    T execute(JobRunContext context);
+}
@@ -8,10 +8,12 @@ import com.roms.entity.Payment;
 import com.roms.enums.AgreementStatus;
 import com.roms.enums.PaymentType;
 import com.roms.enums.TransactionType;
+import com.roms.event.PaymentRecordedEvent;
 import com.roms.repository.AgencyCommissionAgreementRepository;
 import com.roms.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,6 +40,7 @@ public class CommissionPaymentService {
     private final PaymentRepository paymentRepository;
     private final AgencyCommissionAgreementRepository agreementRepository;
     private final AgencyCommissionAgreementService agreementService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Record downpayment
@@ -94,6 +97,7 @@ public class CommissionPaymentService {
 
         payment = paymentRepository.save(payment);
         log.info("Downpayment recorded: {} for agreement {}", payment.getId(), agreement.getId());
+        publishPaymentRecorded(payment);
 
         return toDTO(payment);
     }
@@ -158,6 +162,7 @@ public class CommissionPaymentService {
 
         payment = paymentRepository.save(payment);
         log.info("Installment recorded: {} for agreement {}", payment.getId(), agreement.getId());
+        publishPaymentRecorded(payment);
 
         // Check if fully paid
         if (afterPayment.compareTo(agreement.getTotalCommissionAmount()) == 0) {
@@ -198,6 +203,7 @@ public class CommissionPaymentService {
         // Create reversal
         Payment reversalPayment = originalPayment.createReversal(reason, "SYSTEM"); // Should get from SecurityContext
         reversalPayment = paymentRepository.save(reversalPayment);
+        publishPaymentRecorded(reversalPayment);
 
         log.info("Reversal created: {} for original payment {}", reversalPayment.getId(), paymentId);
 
@@ -267,6 +273,19 @@ public class CommissionPaymentService {
                 .orElse(false);
     }
 
+    /**
+     * Publish ledger posting (delivered to listeners after commit)
+     */
+    private void publishPaymentRecorded(Payment payment) {
+        eventPublisher.publishEvent(new PaymentRecordedEvent(
+                payment.getId(),
+                payment.getCandidate() != null ? payment.getCandidate().getId() : null,
+                payment.getAgreement() != null ? payment.getAgreement().getId() : null,
+                payment.getTransactionType(),
+                payment.getAmount(),
+                Boolean.TRUE.equals(payment.getIsReversal())));
+    }
+
     /**
      * Convert Payment entity to DTO
      */
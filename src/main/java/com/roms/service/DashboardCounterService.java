@@ -0,0 +1,434 @@
+package com.roms.service;
+
+import com.roms.dto.DashboardStatsDTO;
+import com.roms.entity.DashboardCounter;
+import com.roms.enums.AssignmentStatus;
+import com.roms.enums.CandidateStatus;
+import com.roms.enums.JobOrderStatus;
+import com.roms.enums.TransactionType;
+import com.roms.event.AssignmentStatusChangedEvent;
+import com.roms.event.CacheInvalidationEvent;
+import com.roms.event.CandidateStatusChangedEvent;
+import com.roms.event.DashboardCountersChangedEvent;
+import com.roms.event.EmployerChangedEvent;
+import com.roms.event.JobOrderChangedEvent;
+import com.roms.event.PaymentRecordedEvent;
+import com.roms.repository.AssignmentRepository;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.DashboardCounterRepository;
+import com.roms.repository.EmployerRepository;
+import com.roms.repository.JobOrderRepository;
+import com.roms.repository.PaymentRepository;
+import com.roms.repository.projection.AssignmentStatusCount;
+import com.roms.repository.projection.StatusCount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Incrementally maintained dashboard counters
+ *
+ * Totals per status, per employer and per job order are kept in memory and
+ * updated from domain events after the publishing transaction commits, so
+ * dashboard reads are map lookups rather than queries.
+ *
+ * - Warmed from the dashboard_counters snapshot on startup (or reconciled if empty); the
+ *   snapshot may be hours old, so a catch-up reconciliation follows within remote-refresh-ms
+ * - Snapshot persisted periodically, one row per counter updated in place
+ * - Periodic reconciliation recomputes every counter from the database and corrects drift;
+ *   deltas applied while its queries run are replayed onto the result before it replaces the counters
+ *
+ * Changes made on other nodes cannot be applied as deltas here; they mark the
+ * counters stale and a recompute follows within remote-refresh-ms.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardCounterService {
+
+    static final String CANDIDATES_STATUS = "candidates.status.";
+    static final String JOB_ORDERS_STATUS = "jobOrders.status.";
+    static final String JOB_ORDERS_OPEN_HEADCOUNT = "jobOrders.openHeadcount";
+    static final String EMPLOYERS_ACTIVE = "employers.active";
+    static final String ASSIGNMENTS_STATUS = "assignments.status.";
+    static final String PAYMENTS_TYPE = "payments.type.";
+    private static final String EMPLOYER_KEY_PREFIX = "employer.";
+    private static final String JOB_ORDER_KEY_PREFIX = "jobOrder.";
+
+    private final DashboardCounterRepository counterRepository;
+    private final CandidateRepository candidateRepository;
+    private final EmployerRepository employerRepository;
+    private final JobOrderRepository jobOrderRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final PaymentRepository paymentRepository;
+    private final DashboardStatsService dashboardStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+    private volatile boolean dirty = false;
+    private volatile boolean remoteChanges = false;
+    private volatile boolean catchUpPending = false;
+
+    /** Guards applying deltas against a recompute swapping the counters */
+    private final Object swapLock = new Object();
+    /** Deltas applied since the running recompute started, in order; null when none is running */
+    private List<Map<String, Long>> recomputeDeltas;
+
+    /**
+     * Admin dashboard totals from the in-memory counters.
+     * Falls back to the aggregate query until the counters are warmed.
+     */
+    public DashboardStatsDTO getDashboardStats() {
+        if (!loaded) {
+            return dashboardStatsService.getDashboardStats();
+        }
+
+        long totalCandidates = 0;
+        for (CandidateStatus status : CandidateStatus.values()) {
+            totalCandidates += get(CANDIDATES_STATUS + status);
+        }
+        long totalJobOrders = 0;
+        for (JobOrderStatus status : JobOrderStatus.values()) {
+            totalJobOrders += get(JOB_ORDERS_STATUS + status);
+        }
+
+        return DashboardStatsDTO.builder()
+                .totalCandidates(totalCandidates)
+                .totalEmployers(get(EMPLOYERS_ACTIVE))
+                .totalJobOrders(totalJobOrders)
+                .openPositions(get(JOB_ORDERS_OPEN_HEADCOUNT))
+                .build();
+    }
+
+    /**
+     * All counters, sorted by key (per status, per employer, per job order)
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((key, value) -> snapshot.put(key, value.get()));
+        return snapshot;
+    }
+
+    /**
+     * Assignment count for an employer in a given status
+     */
+    public long getEmployerAssignmentCount(Long employerId, AssignmentStatus status) {
+        return get(employerKey(employerId) + status);
+    }
+
+    /**
+     * Assignment count for a job order in a given status
+     */
+    public long getJobOrderAssignmentCount(Long jobOrderId, AssignmentStatus status) {
+        return get(jobOrderKey(jobOrderId) + status);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // ------------------------------------------------------------------
+    // Event handlers
+    // ------------------------------------------------------------------
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCandidateStatusChanged(CandidateStatusChangedEvent event) {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        move(deltas, CANDIDATES_STATUS, event.getPreviousStatus(), event.getNewStatus());
+        apply(deltas);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAssignmentStatusChanged(AssignmentStatusChangedEvent event) {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        move(deltas, ASSIGNMENTS_STATUS, event.getPreviousStatus(), event.getNewStatus());
+        move(deltas, employerKey(event.getEmployerId()), event.getPreviousStatus(), event.getNewStatus());
+        move(deltas, jobOrderKey(event.getJobOrderId()), event.getPreviousStatus(), event.getNewStatus());
+        apply(deltas);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onJobOrderChanged(JobOrderChangedEvent event) {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        move(deltas, JOB_ORDERS_STATUS, event.getPreviousStatus(), event.getNewStatus());
+
+        if (event.getPreviousStatus() == JobOrderStatus.OPEN && event.getPreviousHeadcountRequired() != null) {
+            deltas.merge(JOB_ORDERS_OPEN_HEADCOUNT, (long) -event.getPreviousHeadcountRequired(), Long::sum);
+        }
+        if (event.getNewStatus() == JobOrderStatus.OPEN && event.getNewHeadcountRequired() != null) {
+            deltas.merge(JOB_ORDERS_OPEN_HEADCOUNT, (long) event.getNewHeadcountRequired(), Long::sum);
+        }
+        apply(deltas);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEmployerChanged(EmployerChangedEvent event) {
+        if (event.isPreviouslyActive() != event.isActive()) {
+            apply(Map.of(EMPLOYERS_ACTIVE, event.isActive() ? 1L : -1L));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentRecorded(PaymentRecordedEvent event) {
+        TransactionType type = event.isReversal() ? TransactionType.REVERSAL : event.getTransactionType();
+        if (type != null) {
+            apply(Map.of(PAYMENTS_TYPE + type, 1L));
+        }
+    }
+
+    /**
+     * Counted entities changed on another node
+     */
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isFullFlush() || event.contains(CacheInvalidationEvent.DASHBOARD_COUNTERS)) {
+            remoteChanges = true;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Snapshot and reconciliation
+    // ------------------------------------------------------------------
+
+    /**
+     * Warm counters from the persisted snapshot, or from the database if there is none.
+     * Changes committed while this node was down are not in the snapshot, so a reconciliation
+     * is queued for the next refresh; until then the dashboard shows the snapshot values.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSnapshot() {
+        ConcurrentHashMap<String, AtomicLong> restored = new ConcurrentHashMap<>();
+        for (DashboardCounter counter : counterRepository.findAll()) {
+            restored.put(counter.getCounterKey(), new AtomicLong(counter.getCounterValue()));
+        }
+
+        if (restored.isEmpty()) {
+            log.info("No dashboard counter snapshot found, reconciling from database");
+            reconcile();
+            return;
+        }
+
+        counters = restored;
+        loaded = true;
+        catchUpPending = true;
+        log.info("Dashboard counters restored from snapshot: {} keys, reconciling shortly", restored.size());
+    }
+
+    /**
+     * Persist the current counter values. Rows are updated in place, never emptied first, so a
+     * node starting meanwhile (or another node saving at the same time) never reads a partial snapshot.
+     */
+    @Scheduled(fixedDelayString = "${roms.dashboard.counters.snapshot-interval-ms:60000}",
+               initialDelayString = "${roms.dashboard.counters.snapshot-interval-ms:60000}")
+    @Transactional
+    public void saveSnapshot() {
+        if (!loaded || !dirty) {
+            return;
+        }
+        dirty = false;
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, DashboardCounter> saved = new HashMap<>();
+        for (DashboardCounter row : counterRepository.findAll()) {
+            saved.put(row.getCounterKey(), row);
+        }
+
+        List<DashboardCounter> added = new ArrayList<>();
+        counters.forEach((key, value) -> {
+            DashboardCounter row = saved.remove(key);
+            if (row == null) {
+                added.add(DashboardCounter.builder().counterKey(key).counterValue(value.get()).updatedAt(now).build());
+            } else if (row.getCounterValue() != value.get()) {
+                row.setCounterValue(value.get());
+                row.setUpdatedAt(now);
+            }
+        });
+        counterRepository.saveAll(added);
+        // Keys dropped by a reconciliation (e.g. a deleted job order's assignment counts)
+        counterRepository.deleteAllByIdInBatch(saved.keySet());
+    }
+
+    /**
+     * Recompute every counter with grouped aggregate queries and replace the in-memory values
+     */
+    @Scheduled(cron = "${roms.dashboard.counters.reconcile-cron:0 */15 * * * *}")
+    public void reconcile() {
+        recompute(true);
+    }
+
+    /**
+     * Recompute once per interval while other nodes are changing counted entities,
+     * however many changes arrived in between; also runs the catch-up after a snapshot restore
+     */
+    @Scheduled(fixedDelayString = "${roms.dashboard.counters.remote-refresh-ms:5000}")
+    public void refreshAfterRemoteChanges() {
+        if (catchUpPending) {
+            catchUpPending = false;
+            remoteChanges = false;
+            recompute(true);
+            return;
+        }
+        if (!remoteChanges) {
+            return;
+        }
+        remoteChanges = false;
+        recompute(false);
+    }
+
+    /**
+     * Deltas committed while the aggregate queries run are replayed onto their result, but only
+     * onto counters whose query started before the delta arrived: later queries already saw it.
+     */
+    private synchronized void recompute(boolean reportDrift) {
+        ConcurrentHashMap<String, AtomicLong> fresh = new ConcurrentHashMap<>();
+        // Counter key prefix -> deltas already buffered when its query started
+        Map<String, Integer> queryStarts = new LinkedHashMap<>();
+        synchronized (swapLock) {
+            recomputeDeltas = new ArrayList<>();
+        }
+
+        try {
+            queryStarts.put(CANDIDATES_STATUS, bufferedDeltas());
+            for (StatusCount<CandidateStatus> row : candidateRepository.countActiveByStatus()) {
+                fresh.put(CANDIDATES_STATUS + row.getStatus(), new AtomicLong(row.getTotal()));
+            }
+            queryStarts.put(JOB_ORDERS_STATUS, bufferedDeltas());
+            for (StatusCount<JobOrderStatus> row : jobOrderRepository.countActiveByStatus()) {
+                fresh.put(JOB_ORDERS_STATUS + row.getStatus(), new AtomicLong(row.getTotal()));
+            }
+            queryStarts.put(JOB_ORDERS_OPEN_HEADCOUNT, bufferedDeltas());
+            fresh.put(JOB_ORDERS_OPEN_HEADCOUNT, new AtomicLong(jobOrderRepository.sumOpenHeadcount()));
+            queryStarts.put(EMPLOYERS_ACTIVE, bufferedDeltas());
+            fresh.put(EMPLOYERS_ACTIVE, new AtomicLong(employerRepository.countByDeletedAtIsNull()));
+
+            int assignmentsStart = bufferedDeltas();
+            queryStarts.put(ASSIGNMENTS_STATUS, assignmentsStart);
+            queryStarts.put(EMPLOYER_KEY_PREFIX, assignmentsStart);
+            queryStarts.put(JOB_ORDER_KEY_PREFIX, assignmentsStart);
+            for (AssignmentStatusCount row : assignmentRepository.countByEmployerJobOrderAndStatus()) {
+                fresh.computeIfAbsent(ASSIGNMENTS_STATUS + row.getStatus(), key -> new AtomicLong()).addAndGet(row.getTotal());
+                fresh.computeIfAbsent(employerKey(row.getEmployerId()) + row.getStatus(), key -> new AtomicLong()).addAndGet(row.getTotal());
+                fresh.put(jobOrderKey(row.getJobOrderId()) + row.getStatus(), new AtomicLong(row.getTotal()));
+            }
+            queryStarts.put(PAYMENTS_TYPE, bufferedDeltas());
+            for (StatusCount<TransactionType> row : paymentRepository.countByTransactionType()) {
+                if (row.getStatus() != null) {
+                    fresh.put(PAYMENTS_TYPE + row.getStatus(), new AtomicLong(row.getTotal()));
+                }
+            }
+        } catch (RuntimeException e) {
+            synchronized (swapLock) {
+                recomputeDeltas = null;
+            }
+            throw e;
+        }
+
+        long drifted;
+        synchronized (swapLock) {
+            List<Map<String, Long>> buffered = recomputeDeltas;
+            recomputeDeltas = null;
+            for (int i = 0; i < buffered.size(); i++) {
+                int position = i;
+                buffered.get(i).forEach((key, delta) -> {
+                    if (position >= queryStart(queryStarts, key)) {
+                        fresh.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(delta);
+                    }
+                });
+            }
+            drifted = !loaded ? 0 : fresh.entrySet().stream()
+                    .filter(entry -> entry.getValue().get() != get(entry.getKey()))
+                    .count();
+            counters = fresh;
+            loaded = true;
+        }
+        if (drifted > 0 && reportDrift) {
+            log.warn("Dashboard counter reconciliation corrected {} drifted counters", drifted);
+        }
+        dirty = true;
+        if (reportDrift) {
+            log.info("Dashboard counters reconciled: {} keys", fresh.size());
+        }
+    }
+
+    private int bufferedDeltas() {
+        synchronized (swapLock) {
+            return recomputeDeltas.size();
+        }
+    }
+
+    private static int queryStart(Map<String, Integer> queryStarts, String key) {
+        for (Map.Entry<String, Integer> entry : queryStarts.entrySet()) {
+            if (key.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return 0;
+    }
+
+    // ------------------------------------------------------------------
+
+    private static void move(Map<String, Long> deltas, String prefix, Enum<?> from, Enum<?> to) {
+        if (Objects.equals(from, to)) {
+            return;
+        }
+        if (from != null) {
+            deltas.merge(prefix + from, -1L, Long::sum);
+        }
+        if (to != null) {
+            deltas.merge(prefix + to, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Apply the deltas and announce them (pushed to staff event streams)
+     */
+    private void apply(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        synchronized (swapLock) {
+            if (recomputeDeltas != null) {
+                recomputeDeltas.add(Map.copyOf(deltas));
+            }
+            if (!loaded) {
+                // Not warmed yet - the snapshot or the running reconciliation will include this change
+                return;
+            }
+            deltas.forEach((key, delta) -> counters.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(delta));
+        }
+        dirty = true;
+        eventPublisher.publishEvent(new DashboardCountersChangedEvent(Map.copyOf(deltas)));
+    }
+
+    private long get(String key) {
+        AtomicLong value = counters.get(key);
+        return value != null ? value.get() : 0L;
+    }
+
+    private static String employerKey(Long employerId) {
+        return EMPLOYER_KEY_PREFIX + employerId + ".assignments.status.";
+    }
+
+    private static String jobOrderKey(Long jobOrderId) {
+        return JOB_ORDER_KEY_PREFIX + jobOrderId + ".assignments.status.";
+    }
+}
@@ -0,0 +1,29 @@
+package com.roms.service;
+
+import com.roms.dto.DashboardStatsDTO;
+import com.roms.repository.JobOrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for admin dashboard statistics
+ *
+ * All figures are computed in the database with COUNT/SUM aggregates,
+ * so no entity rows are loaded regardless of table size.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardStatsService {
+
+    private final JobOrderRepository jobOrderRepository;
+
+    /**
+     * Get admin dashboard totals
+     * Single aggregate query - candidates, employers, job orders and open positions
+     */
+    @Transactional(readOnly = true)
+    public DashboardStatsDTO getDashboardStats() {
+        return jobOrderRepository.aggregateDashboardStats();
+    }
+}
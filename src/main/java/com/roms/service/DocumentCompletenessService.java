@@ -0,0 +1,228 @@
+package com.roms.service;
+
+import com.roms.entity.Candidate;
+import com.roms.entity.CandidateDocument;
+import com.roms.enums.DocumentType;
+import com.roms.repository.CandidateDocumentRepository;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.projection.CandidateDocumentType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps Candidate.documentMask in step with the candidate's documents
+ *
+ * Uploads and deletes update the mask in the same transaction as the document row,
+ * holding a row lock on the candidate so concurrent uploads cannot lose a bit.
+ * Workflow guards then test required documents against the mask instead of querying
+ * per document type. A nightly repair recomputes masks in chunks and logs any drift; it runs on
+ * one node of the cluster and resumes after the last checkpointed chunk if interrupted. The
+ * startup backfill of missing masks is a cluster job as well, so nodes starting together do not
+ * lock the same candidates.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentCompletenessService {
+
+    public static final String MASK_REPAIR_JOB = "document-mask-repair";
+    public static final String MASK_BACKFILL_JOB = "document-mask-backfill";
+
+    private final CandidateRepository candidateRepository;
+    private final CandidateDocumentRepository documentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledJobRunner jobRunner;
+
+    @Value("${roms.document.mask-repair-chunk-size:500}")
+    private int repairChunkSize = 500;
+
+    @PostConstruct
+    public void registerJobs() {
+        jobRunner.register(MASK_REPAIR_JOB, this::repairMasks);
+        jobRunner.register(MASK_BACKFILL_JOB, context -> backfillMasks());
+    }
+
+    /**
+     * Save a new document and set its type on the candidate's mask
+     */
+    @Transactional
+    public CandidateDocument addDocument(CandidateDocument document) {
+        Candidate candidate = lock(document.getCandidate().getId());
+        long mask = maskOf(candidate);
+
+        CandidateDocument saved = documentRepository.save(document);
+        candidate.setDocumentMask(mask | saved.getDocType().bit());
+        return saved;
+    }
+
+    /**
+     * Delete a document and clear its type from the mask unless another document of that type remains
+     */
+    @Transactional
+    public void removeDocument(CandidateDocument document) {
+        Candidate candidate = lock(document.getCandidate().getId());
+        long mask = maskOf(candidate);
+
+        documentRepository.delete(document);
+        DocumentType type = document.getDocType();
+        if (!documentRepository.existsOtherOfType(candidate.getId(), type, document.getId())) {
+            mask &= ~type.bit();
+        }
+        candidate.setDocumentMask(mask);
+    }
+
+    /**
+     * Whether the candidate has at least one document of every given type
+     */
+    public boolean hasDocuments(Candidate candidate, DocumentType... types) {
+        long required = DocumentType.maskOf(Arrays.asList(types));
+        return (maskOf(candidate) & required) == required;
+    }
+
+    /**
+     * The given types the candidate has no document for, in the order given
+     */
+    public List<DocumentType> missingDocuments(Candidate candidate, DocumentType... types) {
+        long mask = maskOf(candidate);
+        List<DocumentType> missing = new ArrayList<>();
+        for (DocumentType type : types) {
+            if ((mask & type.bit()) == 0) {
+                missing.add(type);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Start the backfill on one node if any candidate still has no mask
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiseMasks() {
+        if (!candidateRepository.findIdsWithoutDocumentMask(PageRequest.of(0, 1)).isEmpty()) {
+            jobRunner.run(MASK_BACKFILL_JOB, LocalDate.now().toString());
+        }
+    }
+
+    /**
+     * Fill in masks for candidates created before the column existed. Filled rows drop out of
+     * the chunk query, so an interrupted run simply picks up where it stopped.
+     */
+    public int backfillMasks() {
+        Pageable page = PageRequest.of(0, repairChunkSize);
+        int filled = 0;
+        while (true) {
+            List<Long> ids = candidateRepository.findIdsWithoutDocumentMask(page);
+            if (ids.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> recompute(ids));
+            filled += ids.size();
+        }
+        if (filled > 0) {
+            log.info("Document masks backfilled for {} candidates", filled);
+        }
+        return filled;
+    }
+
+    @Scheduled(cron = "${roms.document.mask-repair-cron:0 30 3 * * *}")
+    public void scheduledMaskRepair() {
+        jobRunner.run(MASK_REPAIR_JOB, LocalDate.now().toString());
+    }
+
+    /**
+     * Recompute every active candidate's mask from its documents, one locked chunk per transaction.
+     * Returns the number of masks that had drifted and were corrected.
+     */
+    public int repairMasks() {
+        return repairMasks(null);
+    }
+
+    /**
+     * With a run context, the last candidate id of each chunk is checkpointed in the chunk's transaction
+     */
+    private int repairMasks(JobRunContext context) {
+        Pageable page = PageRequest.of(0, repairChunkSize);
+        long afterId = context != null && context.getCheckpoint() != null ? Long.parseLong(context.getCheckpoint()) : 0L;
+        int corrected = 0;
+
+        while (true) {
+            List<Long> ids = candidateRepository.findActiveIdsAfter(afterId, page);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer drifted = transactionTemplate.execute(status -> {
+                int chunkDrift = recompute(ids);
+                if (context != null) {
+                    context.checkpoint(String.valueOf(ids.get(ids.size() - 1)), ids.size());
+                }
+                return chunkDrift;
+            });
+            corrected += drifted != null ? drifted : 0;
+            if (ids.size() < repairChunkSize) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        if (corrected > 0) {
+            log.warn("Document mask repair corrected {} candidates", corrected);
+        } else {
+            log.info("Document mask repair found no drift");
+        }
+        return corrected;
+    }
+
+    private int recompute(List<Long> ids) {
+        List<Candidate> candidates = candidateRepository.findAllByIdForUpdate(ids);
+
+        Map<Long, Long> masks = new HashMap<>();
+        for (CandidateDocumentType row : documentRepository.findDocumentTypesByCandidateIdIn(ids)) {
+            masks.merge(row.getCandidateId(), row.getDocType().bit(), (a, b) -> a | b);
+        }
+
+        int drifted = 0;
+        for (Candidate candidate : candidates) {
+            long mask = masks.getOrDefault(candidate.getId(), 0L);
+            if (candidate.getDocumentMask() == null || candidate.getDocumentMask() != mask) {
+                if (candidate.getDocumentMask() != null) {
+                    drifted++;
+                }
+                candidate.setDocumentMask(mask);
+            }
+        }
+        return drifted;
+    }
+
+    private Candidate lock(Long candidateId) {
+        return candidateRepository.findAllByIdForUpdate(List.of(candidateId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Candidate not found with id: " + candidateId));
+    }
+
+    private long maskOf(Candidate candidate) {
+        if (candidate.getDocumentMask() != null) {
+            return candidate.getDocumentMask();
+        }
+        // Not backfilled yet - derive from the documents
+        return documentRepository.findDocumentTypesByCandidateIdIn(List.of(candidate.getId())).stream()
+                .mapToLong(row -> row.getDocType().bit())
+                .reduce(0L, (a, b) -> a | b);
+    }
+}
@@ -0,0 +1,243 @@
+package com.roms.service;
+
+import com.roms.entity.CandidateDocument;
+import com.roms.exception.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Streams document content to the client without holding it in heap
+ *
+ * - Local files go out through Tomcat's sendfile when the connector supports it, which copies
+ *   them kernel-side without passing through a Java array. Otherwise FileChannel.transferTo
+ *   streams them into the response in buffer-sized pieces, so memory stays flat but each
+ *   piece is still copied through the heap
+ * - Drive content is piped from the Drive response straight to the client
+ * - A single byte range (206), If-Range and If-None-Match (304) are honoured, so PDF viewers
+ *   can fetch pages incrementally and revisits cost one round trip. Multi-range requests get
+ *   the whole file.
+ *
+ * The ETag is derived from the storage id: a document's content is never rewritten in place.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentDownloadService {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final GoogleDriveService driveService;
+
+    public ResponseEntity<?> serveLocalFile(CandidateDocument document, Path file, HttpServletRequest request)
+            throws IOException {
+        if (!Files.isRegularFile(file) || !Files.isReadable(file)) {
+            throw new ResourceNotFoundException("Document file not found in storage");
+        }
+        long length = Files.size(file);
+        Negotiated negotiated = negotiate(document, length, Files.getLastModifiedTime(file).toInstant(), request);
+        if (negotiated.complete != null) {
+            return negotiated.complete;
+        }
+
+        if (negotiated.count > 0 && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file with sendfile once the (empty) response is committed
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, negotiated.start);
+            request.setAttribute(SENDFILE_END, negotiated.start + negotiated.count);
+            return ResponseEntity.status(negotiated.status).headers(negotiated.headers).build();
+        }
+        long start = negotiated.start;
+        long count = negotiated.count;
+        StreamingResponseBody body = out -> transfer(file, start, count, out);
+        return ResponseEntity.status(negotiated.status).headers(negotiated.headers).body(body);
+    }
+
+    public ResponseEntity<?> serveDriveFile(CandidateDocument document, HttpServletRequest request) throws IOException {
+        long length = document.getFileSize() != null ? document.getFileSize() : -1L;
+        Instant lastModified = document.getCreatedAt() != null
+                ? document.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant()
+                : null;
+        Negotiated negotiated = negotiate(document, length, lastModified, request);
+        if (negotiated.complete != null) {
+            return negotiated.complete;
+        }
+
+        // Opened before the response is committed so a Drive failure still becomes an error response
+        InputStream content = negotiated.status == HttpStatus.PARTIAL_CONTENT
+                ? driveService.downloadFile(document.getDriveFileId(),
+                        negotiated.start, negotiated.start + negotiated.count - 1)
+                : driveService.downloadFile(document.getDriveFileId());
+        StreamingResponseBody body = out -> {
+            try (InputStream in = content) {
+                in.transferTo(out);
+            }
+        };
+        return ResponseEntity.status(negotiated.status).headers(negotiated.headers).body(body);
+    }
+
+    /**
+     * Copy a slice of the file with transferTo. The target wraps the servlet stream, so the JDK
+     * copies through a small heap buffer; only the file is never loaded whole
+     */
+    static void transfer(Path file, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long end = position + count;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    break; // File truncated underneath us
+                }
+                position += sent;
+            }
+        }
+    }
+
+    static String etag(CandidateDocument document) {
+        return "\"" + DigestUtils.md5DigestAsHex(document.getDriveFileId().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Evaluate the conditional and range headers. Length is -1 when unknown; ranges are then ignored.
+     */
+    private Negotiated negotiate(CandidateDocument document, long length, Instant lastModified,
+                                 HttpServletRequest request) {
+        String etag = etag(document);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        if (lastModified != null) {
+            headers.setLastModified(lastModified);
+        }
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return Negotiated.complete(ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build());
+        }
+
+        headers.setContentType(mediaType(document.getContentType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(document.getFileName(), StandardCharsets.UTF_8)
+                .build());
+        if (length < 0) {
+            return new Negotiated(HttpStatus.OK, headers, 0L, -1L);
+        }
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        List<HttpRange> ranges = List.of();
+        if (rangeHeader != null && (ifRange == null || ifRange.trim().equals(etag))) {
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                // Malformed Range headers are ignored
+            }
+        }
+        if (ranges.size() != 1) {
+            headers.setContentLength(length);
+            return new Negotiated(HttpStatus.OK, headers, 0L, length);
+        }
+
+        long start;
+        long end;
+        try {
+            start = ranges.get(0).getRangeStart(length);
+            end = ranges.get(0).getRangeEnd(length);
+            if (start >= length || end < start) {
+                throw new IllegalArgumentException("Range outside the content");
+            }
+        } catch (IllegalArgumentException e) {
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            headers.remove(HttpHeaders.CONTENT_DISPOSITION);
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return Negotiated.complete(ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .headers(headers).build());
+        }
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        headers.setContentLength(end - start + 1);
+        return new Negotiated(HttpStatus.PARTIAL_CONTENT, headers, start, end - start + 1);
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static MediaType mediaType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        try {
+            return MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    /**
+     * Outcome of header negotiation: either a finished response, or the status, headers and slice to send
+     */
+    private static final class Negotiated {
+        private final HttpStatus status;
+        private final HttpHeaders headers;
+        private final long start;
+        private final long count;
+        private final ResponseEntity<?> complete;
+
+        private Negotiated(HttpStatus status, HttpHeaders headers, long start, long count) {
+            this(status, headers, start, count, null);
+        }
+
+        private Negotiated(HttpStatus status, HttpHeaders headers, long start, long count, ResponseEntity<?> complete) {
+            this.status = status;
+            this.headers = headers;
+            this.start = start;
+            this.count = count;
+            this.complete = complete;
+        }
+
+        static Negotiated complete(ResponseEntity<?> response) {
+            return new Negotiated(null, null, 0L, 0L, response);
+        }
+    }
+}
@@ -22,18 +22,21 @@ public class DocumentEvaluationService {
     @Autowired
     private CandidateDocumentRepository documentRepository;
 
+    @Autowired
+    private DocumentCompletenessService documentCompletenessService;
+
     @Value("${roms.passport.min-validity-months:6}")
     private int passportMinValidityMonths;
 
     public DocumentEvaluationResult evaluateDocuments(Candidate candidate) {
         List<String> missing = new ArrayList<>();
-        List<CandidateDocument> docs = documentRepository.findByCandidateId(candidate.getId());
 
-        // RULE 1: Passport must be present
-        CandidateDocument passport = docs.stream()
-                .filter(d -> d.getDocType() == DocumentType.PASSPORT)
-                .findFirst()
-                .orElse(null);
+        // RULE 1: Passport must be present (only its expiry date needs the document row)
+        CandidateDocument passport = documentCompletenessService.hasDocuments(candidate, DocumentType.PASSPORT)
+                ? documentRepository
+                        .findFirstByCandidateIdAndDocTypeAndDeletedAtIsNullOrderByIdDesc(candidate.getId(), DocumentType.PASSPORT)
+                        .orElse(null)
+                : null;
 
         if (passport == null) {
             missing.add("Passport bio page");
@@ -55,11 +58,8 @@ public class DocumentEvaluationService {
         // RULE 3: Check for essential documents
         DocumentType[] requiredDocs = {DocumentType.CV, DocumentType.EDUCATIONAL_CERTIFICATE};
 
-        for (DocumentType type : requiredDocs) {
-            boolean found = docs.stream().anyMatch(d -> d.getDocType() == type);
-            if (!found) {
-                missing.add(getDocumentDisplayName(type));
-            }
+        for (DocumentType type : documentCompletenessService.missingDocuments(candidate, requiredDocs)) {
+            missing.add(getDocumentDisplayName(type));
         }
 
         boolean sufficient = missing.isEmpty();
@@ -0,0 +1,318 @@
+package com.roms.service;
+
+import com.roms.entity.DocumentReplication;
+import com.roms.enums.ReplicationStatus;
+import com.roms.event.DocumentChangedEvent;
+import com.roms.repository.CandidateDocumentRepository;
+import com.roms.repository.DocumentReplicationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind replication of uploads from local disk to the cloud backend
+ *
+ * An upload in write-behind mode lands in the local backend and leaves a PENDING row in
+ * document_replication_outbox. Once the document commits, its row goes onto a bounded
+ * in-memory queue drained by background workers; each worker claims the row (a conditional
+ * UPDATE, so two nodes never push the same file), uploads the file, repoints the document at
+ * the remote copy and deletes the local one.
+ *
+ * - Failures are retried with exponential backoff up to max-attempts, then left FAILED
+ * - A full queue drops the id; the periodic poll finds it again in the outbox, as it does rows
+ *   left behind by a restart
+ * - A row whose document never committed or was deleted is discarded, remote copy included
+ *
+ * The local copy has to be reachable by the node that replicates it: with several nodes,
+ * file.upload-dir should be shared, otherwise other nodes retry until the owning node gets it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentReplicationService {
+
+    private final DocumentReplicationRepository replicationRepository;
+    private final CandidateDocumentRepository documentRepository;
+    private final List<DocumentStorage> storages;
+    private final ObjectProvider<LocalDocumentStorage> localStorage;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${roms.storage.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${roms.storage.write-behind.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    @Value("${roms.storage.write-behind.threads:2}")
+    private int threads = 2;
+
+    @Value("${roms.storage.write-behind.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${roms.storage.write-behind.settle-seconds:30}")
+    private long settleSeconds = 30L;
+
+    @Value("${roms.storage.write-behind.claim-seconds:300}")
+    private long claimSeconds = 300L;
+
+    @Value("${roms.storage.write-behind.max-attempts:10}")
+    private int maxAttempts = 10;
+
+    @Value("${roms.storage.write-behind.retry-backoff-ms:5000}")
+    private long retryBackoffMs = 5000L;
+
+    @Value("${roms.storage.write-behind.max-retry-backoff-ms:3600000}")
+    private long maxRetryBackoffMs = 3600000L;
+
+    private BlockingQueue<Long> queue;
+    /** Ids on the queue or being worked on, so the poll does not queue them twice */
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private ExecutorService workers;
+
+    private final AtomicLong replicated = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong queueOverflows = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "document-replicator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.submit(this::drain);
+        }
+        log.info("Write-behind document replication started with {} workers", threads);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Record a file accepted onto local disk; called before the document row is saved
+     */
+    public void register(String localStorageId, String targetBackend, Long candidateId,
+                         String fileName, String contentType) {
+        LocalDateTime now = LocalDateTime.now();
+        replicationRepository.save(DocumentReplication.builder()
+                .localStorageId(localStorageId)
+                .targetBackend(targetBackend)
+                .candidateId(candidateId)
+                .fileName(fileName)
+                .contentType(contentType)
+                .status(ReplicationStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    /**
+     * Queue a new upload as soon as its document has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        if (!enabled || event.isDeleted()) {
+            return;
+        }
+        documentRepository.findById(event.getDocumentId())
+                .filter(document -> DocumentStorage.LOCAL.equals(document.getStorageBackend()))
+                .flatMap(document -> replicationRepository.findByLocalStorageId(document.getDriveFileId()))
+                .ifPresent(replication -> enqueue(replication.getId()));
+    }
+
+    /**
+     * Queue due outbox rows: retries, overflow from the queue, and anything left by a restart
+     */
+    @Scheduled(fixedDelayString = "${roms.storage.write-behind.poll-ms:10000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Long id : replicationRepository.findDueIds(now, now.minusSeconds(settleSeconds), PageRequest.of(0, batchSize))) {
+            enqueue(id);
+        }
+    }
+
+    /**
+     * Put every FAILED row back in the queue
+     */
+    public int retryFailed() {
+        Integer count = transactionTemplate.execute(status -> replicationRepository.retryFailed(LocalDateTime.now()));
+        return count != null ? count : 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queued", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("pending", replicationRepository.countByStatus(ReplicationStatus.PENDING));
+        stats.put("failed", replicationRepository.countByStatus(ReplicationStatus.FAILED));
+        stats.put("replicated", replicated.get());
+        stats.put("discarded", discarded.get());
+        stats.put("failedAttempts", failedAttempts.get());
+        stats.put("queueOverflows", queueOverflows.get());
+        return stats;
+    }
+
+    void enqueue(Long id) {
+        if (!queued.add(id)) {
+            return;
+        }
+        if (!queue.offer(id)) {
+            queued.remove(id);
+            queueOverflows.incrementAndGet();
+        }
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Long id;
+            try {
+                id = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                replicate(id);
+            } catch (RuntimeException e) {
+                log.error("Replication of outbox row {} failed unexpectedly", id, e);
+            } finally {
+                queued.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Claim and replicate one outbox row - true if the document now points at the remote copy
+     */
+    boolean replicate(Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status ->
+                replicationRepository.claim(id, now, now.plusSeconds(claimSeconds)));
+        if (claimed == null || claimed == 0) {
+            return false;
+        }
+        DocumentReplication replication = replicationRepository.findById(id).orElseThrow();
+        String localId = replication.getLocalStorageId();
+        LocalDocumentStorage local = localStorage.getObject();
+
+        if (!documentRepository.existsByDriveFileIdAndStorageBackend(localId, DocumentStorage.LOCAL)) {
+            discard(replication, "Document was never saved or has been deleted");
+            deleteQuietly(local, localId);
+            return false;
+        }
+        DocumentStorage target = backend(replication.getTargetBackend());
+        Path file = local.resolve(localId);
+        if (target == null || !Files.isReadable(file)) {
+            fail(replication, target == null
+                    ? "Storage backend not available: " + replication.getTargetBackend()
+                    : "Local copy not found on this node");
+            return false;
+        }
+
+        String remoteId;
+        try {
+            remoteId = target.store(file, replication.getFileName(), replication.getContentType(),
+                    replication.getCandidateId());
+        } catch (IOException | RuntimeException e) {
+            fail(replication, e.getMessage());
+            return false;
+        }
+
+        Boolean moved = transactionTemplate.execute(status -> {
+            boolean switched = documentRepository.moveStorage(localId, DocumentStorage.LOCAL,
+                    remoteId, target.getName()) == 1;
+            replication.setStatus(switched ? ReplicationStatus.DONE : ReplicationStatus.DISCARDED);
+            replication.setAttempts(replication.getAttempts() + 1);
+            replication.setRemoteStorageId(switched ? remoteId : null);
+            replication.setReplicatedAt(switched ? LocalDateTime.now() : null);
+            replication.setLastError(switched ? null : "Document was deleted during replication");
+            replicationRepository.save(replication);
+            return switched;
+        });
+        deleteQuietly(local, localId);
+        if (Boolean.TRUE.equals(moved)) {
+            replicated.incrementAndGet();
+            log.info("Replicated {} to {} as {}", localId, target.getName(), remoteId);
+            return true;
+        }
+        discarded.incrementAndGet();
+        deleteQuietly(target, remoteId);
+        return false;
+    }
+
+    private void fail(DocumentReplication replication, String error) {
+        failedAttempts.incrementAndGet();
+        int attempts = replication.getAttempts() + 1;
+        replication.setAttempts(attempts);
+        replication.setLastError(error != null && error.length() > 2000 ? error.substring(0, 2000) : error);
+        if (attempts >= maxAttempts) {
+            replication.setStatus(ReplicationStatus.FAILED);
+            log.error("Giving up replicating {} after {} attempts: {}", replication.getLocalStorageId(), attempts, error);
+        } else {
+            long backoff = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(attempts - 1, 20));
+            replication.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff * 1_000_000L));
+            log.warn("Replicating {} failed (attempt {}), retrying in {} ms: {}",
+                    replication.getLocalStorageId(), attempts, backoff, error);
+        }
+        transactionTemplate.executeWithoutResult(status -> replicationRepository.save(replication));
+    }
+
+    private void discard(DocumentReplication replication, String reason) {
+        discarded.incrementAndGet();
+        replication.setStatus(ReplicationStatus.DISCARDED);
+        replication.setLastError(reason);
+        transactionTemplate.executeWithoutResult(status -> replicationRepository.save(replication));
+    }
+
+    private DocumentStorage backend(String name) {
+        return storages.stream().filter(storage -> storage.getName().equals(name)).findFirst().orElse(null);
+    }
+
+    private void deleteQuietly(DocumentStorage storage, String storageId) {
+        try {
+            storage.delete(storageId);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not delete {} from {}: {}", storageId, storage.getName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.roms.service;
+
+import com.roms.entity.CandidateDocument;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A place document content can live. Each backend is a bean known by its name, which is
+ * recorded on the document (storageBackend) so reads and deletes go to wherever the file
+ * actually is; DocumentStorageService decides where new uploads go.
+ */
+public interface DocumentStorage {
+
+    String LOCAL = "local";
+    String CLOUDINARY = "cloudinary";
+    String DRIVE = "drive";
+
+    String getName();
+
+    /**
+     * Store an upload and return the backend's id for it
+     */
+    String store(MultipartFile file, Long candidateId) throws IOException;
+
+    /**
+     * Store an upload whose SHA-256 was computed while validating it. Backends that address
+     * content by hash can use it to skip content they already hold.
+     */
+    default String store(MultipartFile file, String sha256, Long candidateId) throws IOException {
+        return store(file, candidateId);
+    }
+
+    /**
+     * Store a file that is already on local disk (write-behind replication) and return the backend's id for it
+     */
+    String store(Path file, String fileName, String contentType, Long candidateId) throws IOException;
+
+    void delete(String storageId) throws IOException;
+
+    /**
+     * Content hash behind an id, for backends that address files by content; null otherwise
+     */
+    default String contentHashOf(String storageId) {
+        return null;
+    }
+
+    /**
+     * Answer a download request for the document: stream it, or redirect to the backend
+     */
+    ResponseEntity<?> download(CandidateDocument document, HttpServletRequest request) throws IOException;
+}
@@ -0,0 +1,128 @@
+package com.roms.service;
+
+import com.roms.entity.CandidateDocument;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Front door to document content: picks the backend for new uploads from roms.storage.mode,
+ * and sends reads and deletes to the backend recorded on each document.
+ *
+ * With roms.storage.write-behind.enabled and a cloud mode, uploads are written to local disk
+ * and handed to DocumentReplicationService, so the request returns at disk speed and the
+ * document is repointed at the cloud copy in the background.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentStorageService {
+
+    private final List<DocumentStorage> storages;
+    private final DocumentReplicationService replicationService;
+    private final DocumentUploadValidator uploadValidator;
+
+    @Value("${roms.storage.mode:local}")
+    private String mode = "local";
+
+    @Value("${roms.storage.write-behind.enabled:false}")
+    private boolean writeBehind;
+
+    /**
+     * Validate an upload and store it for the document, recording what it is (contentType, fileSize)
+     * and where it went (driveFileId, storageBackend and, for content-addressed backends, contentHash).
+     * Rejected files never reach a backend.
+     *
+     * @throws com.roms.exception.BusinessValidationException if the file's type or size is not allowed
+     */
+    public void store(CandidateDocument document, MultipartFile file) throws IOException {
+        DocumentUploadValidator.ValidatedUpload upload = uploadValidator.validate(file);
+        store(document, upload, (storage, candidateId) -> storage.store(file, upload.getSha256(), candidateId));
+    }
+
+    /**
+     * Same as for a multipart upload, for a file assembled on local disk (resumable uploads).
+     * The document's fileName is used as the stored file's name.
+     */
+    public void store(CandidateDocument document, Path file) throws IOException {
+        DocumentUploadValidator.ValidatedUpload upload = uploadValidator.validate(file, document.getFileName());
+        store(document, upload, (storage, candidateId) ->
+                storage.store(file, document.getFileName(), upload.getFormat().getMediaType(), candidateId));
+    }
+
+    private void store(CandidateDocument document, DocumentUploadValidator.ValidatedUpload upload,
+                       Upload content) throws IOException {
+        document.setContentType(upload.getFormat().getMediaType());
+        document.setFileSize(upload.getSize());
+
+        String target = getUploadBackend();
+        Long candidateId = document.getCandidate().getId();
+
+        if (writeBehind && !DocumentStorage.LOCAL.equals(target)) {
+            DocumentStorage local = backend(DocumentStorage.LOCAL);
+            String localId = content.storeIn(local, candidateId);
+            try {
+                replicationService.register(localId, target, candidateId, document.getFileName(),
+                        document.getContentType());
+            } catch (RuntimeException e) {
+                local.delete(localId);
+                throw e;
+            }
+            document.setDriveFileId(localId);
+            document.setStorageBackend(DocumentStorage.LOCAL);
+            document.setContentHash(local.contentHashOf(localId));
+            return;
+        }
+        DocumentStorage storage = backend(target);
+        document.setDriveFileId(content.storeIn(storage, candidateId));
+        document.setStorageBackend(target);
+        document.setContentHash(storage.contentHashOf(document.getDriveFileId()));
+    }
+
+    public ResponseEntity<?> download(CandidateDocument document, HttpServletRequest request) throws IOException {
+        return backendOf(document).download(document, request);
+    }
+
+    public void delete(CandidateDocument document) throws IOException {
+        backendOf(document).delete(document.getDriveFileId());
+    }
+
+    /**
+     * Backend that new uploads end up in
+     */
+    public String getUploadBackend() {
+        return switch (mode) {
+            case "local" -> DocumentStorage.LOCAL;
+            case "cloud" -> DocumentStorage.CLOUDINARY;
+            default -> DocumentStorage.DRIVE;
+        };
+    }
+
+    private DocumentStorage backendOf(CandidateDocument document) {
+        // Documents from before backends were recorded live where the mode put them
+        return backend(document.getStorageBackend() != null ? document.getStorageBackend() : getUploadBackend());
+    }
+
+    private DocumentStorage backend(String name) {
+        return storages.stream()
+                .filter(storage -> storage.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Document storage backend not available: " + name));
+    }
+
+    /**
+     * Writes validated content to a backend, returning the backend's id for it
+     */
+    @FunctionalInterface
+    private interface Upload {
+        String storeIn(DocumentStorage storage, Long candidateId) throws IOException;
+    }
+}
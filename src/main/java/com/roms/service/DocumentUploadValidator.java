@@ -0,0 +1,150 @@
+package com.roms.service;
+
+import com.roms.enums.DocumentFormat;
+import com.roms.exception.BusinessValidationException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks an upload before it is handed to any storage backend, in a single read of the content
+ * through a fixed buffer: the first KB identifies the format by its magic bytes, the running
+ * count stops the read as soon as max-size-mb is passed, and a SHA-256 is computed on the way.
+ * Multipart parts are spooled to disk by the container, so nothing here holds the file in memory.
+ *
+ * Rejections are BusinessValidationExceptions; the detected format, not the client's
+ * Content-Type, decides what the document is served as.
+ */
+@Service
+@Slf4j
+public class DocumentUploadValidator {
+
+    private static final int BUFFER_SIZE = 8192;
+    static final int SNIFF_LENGTH = 1024;
+
+    @Value("${roms.document.allowed-types:PDF,JPEG,JPG,PNG}")
+    private List<String> allowedTypes = List.of("PDF", "JPEG", "JPG", "PNG");
+
+    @Value("${roms.document.max-size-mb:5}")
+    private long maxSizeMb = 5L;
+
+    private Set<DocumentFormat> allowedFormats;
+    private long maxBytes;
+
+    @PostConstruct
+    public void init() {
+        allowedFormats = EnumSet.noneOf(DocumentFormat.class);
+        for (String name : allowedTypes) {
+            DocumentFormat format = DocumentFormat.fromName(name);
+            if (format == null) {
+                throw new IllegalStateException("Unsupported type in roms.document.allowed-types: " + name);
+            }
+            allowedFormats.add(format);
+        }
+        maxBytes = maxSizeMb * 1024L * 1024L;
+    }
+
+    public ValidatedUpload validate(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessValidationException("The uploaded file is empty");
+        }
+        checkSize(file.getSize());
+        try (InputStream content = file.getInputStream()) {
+            return validate(content, file.getOriginalFilename());
+        }
+    }
+
+    /**
+     * Validate a file already on local disk, such as an assembled resumable upload
+     */
+    public ValidatedUpload validate(Path file, String fileName) throws IOException {
+        checkSize(Files.size(file));
+        try (InputStream content = Files.newInputStream(file)) {
+            return validate(content, fileName);
+        }
+    }
+
+    private ValidatedUpload validate(InputStream content, String fileName) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] header = new byte[SNIFF_LENGTH];
+        int headerLength = 0;
+        DocumentFormat format = null;
+        long size = 0;
+
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            size += read;
+            // The declared size is the client's word; the count is what actually arrives
+            checkSize(size);
+            if (format == null) {
+                int take = Math.min(read, SNIFF_LENGTH - headerLength);
+                System.arraycopy(buffer, 0, header, headerLength, take);
+                headerLength += take;
+                if (headerLength == SNIFF_LENGTH) {
+                    format = sniff(header, headerLength, fileName);
+                }
+            }
+            digest.update(buffer, 0, read);
+        }
+        if (size == 0) {
+            throw new BusinessValidationException("The uploaded file is empty");
+        }
+        if (format == null) {
+            format = sniff(header, headerLength, fileName);
+        }
+        return new ValidatedUpload(format, size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * The allowed format the header bytes identify; also used on the first chunk of a resumable upload
+     */
+    DocumentFormat sniff(byte[] header, int length, String fileName) {
+        DocumentFormat format = DocumentFormat.detect(header, length);
+        if (format == null || !allowedFormats.contains(format)) {
+            log.warn("Rejected upload {}: content is {}", fileName, format != null ? format : "not a recognised format");
+            throw new BusinessValidationException("File type not allowed. Allowed types: " + String.join(", ", allowedTypes));
+        }
+        return format;
+    }
+
+    /**
+     * Reject a size over max-size-mb, e.g. one declared before any content arrives
+     */
+    void checkSize(long size) {
+        if (size > maxBytes) {
+            throw new BusinessValidationException("File exceeds the maximum size of " + maxSizeMb + " MB");
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * What the content turned out to be
+     */
+    @lombok.Value
+    public static class ValidatedUpload {
+        DocumentFormat format;
+        long size;
+        String sha256;
+    }
+}
@@ -0,0 +1,48 @@
+package com.roms.service;
+
+import com.roms.entity.CandidateDocument;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Documents in Google Drive; always registered so documents stored there stay readable
+ * whatever the current storage mode
+ */
+@Service
+@RequiredArgsConstructor
+public class DriveDocumentStorage implements DocumentStorage {
+
+    private final GoogleDriveService driveService;
+    private final DocumentDownloadService documentDownloadService;
+
+    @Override
+    public String getName() {
+        return DRIVE;
+    }
+
+    @Override
+    public String store(MultipartFile file, Long candidateId) throws IOException {
+        return driveService.uploadFile(file, candidateId);
+    }
+
+    @Override
+    public String store(Path file, String fileName, String contentType, Long candidateId) throws IOException {
+        return driveService.uploadFile(file, fileName, contentType, candidateId);
+    }
+
+    @Override
+    public void delete(String storageId) throws IOException {
+        driveService.deleteFile(storageId);
+    }
+
+    @Override
+    public ResponseEntity<?> download(CandidateDocument document, HttpServletRequest request) throws IOException {
+        return documentDownloadService.serveDriveFile(document, request);
+    }
+}
@@ -0,0 +1,77 @@
+package com.roms.service;
+
+import com.roms.dto.EmployerDashboardStatsDTO;
+import com.roms.dto.EmployerDashboardStatsDTO.JobOrderStats;
+import com.roms.enums.AssignmentStatus;
+import com.roms.enums.JobOrderStatus;
+import com.roms.repository.JobOrderRepository;
+import com.roms.repository.projection.JobOrderAssignmentCount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for employer dashboard statistics
+ *
+ * Figures are scoped to the employer's own job orders and come from a single
+ * grouped query (job order x assignment status), folded in memory.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmployerStatsService {
+
+    private final JobOrderRepository jobOrderRepository;
+
+    /**
+     * Get dashboard stats for an employer, with per-job-order and per-status breakdowns
+     */
+    @Transactional(readOnly = true)
+    public EmployerDashboardStatsDTO getEmployerStats(Long employerId) {
+        List<JobOrderAssignmentCount> rows = jobOrderRepository.countAssignmentsByJobOrderAndStatus(employerId);
+
+        Map<Long, JobOrderStats> jobOrders = new LinkedHashMap<>();
+        EmployerDashboardStatsDTO stats = EmployerDashboardStatsDTO.empty();
+
+        for (JobOrderAssignmentCount row : rows) {
+            JobOrderStats jobStats = jobOrders.computeIfAbsent(row.getJobOrderId(), id -> {
+                // First row for this job order - count its headcount once
+                stats.setTotalJobsPosted(stats.getTotalJobsPosted() + 1);
+                stats.setTotalHeadcountRequired(stats.getTotalHeadcountRequired() + row.getHeadcountRequired());
+                stats.setFilledPositions(stats.getFilledPositions() + row.getHeadcountFilled());
+                if (row.getJobOrderStatus() == JobOrderStatus.OPEN) {
+                    stats.setPendingPositionsHeadcount(stats.getPendingPositionsHeadcount()
+                            + row.getHeadcountRequired() - row.getHeadcountFilled());
+                }
+                return JobOrderStats.builder()
+                        .jobOrderId(id)
+                        .jobOrderRef(row.getJobOrderRef())
+                        .jobTitle(row.getJobTitle())
+                        .status(row.getJobOrderStatus())
+                        .headcountRequired(row.getHeadcountRequired())
+                        .headcountFilled(row.getHeadcountFilled())
+                        .build();
+            });
+
+            // LEFT JOIN row for a job order without assignments
+            AssignmentStatus assignmentStatus = row.getAssignmentStatus();
+            if (assignmentStatus == null) {
+                continue;
+            }
+
+            long count = row.getAssignmentCount();
+            jobStats.getApplicationsByStatus().put(assignmentStatus, count);
+            jobStats.setTotalApplications(jobStats.getTotalApplications() + count);
+            stats.getApplicationsByStatus().merge(assignmentStatus, count, Long::sum);
+            stats.setTotalApplicationsReceived(stats.getTotalApplicationsReceived() + count);
+        }
+
+        stats.setTotalPlaced(stats.getApplicationsByStatus().getOrDefault(AssignmentStatus.PLACED, 0L));
+        stats.setJobOrders(new ArrayList<>(jobOrders.values()));
+        return stats;
+    }
+}
@@ -0,0 +1,362 @@
+package com.roms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roms.enums.UserRole;
+import com.roms.event.CacheInvalidationEvent;
+import com.roms.event.CandidateStatusChangedEvent;
+import com.roms.event.DashboardCountersChangedEvent;
+import com.roms.event.DocumentChangedEvent;
+import com.roms.event.PaymentRecordedEvent;
+import com.roms.event.UserTokensRevokedEvent;
+import com.roms.exception.BusinessValidationException;
+import com.roms.security.AuthenticatedUser;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events push of workflow, document, payment and dashboard counter changes
+ *
+ * Open streams are async requests, so an idle subscriber holds a socket but no thread.
+ * Domain events are routed after commit - staff see everything, applicants only their own
+ * candidate - into a bounded queue per subscriber, drained by a small dispatcher pool with
+ * at most one drain per subscriber in flight. A subscriber that falls a full buffer behind
+ * has its queue replaced by a single "resync" event telling the client to refetch, so a slow
+ * client costs bounded memory and never delays the others. A periodic heartbeat comment
+ * detects dead connections, and revoking a user's tokens (here or on another node) closes the
+ * streams they opened before the revocation.
+ */
+@Service
+@Slf4j
+public class EventStreamService {
+
+    static final String EVENT_CONNECTED = "connected";
+    static final String EVENT_CANDIDATE_STATUS = "candidate-status";
+    static final String EVENT_DOCUMENT = "document";
+    static final String EVENT_PAYMENT = "payment";
+    static final String EVENT_DASHBOARD_COUNTERS = "dashboard-counters";
+    static final String EVENT_RESYNC = "resync";
+
+    private static final Set<UserRole> STAFF_ROLES =
+            Set.of(UserRole.SUPER_ADMIN, UserRole.OPERATIONS_STAFF, UserRole.FINANCE_MANAGER);
+    private static final int DRAIN_BATCH = 64;
+
+    @Value("${roms.push.buffer-size:256}")
+    private int bufferSize = 256;
+
+    @Value("${roms.push.max-subscribers:10000}")
+    private int maxSubscribers = 10000;
+
+    @Value("${roms.push.max-streams-per-user:5}")
+    private int maxStreamsPerUser = 5;
+
+    @Value("${roms.push.connection-timeout-ms:1800000}")
+    private long connectionTimeoutMs = 1800000L;
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService dispatcher;
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> byCandidate = new ConcurrentHashMap<>();
+    private final Set<Subscriber> staff = ConcurrentHashMap.newKeySet();
+    private final Map<Long, AtomicInteger> streamsPerUser = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+
+    public EventStreamService(ObjectMapper objectMapper,
+                              @Value("${roms.push.dispatch-threads:4}") int dispatchThreads) {
+        this.objectMapper = objectMapper;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "event-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open a stream for the user. Staff receive every event; applicants only those for their candidate.
+     */
+    public SseEmitter subscribe(AuthenticatedUser user) {
+        boolean isStaff = STAFF_ROLES.contains(user.getRole());
+        if (!isStaff && (user.getRole() != UserRole.APPLICANT || user.getCandidateId() == null)) {
+            throw new BusinessValidationException("No event stream available for this account");
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new BusinessValidationException("Too many open event streams, try again later");
+        }
+        AtomicInteger userStreams = streamsPerUser.computeIfAbsent(user.getUserId(), id -> new AtomicInteger());
+        if (userStreams.incrementAndGet() > maxStreamsPerUser) {
+            userStreams.decrementAndGet();
+            throw new BusinessValidationException("At most " + maxStreamsPerUser + " open event streams per user");
+        }
+
+        SseEmitter emitter = createEmitter(connectionTimeoutMs);
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), user.getUserId(),
+                isStaff ? null : user.getCandidateId(), emitter, bufferSize);
+        register(subscriber);
+
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(error -> unregister(subscriber));
+
+        enqueue(subscriber, event(EVENT_CONNECTED, Map.of("subscriberId", subscriber.id)));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Times a subscriber fell a full buffer behind and was told to resync
+     */
+    public long getOverflowCount() {
+        return overflows.get();
+    }
+
+    // ------------------------------------------------------------------
+    // Event routing
+    // ------------------------------------------------------------------
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCandidateStatusChanged(CandidateStatusChangedEvent event) {
+        publishForCandidate(event.getCandidateId(), EVENT_CANDIDATE_STATUS, event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        publishForCandidate(event.getCandidateId(), EVENT_DOCUMENT, event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentRecorded(PaymentRecordedEvent event) {
+        publishForCandidate(event.getCandidateId(), EVENT_PAYMENT, event);
+    }
+
+    /**
+     * Counter deltas go to staff only (published by DashboardCounterService after commit)
+     */
+    @EventListener
+    public void onDashboardCountersChanged(DashboardCountersChangedEvent event) {
+        if (staff.isEmpty()) {
+            return;
+        }
+        Frame frame = event(EVENT_DASHBOARD_COUNTERS, event.getDeltas());
+        staff.forEach(subscriber -> enqueue(subscriber, frame));
+    }
+
+    @EventListener
+    public void onUserTokensRevoked(UserTokensRevokedEvent event) {
+        closeStreams(event.getUserId(), event.getRevokedAt());
+    }
+
+    /**
+     * Revocations made on other nodes arrive as USER_TOKENS keys, "<userId>@<revokedAt>"
+     */
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        for (String id : event.idsFor(CacheInvalidationEvent.USER_TOKENS)) {
+            int separator = id.indexOf('@');
+            closeStreams(Long.valueOf(id.substring(0, separator)), Long.parseLong(id.substring(separator + 1)));
+        }
+    }
+
+    /**
+     * Keep idle connections alive through proxies and find the ones that have gone away
+     */
+    @Scheduled(fixedDelayString = "${roms.push.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        Frame ping = new Frame(SseEmitter.event().comment("ping").build());
+        for (Subscriber subscriber : subscribers.values()) {
+            // A subscriber with queued events is already being written to
+            if (subscriber.queue.isEmpty()) {
+                enqueue(subscriber, ping);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    // ------------------------------------------------------------------
+
+    SseEmitter createEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    /**
+     * Close the user's streams opened up to revokedAt; a stream opened later was authorised by a
+     * token issued after the revocation
+     */
+    private void closeStreams(Long userId, long revokedAt) {
+        for (Subscriber subscriber : subscribers.values()) {
+            if (userId.equals(subscriber.userId) && subscriber.openedAt <= revokedAt) {
+                log.debug("Closing event stream {} of user {}: tokens revoked", subscriber.id, userId);
+                unregister(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    private void publishForCandidate(Long candidateId, String name, Object payload) {
+        Set<Subscriber> own = candidateId != null ? byCandidate.get(candidateId) : null;
+        if (staff.isEmpty() && (own == null || own.isEmpty())) {
+            return;
+        }
+        Frame frame = event(name, payload);
+        staff.forEach(subscriber -> enqueue(subscriber, frame));
+        if (own != null) {
+            own.forEach(subscriber -> enqueue(subscriber, frame));
+        }
+    }
+
+    /**
+     * Serialise once and share the frame between subscribers
+     */
+    private Frame event(String name, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise " + name + " event", e);
+        }
+        return new Frame(SseEmitter.event()
+                .id(Long.toString(eventIds.incrementAndGet()))
+                .name(name)
+                .data(json, MediaType.APPLICATION_JSON)
+                .build());
+    }
+
+    private void enqueue(Subscriber subscriber, Frame frame) {
+        if (!subscriber.queue.offer(frame)) {
+            overflow(subscriber, frame);
+        }
+        scheduleDrain(subscriber);
+    }
+
+    /**
+     * A full buffer behind: drop the backlog, the client refetches instead. The backlog is swapped
+     * for a fresh queue holding only the resync, so no concurrent offer can take the resync's place;
+     * frames other threads still add to the old queue are covered by the refetch.
+     */
+    private void overflow(Subscriber subscriber, Frame frame) {
+        synchronized (subscriber) {
+            if (subscriber.queue.offer(frame)) {
+                // The drain or another overflow made room meanwhile
+                return;
+            }
+            ArrayBlockingQueue<Frame> fresh = new ArrayBlockingQueue<>(subscriber.bufferSize);
+            fresh.offer(event(EVENT_RESYNC, Map.of("dropped", subscriber.bufferSize)));
+            subscriber.queue = fresh;
+            overflows.incrementAndGet();
+        }
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> drain(subscriber));
+            } catch (RuntimeException e) {
+                // Dispatcher shut down
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Frame frame;
+            int sent = 0;
+            while (sent < DRAIN_BATCH && subscribers.containsKey(subscriber.id)
+                    && (frame = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(frame.parts());
+                sent++;
+            }
+        } catch (Exception e) {
+            // Client went away; the emitter callbacks may not fire for a dead socket
+            log.debug("Event stream {} closed: {}", subscriber.id, e.getMessage());
+            unregister(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Anything left (batch limit, or enqueued after the last poll) gets another turn
+        if (!subscriber.queue.isEmpty() && subscribers.containsKey(subscriber.id)) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void register(Subscriber subscriber) {
+        subscribers.put(subscriber.id, subscriber);
+        if (subscriber.candidateId == null) {
+            staff.add(subscriber);
+        } else {
+            byCandidate.computeIfAbsent(subscriber.candidateId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (subscribers.remove(subscriber.id) == null) {
+            return;
+        }
+        subscriber.queue.clear();
+        if (subscriber.candidateId == null) {
+            staff.remove(subscriber);
+        } else {
+            byCandidate.computeIfPresent(subscriber.candidateId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        streamsPerUser.computeIfPresent(subscriber.userId, (id, count) -> count.decrementAndGet() <= 0 ? null : count);
+    }
+
+    /**
+     * A built event, already serialised
+     */
+    private record Frame(Set<ResponseBodyEmitter.DataWithMediaType> parts) {
+    }
+
+    private static final class Subscriber {
+        private final long id;
+        private final Long userId;
+        private final Long candidateId;
+        private final SseEmitter emitter;
+        private final int bufferSize;
+        private final long openedAt = System.currentTimeMillis();
+        private volatile ArrayBlockingQueue<Frame> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(long id, Long userId, Long candidateId, SseEmitter emitter, int bufferSize) {
+            this.id = id;
+            this.userId = userId;
+            this.candidateId = candidateId;
+            this.emitter = emitter;
+            this.bufferSize = bufferSize;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.roms.service;
+
+import com.roms.entity.Candidate;
+import com.roms.entity.CandidateDocument;
+import com.roms.entity.ExpiryIndexEntry;
+import com.roms.enums.DocumentType;
+import com.roms.enums.ExpirySource;
+import com.roms.repository.CandidateDocumentRepository;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.ExpiryIndexRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the expiry index and derives candidate expiry flags from it
+ *
+ * Every tracked date (candidate passport/medical fields, passport, medical, visa and
+ * police clearance documents) has a row with the next day it changes the candidate's
+ * flag. Processing due rows reads only those rows, however many candidates exist.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpiryIndexService {
+
+    public static final int EXPIRY_WARNING_DAYS = 90;
+
+    static final List<DocumentType> TRACKED_DOCUMENT_TYPES = List.of(
+            DocumentType.PASSPORT, DocumentType.MEDICAL_REPORT, DocumentType.VISA, DocumentType.POLICE_CLEARANCE);
+
+    private final ExpiryIndexRepository expiryIndexRepository;
+    private final CandidateRepository candidateRepository;
+    private final CandidateDocumentRepository documentRepository;
+
+    /**
+     * Rebuild the index rows for the given candidates from their current dates and re-evaluate their flags.
+     * Runs in its own transaction so it can be called from after-commit event listeners.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refreshCandidates(Collection<Long> candidateIds, LocalDate today) {
+        if (candidateIds.isEmpty()) {
+            return;
+        }
+        expiryIndexRepository.deleteByCandidateIdIn(candidateIds);
+
+        Map<Long, List<CandidateDocument>> documentsByCandidate = documentRepository
+                .findWithExpiryByCandidateIdIn(candidateIds, TRACKED_DOCUMENT_TYPES).stream()
+                .collect(Collectors.groupingBy(document -> document.getCandidate().getId()));
+
+        List<ExpiryIndexEntry> entries = new ArrayList<>();
+        for (Candidate candidate : candidateRepository.findAllById(candidateIds)) {
+            if (candidate.isDeleted()) {
+                continue;
+            }
+            List<ExpiryIndexEntry> candidateEntries = buildEntries(
+                    candidate, documentsByCandidate.getOrDefault(candidate.getId(), List.of()), today);
+            entries.addAll(candidateEntries);
+            applyFlag(candidate, candidateEntries, today);
+        }
+        expiryIndexRepository.saveAll(entries);
+    }
+
+    /**
+     * Process up to limit candidates with index rows due on or before today: advance their rows to the
+     * next due date and update the candidate flags. Returns the number of candidates processed.
+     */
+    @Transactional
+    public int processDue(LocalDate today, int limit) {
+        List<Long> candidateIds = expiryIndexRepository.findDueCandidateIds(today, PageRequest.of(0, limit));
+        if (candidateIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<ExpiryIndexEntry>> entriesByCandidate = expiryIndexRepository.findByCandidateIdIn(candidateIds).stream()
+                .collect(Collectors.groupingBy(ExpiryIndexEntry::getCandidateId));
+        entriesByCandidate.values().forEach(entries ->
+                entries.forEach(entry -> entry.setNextDueDate(nextDueDate(entry.getExpiryDate(), today))));
+
+        for (Candidate candidate : candidateRepository.findAllById(candidateIds)) {
+            applyFlag(candidate, entriesByCandidate.getOrDefault(candidate.getId(), List.of()), today);
+        }
+        return candidateIds.size();
+    }
+
+    /**
+     * Drop index rows for candidates that no longer exist or were deleted
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void removeCandidates(Collection<Long> candidateIds) {
+        expiryIndexRepository.deleteByCandidateIdIn(candidateIds);
+    }
+
+    /**
+     * The next day on which an expiry date changes the flag: the first day inside the warning window,
+     * then the first day after expiry. Null once the date has expired.
+     */
+    static LocalDate nextDueDate(LocalDate expiryDate, LocalDate today) {
+        LocalDate warningStarts = expiryDate.minusDays(EXPIRY_WARNING_DAYS - 1);
+        if (today.isBefore(warningStarts)) {
+            return warningStarts;
+        }
+        LocalDate expiredFrom = expiryDate.plusDays(1);
+        if (today.isBefore(expiredFrom)) {
+            return expiredFrom;
+        }
+        return null;
+    }
+
+    /**
+     * Flag for a set of expiry dates: EXPIRED if any is past, EXPIRING_SOON if any falls within the warning window.
+     * Otherwise VALID for a previously flagged candidate, unchanged (usually null) for one never flagged.
+     */
+    static String evaluateFlag(Collection<LocalDate> expiryDates, LocalDate today, String currentFlag) {
+        LocalDate threshold = today.plusDays(EXPIRY_WARNING_DAYS);
+        boolean expired = expiryDates.stream().anyMatch(date -> date.isBefore(today));
+        if (expired) {
+            return ExpiryMonitoringService.EXPIRED;
+        }
+        boolean expiringSoon = expiryDates.stream().anyMatch(date -> date.isBefore(threshold));
+        if (expiringSoon) {
+            return ExpiryMonitoringService.EXPIRING_SOON;
+        }
+        if (ExpiryMonitoringService.EXPIRED.equals(currentFlag) || ExpiryMonitoringService.EXPIRING_SOON.equals(currentFlag)) {
+            return ExpiryMonitoringService.VALID;
+        }
+        return currentFlag;
+    }
+
+    private List<ExpiryIndexEntry> buildEntries(Candidate candidate, List<CandidateDocument> documents, LocalDate today) {
+        List<ExpiryIndexEntry> entries = new ArrayList<>();
+        if (candidate.getPassportExpiry() != null) {
+            entries.add(entry(candidate.getId(), null, ExpirySource.PASSPORT, candidate.getPassportExpiry(), today));
+        }
+        if (candidate.getMedicalExpiry() != null) {
+            entries.add(entry(candidate.getId(), null, ExpirySource.MEDICAL, candidate.getMedicalExpiry(), today));
+        }
+        for (CandidateDocument document : documents) {
+            entries.add(entry(candidate.getId(), document.getId(),
+                    ExpirySource.fromDocumentType(document.getDocType()), document.getExpiryDate(), today));
+        }
+        return entries;
+    }
+
+    private ExpiryIndexEntry entry(Long candidateId, Long documentId, ExpirySource source, LocalDate expiryDate, LocalDate today) {
+        return ExpiryIndexEntry.builder()
+                .candidateId(candidateId)
+                .documentId(documentId)
+                .source(source)
+                .expiryDate(expiryDate)
+                .nextDueDate(nextDueDate(expiryDate, today))
+                .build();
+    }
+
+    private void applyFlag(Candidate candidate, List<ExpiryIndexEntry> entries, LocalDate today) {
+        String previousFlag = candidate.getExpiryFlag();
+        String flag = evaluateFlag(entries.stream().map(ExpiryIndexEntry::getExpiryDate).toList(), today, previousFlag);
+        if (flag != null && !flag.equals(previousFlag)) {
+            candidate.setExpiryFlag(flag);
+            log.info("Candidate {} expiry status changed: {} -> {}",
+                    candidate.getInternalRefNo(), previousFlag != null ? previousFlag : "NONE", flag);
+        }
+    }
+}
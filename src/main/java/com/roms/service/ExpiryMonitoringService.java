@@ -1,127 +1,340 @@
 package com.roms.service;
 
+import com.roms.dto.ExpiryCheckResult;
 import com.roms.entity.Candidate;
+import com.roms.enums.DocumentType;
+import com.roms.enums.ExpirySource;
+import com.roms.event.CandidateStatusChangedEvent;
+import com.roms.event.DocumentChangedEvent;
+import com.roms.exception.BusinessValidationException;
 import com.roms.repository.CandidateRepository;
+import com.roms.repository.ExpiryIndexRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.BiFunction;
 
 /**
  * Scheduled service to monitor document and medical expiry dates
  * Critical for recruitment compliance and candidate readiness
+ *
+ * Flags are driven by the expiry index (see ExpiryIndexService): document uploads and new
+ * candidates refresh their rows immediately, and a job just after midnight processes only the
+ * rows due that day, so its cost follows the number of flags changing rather than table size.
+ *
+ * The 2:00 AM pass remains as a reconciliation safety net, so it does not trust the index: one
+ * query per target flag compares flags with the candidate and document expiry columns themselves,
+ * in keyset chunks, each chunk updated in its own short transaction. Candidates whose flag was
+ * wrong have their index rows rebuilt too, since a missed index update is the usual cause.
+ * It is a full scan: each pass walks the active candidates in id order, so its cost grows with
+ * the table even on nights when no flag changes. Only the midnight job is index-driven.
+ *
+ * All jobs, including the first build of the index, go through ScheduledJobRunner, so only one
+ * node of the cluster runs them. The 2:00 AM pass and the index rebuild checkpoint after every
+ * chunk; a run interrupted part way resumes from the last chunk instead of starting over.
  */
 @Service
 @Slf4j
 public class ExpiryMonitoringService {
 
+    public static final String EXPIRED = "EXPIRED";
+    public static final String EXPIRING_SOON = "EXPIRING_SOON";
+    public static final String VALID = "VALID";
+
+    public static final String EXPIRY_CHECK_JOB = "expiry-check";
+    public static final String DUE_EXPIRIES_JOB = "expiry-due";
+    public static final String INDEX_REBUILD_JOB = "expiry-index-rebuild";
+
     @Autowired
     private CandidateRepository candidateRepository;
 
-    private static final int EXPIRY_WARNING_DAYS = 90;
+    @Autowired
+    private ExpiryIndexRepository expiryIndexRepository;
+
+    @Autowired
+    private ExpiryIndexService expiryIndexService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ScheduledJobRunner jobRunner;
+
+    @Value("${roms.expiry.chunk-size:200}")
+    private int chunkSize = 200;
+
+    private static final int EXPIRY_WARNING_DAYS = ExpiryIndexService.EXPIRY_WARNING_DAYS;
+
+    @PostConstruct
+    public void registerJobs() {
+        jobRunner.register(EXPIRY_CHECK_JOB,
+                context -> runExpiryCheck(LocalDate.parse(context.getParameters()), context));
+        jobRunner.register(DUE_EXPIRIES_JOB,
+                context -> processDueExpiries(LocalDate.parse(context.getParameters())));
+        jobRunner.register(INDEX_REBUILD_JOB,
+                context -> rebuildIndex(LocalDate.parse(context.getParameters()), context));
+    }
 
     /**
      * Scheduled job runs daily at 2:00 AM
      * Checks all candidates for passport and medical expiry
      */
     @Scheduled(cron = "0 0 2 * * *")
-    @Transactional
     public void checkExpiries() {
-        log.info("Starting expiry monitoring job...");
-        
+        jobRunner.run(EXPIRY_CHECK_JOB, LocalDate.now().toString());
+    }
+
+    /**
+     * Bring every active candidate's expiry flag in line with their expiry dates:
+     * EXPIRED if any is in the past, EXPIRING_SOON if any falls within the warning window,
+     * VALID again once a flagged candidate's documents have been renewed.
+     */
+    public ExpiryCheckResult runExpiryCheck(LocalDate today) {
+        return runExpiryCheck(today, null);
+    }
+
+    /**
+     * Manual trigger for expiry check (for testing or admin use)
+     */
+    public ExpiryCheckResult runManualExpiryCheck() {
+        log.info("Manual expiry check triggered");
+        return jobRunner.<ExpiryCheckResult>run(EXPIRY_CHECK_JOB, LocalDate.now().toString())
+                .orElseThrow(() -> new BusinessValidationException("Expiry check is already running"));
+    }
+
+    /**
+     * Scheduled job runs daily just after midnight
+     * Processes only the expiry index rows that change a flag today
+     */
+    @Scheduled(cron = "${roms.expiry.due-cron:1 0 0 * * *}")
+    public void processDueExpiries() {
+        jobRunner.run(DUE_EXPIRIES_JOB, LocalDate.now().toString());
+    }
+
+    /**
+     * Process due index rows in chunks until none remain. Returns the number of candidates re-evaluated.
+     */
+    public int processDueExpiries(LocalDate today) {
+        int processed = 0;
+        int chunk;
+        do {
+            chunk = expiryIndexService.processDue(today, chunkSize);
+            processed += chunk;
+        } while (chunk == chunkSize);
+
+        log.info("Processed due expiries for {} candidates, next due: {}",
+                processed, expiryIndexRepository.findNextDueDateAfter(today));
+        return processed;
+    }
+
+    /**
+     * Rebuild the whole expiry index from candidate and document dates, in keyset chunks.
+     * Returns the number of candidates indexed.
+     */
+    public int rebuildIndex(LocalDate today) {
+        return rebuildIndex(today, null);
+    }
+
+    /**
+     * Rebuild the index on whichever node takes the job (admin trigger)
+     */
+    public int runIndexRebuild() {
+        return jobRunner.<Integer>run(INDEX_REBUILD_JOB, LocalDate.now().toString())
+                .orElseThrow(() -> new BusinessValidationException("Expiry index rebuild is already running"));
+    }
+
+    /**
+     * Build the index on first start, then catch up on anything that fell due while the application was down.
+     * Every node starting at once checks; the job lease lets one of them build it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiseIndex() {
         LocalDate today = LocalDate.now();
-        LocalDate expiryThreshold = today.plusDays(EXPIRY_WARNING_DAYS);
+        if (expiryIndexRepository.count() == 0) {
+            jobRunner.run(INDEX_REBUILD_JOB, today.toString());
+        }
+        jobRunner.run(DUE_EXPIRIES_JOB, today.toString());
+    }
 
-        // Get all active candidates
-        List<Candidate> candidates = candidateRepository.findAllActive();
-        
-        int expiredCount = 0;
-        int expiringSoonCount = 0;
-
-        for (Candidate candidate : candidates) {
-            boolean updated = false;
-            String previousFlag = candidate.getExpiryFlag();
-
-            // Check passport expiry
-            if (candidate.getPassportExpiry() != null) {
-                LocalDate passportExpiry = candidate.getPassportExpiry();
-                
-                if (passportExpiry.isBefore(today)) {
-                    if (!"EXPIRED".equals(candidate.getExpiryFlag())) {
-                        candidate.setExpiryFlag("EXPIRED");
-                        updated = true;
-                        expiredCount++;
-                        log.warn("Candidate {} - Passport EXPIRED (Expiry: {})", 
-                                candidate.getInternalRefNo(), passportExpiry);
-                    }
-                } else if (passportExpiry.isBefore(expiryThreshold)) {
-                    if (!"EXPIRING_SOON".equals(candidate.getExpiryFlag())) {
-                        candidate.setExpiryFlag("EXPIRING_SOON");
-                        updated = true;
-                        expiringSoonCount++;
-                        log.warn("Candidate {} - Passport EXPIRING SOON (Expiry: {})", 
-                                candidate.getInternalRefNo(), passportExpiry);
-                    }
-                }
-            }
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        if (ExpirySource.fromDocumentType(event.getDocType()) != null) {
+            expiryIndexService.refreshCandidates(List.of(event.getCandidateId()), LocalDate.now());
+        }
+    }
 
-            // Check medical expiry
-            if (candidate.getMedicalExpiry() != null) {
-                LocalDate medicalExpiry = candidate.getMedicalExpiry();
-                
-                if (medicalExpiry.isBefore(today)) {
-                    if (!"EXPIRED".equals(candidate.getExpiryFlag())) {
-                        candidate.setExpiryFlag("EXPIRED");
-                        updated = true;
-                        expiredCount++;
-                        log.warn("Candidate {} - Medical EXPIRED (Expiry: {})", 
-                                candidate.getInternalRefNo(), medicalExpiry);
-                    }
-                } else if (medicalExpiry.isBefore(expiryThreshold)) {
-                    if (!"EXPIRING_SOON".equals(candidate.getExpiryFlag())) {
-                        candidate.setExpiryFlag("EXPIRING_SOON");
-                        updated = true;
-                        expiringSoonCount++;
-                        log.warn("Candidate {} - Medical EXPIRING SOON (Expiry: {})", 
-                                candidate.getInternalRefNo(), medicalExpiry);
-                    }
-                }
-            }
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCandidateStatusChanged(CandidateStatusChangedEvent event) {
+        if (event.getNewStatus() == null) {
+            expiryIndexService.removeCandidates(List.of(event.getCandidateId()));
+        } else if (event.getPreviousStatus() == null) {
+            expiryIndexService.refreshCandidates(List.of(event.getCandidateId()), LocalDate.now());
+        }
+    }
+
+    /**
+     * Get candidates with expiring documents
+     */
+    public List<Candidate> getExpiringCandidates() {
+        return candidateRepository.findActiveByExpiryFlagIn(List.of(EXPIRING_SOON, EXPIRED));
+    }
+
+    /**
+     * With a run context, the last candidate id of each chunk is checkpointed as "afterId:indexed"
+     */
+    private int rebuildIndex(LocalDate today, JobRunContext context) {
+        Pageable page = PageRequest.of(0, chunkSize);
+        long afterId = 0L;
+        int indexed = 0;
+        if (context != null && context.getCheckpoint() != null) {
+            String[] parts = context.getCheckpoint().split(":");
+            afterId = Long.parseLong(parts[0]);
+            indexed = Integer.parseInt(parts[1]);
+            log.info("Resuming expiry index rebuild after candidate {}", afterId);
+        } else {
+            log.info("Rebuilding expiry index...");
+        }
 
-            // If both passport and medical are valid (or not set)
-            if (updated) {
-                candidateRepository.save(candidate);
-                
-                // Log status change
-                log.info("Candidate {} expiry status changed: {} -> {}", 
-                        candidate.getInternalRefNo(), 
-                        previousFlag != null ? previousFlag : "NONE", 
-                        candidate.getExpiryFlag());
+        while (true) {
+            List<Long> ids = candidateRepository.findActiveIdsAfter(afterId, page);
+            if (ids.isEmpty()) {
+                break;
+            }
+            expiryIndexService.refreshCandidates(ids, today);
+            indexed += ids.size();
+            afterId = ids.get(ids.size() - 1);
+            if (context != null) {
+                context.checkpoint(afterId + ":" + indexed, ids.size());
+            }
+            if (ids.size() < chunkSize) {
+                break;
             }
         }
 
-        log.info("Expiry monitoring completed. Expired: {}, Expiring Soon: {}, Total Checked: {}", 
-                expiredCount, expiringSoonCount, candidates.size());
+        log.info("Expiry index rebuilt for {} candidates", indexed);
+        return indexed;
     }
 
     /**
-     * Manual trigger for expiry check (for testing or admin use)
+     * One pass per target flag, in this order. With a run context, progress is checkpointed as
+     * "phase:afterId:expired:expiringSoon:cleared" after every chunk and resumed from there.
      */
-    public void runManualExpiryCheck() {
-        log.info("Manual expiry check triggered");
-        checkExpiries();
+    private ExpiryCheckResult runExpiryCheck(LocalDate today, JobRunContext context) {
+        log.info("Starting expiry monitoring job...");
+        long started = System.currentTimeMillis();
+        LocalDate expiryThreshold = today.plusDays(EXPIRY_WARNING_DAYS);
+
+        List<String> flags = List.of(EXPIRED, EXPIRING_SOON, VALID);
+        List<DocumentType> tracked = ExpiryIndexService.TRACKED_DOCUMENT_TYPES;
+        List<BiFunction<Long, Pageable, List<Candidate>>> queries = List.of(
+                (afterId, page) -> candidateRepository.findNewlyExpired(afterId, today, tracked, page),
+                (afterId, page) -> candidateRepository.findNewlyExpiringSoon(afterId, today, expiryThreshold, tracked, page),
+                (afterId, page) -> candidateRepository.findNoLongerExpiring(afterId, expiryThreshold, tracked, page));
+
+        // phase, afterId, then the count per phase
+        long[] progress = new long[2 + flags.size()];
+        if (context != null && context.getCheckpoint() != null) {
+            String[] parts = context.getCheckpoint().split(":");
+            for (int i = 0; i < progress.length; i++) {
+                progress[i] = Long.parseLong(parts[i]);
+            }
+            log.info("Resuming expiry check for {} at {} after candidate {}", today, flags.get((int) progress[0]), progress[1]);
+        }
+
+        for (int phase = (int) progress[0]; phase < flags.size(); phase++) {
+            int current = phase;
+            long startAfterId = phase == progress[0] ? progress[1] : 0L;
+            progress[0] = phase;
+            applyInChunks(flags.get(phase), queries.get(phase), startAfterId, today, (lastId, changed) -> {
+                progress[1] = lastId;
+                progress[2 + current] += changed;
+                if (context != null) {
+                    context.checkpoint(encode(progress), changed);
+                }
+            });
+        }
+
+        int expired = (int) progress[2];
+        int expiringSoon = (int) progress[3];
+        int cleared = (int) progress[4];
+        ExpiryCheckResult result = ExpiryCheckResult.builder()
+                .runDate(today)
+                .expired(expired)
+                .expiringSoon(expiringSoon)
+                .cleared(cleared)
+                .durationMs(System.currentTimeMillis() - started)
+                .build();
+
+        log.info("Expiry monitoring completed. Expired: {}, Expiring Soon: {}, Cleared: {}, Took: {} ms",
+                expired, expiringSoon, cleared, result.getDurationMs());
+        return result;
+    }
+
+    private static String encode(long[] progress) {
+        StringBuilder checkpoint = new StringBuilder();
+        for (long value : progress) {
+            if (checkpoint.length() > 0) {
+                checkpoint.append(':');
+            }
+            checkpoint.append(value);
+        }
+        return checkpoint.toString();
     }
 
     /**
-     * Get candidates with expiring documents
+     * Set the flag on every candidate returned by the chunk query, one short transaction per chunk,
+     * then rebuild those candidates' index rows. onChunk(lastId, changed) runs inside each chunk's
+     * transaction, so a checkpoint commits with it.
      */
-    public List<Candidate> getExpiringCandidates() {
-        return candidateRepository.findAllActive().stream()
-                .filter(c -> "EXPIRING_SOON".equals(c.getExpiryFlag()) || "EXPIRED".equals(c.getExpiryFlag()))
-                .toList();
+    private void applyInChunks(String flag, BiFunction<Long, Pageable, List<Candidate>> nextChunk,
+                               long startAfterId, LocalDate today, ChunkListener onChunk) {
+        Pageable page = PageRequest.of(0, chunkSize);
+        long afterId = startAfterId;
+
+        while (true) {
+            long chunkAfterId = afterId;
+            List<Candidate> chunk = transactionTemplate.execute(status -> {
+                List<Candidate> candidates = nextChunk.apply(chunkAfterId, page);
+                for (Candidate candidate : candidates) {
+                    log.info("Candidate {} expiry status changed: {} -> {} (Passport: {}, Medical: {})",
+                            candidate.getInternalRefNo(),
+                            candidate.getExpiryFlag() != null ? candidate.getExpiryFlag() : "NONE",
+                            flag,
+                            candidate.getPassportExpiry(),
+                            candidate.getMedicalExpiry());
+                    candidate.setExpiryFlag(flag);
+                }
+                if (!candidates.isEmpty()) {
+                    onChunk.chunkDone(candidates.get(candidates.size() - 1).getId(), candidates.size());
+                }
+                return candidates;
+            });
+
+            if (chunk != null && !chunk.isEmpty()) {
+                expiryIndexService.refreshCandidates(chunk.stream().map(Candidate::getId).toList(), today);
+            }
+            if (chunk == null || chunk.size() < chunkSize) {
+                return;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkListener {
+        void chunkDone(long lastId, int changed);
     }
 }
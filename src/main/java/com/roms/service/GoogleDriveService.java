@@ -103,33 +103,8 @@ public class GoogleDriveService {
         }
         
         try {
-            // Generate unique filename
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
-            String fileName = String.format("candidate_%d_%s_%s", 
-                candidateId, timestamp, multipartFile.getOriginalFilename());
-            
-            // Create file metadata
-            File fileMetadata = new File();
-            fileMetadata.setName(fileName);
-            
-            // Set parent folder if specified
-            if (folderId != null && !folderId.isEmpty()) {
-                fileMetadata.setParents(Collections.singletonList(folderId));
-            }
-            
-            // Upload file
-            FileContent mediaContent = new FileContent(
-                multipartFile.getContentType(), 
-                tempFile
-            );
-            
-            File uploadedFile = driveService.files().create(fileMetadata, mediaContent)
-                .setFields("id, name, mimeType, size, createdTime")
-                .execute();
-            
-            log.info("File uploaded successfully. Drive File ID: {}", uploadedFile.getId());
-            return uploadedFile.getId();
-            
+            return uploadFile(tempFile.toPath(), multipartFile.getOriginalFilename(),
+                    multipartFile.getContentType(), candidateId);
         } finally {
             // Cleanup temp file
             if (tempFile.exists()) {
@@ -138,6 +113,41 @@ public class GoogleDriveService {
         }
     }
     
+    /**
+     * Upload a file already on disk to Google Drive (write-behind replication)
+     * @param path The file to upload
+     * @param originalFileName Name the file was uploaded under
+     * @param contentType MIME type of the file
+     * @param candidateId The candidate ID for organizing files
+     * @return Google Drive file ID
+     */
+    public String uploadFile(java.nio.file.Path path, String originalFileName, String contentType, Long candidateId)
+            throws IOException {
+        // Generate unique filename
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        String fileName = String.format("candidate_%d_%s_%s",
+            candidateId, timestamp, originalFileName);
+
+        // Create file metadata
+        File fileMetadata = new File();
+        fileMetadata.setName(fileName);
+
+        // Set parent folder if specified
+        if (folderId != null && !folderId.isEmpty()) {
+            fileMetadata.setParents(Collections.singletonList(folderId));
+        }
+
+        // Upload file
+        FileContent mediaContent = new FileContent(contentType, path.toFile());
+
+        File uploadedFile = driveService.files().create(fileMetadata, mediaContent)
+            .setFields("id, name, mimeType, size, createdTime")
+            .execute();
+
+        log.info("File uploaded successfully. Drive File ID: {}", uploadedFile.getId());
+        return uploadedFile.getId();
+    }
+
     /**
      * Download file from Google Drive
      * @param fileId Google Drive file ID
@@ -147,6 +157,18 @@ public class GoogleDriveService {
         log.info("Downloading file with ID: {}", fileId);
         return driveService.files().get(fileId).executeMediaAsInputStream();
     }
+
+    /**
+     * Download bytes start..end (inclusive) of a file from Google Drive
+     * @param fileId Google Drive file ID
+     * @return InputStream of the requested slice
+     */
+    public InputStream downloadFile(String fileId, long start, long end) throws IOException {
+        log.info("Downloading bytes {}-{} of file with ID: {}", start, end, fileId);
+        Drive.Files.Get request = driveService.files().get(fileId);
+        request.getRequestHeaders().setRange("bytes=" + start + "-" + end);
+        return request.executeMediaAsInputStream();
+    }
     
     /**
      * Delete file from Google Drive
@@ -8,11 +8,13 @@ import com.roms.enums.CandidateStatus;
 import com.roms.enums.JobOrderStatus;
 import com.roms.enums.MedicalStatus;
 import com.roms.enums.UserRole;
-import com.roms.repository.CandidateDocumentRepository;
+import com.roms.event.CandidateStatusChangedEvent;
+import com.roms.event.UserAccountChangedEvent;
 import com.roms.repository.CandidateRepository;
 import com.roms.repository.JobOrderRepository;
 import com.roms.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,7 +35,10 @@ public class JobApplicationService {
     private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private CandidateDocumentRepository documentRepository;
+    private DocumentCompletenessService documentCompletenessService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Candidate applyForJob(JobApplicationRequest request) {
@@ -72,6 +77,7 @@ public class JobApplicationService {
                 .build();
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(user.getId(), null, user.getUsername()));
 
         // Generate internal reference number
         String internalRefNo = "CND" + System.currentTimeMillis();
@@ -101,7 +107,9 @@ public class JobApplicationService {
         CandidateStatus initialStatus = determineInitialStatus(candidate);
         candidate.setCurrentStatus(initialStatus);
 
-        return candidateRepository.save(candidate);
+        candidate = candidateRepository.save(candidate);
+        eventPublisher.publishEvent(new CandidateStatusChangedEvent(candidate.getId(), null, initialStatus));
+        return candidate;
     }
 
     /**
@@ -109,20 +117,13 @@ public class JobApplicationService {
      */
     private CandidateStatus determineInitialStatus(Candidate candidate) {
         // Check if all required documents are present
-        boolean hasPassport = documentRepository
-            .findByCandidateIdAndDocType(candidate.getId(), com.roms.enums.DocumentType.PASSPORT)
-            .isPresent();
-
-        boolean hasAcademicDoc = documentRepository
-            .findByCandidateIdAndDocType(candidate.getId(), com.roms.enums.DocumentType.EDUCATIONAL_CERTIFICATE)
-            .isPresent();
-
-        boolean hasCV = documentRepository
-            .findByCandidateIdAndDocType(candidate.getId(), com.roms.enums.DocumentType.CV)
-            .isPresent();
+        boolean hasRequiredDocuments = documentCompletenessService.hasDocuments(candidate,
+            com.roms.enums.DocumentType.PASSPORT,
+            com.roms.enums.DocumentType.EDUCATIONAL_CERTIFICATE,
+            com.roms.enums.DocumentType.CV);
 
         // If all required documents are present, set to UNDER_REVIEW
-        if (hasPassport && hasAcademicDoc && hasCV) {
+        if (hasRequiredDocuments) {
             return CandidateStatus.UNDER_REVIEW;
         }
 
@@ -0,0 +1,27 @@
+package com.roms.service;
+
+/**
+ * The run a ClusterJob is executing
+ */
+public interface JobRunContext {
+
+    Long getRunId();
+
+    /**
+     * Parameters the run was started with (kept when it is resumed)
+     */
+    String getParameters();
+
+    /**
+     * Last checkpoint recorded, null on a fresh run
+     */
+    String getCheckpoint();
+
+    /**
+     * Record progress after a chunk and renew the lease. Joins the current transaction if there is one.
+     *
+     * @throws ScheduledJobRunner.LeaseLostException if another node has taken the job over;
+     *         the chunk's transaction must roll back and the job stop
+     */
+    void checkpoint(String checkpoint, long itemsProcessed);
+}
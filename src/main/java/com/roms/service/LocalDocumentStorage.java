@@ -0,0 +1,79 @@
+package com.roms.service;
+
+import com.roms.entity.CandidateDocument;
+import com.roms.repository.CandidateDocumentRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Documents on the node's disk under file.upload-dir, stored once per distinct content
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnExpression("'${roms.storage.mode:local}' == 'local' or ${roms.storage.write-behind.enabled:false}")
+public class LocalDocumentStorage implements DocumentStorage {
+
+    private final LocalFileStorageService localFileStorageService;
+    private final DocumentDownloadService documentDownloadService;
+    private final CandidateDocumentRepository documentRepository;
+
+    @Override
+    public String getName() {
+        return LOCAL;
+    }
+
+    @Override
+    public String store(MultipartFile file, Long candidateId) throws IOException {
+        return localFileStorageService.storeFile(file);
+    }
+
+    @Override
+    public String store(MultipartFile file, String sha256, Long candidateId) throws IOException {
+        return localFileStorageService.storeFile(file, sha256);
+    }
+
+    @Override
+    public String store(Path file, String fileName, String contentType, Long candidateId) throws IOException {
+        return localFileStorageService.storeFile(file, fileName);
+    }
+
+    /**
+     * Identical uploads share one file, so it is only removed once no other local document refers to it
+     */
+    @Override
+    public void delete(String storageId) throws IOException {
+        String hash = contentHashOf(storageId);
+        if (hash != null && documentRepository.countLocalReferences(hash, storageId) > 0) {
+            log.info("File {} is still referenced by other documents, kept", hash);
+            return;
+        }
+        localFileStorageService.deleteFile(storageId);
+    }
+
+    @Override
+    public String contentHashOf(String storageId) {
+        return LocalFileStorageService.contentHashOf(storageId);
+    }
+
+    @Override
+    public ResponseEntity<?> download(CandidateDocument document, HttpServletRequest request) throws IOException {
+        return documentDownloadService.serveLocalFile(document,
+                localFileStorageService.loadFile(document.getDriveFileId()), request);
+    }
+
+    /**
+     * Where a stored file sits on disk
+     */
+    public Path resolve(String storageId) {
+        return localFileStorageService.loadFile(storageId);
+    }
+}
@@ -2,38 +2,80 @@ package com.roms.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Local file storage service for development/testing
  * Stores files in the local filesystem instead of Google Drive
- * Enabled when roms.storage.mode=local
+ * Enabled when roms.storage.mode=local, or as the landing disk for write-behind uploads
+ *
+ * Content-addressed: an upload is hashed (SHA-256) while it streams to a temp file, then moved to
+ * uploads/ab/cd/abcd...; identical content is kept once. An upload DocumentUploadValidator has
+ * already hashed is copied in under that hash without being hashed again. Each stored file still
+ * gets its own id ("sha256:<hash>:<uuid>") because candidate_documents.drive_file_id is unique; the documents
+ * sharing a hash (content_hash) are the blob's references. Files from the old flat layout
+ * ("<uuid>_<name>" in the root) stay readable until LocalStoreMaintenanceService migrates them.
  */
 @Service
 @Slf4j
-@ConditionalOnProperty(name = "roms.storage.mode", havingValue = "local", matchIfMissing = true)
+@ConditionalOnExpression("'${roms.storage.mode:local}' == 'local' or ${roms.storage.write-behind.enabled:false}")
 public class LocalFileStorageService {
 
+    public static final String CONTENT_ID_PREFIX = "sha256:";
+
+    private static final Pattern CONTENT_ID = Pattern.compile("sha256:([0-9a-f]{64}):[0-9a-f-]{36}");
+    private static final Pattern SHARD = Pattern.compile("[0-9a-f]{2}");
+    private static final String INCOMING_DIR = ".incoming";
+
     @Value("${file.upload-dir:uploads}")
     private String uploadDir;
 
+    /**
+     * Unreferenced blobs younger than this are kept: a concurrent upload of the same content may
+     * have found the blob and not yet committed its document
+     */
+    @Value("${roms.storage.local.blob-grace-seconds:3600}")
+    private long blobGraceSeconds = 3600L;
+
     private Path uploadPath;
+    private Path incomingPath;
+
+    private final AtomicLong blobsWritten = new AtomicLong();
+    private final AtomicLong duplicatesSkipped = new AtomicLong();
+    private final AtomicLong bytesDeduplicated = new AtomicLong();
 
     @PostConstruct
     public void init() {
         try {
             uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-            Files.createDirectories(uploadPath);
+            incomingPath = uploadPath.resolve(INCOMING_DIR);
+            Files.createDirectories(incomingPath);
             log.info("Local file storage initialized at: {}", uploadPath);
         } catch (IOException ex) {
             log.error("Could not create upload directory!", ex);
@@ -45,41 +87,212 @@ public class LocalFileStorageService {
      * Store file locally and return a unique file identifier
      */
     public String storeFile(MultipartFile file) throws IOException {
-        String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-        
-        try {
-            // Copy file to the target location (Replacing existing file with the same name)
-            Path targetLocation = this.uploadPath.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            
-            log.info("File stored successfully: {}", fileName);
-            return fileName;
+        try (InputStream content = file.getInputStream()) {
+            return store(content);
         } catch (IOException ex) {
-            log.error("Could not store file {}. Error: {}", fileName, ex.getMessage());
-            throw new IOException("Could not store file " + fileName + ". Please try again!", ex);
+            log.error("Could not store file {}. Error: {}", file.getOriginalFilename(), ex.getMessage());
+            throw new IOException("Could not store file " + file.getOriginalFilename() + ". Please try again!", ex);
+        }
+    }
+
+    /**
+     * Store an upload whose hash is already known: content the store already holds is not read
+     * again, and new content is copied in under that hash rather than hashed a second time
+     */
+    public String storeFile(MultipartFile file, String sha256) throws IOException {
+        if (sha256 == null) {
+            return storeFile(file);
+        }
+        if (!reuse(sha256, file.getSize())) {
+            Path incoming = Files.createTempFile(incomingPath, "upload-", ".part");
+            try {
+                try (InputStream content = file.getInputStream()) {
+                    Files.copy(content, incoming, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException ex) {
+                    log.error("Could not store file {}. Error: {}", file.getOriginalFilename(), ex.getMessage());
+                    throw new IOException("Could not store file " + file.getOriginalFilename() + ". Please try again!", ex);
+                }
+                moveToBlob(incoming, sha256);
+            } finally {
+                Files.deleteIfExists(incoming);
+            }
+        }
+        return CONTENT_ID_PREFIX + sha256 + ":" + UUID.randomUUID();
+    }
+
+    /**
+     * Store a copy of a file already on disk and return its identifier
+     */
+    public String storeFile(Path source, String originalFileName) throws IOException {
+        try (InputStream content = Files.newInputStream(source)) {
+            return store(content);
+        }
+    }
+
+    /**
+     * Stream content into the store, hashing it on the way, and return a new identifier for it
+     */
+    public String store(InputStream content) throws IOException {
+        Path incoming = Files.createTempFile(incomingPath, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream hashing = new DigestInputStream(content, digest)) {
+                size = Files.copy(hashing, incoming, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            if (!reuse(hash, size)) {
+                moveToBlob(incoming, hash);
+            }
+            return CONTENT_ID_PREFIX + hash + ":" + UUID.randomUUID();
+        } finally {
+            Files.deleteIfExists(incoming);
+        }
+    }
+
+    private void moveToBlob(Path incoming, String hash) throws IOException {
+        Path blob = blobPath(hash);
+        Files.createDirectories(blob.getParent());
+        Files.move(incoming, blob, StandardCopyOption.ATOMIC_MOVE);
+        blobsWritten.incrementAndGet();
+        log.info("File stored successfully: {}", hash);
+    }
+
+    /**
+     * Whether the content is already stored; if so it is kept as the one copy, and made young
+     * again so cleanup leaves it to the new reference
+     */
+    private boolean reuse(String hash, long size) throws IOException {
+        Path blob = blobPath(hash);
+        try {
+            Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+        } catch (NoSuchFileException e) {
+            return false;
         }
+        duplicatesSkipped.incrementAndGet();
+        bytesDeduplicated.addAndGet(size);
+        log.info("File content {} already stored, reusing it", hash);
+        return true;
     }
 
     /**
      * Load file as Path
      */
     public Path loadFile(String fileName) {
-        return uploadPath.resolve(fileName).normalize();
+        String hash = contentHashOf(fileName);
+        return hash != null ? blobPath(hash) : uploadPath.resolve(fileName).normalize();
     }
 
     /**
-     * Delete file
+     * Delete file. A content-addressed file is shared by every id with its hash, so callers check
+     * that no other document references it; it is still kept while younger than the grace period.
      */
     public void deleteFile(String fileName) throws IOException {
+        String hash = contentHashOf(fileName);
+        if (hash != null) {
+            deleteBlobIfIdle(hash);
+            return;
+        }
         Path filePath = loadFile(fileName);
         Files.deleteIfExists(filePath);
         log.info("File deleted: {}", fileName);
     }
 
+    /**
+     * Delete an unreferenced blob unless it was written or reused within the grace period
+     */
+    public boolean deleteBlobIfIdle(String hash) throws IOException {
+        Path blob = blobPath(hash);
+        if (!Files.exists(blob)) {
+            return false;
+        }
+        Instant idleSince = Instant.now().minusSeconds(blobGraceSeconds);
+        if (Files.getLastModifiedTime(blob).toInstant().isAfter(idleSince)) {
+            return false;
+        }
+        boolean deleted = Files.deleteIfExists(blob);
+        if (deleted) {
+            log.info("File content deleted: {}", hash);
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete temp files of uploads that never completed (the node stopped mid-copy)
+     */
+    public int deleteIdleIncoming() throws IOException {
+        Instant idleSince = Instant.now().minusSeconds(blobGraceSeconds);
+        int deleted = 0;
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(incomingPath)) {
+            for (Path part : parts) {
+                if (Files.getLastModifiedTime(part).toInstant().isBefore(idleSince) && Files.deleteIfExists(part)) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Hashes of the blobs under one first-level shard directory (00 to ff)
+     */
+    public List<String> listBlobHashes(int shard) throws IOException {
+        List<String> hashes = new ArrayList<>();
+        Path shardDir = uploadPath.resolve(String.format("%02x", shard));
+        if (!Files.isDirectory(shardDir)) {
+            return hashes;
+        }
+        try (DirectoryStream<Path> second = Files.newDirectoryStream(shardDir)) {
+            for (Path dir : second) {
+                if (!Files.isDirectory(dir) || !SHARD.matcher(dir.getFileName().toString()).matches()) {
+                    continue;
+                }
+                try (DirectoryStream<Path> blobs = Files.newDirectoryStream(dir)) {
+                    for (Path blob : blobs) {
+                        hashes.add(blob.getFileName().toString());
+                    }
+                }
+            }
+        }
+        return hashes;
+    }
+
     /**
      * Generate a shareable URL (local path for now)
      */
     public String generateShareableLink(String fileName) {
         return "/api/files/" + fileName;
     }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("uploadPath", uploadPath.toString());
+        stats.put("blobsWritten", blobsWritten.get());
+        stats.put("duplicatesSkipped", duplicatesSkipped.get());
+        stats.put("bytesDeduplicated", bytesDeduplicated.get());
+        return stats;
+    }
+
+    /**
+     * The SHA-256 of a content-addressed id, or null for ids in the old flat layout
+     */
+    public static String contentHashOf(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        Matcher matcher = CONTENT_ID.matcher(fileName);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    Path blobPath(String hash) {
+        return uploadPath.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
@@ -0,0 +1,194 @@
+package com.roms.service;
+
+import com.roms.entity.CandidateDocument;
+import com.roms.enums.ReplicationStatus;
+import com.roms.repository.CandidateDocumentRepository;
+import com.roms.repository.DocumentReplicationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Housekeeping for the content-addressed local store, as cluster jobs
+ *
+ * - Migration moves files from the old flat upload directory into the store, one chunk of
+ *   documents at a time: copy the chunk's files in, repoint the documents and checkpoint in one
+ *   transaction, then delete the flat files. An interrupted run resumes after its checkpoint, and
+ *   a document that fails stays flat for the next run.
+ * - Cleanup walks the 256 top-level shards and removes files no local document refers to, once
+ *   they are past the grace period - leftovers of deletes that raced an upload of the same
+ *   content, migrations whose document changed meanwhile, and abandoned temp files.
+ *
+ * With several nodes, file.upload-dir should be shared: each job runs on one node only.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnExpression("'${roms.storage.mode:local}' == 'local' or ${roms.storage.write-behind.enabled:false}")
+public class LocalStoreMaintenanceService {
+
+    public static final String MIGRATION_JOB = "local-store-migration";
+    public static final String CLEANUP_JOB = "local-store-cleanup";
+
+    private static final int SHARD_COUNT = 256;
+    private static final int HASH_BATCH_SIZE = 500;
+
+    private final LocalFileStorageService localFileStorageService;
+    private final CandidateDocumentRepository documentRepository;
+    private final DocumentReplicationRepository replicationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledJobRunner jobRunner;
+
+    @Value("${roms.storage.mode:local}")
+    private String mode = "local";
+
+    @Value("${roms.storage.local.migration-chunk-size:200}")
+    private int migrationChunkSize = 200;
+
+    @PostConstruct
+    public void registerJobs() {
+        jobRunner.register(MIGRATION_JOB, this::migrate);
+        jobRunner.register(CLEANUP_JOB, this::cleanUp);
+    }
+
+    /**
+     * Migrate the flat upload directory now; empty if the migration is already running somewhere
+     */
+    public Optional<Integer> runMigration() {
+        return jobRunner.run(MIGRATION_JOB, LocalDate.now().toString());
+    }
+
+    @Scheduled(cron = "${roms.storage.local.cleanup-cron:0 0 5 * * *}")
+    public void scheduledCleanUp() {
+        jobRunner.run(CLEANUP_JOB, LocalDate.now().toString());
+    }
+
+    public Optional<Integer> runCleanUp() {
+        return jobRunner.run(CLEANUP_JOB, LocalDate.now().toString());
+    }
+
+    /**
+     * Returns the number of documents moved into the store
+     */
+    int migrate(JobRunContext context) {
+        long afterId = context.getCheckpoint() != null ? Long.parseLong(context.getCheckpoint()) : 0L;
+        // Documents stored before backends were recorded are local ones when local is the mode
+        boolean includeUnrecorded = "local".equals(mode);
+        int migrated = 0;
+        int missing = 0;
+
+        while (true) {
+            List<CandidateDocument> documents = documentRepository.findFlatLocalAfter(afterId, includeUnrecorded,
+                    PageRequest.of(0, migrationChunkSize));
+            if (documents.isEmpty()) {
+                break;
+            }
+            List<Relocation> relocations = new ArrayList<>();
+            for (CandidateDocument document : documents) {
+                String flatId = document.getDriveFileId();
+                if (awaitingReplication(flatId)) {
+                    // The replicator will move it off local disk; repointing it here would orphan the outbox row
+                    continue;
+                }
+                Path file = localFileStorageService.loadFile(flatId);
+                if (!Files.isRegularFile(file)) {
+                    missing++;
+                    log.warn("Document {} has no file at {}, not migrated", document.getId(), file);
+                    continue;
+                }
+                try {
+                    String storedId = localFileStorageService.storeFile(file, document.getFileName());
+                    relocations.add(new Relocation(document.getId(), flatId, storedId));
+                } catch (IOException e) {
+                    log.error("Could not migrate document {}: {}", document.getId(), e.getMessage());
+                }
+            }
+
+            long lastId = documents.get(documents.size() - 1).getId();
+            List<String> moved = transactionTemplate.execute(status -> {
+                List<String> flatIds = new ArrayList<>();
+                for (Relocation relocation : relocations) {
+                    if (documentRepository.relocate(relocation.documentId(), relocation.flatId(), relocation.storedId(),
+                            LocalFileStorageService.contentHashOf(relocation.storedId())) == 1) {
+                        flatIds.add(relocation.flatId());
+                    }
+                }
+                context.checkpoint(String.valueOf(lastId), documents.size());
+                return flatIds;
+            });
+            for (String flatId : moved) {
+                try {
+                    localFileStorageService.deleteFile(flatId);
+                } catch (IOException e) {
+                    log.warn("Could not delete migrated file {}: {}", flatId, e.getMessage());
+                }
+            }
+            migrated += moved.size();
+            if (documents.size() < migrationChunkSize) {
+                break;
+            }
+            afterId = lastId;
+        }
+
+        log.info("Local store migration moved {} documents ({} had no file)", migrated, missing);
+        return migrated;
+    }
+
+    /**
+     * Returns the number of unreferenced files removed; the checkpoint is the next shard to sweep
+     */
+    int cleanUp(JobRunContext context) {
+        int firstShard = context.getCheckpoint() != null ? Integer.parseInt(context.getCheckpoint()) : 0;
+        int removed = 0;
+        try {
+            if (firstShard == 0) {
+                removed += localFileStorageService.deleteIdleIncoming();
+            }
+            for (int shard = firstShard; shard < SHARD_COUNT; shard++) {
+                List<String> hashes = localFileStorageService.listBlobHashes(shard);
+                for (int from = 0; from < hashes.size(); from += HASH_BATCH_SIZE) {
+                    List<String> batch = hashes.subList(from, Math.min(hashes.size(), from + HASH_BATCH_SIZE));
+                    Set<String> referenced = new HashSet<>(documentRepository.findReferencedLocalHashes(batch));
+                    for (String hash : batch) {
+                        if (!referenced.contains(hash) && localFileStorageService.deleteBlobIfIdle(hash)) {
+                            removed++;
+                        }
+                    }
+                }
+                String next = String.valueOf(shard + 1);
+                int swept = hashes.size();
+                transactionTemplate.executeWithoutResult(status -> context.checkpoint(next, swept));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Local store cleanup failed: " + e.getMessage(), e);
+        }
+        log.info("Local store cleanup removed {} unreferenced files", removed);
+        return removed;
+    }
+
+    private boolean awaitingReplication(String localStorageId) {
+        return replicationRepository.findByLocalStorageId(localStorageId)
+                .filter(replication -> replication.getStatus() == ReplicationStatus.PENDING
+                        || replication.getStatus() == ReplicationStatus.FAILED)
+                .isPresent();
+    }
+
+    private record Relocation(Long documentId, String flatId, String storedId) {
+    }
+}
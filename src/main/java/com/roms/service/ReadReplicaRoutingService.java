@@ -0,0 +1,224 @@
+package com.roms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a transaction's connection comes from the read replica or the primary
+ *
+ * Only read-only transactions a service declares with @Transactional(readOnly = true) are sent to
+ * the replica, and only when:
+ * - the replica is streaming and answered the last lag check within max-lag-ms of the primary
+ * - that check is recent: one older than twice lag-check-ms (checks stopped or hung) is not trusted
+ * - the current user has not committed a write in the last sticky-ms (read-your-writes;
+ *   anonymous and background work has no user and is never held on the primary)
+ *
+ * Everything else stays on the primary: writes, reads outside a transaction, and the read-only
+ * transaction Spring Data opens around a repository call made outside any transaction. The latter
+ * is how controllers load an entity they go on to modify and save, so it must see current columns.
+ *
+ * Sessions reading from the replica do not put into the second-level cache: its regions are only
+ * evicted when a write commits, so a row read before the replica replays that write would stay
+ * cached. Without a replica (roms.datasource.replica.enabled=false) no routing DataSource exists
+ * and this only reports that.
+ */
+@Service
+@Slf4j
+public class ReadReplicaRoutingService {
+
+    /**
+     * Zero on a primary (one instance, two pools) or a streaming replica that has replayed all it
+     * received; -1 when the WAL receiver is not streaming, since a replica cut off from the primary
+     * has also replayed all it received. Reading pg_stat_wal_receiver.status takes pg_read_all_stats.
+     */
+    static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN -1 "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS BIGINT) END";
+
+    /** Spring Data names the transaction it opens around a repository call after this class */
+    private static final String REPOSITORY_TRANSACTION_PREFIX = SimpleJpaRepository.class.getName() + ".";
+
+    @Value("${roms.datasource.replica.sticky-ms:5000}")
+    private long stickyMs = 5000L;
+
+    @Value("${roms.datasource.replica.max-lag-ms:2000}")
+    private long maxLagMs = 2000L;
+
+    @Value("${roms.datasource.replica.lag-check-ms:1000}")
+    private long lagCheckMs = 1000L;
+
+    @Value("${roms.datasource.replica.max-sticky-users:100000}")
+    private long maxStickyUsers = 100000L;
+
+    /** Users who committed a write within the sticky window */
+    private Cache<String, Boolean> recentWriters;
+
+    private volatile JdbcTemplate replicaJdbcTemplate;
+    private volatile boolean replicaAvailable;
+    /** Last measured lag, or -1 when the replica could not be checked */
+    private volatile long replicaLagMs = -1L;
+    /** System.nanoTime() of the last lag check the replica answered */
+    private volatile long lastCheckNanos;
+
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong stickyReads = new AtomicLong();
+    private final AtomicLong lagFallbackReads = new AtomicLong();
+    private final AtomicLong repositoryPrimaryReads = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxStickyUsers)
+                .expireAfterWrite(Duration.ofMillis(stickyMs))
+                .build();
+    }
+
+    /**
+     * Called by the routing DataSource once the replica pool exists
+     */
+    public void attachReplica(DataSource replica) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+    }
+
+    /**
+     * Route the connection being opened for the current transaction. A read-write transaction
+     * marks its user as a recent writer once it commits.
+     */
+    public boolean useReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            String user = currentUser();
+            if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recentWriters.put(user, Boolean.TRUE);
+                    }
+                });
+            }
+            return false;
+        }
+        if (replicaJdbcTemplate == null) {
+            return false;
+        }
+        String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (transactionName != null && transactionName.startsWith(REPOSITORY_TRANSACTION_PREFIX)) {
+            repositoryPrimaryReads.incrementAndGet();
+            return false;
+        }
+        if (!replicaAvailable || lagCheckIsStale()) {
+            lagFallbackReads.incrementAndGet();
+            return false;
+        }
+        String user = currentUser();
+        if (user != null && recentWriters.getIfPresent(user) != null) {
+            stickyReads.incrementAndGet();
+            return false;
+        }
+        replicaReads.incrementAndGet();
+        disableCachePuts();
+        return true;
+    }
+
+    /**
+     * Stop the transaction's session from putting what it reads into the second-level cache;
+     * with open-in-view the session outlives the transaction, so its cache mode is put back after.
+     */
+    private void disableCachePuts() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder && holder.getEntityManager() != null) {
+                Session session = holder.getEntityManager().unwrap(Session.class);
+                CacheMode previous = session.getCacheMode();
+                session.setCacheMode(CacheMode.GET);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (session.isOpen()) {
+                            session.setCacheMode(previous);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Measure replication lag; reads fall back to the primary while it is over max-lag-ms or unknown
+     */
+    @Scheduled(fixedDelayString = "${roms.datasource.replica.lag-check-ms:1000}")
+    public void checkReplicaLag() {
+        JdbcTemplate jdbcTemplate = replicaJdbcTemplate;
+        if (jdbcTemplate == null) {
+            return;
+        }
+        long lag;
+        try {
+            Long measured = jdbcTemplate.queryForObject(LAG_QUERY, Long.class);
+            lag = measured != null ? measured : -1L;
+            lastCheckNanos = System.nanoTime();
+        } catch (RuntimeException e) {
+            log.debug("Replica lag check failed: {}", e.getMessage());
+            lag = -1L;
+        }
+        boolean available = lag >= 0 && lag <= maxLagMs;
+        if (available != replicaAvailable) {
+            if (available) {
+                log.info("Read replica available again (lag {} ms), routing read-only transactions to it", lag);
+            } else {
+                log.warn("Read replica {} - routing read-only transactions to the primary",
+                        lag < 0 ? "unreachable or not streaming" : "lagging by " + lag + " ms");
+            }
+        }
+        replicaLagMs = lag;
+        replicaAvailable = available;
+    }
+
+    private boolean lagCheckIsStale() {
+        return System.nanoTime() - lastCheckNanos > Duration.ofMillis(2 * lagCheckMs).toNanos();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", replicaJdbcTemplate != null);
+        stats.put("replicaAvailable", replicaAvailable);
+        stats.put("replicaLagMs", replicaLagMs);
+        stats.put("lagCheckAgeMs", Duration.ofNanos(System.nanoTime() - lastCheckNanos).toMillis());
+        stats.put("maxLagMs", maxLagMs);
+        stats.put("stickyMs", stickyMs);
+        stats.put("stickyUsers", recentWriters.estimatedSize());
+        stats.put("replicaReads", replicaReads.get());
+        stats.put("stickyPrimaryReads", stickyReads.get());
+        stats.put("lagFallbackReads", lagFallbackReads.get());
+        stats.put("repositoryPrimaryReads", repositoryPrimaryReads.get());
+        return stats;
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication.getName() == null
+                || "anonymousUser".equals(authentication.getName())) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
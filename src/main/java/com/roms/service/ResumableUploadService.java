@@ -0,0 +1,397 @@
+package com.roms.service;
+
+import com.roms.entity.Candidate;
+import com.roms.entity.CandidateDocument;
+import com.roms.entity.DocumentUploadSession;
+import com.roms.enums.DocumentType;
+import com.roms.event.DocumentChangedEvent;
+import com.roms.exception.BusinessValidationException;
+import com.roms.exception.ResourceNotFoundException;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.DocumentUploadSessionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resumable document uploads, following the tus protocol's core, creation, termination and
+ * expiration parts
+ *
+ * A client creates an upload with its total length, then sends the content in any number of
+ * chunks, each saying at which offset it starts. Chunks are written into a partial file at that
+ * offset and the offset recorded only once the bytes are on disk, so a dropped connection keeps
+ * whatever arrived and the client resumes from the offset a HEAD reports. The first KB is checked
+ * for an allowed file type as soon as it arrives, so a wrong file is refused before the rest is
+ * sent. When the last byte arrives the file goes through the same validation and storage as a
+ * single-shot upload and the document is created.
+ *
+ * Uploads with no chunk for expiry-hours are answered as not found from then on and deleted with
+ * their partial file by the next cleanup. Partial files live
+ * on the node that received them: with several nodes, roms.document.resumable.dir should be
+ * shared or uploads routed to one node.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumableUploadService {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int CLEANUP_BATCH_SIZE = 200;
+
+    private final DocumentUploadSessionRepository sessionRepository;
+    private final CandidateRepository candidateRepository;
+    private final DocumentStorageService documentStorageService;
+    private final DocumentCompletenessService documentCompletenessService;
+    private final DocumentUploadValidator uploadValidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${roms.document.resumable.dir:${file.upload-dir:uploads}/.resumable}")
+    private String partialDir = "uploads/.resumable";
+
+    @Value("${roms.document.resumable.expiry-hours:24}")
+    private long expiryHours = 24L;
+
+    private Path partialPath;
+    /** One request at a time writes to an upload on this node */
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        try {
+            partialPath = Paths.get(partialDir).toAbsolutePath().normalize();
+            Files.createDirectories(partialPath);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create resumable upload directory " + partialDir, e);
+        }
+    }
+
+    /**
+     * Start an upload of uploadLength bytes for the candidate
+     */
+    public DocumentUploadSession create(Long candidateId, DocumentType docType, String fileName, long uploadLength,
+                                        String documentNumber, LocalDate expiryDate, String createdBy) throws IOException {
+        if (uploadLength <= 0) {
+            throw new BusinessValidationException("Upload-Length must be a positive number of bytes");
+        }
+        uploadValidator.checkSize(uploadLength);
+        if (fileName == null || fileName.isBlank()) {
+            throw new BusinessValidationException("A file name is required");
+        }
+        if (docType == null) {
+            throw new BusinessValidationException("A document type is required");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        DocumentUploadSession session = sessionRepository.save(DocumentUploadSession.builder()
+                .uploadId(UUID.randomUUID().toString())
+                .candidateId(candidateId)
+                .docType(docType)
+                .fileName(fileName)
+                .documentNumber(documentNumber)
+                .expiryDate(expiryDate)
+                .uploadLength(uploadLength)
+                .createdBy(createdBy)
+                .createdAt(now)
+                .expiresAt(now.plusHours(expiryHours))
+                .build());
+        Files.createFile(partial(session.getUploadId()));
+        return session;
+    }
+
+    /**
+     * An upload still being sent or already stored; one past its expiry is treated as gone even
+     * if cleanup has not removed it yet
+     */
+    public DocumentUploadSession get(String uploadId) {
+        DocumentUploadSession session = sessionRepository.findByUploadId(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found: " + uploadId));
+        if (session.getDocumentId() == null && session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new ResourceNotFoundException("Upload has expired: " + uploadId);
+        }
+        return session;
+    }
+
+    /**
+     * Write a chunk starting at offset. Returns the upload, with documentId set once it is complete.
+     *
+     * @throws UploadConflictException if offset is not where the upload stands
+     * @throws BusinessValidationException if the chunk runs past the declared length or the file is
+     *         not acceptable; an unacceptable file ends the upload
+     * @throws IOException if the client went away; what arrived before that is kept
+     */
+    public DocumentUploadSession appendChunk(String uploadId, long offset, InputStream chunk) throws IOException {
+        ReentrantLock lock = lock(uploadId);
+        try {
+            // Read again under the lock: the previous holder may have moved it on
+            DocumentUploadSession session = get(uploadId);
+            if (session.getDocumentId() != null) {
+                return session;
+            }
+            if (offset != session.getUploadOffset()) {
+                throw new UploadConflictException(session.getUploadOffset(), "Upload is at offset " + session.getUploadOffset());
+            }
+            if (!session.isComplete()) {
+                write(session, offset, chunk);
+            }
+            if (session.isComplete()) {
+                complete(session);
+            }
+            return session;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Abandon an upload and delete what was received; a stored document is not affected
+     */
+    public void terminate(String uploadId) throws IOException {
+        ReentrantLock lock = lock(uploadId);
+        try {
+            DocumentUploadSession session = get(uploadId);
+            transactionTemplate.executeWithoutResult(status -> sessionRepository.delete(session));
+            Files.deleteIfExists(partial(uploadId));
+        } finally {
+            lock.unlock();
+            locks.remove(uploadId);
+        }
+    }
+
+    /**
+     * Delete uploads past their expiry with their partial files, and partial files left without an upload.
+     * Safe to run on every node: each expired row is deleted by exactly one.
+     */
+    @Scheduled(fixedDelayString = "${roms.document.resumable.cleanup-interval-ms:3600000}")
+    public int cleanUpExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int removed = 0;
+        List<String> expired;
+        do {
+            expired = sessionRepository.findExpiredUploadIds(now, PageRequest.of(0, CLEANUP_BATCH_SIZE));
+            for (String uploadId : expired) {
+                Integer deleted = transactionTemplate.execute(status -> sessionRepository.deleteIfExpired(uploadId, now));
+                if (deleted != null && deleted == 1) {
+                    deletePartialQuietly(uploadId);
+                    locks.remove(uploadId);
+                    removed++;
+                }
+            }
+        } while (expired.size() == CLEANUP_BATCH_SIZE);
+
+        try {
+            removed += deleteOrphanedPartials();
+        } catch (IOException e) {
+            log.warn("Could not sweep resumable upload directory: {}", e.getMessage());
+        }
+        if (removed > 0) {
+            log.info("Removed {} expired resumable uploads", removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Take the upload's lock; the upload must exist, so unknown ids leave nothing behind
+     */
+    private ReentrantLock lock(String uploadId) {
+        DocumentUploadSession session = get(uploadId);
+        ReentrantLock lock = locks.computeIfAbsent(uploadId, id -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            throw new UploadConflictException(session.getUploadOffset(), "Another request is writing to this upload");
+        }
+        return lock;
+    }
+
+    private void write(DocumentUploadSession session, long offset, InputStream chunk) throws IOException {
+        String uploadId = session.getUploadId();
+        long remaining = session.getUploadLength() - offset;
+        long sniffAt = Math.min(DocumentUploadValidator.SNIFF_LENGTH, session.getUploadLength());
+        long written = 0;
+        IOException interrupted = null;
+
+        try (FileChannel channel = FileChannel.open(partial(uploadId), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Bytes past the recorded offset are from a chunk that was never confirmed
+            channel.truncate(offset);
+            channel.position(offset);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try {
+                int read;
+                while ((read = chunk.read(buffer)) != -1) {
+                    if (written + read > remaining) {
+                        throw new BusinessValidationException("Chunk runs past the Upload-Length of " + session.getUploadLength());
+                    }
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    written += read;
+                    long before = offset + written - read;
+                    if (before < sniffAt && offset + written >= sniffAt) {
+                        checkFileType(session, channel, (int) sniffAt);
+                    }
+                }
+            } catch (IOException e) {
+                interrupted = e;
+            }
+            channel.force(false);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Partial data for upload " + uploadId + " is not on this server");
+        }
+
+        if (written > 0) {
+            long newOffset = offset + written;
+            LocalDateTime expiresAt = LocalDateTime.now().plusHours(expiryHours);
+            Integer advanced = transactionTemplate.execute(status ->
+                    sessionRepository.advanceOffset(uploadId, offset, newOffset, expiresAt));
+            if (advanced == null || advanced == 0) {
+                throw new UploadConflictException(get(uploadId).getUploadOffset(), "Upload was moved on by another request");
+            }
+            session.setUploadOffset(newOffset);
+            session.setExpiresAt(expiresAt);
+        }
+        if (interrupted != null) {
+            log.info("Upload {} interrupted at offset {}", uploadId, session.getUploadOffset());
+            throw interrupted;
+        }
+    }
+
+    /**
+     * Refuse a wrong file type on its first KB instead of after the whole upload
+     */
+    private void checkFileType(DocumentUploadSession session, FileChannel channel, int length) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(length);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) <= 0) {
+                break;
+            }
+        }
+        try {
+            uploadValidator.sniff(header.array(), header.position(), session.getFileName());
+        } catch (BusinessValidationException e) {
+            discard(session);
+            throw e;
+        }
+    }
+
+    private void complete(DocumentUploadSession session) throws IOException {
+        Candidate candidate = candidateRepository.findById(session.getCandidateId())
+                .orElseThrow(() -> new ResourceNotFoundException("Candidate not found with id: " + session.getCandidateId()));
+        CandidateDocument document = new CandidateDocument();
+        document.setCandidate(candidate);
+        document.setDocType(session.getDocType());
+        document.setDocumentNumber(session.getDocumentNumber());
+        document.setFileName(session.getFileName());
+        document.setExpiryDate(session.getExpiryDate());
+
+        Path partial = partial(session.getUploadId());
+        try {
+            documentStorageService.store(document, partial);
+        } catch (BusinessValidationException e) {
+            discard(session);
+            throw e;
+        }
+
+        CandidateDocument saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                CandidateDocument savedDocument = documentCompletenessService.addDocument(document);
+                session.setDocumentId(savedDocument.getId());
+                sessionRepository.save(session);
+                eventPublisher.publishEvent(new DocumentChangedEvent(
+                        savedDocument.getId(), candidate.getId(), savedDocument.getDocType(), false));
+                return savedDocument;
+            });
+        } catch (RuntimeException e) {
+            session.setDocumentId(null);
+            documentStorageService.delete(document);
+            throw e;
+        }
+        Files.deleteIfExists(partial);
+        log.info("Resumable upload {} stored as document {}", session.getUploadId(), saved.getId());
+    }
+
+    private void discard(DocumentUploadSession session) throws IOException {
+        transactionTemplate.executeWithoutResult(status -> sessionRepository.deleteById(session.getId()));
+        Files.deleteIfExists(partial(session.getUploadId()));
+    }
+
+    /**
+     * Partial files older than the expiry whose upload row is gone (deleted by a node that could not see the file)
+     */
+    private int deleteOrphanedPartials() throws IOException {
+        Instant idleSince = Instant.now().minusSeconds(expiryHours * 3600L);
+        List<String> idle = new ArrayList<>();
+        try (DirectoryStream<Path> partials = Files.newDirectoryStream(partialPath)) {
+            for (Path partial : partials) {
+                if (Files.getLastModifiedTime(partial).toInstant().isBefore(idleSince)) {
+                    idle.add(partial.getFileName().toString());
+                }
+            }
+        }
+        int deleted = 0;
+        for (int from = 0; from < idle.size(); from += CLEANUP_BATCH_SIZE) {
+            List<String> batch = idle.subList(from, Math.min(idle.size(), from + CLEANUP_BATCH_SIZE));
+            Set<String> existing = new HashSet<>(sessionRepository.findExistingUploadIds(batch));
+            for (String uploadId : batch) {
+                if (!existing.contains(uploadId) && Files.deleteIfExists(partialPath.resolve(uploadId))) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private void deletePartialQuietly(String uploadId) {
+        try {
+            Files.deleteIfExists(partial(uploadId));
+        } catch (IOException e) {
+            log.warn("Could not delete partial upload {}: {}", uploadId, e.getMessage());
+        }
+    }
+
+    private Path partial(String uploadId) {
+        return partialPath.resolve(uploadId);
+    }
+
+    /**
+     * A chunk that does not start where the upload stands (answered with 409 and the current offset)
+     */
+    @Getter
+    public static class UploadConflictException extends RuntimeException {
+        private final long currentOffset;
+
+        public UploadConflictException(long currentOffset, String message) {
+            super(message);
+            this.currentOffset = currentOffset;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.roms.service;
+
+import com.roms.dto.ScheduledJobStatusDTO;
+import com.roms.entity.ScheduledJob;
+import com.roms.entity.ScheduledJobRun;
+import com.roms.enums.JobRunStatus;
+import com.roms.repository.ScheduledJobRepository;
+import com.roms.repository.ScheduledJobRunRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs batch jobs on exactly one node of the cluster
+ *
+ * Every node's scheduler still fires; the runner lets only the node that takes the job's lease
+ * in scheduled_jobs (one conditional UPDATE) execute it. While running, a heartbeat thread and
+ * every checkpoint push the lease forward; if a node dies, its lease lapses and its run is left
+ * RUNNING in scheduled_job_runs with the last checkpoint. A periodic sweep - or the next trigger
+ * on any node - takes the lease and resumes that run from the checkpoint instead of starting over.
+ * Lease expiry is computed and compared in SQL against the database clock, never a node's own.
+ *
+ * Jobs register under a name at startup; see ClusterJob and JobRunContext for the contract.
+ * A job runs on the scheduler thread that triggered it, so the scheduling pool is sized
+ * (spring.task.scheduling.pool.size) to keep the frequent @Scheduled tasks running meanwhile.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduledJobRunner {
+
+    private final ScheduledJobRepository jobRepository;
+    private final ScheduledJobRunRepository runRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${roms.jobs.lease-seconds:120}")
+    private long leaseSeconds = 120L;
+
+    @Value("${roms.jobs.heartbeat-seconds:30}")
+    private long heartbeatSeconds = 30L;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, ClusterJob<?>> jobs = new ConcurrentHashMap<>();
+    /** Job name to run id, for the jobs this node is executing */
+    private final Map<String, Long> running = new ConcurrentHashMap<>();
+    private final Set<Long> lostLeases = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "job-lease-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void startHeartbeats() {
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    public void register(String jobName, ClusterJob<?> job) {
+        if (jobs.putIfAbsent(jobName, job) != null) {
+            throw new IllegalStateException("Job already registered: " + jobName);
+        }
+    }
+
+    /**
+     * Run the job here unless it is already running, here or on another node (then empty).
+     * An interrupted run with the same parameters is resumed from its checkpoint; one with
+     * other parameters is abandoned.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> run(String jobName, String parameters) {
+        ClusterJob<T> job = (ClusterJob<T>) jobs.get(jobName);
+        if (job == null) {
+            throw new IllegalArgumentException("Unknown job: " + jobName);
+        }
+        ensureJobRow(jobName);
+
+        Boolean acquired = transactionTemplate.execute(status ->
+                jobRepository.acquireLease(jobName, nodeId, leaseSeconds) == 1);
+        if (!Boolean.TRUE.equals(acquired)) {
+            log.info("Job {} is already running (lease held), skipped", jobName);
+            return Optional.empty();
+        }
+
+        try {
+            ScheduledJobRun run = transactionTemplate.execute(status -> startOrResume(jobName, parameters));
+            running.put(jobName, run.getId());
+            try {
+                T result = job.execute(new RunContext(jobName, run));
+                finish(run.getId(), JobRunStatus.COMPLETED, null);
+                log.info("Job {} run {} completed", jobName, run.getId());
+                return Optional.ofNullable(result);
+            } catch (LeaseLostException e) {
+                // The new holder resumes the run from its last checkpoint
+                log.warn("Job {} run {} lost its lease and stopped", jobName, run.getId());
+                return Optional.empty();
+            } catch (RuntimeException e) {
+                finish(run.getId(), JobRunStatus.FAILED, e.getMessage());
+                log.error("Job {} run {} failed", jobName, run.getId(), e);
+                throw e;
+            } finally {
+                running.remove(jobName);
+                lostLeases.remove(run.getId());
+            }
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> jobRepository.releaseLease(jobName, nodeId));
+        }
+    }
+
+    /**
+     * Resume runs interrupted by a node that died, without waiting for the job's next trigger
+     */
+    @Scheduled(fixedDelayString = "${roms.jobs.resume-check-ms:60000}",
+               initialDelayString = "${roms.jobs.resume-check-ms:60000}")
+    public void resumeInterrupted() {
+        for (ScheduledJobRun run : runRepository.findInterrupted()) {
+            if (!jobs.containsKey(run.getJobName()) || running.containsKey(run.getJobName())) {
+                continue;
+            }
+            log.warn("Job {} run {} was interrupted at checkpoint {}, resuming",
+                    run.getJobName(), run.getId(), run.getCheckpoint());
+            try {
+                run(run.getJobName(), run.getParameters());
+            } catch (RuntimeException e) {
+                // Already recorded as FAILED; carry on with the others
+            }
+        }
+    }
+
+    public List<ScheduledJobStatusDTO> getJobs() {
+        List<ScheduledJobStatusDTO> statuses = new ArrayList<>();
+        for (ScheduledJob job : jobRepository.findAll()) {
+            statuses.add(ScheduledJobStatusDTO.builder()
+                    .jobName(job.getJobName())
+                    .leaseOwner(job.getLeaseOwner())
+                    .leaseExpiresAt(job.getLeaseExpiresAt())
+                    .heartbeatAt(job.getHeartbeatAt())
+                    .runningOnThisNode(running.containsKey(job.getJobName()))
+                    .lastRun(runRepository.findByJobNameOrderByIdDesc(job.getJobName(), PageRequest.of(0, 1))
+                            .stream().findFirst().orElse(null))
+                    .build());
+        }
+        return statuses;
+    }
+
+    /**
+     * Most recent runs of a job, newest first
+     */
+    public List<ScheduledJobRun> getRuns(String jobName, int limit) {
+        return runRepository.findByJobNameOrderByIdDesc(jobName, PageRequest.of(0, Math.max(1, Math.min(limit, 500))));
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // ------------------------------------------------------------------
+
+    private void ensureJobRow(String jobName) {
+        if (jobRepository.existsById(jobName)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jobRepository.save(ScheduledJob.builder()
+                    .jobName(jobName)
+                    .createdAt(LocalDateTime.now())
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created it first
+        }
+    }
+
+    private ScheduledJobRun startOrResume(String jobName, String parameters) {
+        LocalDateTime now = jobRepository.databaseTime();
+        Optional<ScheduledJobRun> interrupted = runRepository.findFirstByJobNameAndStatusOrderByIdDesc(jobName, JobRunStatus.RUNNING);
+        if (interrupted.isPresent()) {
+            ScheduledJobRun run = interrupted.get();
+            if (Objects.equals(run.getParameters(), parameters)) {
+                log.info("Job {} resuming run {} from checkpoint {}", jobName, run.getId(), run.getCheckpoint());
+                run.setNodeId(nodeId);
+                run.setHeartbeatAt(now);
+                run.setResumeCount(run.getResumeCount() + 1);
+                return run;
+            }
+            run.setStatus(JobRunStatus.ABANDONED);
+            run.setFinishedAt(now);
+            run.setErrorMessage("Interrupted, then superseded by a run for " + parameters);
+        }
+        return runRepository.save(ScheduledJobRun.builder()
+                .jobName(jobName)
+                .parameters(parameters)
+                .status(JobRunStatus.RUNNING)
+                .nodeId(nodeId)
+                .startedAt(now)
+                .heartbeatAt(now)
+                .build());
+    }
+
+    private void finish(Long runId, JobRunStatus status, String error) {
+        String message = error != null && error.length() > 2000 ? error.substring(0, 2000) : error;
+        transactionTemplate.executeWithoutResult(tx ->
+                runRepository.finish(runId, nodeId, status, message));
+    }
+
+    private void heartbeat() {
+        running.forEach((jobName, runId) -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (jobRepository.renewLease(jobName, nodeId, leaseSeconds) == 0) {
+                        lostLeases.add(runId);
+                    } else {
+                        runRepository.heartbeat(runId);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Database unavailable: the lease may lapse; the next checkpoint finds out
+                log.warn("Heartbeat for job {} failed: {}", jobName, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Thrown from a checkpoint when another node has taken over the job
+     */
+    public static class LeaseLostException extends RuntimeException {
+        public LeaseLostException(String jobName) {
+            super("Lease on job " + jobName + " was lost to another node");
+        }
+    }
+
+    private final class RunContext implements JobRunContext {
+        private final String jobName;
+        private final Long runId;
+        private final String parameters;
+        private volatile String checkpoint;
+
+        RunContext(String jobName, ScheduledJobRun run) {
+            this.jobName = jobName;
+            this.runId = run.getId();
+            this.parameters = run.getParameters();
+            this.checkpoint = run.getCheckpoint();
+        }
+
+        @Override
+        public Long getRunId() {
+            return runId;
+        }
+
+        @Override
+        public String getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public String getCheckpoint() {
+            return checkpoint;
+        }
+
+        @Override
+        public void checkpoint(String checkpoint, long itemsProcessed) {
+            if (lostLeases.contains(runId)) {
+                throw new LeaseLostException(jobName);
+            }
+            Runnable write = () -> {
+                // Fenced: without the lease, the chunk this checkpoint belongs to rolls back
+                if (jobRepository.renewLease(jobName, nodeId, leaseSeconds) == 0) {
+                    lostLeases.add(runId);
+                    throw new LeaseLostException(jobName);
+                }
+                runRepository.recordCheckpoint(runId, checkpoint, itemsProcessed);
+            };
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                write.run();
+            } else {
+                transactionTemplate.executeWithoutResult(status -> write.run());
+            }
+            this.checkpoint = checkpoint;
+        }
+    }
+}
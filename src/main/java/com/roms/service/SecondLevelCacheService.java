@@ -0,0 +1,98 @@
+package com.roms.service;
+
+import com.roms.dto.CacheRegionStatsDTO;
+import com.roms.entity.Employer;
+import com.roms.entity.JobOrder;
+import com.roms.entity.User;
+import com.roms.event.CacheInvalidationEvent;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Inspection and eviction of the Hibernate second-level cache (JobOrder, Employer and User
+ * regions plus their query regions). The same counters are exported per region as
+ * hibernate.second.level.cache.* metrics; this view adds the hit ratio for sizing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SecondLevelCacheService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Per-region counters, sorted by region name
+     */
+    public List<CacheRegionStatsDTO> getRegionStats() {
+        Statistics statistics = sessionFactory().getStatistics();
+        String[] regions = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regions);
+
+        List<CacheRegionStatsDTO> stats = new ArrayList<>();
+        for (String region : regions) {
+            CacheRegionStatistics regionStats = statistics.getCacheRegionStatistics(region);
+            if (regionStats == null) {
+                continue;
+            }
+            long hits = regionStats.getHitCount();
+            long misses = regionStats.getMissCount();
+            stats.add(CacheRegionStatsDTO.builder()
+                    .region(region)
+                    .hits(hits)
+                    .misses(misses)
+                    .puts(regionStats.getPutCount())
+                    .hitRatio(hits + misses > 0 ? (double) hits / (hits + misses) : null)
+                    .elementsInMemory(regionStats.getElementCountInMemory())
+                    .build());
+        }
+        return stats;
+    }
+
+    /**
+     * Drop every cached entity and query result
+     */
+    public void evictAll() {
+        sessionFactory().getCache().evictAll();
+        log.info("Second-level cache evicted");
+    }
+
+    /**
+     * Rows changed on another node. Hibernate only invalidates query results for writes made
+     * through this node's session factory, so the entity's query region goes as well.
+     */
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isFullFlush()) {
+            evictAll();
+            return;
+        }
+        Cache cache = sessionFactory().getCache();
+        evict(cache, event.idsFor(CacheInvalidationEvent.JOB_ORDER), JobOrder.class, "jobOrderQueries");
+        evict(cache, event.idsFor(CacheInvalidationEvent.EMPLOYER), Employer.class, "employerQueries");
+        evict(cache, event.idsFor(CacheInvalidationEvent.USER), User.class, "userQueries");
+    }
+
+    private static void evict(Cache cache, List<String> ids, Class<?> entity, String queryRegion) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        ids.forEach(id -> cache.evictEntityData(entity, Long.valueOf(id)));
+        cache.evictQueryRegion(queryRegion);
+        cache.evictDefaultQueryRegion();
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,307 @@
+package com.roms.service;
+
+import com.roms.dto.WorkflowAnalyticsDTO;
+import com.roms.entity.CandidateStatusEvent;
+import com.roms.enums.CandidateStatus;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.CandidateStatusEventRepository;
+import com.roms.repository.projection.StageBacklogRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Funnel conversion, time-in-stage and backlog aging from the candidate status event log
+ *
+ * Status changes are appended to candidate_status_events in the publishing transaction
+ * (see {@link CandidateStatusEventService}). Funnel and time-in-stage aggregates (entry counts,
+ * exit counts, a log-scale duration histogram per stage) are kept in memory and advanced by
+ * folding only events after a high-water mark, so a request never rescans history. Events newer
+ * than the settle window are left for the next fold, giving concurrent transactions time to commit.
+ *
+ * Ids are handed out before commit, so a transaction can commit after a higher id has been folded.
+ * Every id the mark skips over is kept as an open gap and looked up again on each fold until its
+ * event turns up or gap-retention-minutes pass (rolled back, or a sequence block never used).
+ * Ids come in per-node sequence blocks, so a quiet node may use an id below the mark long after
+ * its gap was dropped; each fold therefore also takes events below the mark that occurred since
+ * the previous fold's settle point, which no earlier fold can have seen. A nightly rebuild
+ * refolds the whole log to correct anything still missed.
+ *
+ * Backlog aging is current state, not history: one grouped query over candidates by
+ * status and stage entry time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WorkflowAnalyticsService {
+
+    /**
+     * Canonical forward path used for funnel conversion
+     */
+    static final List<CandidateStatus> FUNNEL = List.of(
+            CandidateStatus.APPLICATION_SUBMITTED,
+            CandidateStatus.UNDER_REVIEW,
+            CandidateStatus.DOCUMENTS_APPROVED,
+            CandidateStatus.INTERVIEW_SCHEDULED,
+            CandidateStatus.INTERVIEW_PASSED,
+            CandidateStatus.MEDICAL_PENDING,
+            CandidateStatus.MEDICAL_PASSED,
+            CandidateStatus.VISA_PROCESSING,
+            CandidateStatus.OFFER_ISSUED,
+            CandidateStatus.OFFER_ACCEPTED,
+            CandidateStatus.DEPLOYMENT_PENDING,
+            CandidateStatus.PLACED);
+
+    private static final int FOLD_CHUNK_SIZE = 1000;
+    /** Bound on ids tracked as open gaps; a jump in the sequence is not worth more */
+    private static final int MAX_OPEN_GAPS = 10000;
+    private static final int BUCKETS_PER_DOUBLING = 8;
+    private static final int BUCKET_COUNT = BUCKETS_PER_DOUBLING * 32 + 1;
+    private static final double SECONDS_PER_HOUR = 3600.0;
+
+    private final CandidateStatusEventService eventService;
+    private final CandidateStatusEventRepository eventRepository;
+    private final CandidateRepository candidateRepository;
+
+    @Value("${roms.analytics.settle-seconds:10}")
+    private int settleSeconds = 10;
+
+    @Value("${roms.analytics.gap-retention-minutes:60}")
+    private int gapRetentionMinutes = 60;
+
+    private final Map<CandidateStatus, StageStats> stages = new EnumMap<>(CandidateStatus.class);
+    /** Ids below lastEventId not seen yet, with when they were first skipped */
+    private final TreeMap<Long, LocalDateTime> openGaps = new TreeMap<>();
+    private long lastEventId = 0L;
+    /** settledBefore of the previous fold: every event folded so far occurred at or before it */
+    private LocalDateTime lastSettledBefore;
+    private long eventsProcessed = 0L;
+
+    /**
+     * Funnel, time-in-stage and backlog aging, folding in any events since the last call first
+     */
+    public synchronized WorkflowAnalyticsDTO getAnalytics() {
+        refresh();
+        return WorkflowAnalyticsDTO.builder()
+                .funnel(funnel())
+                .timeInStage(timeInStage())
+                .backlogAging(getBacklogAging())
+                .eventsProcessed(eventsProcessed)
+                .computedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Active candidates per status by time since entering it
+     */
+    public List<WorkflowAnalyticsDTO.StageAging> getBacklogAging() {
+        LocalDateTime now = LocalDateTime.now();
+        List<WorkflowAnalyticsDTO.StageAging> aging = new ArrayList<>();
+        for (StageBacklogRow row : candidateRepository.countBacklogAging(
+                now.minusDays(7), now.minusDays(30), now.minusDays(90))) {
+            aging.add(new WorkflowAnalyticsDTO.StageAging(row.getStatus(), row.getTotal(),
+                    orZero(row.getUnder7Days()), orZero(row.getDays7To30()), orZero(row.getDays30To90()),
+                    orZero(row.getOver90Days()), orZero(row.getUnknownAge())));
+        }
+        aging.sort((a, b) -> a.getStatus().compareTo(b.getStatus()));
+        return aging;
+    }
+
+    /**
+     * Fold settled events that filled an open gap or lie after the high-water mark into the
+     * aggregates. Returns the number folded.
+     */
+    @Scheduled(fixedDelayString = "${roms.analytics.refresh-interval-ms:60000}",
+               initialDelayString = "${roms.analytics.refresh-interval-ms:60000}")
+    public synchronized int refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settledBefore = now.minusSeconds(settleSeconds);
+        LocalDateTime gapsSince = now.minusMinutes(gapRetentionMinutes);
+        openGaps.values().removeIf(skippedAt -> skippedAt.isBefore(gapsSince));
+        Set<Long> gapsFilled = foldOpenGaps(settledBefore);
+        int folded = gapsFilled.size();
+        if (lastSettledBefore != null) {
+            folded += foldBelowMark(lastSettledBefore, settledBefore, gapsFilled);
+        }
+
+        Pageable page = PageRequest.of(0, FOLD_CHUNK_SIZE);
+        while (true) {
+            List<CandidateStatusEvent> events = eventRepository.findSettledAfter(lastEventId, settledBefore, page);
+            for (CandidateStatusEvent event : events) {
+                // Only a recent event can have a neighbour still in flight; older gaps are rollbacks
+                if (event.getOccurredAt() == null || event.getOccurredAt().isAfter(gapsSince)) {
+                    for (long id = lastEventId + 1; id < event.getId() && openGaps.size() < MAX_OPEN_GAPS; id++) {
+                        openGaps.put(id, now);
+                    }
+                }
+                fold(event);
+                lastEventId = event.getId();
+            }
+            folded += events.size();
+            if (events.size() < FOLD_CHUNK_SIZE) {
+                break;
+            }
+        }
+        lastSettledBefore = settledBefore;
+        eventsProcessed += folded;
+        return folded;
+    }
+
+    /**
+     * Discard the aggregates and refold the whole event log
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${roms.analytics.rebuild-cron:0 0 4 * * *}")
+    public synchronized void rebuild() {
+        stages.clear();
+        openGaps.clear();
+        lastEventId = 0L;
+        lastSettledBefore = null;
+        eventsProcessed = 0L;
+        int folded = refresh();
+        log.info("Workflow analytics rebuilt from {} status events", folded);
+    }
+
+    // ------------------------------------------------------------------
+
+    /**
+     * Returns the ids folded
+     */
+    private Set<Long> foldOpenGaps(LocalDateTime settledBefore) {
+        Set<Long> folded = new HashSet<>();
+        List<Long> ids = new ArrayList<>(openGaps.keySet());
+        for (int from = 0; from < ids.size(); from += FOLD_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + FOLD_CHUNK_SIZE, ids.size()));
+            for (CandidateStatusEvent event : eventRepository.findSettledByIdIn(chunk, settledBefore)) {
+                fold(event);
+                openGaps.remove(event.getId());
+                folded.add(event.getId());
+            }
+        }
+        return folded;
+    }
+
+    /**
+     * Events below the mark that occurred in (since, settledBefore], other than those an open gap just took
+     */
+    private int foldBelowMark(LocalDateTime since, LocalDateTime settledBefore, Set<Long> gapsFilled) {
+        int folded = 0;
+        for (CandidateStatusEvent event : eventRepository.findOccurredBetweenAtOrBelow(lastEventId, since, settledBefore)) {
+            if (gapsFilled.contains(event.getId())) {
+                continue;
+            }
+            fold(event);
+            openGaps.remove(event.getId());
+            folded++;
+        }
+        return folded;
+    }
+
+    private void fold(CandidateStatusEvent event) {
+        stats(event.getToStatus()).entries++;
+        if (event.getFromStatus() != null && event.getTimeInPreviousStageSeconds() != null) {
+            stats(event.getFromStatus()).recordExit(event.getTimeInPreviousStageSeconds());
+        }
+    }
+
+    private List<WorkflowAnalyticsDTO.FunnelStep> funnel() {
+        List<WorkflowAnalyticsDTO.FunnelStep> steps = new ArrayList<>();
+        for (int i = 0; i < FUNNEL.size(); i++) {
+            long entries = entries(FUNNEL.get(i));
+            Double conversion = null;
+            if (i + 1 < FUNNEL.size() && entries > 0) {
+                conversion = Math.min(1.0, (double) entries(FUNNEL.get(i + 1)) / entries);
+            }
+            steps.add(new WorkflowAnalyticsDTO.FunnelStep(FUNNEL.get(i), entries, conversion));
+        }
+        return steps;
+    }
+
+    private List<WorkflowAnalyticsDTO.StageTiming> timeInStage() {
+        List<WorkflowAnalyticsDTO.StageTiming> timings = new ArrayList<>();
+        stages.forEach((status, stats) -> {
+            if (stats.exits > 0) {
+                timings.add(new WorkflowAnalyticsDTO.StageTiming(status, stats.exits,
+                        stats.percentile(0.5) / SECONDS_PER_HOUR,
+                        stats.percentile(0.9) / SECONDS_PER_HOUR,
+                        (double) stats.totalSeconds / stats.exits / SECONDS_PER_HOUR));
+            }
+        });
+        return timings;
+    }
+
+    private long entries(CandidateStatus status) {
+        StageStats stats = stages.get(status);
+        return stats != null ? stats.entries : 0L;
+    }
+
+    private StageStats stats(CandidateStatus status) {
+        return stages.computeIfAbsent(status, s -> new StageStats());
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    /**
+     * Bucket for a duration: 0 for under a second, then BUCKETS_PER_DOUBLING buckets per power of two
+     */
+    static int bucketOf(long seconds) {
+        if (seconds < 1) {
+            return 0;
+        }
+        int bucket = (int) Math.floor(Math.log(seconds) / Math.log(2) * BUCKETS_PER_DOUBLING) + 1;
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Geometric midpoint of a bucket, in seconds
+     */
+    static double bucketValue(int bucket) {
+        if (bucket == 0) {
+            return 0.0;
+        }
+        return Math.pow(2, (bucket - 0.5) / BUCKETS_PER_DOUBLING);
+    }
+
+    private static final class StageStats {
+        private long entries;
+        private long exits;
+        private long totalSeconds;
+        private final long[] histogram = new long[BUCKET_COUNT];
+
+        void recordExit(long seconds) {
+            exits++;
+            totalSeconds += seconds;
+            histogram[bucketOf(seconds)]++;
+        }
+
+        double percentile(double quantile) {
+            long rank = Math.max(1L, (long) Math.ceil(quantile * exits));
+            long seen = 0;
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                seen += histogram[bucket];
+                if (seen >= rank) {
+                    return bucketValue(bucket);
+                }
+            }
+            return bucketValue(histogram.length - 1);
+        }
+    }
+}
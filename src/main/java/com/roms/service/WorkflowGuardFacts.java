@@ -0,0 +1,18 @@
+package com.roms.service;
+
+import com.roms.enums.DocumentType;
+
+/**
+ * Facts about one candidate that workflow guards depend on.
+ * Loaded lazily for a single transition, or prefetched in bulk for a page of candidates.
+ */
+public interface WorkflowGuardFacts {
+
+    boolean hasDocuments(DocumentType... types);
+
+    boolean hasActiveAssignment();
+
+    boolean isDownpaymentComplete();
+
+    boolean isFullPaymentComplete();
+}
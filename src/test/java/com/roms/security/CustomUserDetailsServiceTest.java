@@ -0,0 +1,64 @@
+package com.roms.security;
+
+import com.roms.entity.User;
+import com.roms.enums.UserRole;
+import com.roms.event.UserAccountChangedEvent;
+import com.roms.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomUserDetailsServiceTest {
+
+    private UserRepository userRepository;
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userDetailsService = new CustomUserDetailsService();
+        ReflectionTestUtils.setField(userDetailsService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userDetailsService, "cacheManager",
+                new ConcurrentMapCacheManager(CustomUserDetailsService.USER_DETAILS_CACHE));
+
+        User user = User.builder()
+                .id(1L)
+                .username("ops")
+                .email("ops@example.com")
+                .password("hash")
+                .role(UserRole.OPERATIONS_STAFF)
+                .build();
+        user.setIsActive(true);
+        when(userRepository.findByUsername("ops")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void repeatLookupsAreServedFromCache() {
+        UserDetails first = userDetailsService.loadUserByUsername("ops");
+        ((AuthenticatedUser) first).eraseCredentials();
+
+        UserDetails second = userDetailsService.loadUserByUsername("ops");
+
+        assertThat(second.getPassword()).isEqualTo("hash");
+        verify(userRepository, times(1)).findByUsername("ops");
+    }
+
+    @Test
+    void accountChangeEvictsEntry() {
+        userDetailsService.loadUserByUsername("ops");
+        userDetailsService.onUserAccountChanged(new UserAccountChangedEvent(1L, "ops", "ops"));
+        userDetailsService.loadUserByUsername("ops");
+
+        verify(userRepository, times(2)).findByUsername("ops");
+    }
+}
@@ -0,0 +1,76 @@
+package com.roms.security;
+
+import com.roms.enums.UserRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthenticationFilterTest {
+
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+    private final AuthenticatedUser user = new AuthenticatedUser(7L, "jane", null, UserRole.OPERATIONS_STAFF, null, null, true, true);
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "test-secret-key-that-is-at-least-32-characters-long");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(tokenProvider, "refreshExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheSize", 100L);
+        tokenProvider.init();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "revocationService", new TokenRevocationService(null, event -> { }));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void streamTokenInTheUrlOpensOnlyTheEventStream() throws Exception {
+        String streamToken = tokenProvider.generateStreamToken(user);
+
+        assertThat(authenticate(request("/api/events/stream", null, streamToken))).isNotNull();
+        assertThat(authenticate(request("/api/candidates", null, streamToken))).isNull();
+        assertThat(authenticate(request("/api/candidates", streamToken, null))).isNull();
+        assertThat(authenticate(request("/api/events/stream", streamToken, null))).isNull();
+    }
+
+    @Test
+    void sessionTokenIsOnlyAcceptedAsABearerHeader() throws Exception {
+        String sessionToken = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        assertThat(authenticate(request("/api/events/stream", sessionToken, null))).isNotNull();
+        assertThat(authenticate(request("/api/events/stream", null, sessionToken))).isNull();
+    }
+
+    private Authentication authenticate(MockHttpServletRequest request) throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static MockHttpServletRequest request(String path, String bearer, String urlToken) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        if (bearer != null) {
+            request.addHeader("Authorization", "Bearer " + bearer);
+        }
+        if (urlToken != null) {
+            request.setParameter("token", urlToken);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,81 @@
+package com.roms.security;
+
+import com.roms.enums.UserRole;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "test-secret-key-that-is-at-least-32-characters-long");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(tokenProvider, "refreshExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheSize", 100L);
+        tokenProvider.init();
+    }
+
+    @Test
+    void principalIsRebuiltFromClaims() {
+        AuthenticatedUser user = new AuthenticatedUser(7L, "jane", "secret", UserRole.APPLICANT, 42L, null, true, true);
+        String token = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        Claims claims = tokenProvider.validateAndGetClaims(token).orElseThrow();
+        AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
+
+        assertThat(principal.getUserId()).isEqualTo(7L);
+        assertThat(principal.getUsername()).isEqualTo("jane");
+        assertThat(principal.getRole()).isEqualTo(UserRole.APPLICANT);
+        assertThat(principal.getCandidateId()).isEqualTo(42L);
+        assertThat(principal.getEmployerId()).isNull();
+        assertThat(principal.getPassword()).isNull();
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        AuthenticatedUser user = new AuthenticatedUser(7L, "jane", null, UserRole.EMPLOYER, null, 3L, true, true);
+        String token = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        assertThat(tokenProvider.validateAndGetClaims(token)).isPresent();
+        String[] parts = token.split("\\.");
+        String forgedPayload = parts[1].substring(0, parts[1].length() - 2) + (parts[1].endsWith("A") ? "BB" : "AA");
+        assertThat(tokenProvider.validateAndGetClaims(parts[0] + "." + forgedPayload + "." + parts[2])).isEmpty();
+        assertThat(tokenProvider.validateAndGetClaims(null)).isEmpty();
+    }
+
+    @Test
+    void streamTokenIsScopedAndShortLived() {
+        AuthenticatedUser user = new AuthenticatedUser(7L, "jane", null, UserRole.APPLICANT, 42L, null, true, true);
+
+        Claims claims = tokenProvider.validateAndGetClaims(tokenProvider.generateStreamToken(user)).orElseThrow();
+
+        assertThat(claims.get(JwtTokenProvider.CLAIM_SCOPE, String.class)).isEqualTo(JwtTokenProvider.SCOPE_EVENT_STREAM);
+        assertThat(claims.getExpiration().getTime() - claims.getIssuedAt().getTime()).isEqualTo(60_000L);
+        assertThat(AuthenticatedUser.fromClaims(claims).getCandidateId()).isEqualTo(42L);
+    }
+
+    @Test
+    void revocationAppliesToTokensIssuedBeforeIt() {
+        TokenRevocationService revocationService = new TokenRevocationService(null, event -> { });
+        Date issuedBefore = new Date(System.currentTimeMillis() - 1000);
+
+        assertThat(revocationService.isRevoked(7L, issuedBefore)).isFalse();
+        revocationService.revokeUserTokens(7L);
+
+        assertThat(revocationService.isRevoked(7L, issuedBefore)).isTrue();
+        assertThat(revocationService.isRevoked(8L, issuedBefore)).isFalse();
+        assertThat(revocationService.isRevoked(7L, new Date(System.currentTimeMillis() + 1000))).isFalse();
+    }
+}
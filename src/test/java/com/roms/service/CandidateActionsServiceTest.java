@@ -0,0 +1,151 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.dto.CandidateActionsDTO;
+import com.roms.entity.AgencyCommissionAgreement;
+import com.roms.entity.Assignment;
+import com.roms.entity.Candidate;
+import com.roms.entity.CandidateDocument;
+import com.roms.entity.Employer;
+import com.roms.entity.JobOrder;
+import com.roms.entity.Payment;
+import com.roms.enums.CandidateStatus;
+import com.roms.enums.DocumentType;
+import com.roms.enums.PaymentType;
+import com.roms.enums.TransactionType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.roms.enums.CandidateStatus.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({JpaAuditConfig.class, CandidateActionsService.class, CandidateWorkflowGuards.class})
+class CandidateActionsServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CandidateActionsService candidateActionsService;
+
+    @Test
+    void transitionTableMatchesCanonicalFlow() {
+        assertThat(CandidateTransitionTable.targetsFrom(MEDICAL_PASSED))
+                .containsExactlyInAnyOrder(APPLICATION_SUBMITTED, VISA_PROCESSING, REJECTED);
+        assertThat(CandidateTransitionTable.targetsFrom(UNDER_REVIEW))
+                .containsExactlyInAnyOrder(APPLICATION_SUBMITTED, DOCUMENTS_INSUFFICIENT, DOCUMENTS_APPROVED, REJECTED);
+        assertThat(CandidateTransitionTable.targetsFrom(PLACED)).isEmpty();
+        assertThat(CandidateTransitionTable.check(APPLICATION_SUBMITTED, PLACED))
+                .isEqualTo("Can only place candidate after deployment is pending");
+    }
+
+    @Test
+    void evaluatesGuardsForAPageInConstantQueries() {
+        Employer employer = entityManager.persist(Employer.builder().companyName("Acme").build());
+        JobOrder jobOrder = entityManager.persist(JobOrder.builder()
+                .jobOrderRef("JO1").employer(employer).jobTitle("Welder").headcountRequired(10).build());
+
+        Candidate documented = candidate("P1", APPLICATION_SUBMITTED,
+                DocumentType.PASSPORT.bit() | DocumentType.CV.bit() | DocumentType.EDUCATIONAL_CERTIFICATE.bit());
+        Candidate missingCv = candidate("P2", APPLICATION_SUBMITTED,
+                DocumentType.PASSPORT.bit() | DocumentType.EDUCATIONAL_CERTIFICATE.bit());
+        Candidate paid = candidate("P3", MEDICAL_PASSED, 0L);
+        agreement(paid, jobOrder, new BigDecimal("50000"));
+        Candidate unpaid = candidate("P4", MEDICAL_PASSED, 0L);
+        agreement(unpaid, jobOrder, new BigDecimal("1000"));
+        Candidate unassigned = candidate("P5", MEDICAL_PASSED, 0L);
+        Candidate placed = candidate("P6", PLACED, 0L);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Map<Long, CandidateActionsDTO> actions = candidateActionsService.getActions(List.of(
+                documented.getId(), missingCv.getId(), paid.getId(), unpaid.getId(), unassigned.getId(), placed.getId()));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(actions.keySet()).containsExactly(
+                documented.getId(), missingCv.getId(), paid.getId(), unpaid.getId(), unassigned.getId(), placed.getId());
+
+        assertThat(actions.get(documented.getId()).getAllowedTransitions()).contains(UNDER_REVIEW);
+        assertThat(actions.get(missingCv.getId()).getBlockedTransitions())
+                .containsEntry(UNDER_REVIEW, "Cannot review documents: Missing required document - CV");
+
+        assertThat(actions.get(paid.getId()).getAllowedTransitions()).contains(VISA_PROCESSING);
+        assertThat(actions.get(unpaid.getId()).getBlockedTransitions()).containsKey(VISA_PROCESSING);
+        assertThat(actions.get(unassigned.getId()).getBlockedTransitions())
+                .containsEntry(VISA_PROCESSING, "Cannot process visa: No active assignment found");
+
+        assertThat(actions.get(placed.getId()).getAllowedTransitions()).isEmpty();
+        assertThat(actions.get(placed.getId()).getBlockedTransitions()).isEmpty();
+    }
+
+    @Test
+    void candidateWithoutADocumentMaskIsJudgedByItsDocuments() {
+        Candidate unmasked = candidate("P7", APPLICATION_SUBMITTED, 0L);
+        Candidate undocumented = candidate("P8", APPLICATION_SUBMITTED, 0L);
+        for (DocumentType type : List.of(DocumentType.PASSPORT, DocumentType.CV, DocumentType.EDUCATIONAL_CERTIFICATE)) {
+            entityManager.persist(CandidateDocument.builder()
+                    .candidate(unmasked)
+                    .docType(type)
+                    .fileName(type + ".pdf")
+                    .driveFileId("P7-" + type)
+                    .build());
+        }
+        entityManager.flush();
+        // Rows the mask backfill has not reached yet
+        entityManager.getEntityManager().createQuery("UPDATE Candidate c SET c.documentMask = NULL")
+                .executeUpdate();
+        entityManager.clear();
+
+        Map<Long, CandidateActionsDTO> actions = candidateActionsService.getActions(
+                List.of(unmasked.getId(), undocumented.getId()));
+
+        assertThat(actions.get(unmasked.getId()).getAllowedTransitions()).contains(UNDER_REVIEW);
+        assertThat(actions.get(undocumented.getId()).getBlockedTransitions())
+                .containsEntry(UNDER_REVIEW, "Cannot review documents: Missing required document - PASSPORT");
+    }
+
+    private Candidate candidate(String passportNo, CandidateStatus status, long documentMask) {
+        return entityManager.persist(TestCandidates.builder(passportNo)
+                .currentStatus(status)
+                .documentMask(documentMask)
+                .build());
+    }
+
+    private void agreement(Candidate candidate, JobOrder jobOrder, BigDecimal paid) {
+        Assignment assignment = entityManager.persist(Assignment.builder()
+                .candidate(candidate).jobOrder(jobOrder).build());
+        AgencyCommissionAgreement agreement = entityManager.persist(AgencyCommissionAgreement.builder()
+                .candidate(candidate)
+                .assignment(assignment)
+                .totalCommissionAmount(new BigDecimal("150000"))
+                .requiredDownpaymentAmount(new BigDecimal("50000"))
+                .build());
+        entityManager.persist(Payment.builder()
+                .candidate(candidate)
+                .assignment(assignment)
+                .agreement(agreement)
+                .amount(paid)
+                .type(PaymentType.DEBIT)
+                .transactionType(TransactionType.AGENCY_COMMISSION_DOWNPAYMENT)
+                .paymentDate(LocalDateTime.now())
+                .build());
+    }
+}
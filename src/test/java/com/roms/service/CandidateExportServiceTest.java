@@ -0,0 +1,82 @@
+package com.roms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.roms.config.JpaAuditConfig;
+import com.roms.dto.CandidateFilter;
+import com.roms.entity.Candidate;
+import com.roms.enums.CandidateStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({JpaAuditConfig.class, CandidateExportService.class, CandidateExportServiceTest.JacksonConfig.class})
+class CandidateExportServiceTest {
+
+    static class JacksonConfig {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().registerModule(new JavaTimeModule());
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CandidateExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(candidate("P1", "Doe, Jr", "Kenya"));
+        entityManager.persist(candidate("P2", "=SUM(A1)", "Uganda"));
+        entityManager.persist(candidate("P3", "Smith", "Kenya"));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void writesEscapedCsvForMatchingRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(new CandidateFilter(), CandidateExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(rows).isEqualTo(3);
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).startsWith("id,internalRefNo,firstName,lastName");
+        assertThat(lines[1]).contains(",Smith,");
+        assertThat(lines[2]).contains(",'=SUM(A1),");
+        assertThat(lines[3]).contains(",\"Doe, Jr\",");
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CandidateFilter filter = CandidateFilter.builder().country("Kenya").build();
+
+        exportService.export(filter, CandidateExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":").contains("\"lastName\":\"Smith\"");
+    }
+
+    private Candidate candidate(String passportNo, String lastName, String country) {
+        return TestCandidates.builder(passportNo)
+                .lastName(lastName)
+                .country(country)
+                .currentStatus(CandidateStatus.APPLICATION_SUBMITTED)
+                .build();
+    }
+}
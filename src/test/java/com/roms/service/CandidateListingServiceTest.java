@@ -0,0 +1,91 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.dto.CandidateFilter;
+import com.roms.dto.CursorPage;
+import com.roms.entity.Candidate;
+import com.roms.enums.CandidateStatus;
+import com.roms.repository.projection.CandidateListItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({JpaAuditConfig.class, CandidateListingService.class})
+class CandidateListingServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CandidateListingService listingService;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 7; i++) {
+            Candidate candidate = candidate("P" + i, i % 2 == 0 ? "Kenya" : "Uganda",
+                    i < 3 ? CandidateStatus.UNDER_REVIEW : CandidateStatus.APPLICATION_SUBMITTED);
+            candidate.setPassportExpiry(LocalDate.of(2030, 1, 1).plusMonths(i));
+            entityManager.persist(candidate);
+        }
+        Candidate deleted = candidate("PX", "Kenya", CandidateStatus.UNDER_REVIEW);
+        deleted.softDelete();
+        entityManager.persist(deleted);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void walksAllPagesNewestFirstWithoutDuplicates() {
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<CandidateListItem> page = listingService.listCandidates(new CandidateFilter(), cursor, 3);
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(7).doesNotHaveDuplicates().isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    @Test
+    void appliesFilters() {
+        CandidateFilter filter = CandidateFilter.builder()
+                .status(CandidateStatus.UNDER_REVIEW)
+                .country("Kenya")
+                .createdFrom(LocalDate.now().minusDays(1))
+                .createdTo(LocalDate.now())
+                .build();
+
+        CursorPage<CandidateListItem> page = listingService.listCandidates(filter, null, null);
+
+        assertThat(page.getItems()).extracting(CandidateListItem::getCountry).containsOnly("Kenya");
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.isHasMore()).isFalse();
+
+        CandidateFilter expiring = CandidateFilter.builder()
+                .passportExpiryFrom(LocalDate.of(2030, 2, 1))
+                .passportExpiryTo(LocalDate.of(2030, 3, 1))
+                .build();
+        assertThat(listingService.listCandidates(expiring, null, null).getItems()).hasSize(2);
+    }
+
+    private Candidate candidate(String passportNo, String country, CandidateStatus status) {
+        return TestCandidates.builder(passportNo)
+                .country(country)
+                .currentStatus(status)
+                .build();
+    }
+}
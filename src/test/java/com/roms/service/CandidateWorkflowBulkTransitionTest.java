@@ -0,0 +1,86 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.dto.BulkTransitionResult;
+import com.roms.entity.Candidate;
+import com.roms.enums.CandidateStatus;
+import com.roms.enums.MedicalStatus;
+import com.roms.repository.CandidateRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static com.roms.enums.CandidateStatus.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({JpaAuditConfig.class, CandidateWorkflowService.class, CandidateWorkflowGuards.class,
+        CandidateActionsService.class, DocumentCompletenessService.class,
+        ScheduledJobRunner.class})
+class CandidateWorkflowBulkTransitionTest {
+
+    @MockBean
+    private AssignmentService assignmentService;
+
+    @MockBean
+    private CommissionPaymentService commissionPaymentService;
+
+    @MockBean
+    private DocumentEvaluationService documentEvaluationService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CandidateRepository candidateRepository;
+
+    @Autowired
+    private CandidateWorkflowService workflowService;
+
+    @Test
+    void reportsPerCandidateOutcomeAcrossChunks() {
+        ReflectionTestUtils.setField(workflowService, "bulkChunkSize", 2);
+
+        Long first = persist("P1", MEDICAL_PENDING);
+        Long second = persist("P2", MEDICAL_PENDING);
+        Long wrongStage = persist("P3", INTERVIEW_PASSED);
+        Long third = persist("P4", MEDICAL_PENDING);
+        Long placed = persist("P5", PLACED);
+        entityManager.flush();
+        entityManager.clear();
+
+        BulkTransitionResult result = workflowService.bulkTransition(
+                List.of(first, second, wrongStage, first, 999_999L, third, placed), MEDICAL_PASSED);
+
+        assertThat(result.getRequested()).isEqualTo(6);
+        assertThat(result.getSucceeded()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getResults()).extracting(BulkTransitionResult.Item::getCandidateId)
+                .containsExactly(first, second, wrongStage, 999_999L, third, placed);
+        assertThat(result.getResults().get(2).getError()).isEqualTo("Can only pass medical from MEDICAL_PENDING status");
+        assertThat(result.getResults().get(2).getPreviousStatus()).isEqualTo(INTERVIEW_PASSED);
+        assertThat(result.getResults().get(3).getError()).isEqualTo("Candidate not found with id: 999999");
+        assertThat(result.getResults().get(5).getError()).isEqualTo("Cannot transition from terminal status: PLACED");
+
+        entityManager.flush();
+        entityManager.clear();
+        for (Long id : List.of(first, second, third)) {
+            Candidate candidate = candidateRepository.findById(id).orElseThrow();
+            assertThat(candidate.getCurrentStatus()).isEqualTo(MEDICAL_PASSED);
+            assertThat(candidate.getMedicalStatus()).isEqualTo(MedicalStatus.PASSED);
+        }
+        assertThat(candidateRepository.findById(wrongStage).orElseThrow().getCurrentStatus()).isEqualTo(INTERVIEW_PASSED);
+    }
+
+    private Long persist(String passportNo, CandidateStatus status) {
+        return entityManager.persist(TestCandidates.builder(passportNo)
+                .currentStatus(status)
+                .build()).getId();
+    }
+}
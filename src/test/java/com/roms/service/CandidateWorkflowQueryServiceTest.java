@@ -0,0 +1,132 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.dto.CandidateWorkflowDTO;
+import com.roms.entity.Candidate;
+import com.roms.enums.CandidateStatus;
+import com.roms.enums.DocumentType;
+import com.roms.enums.TransactionType;
+import com.roms.event.DocumentChangedEvent;
+import com.roms.event.PaymentRecordedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({JpaAuditConfig.class, CandidateWorkflowQueryService.class, CandidateActionsService.class,
+        CandidateWorkflowGuards.class, DocumentEvaluationService.class, DocumentCompletenessService.class,
+        ScheduledJobRunner.class, CandidateWorkflowQueryServiceTest.CacheConfig.class})
+class CandidateWorkflowQueryServiceTest {
+
+    @TestConfiguration
+    static class CacheConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CandidateWorkflowQueryService.APPLICANT_WORKFLOW_CACHE,
+                    CandidateWorkflowQueryService.APPLICANT_CANDIDATE_IDS_CACHE);
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CandidateWorkflowQueryService workflowQueryService;
+
+    @Test
+    void pollingIsServedFromCacheUntilPaymentEvicts() {
+        Candidate candidate = persist("P1", CandidateStatus.APPLICATION_SUBMITTED);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        CandidateWorkflowDTO first = poll("p1@example.com");
+        assertThat(first.isBlocked()).isFalse();
+        assertThat(first.getStageTitle()).isEqualTo("Application Submitted");
+        // Candidate by email, then active assignments (no assignment, so no agreement query)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        poll("p1@example.com");
+        statistics.clear();
+        CandidateWorkflowDTO cached = poll("p1@example.com");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(cached.getStatus()).isEqualTo(CandidateStatus.APPLICATION_SUBMITTED);
+
+        workflowQueryService.onPaymentRecorded(new PaymentRecordedEvent(
+                1L, candidate.getId(), null, TransactionType.AGENCY_COMMISSION_DOWNPAYMENT, BigDecimal.TEN, false));
+        poll("p1@example.com");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void documentChangesRefreshTheMissingDocuments() {
+        Candidate candidate = persist("P2", CandidateStatus.UNDER_REVIEW);
+        entityManager.flush();
+        entityManager.clear();
+
+        poll("p2@example.com");
+        assertThat(poll("p2@example.com").getMissingDocuments())
+                .contains("Passport bio page", "Curriculum Vitae (CV)");
+
+        entityManager.getEntityManager().createQuery("UPDATE Candidate c SET c.documentMask = :mask WHERE c.id = :id")
+                .setParameter("mask", DocumentType.CV.bit())
+                .setParameter("id", candidate.getId())
+                .executeUpdate();
+        entityManager.clear();
+        // Still the cached view until the upload event arrives
+        assertThat(poll("p2@example.com").getMissingDocuments()).contains("Curriculum Vitae (CV)");
+
+        workflowQueryService.onDocumentChanged(new DocumentChangedEvent(1L, candidate.getId(), DocumentType.CV, false));
+        assertThat(poll("p2@example.com").getMissingDocuments())
+                .contains("Passport bio page")
+                .doesNotContain("Curriculum Vitae (CV)");
+    }
+
+    @Test
+    void changedEmailFallsBackToLookup() {
+        Candidate candidate = persist("P3", CandidateStatus.APPLICATION_SUBMITTED);
+        entityManager.flush();
+        entityManager.clear();
+        poll("p3@example.com");
+        poll("p3@example.com");
+
+        entityManager.getEntityManager().createQuery("UPDATE Candidate c SET c.email = 'new@example.com' WHERE c.id = :id")
+                .setParameter("id", candidate.getId())
+                .executeUpdate();
+        entityManager.clear();
+        workflowQueryService.evict(candidate.getId());
+
+        assertThat(poll("new@example.com").getStatus()).isEqualTo(CandidateStatus.APPLICATION_SUBMITTED);
+    }
+
+    private CandidateWorkflowDTO poll(String email) {
+        CandidateWorkflowDTO view = workflowQueryService.getWorkflowForApplicant(email);
+        entityManager.clear();
+        return view;
+    }
+
+    private Candidate persist(String passportNo, CandidateStatus status) {
+        Candidate candidate = TestCandidates.builder(passportNo)
+                .currentStatus(status)
+                .build();
+        return entityManager.persist(candidate);
+    }
+}
@@ -0,0 +1,127 @@
+package com.roms.service;
+
+import com.roms.enums.CandidateStatus;
+import com.roms.event.CacheInvalidationEvent;
+import com.roms.event.CandidateStatusChangedEvent;
+import com.roms.event.UserAccountChangedEvent;
+import com.roms.event.UserTokensRevokedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ClusterCacheInvalidationServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<Object> published = new ArrayList<>();
+    private final ClusterCacheInvalidationService service =
+            new ClusterCacheInvalidationService(jdbcTemplate, null, published::add);
+
+    @BeforeEach
+    void activate() {
+        ReflectionTestUtils.setField(service, "active", true);
+    }
+
+    @Test
+    void burstOfChangesIsSentAsOneNotification() {
+        service.onCandidateStatusChanged(
+                new CandidateStatusChangedEvent(42L, CandidateStatus.UNDER_REVIEW, CandidateStatus.DOCUMENTS_APPROVED));
+        service.onCandidateStatusChanged(
+                new CandidateStatusChangedEvent(42L, CandidateStatus.DOCUMENTS_APPROVED, CandidateStatus.INTERVIEW_SCHEDULED));
+        service.onUserAccountChanged(new UserAccountChangedEvent(7L, "old", "new"));
+
+        service.flush();
+        service.flush();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).queryForList(eq("SELECT pg_notify(?, ?)"),
+                eq(ClusterCacheInvalidationService.CHANNEL), payload.capture());
+        assertThat(payload.getValue().lines().skip(1).toList()).containsExactlyInAnyOrder(
+                "candidate:42", "dashboardCounters", "user:7", "username:old", "username:new");
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void oversizedBurstBecomesAFullFlushAndFailuresAreRetried() {
+        ReflectionTestUtils.setField(service, "maxKeysPerFlush", 3);
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(Collections.emptyList());
+        service.enqueue(IntStream.range(0, 5).mapToObj(i -> "jobOrder:" + i).toList());
+
+        service.flush();
+        service.flush();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(ClusterCacheInvalidationService.CHANNEL), payload.capture());
+        assertThat(payload.getAllValues()).allMatch(sent -> sent.endsWith("\n" + ClusterCacheInvalidationService.FLUSH_ALL));
+    }
+
+    @Test
+    void tokenRevocationsAreNeverReplacedByAFullFlush() {
+        ReflectionTestUtils.setField(service, "maxKeysPerFlush", 3);
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(Collections.emptyList());
+        service.onUserTokensRevoked(new UserTokensRevokedEvent(7L, 1000L));
+        service.enqueue(IntStream.range(0, 5).mapToObj(i -> "jobOrder:" + i).toList());
+
+        service.flush();
+        service.flush();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(ClusterCacheInvalidationService.CHANNEL), payload.capture());
+        assertThat(payload.getValue().lines().skip(1).toList())
+                .containsExactlyInAnyOrder("userTokens:7@1000", ClusterCacheInvalidationService.FLUSH_ALL);
+
+        service.onNotifications(List.of("node-b\nuserTokens:7@1000\njobOrder:3\n*"));
+        CacheInvalidationEvent received = (CacheInvalidationEvent) published.get(0);
+        assertThat(received.isFullFlush()).isTrue();
+        assertThat(received.getKeys()).containsExactly("userTokens:7@1000");
+    }
+
+    @Test
+    void receivedBatchIsMergedAndOwnNotificationsAreIgnored() {
+        String self = (String) service.getStats().get("nodeId");
+
+        service.onNotifications(List.of(self + "\ncandidate:1", "node-b\ncandidate:2\nusername:jdoe", "node-c\ncandidate:2"));
+        service.onNotifications(List.of(self + "\n*"));
+        service.onNotifications(List.of("node-b\njobOrder:3", "node-c\n*"));
+
+        assertThat(published).hasSize(2);
+        CacheInvalidationEvent first = (CacheInvalidationEvent) published.get(0);
+        assertThat(first.isFullFlush()).isFalse();
+        assertThat(first.idsFor(CacheInvalidationEvent.CANDIDATE)).containsExactly("2");
+        assertThat(first.idsFor(CacheInvalidationEvent.USERNAME)).containsExactly("jdoe");
+        assertThat(((CacheInvalidationEvent) published.get(1)).isFullFlush()).isTrue();
+    }
+
+    @Test
+    void payloadsStayUnderTheNotifyLimit() {
+        List<String> keys = IntStream.range(0, 2000).mapToObj(i -> "candidate:" + (1_000_000 + i)).toList();
+
+        List<String> payloads = ClusterCacheInvalidationService.encode("node-a", keys);
+
+        assertThat(payloads).hasSizeGreaterThan(1)
+                .allMatch(payload -> payload.length() <= ClusterCacheInvalidationService.MAX_PAYLOAD_BYTES)
+                .allMatch(payload -> payload.startsWith("node-a\n"));
+        assertThat(payloads.stream().mapToInt(payload -> payload.split("\n").length - 1).sum()).isEqualTo(2000);
+    }
+}
@@ -0,0 +1,202 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.dto.DashboardStatsDTO;
+import com.roms.entity.Candidate;
+import com.roms.entity.Employer;
+import com.roms.entity.JobOrder;
+import com.roms.enums.CandidateStatus;
+import com.roms.enums.JobOrderStatus;
+import com.roms.enums.TransactionType;
+import com.roms.event.CandidateStatusChangedEvent;
+import com.roms.event.EmployerChangedEvent;
+import com.roms.event.JobOrderChangedEvent;
+import com.roms.event.PaymentRecordedEvent;
+import com.roms.repository.AssignmentRepository;
+import com.roms.repository.DashboardCounterRepository;
+import com.roms.repository.PaymentRepository;
+import com.roms.repository.projection.StatusCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest
+@Import({JpaAuditConfig.class, DashboardStatsService.class, DashboardCounterService.class})
+class DashboardCounterServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DashboardCounterService counterService;
+
+    @Autowired
+    private DashboardCounterRepository counterRepository;
+
+    @SpyBean
+    private PaymentRepository paymentRepository;
+
+    @SpyBean
+    private AssignmentRepository assignmentRepository;
+
+    private Employer employer;
+
+    @BeforeEach
+    void setUp() {
+        employer = entityManager.persist(Employer.builder().companyName("Acme").build());
+        entityManager.persist(candidate("P1"));
+        entityManager.persist(candidate("P2"));
+        entityManager.persist(jobOrder("JO1", JobOrderStatus.OPEN, 3));
+        entityManager.persist(jobOrder("JO2", JobOrderStatus.CLOSED, 10));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void reconcileMatchesAggregateQuery() {
+        counterService.reconcile();
+
+        DashboardStatsDTO stats = counterService.getDashboardStats();
+        assertThat(stats.getTotalCandidates()).isEqualTo(2L);
+        assertThat(stats.getTotalEmployers()).isEqualTo(1L);
+        assertThat(stats.getTotalJobOrders()).isEqualTo(2L);
+        assertThat(stats.getOpenPositions()).isEqualTo(3L);
+        assertThat(counterService.getCounters())
+                .containsEntry("candidates.status." + CandidateStatus.APPLICATION_SUBMITTED, 2L);
+    }
+
+    @Test
+    void eventsAdjustCountersWithoutQuerying() {
+        counterService.reconcile();
+
+        counterService.onCandidateStatusChanged(
+                new CandidateStatusChangedEvent(1L, CandidateStatus.APPLICATION_SUBMITTED, CandidateStatus.UNDER_REVIEW));
+        counterService.onCandidateStatusChanged(new CandidateStatusChangedEvent(3L, null, CandidateStatus.APPLICATION_SUBMITTED));
+        counterService.onJobOrderChanged(
+                new JobOrderChangedEvent(9L, employer.getId(), null, null, JobOrderStatus.OPEN, 5));
+        counterService.onJobOrderChanged(
+                new JobOrderChangedEvent(9L, employer.getId(), JobOrderStatus.OPEN, 5, JobOrderStatus.OPEN, 2));
+
+        DashboardStatsDTO stats = counterService.getDashboardStats();
+        assertThat(stats.getTotalCandidates()).isEqualTo(3L);
+        assertThat(stats.getTotalJobOrders()).isEqualTo(3L);
+        assertThat(stats.getOpenPositions()).isEqualTo(5L);
+        assertThat(counterService.getCounters())
+                .containsEntry("candidates.status." + CandidateStatus.APPLICATION_SUBMITTED, 2L)
+                .containsEntry("candidates.status." + CandidateStatus.UNDER_REVIEW, 1L);
+    }
+
+    @Test
+    void employerRegistrationAndDeletionAdjustActiveEmployers() {
+        counterService.reconcile();
+
+        counterService.onEmployerChanged(new EmployerChangedEvent(7L, false, true));
+        counterService.onEmployerChanged(new EmployerChangedEvent(7L, true, true));
+        assertThat(counterService.getDashboardStats().getTotalEmployers()).isEqualTo(2L);
+
+        counterService.onEmployerChanged(new EmployerChangedEvent(employer.getId(), true, false));
+        assertThat(counterService.getDashboardStats().getTotalEmployers()).isEqualTo(1L);
+    }
+
+    @Test
+    void restoredSnapshotIsCaughtUpWithChangesMadeSinceItWasSaved() {
+        counterService.reconcile();
+        counterService.saveSnapshot();
+        String submitted = "candidates.status." + CandidateStatus.APPLICATION_SUBMITTED;
+        assertThat(counterRepository.findById(submitted).orElseThrow().getCounterValue()).isEqualTo(2L);
+
+        // Committed while this node was down
+        entityManager.persist(candidate("P3"));
+        entityManager.flush();
+
+        counterService.loadSnapshot();
+        assertThat(counterService.getDashboardStats().getTotalCandidates()).isEqualTo(2L);
+        counterService.refreshAfterRemoteChanges();
+        assertThat(counterService.getDashboardStats().getTotalCandidates()).isEqualTo(3L);
+
+        counterService.saveSnapshot();
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(counterRepository.findById(submitted).orElseThrow().getCounterValue()).isEqualTo(3L);
+        assertThat(counterRepository.count()).isEqualTo(counterService.getCounters().size());
+    }
+
+    @Test
+    void changesCommittedDuringAReconciliationAreKeptOnlyWhereItsQueriesMissedThem() {
+        counterService.reconcile();
+
+        // Committed after the candidate and employer counts ran, before the payment count
+        doAnswer(invocation -> {
+            entityManager.persist(candidate("P3"));
+            entityManager.persist(Employer.builder().companyName("Initech").build());
+            entityManager.flush();
+            counterService.onCandidateStatusChanged(new CandidateStatusChangedEvent(3L, null, CandidateStatus.APPLICATION_SUBMITTED));
+            counterService.onEmployerChanged(new EmployerChangedEvent(8L, false, true));
+            return List.of();
+        }).when(paymentRepository).countByTransactionType();
+        counterService.reconcile();
+
+        DashboardStatsDTO stats = counterService.getDashboardStats();
+        assertThat(stats.getTotalCandidates()).isEqualTo(3L);
+        assertThat(stats.getTotalEmployers()).isEqualTo(2L);
+    }
+
+    @Test
+    void changesAQueryOfTheReconciliationAlreadySawAreNotCountedTwice() {
+        counterService.reconcile();
+        String downpayments = "payments.type." + TransactionType.AGENCY_COMMISSION_DOWNPAYMENT;
+
+        // Recorded while the assignment count runs, so the payment count that follows includes it
+        doAnswer(invocation -> {
+            counterService.onPaymentRecorded(new PaymentRecordedEvent(1L, 1L, UUID.randomUUID(),
+                    TransactionType.AGENCY_COMMISSION_DOWNPAYMENT, BigDecimal.TEN, false));
+            return List.of();
+        }).when(assignmentRepository).countByEmployerJobOrderAndStatus();
+        doAnswer(invocation -> List.of(paymentCount(TransactionType.AGENCY_COMMISSION_DOWNPAYMENT, 1L)))
+                .when(paymentRepository).countByTransactionType();
+        counterService.reconcile();
+
+        assertThat(counterService.getCounters()).containsEntry(downpayments, 1L);
+    }
+
+    private static StatusCount<TransactionType> paymentCount(TransactionType type, long total) {
+        return new StatusCount<>() {
+            @Override
+            public TransactionType getStatus() {
+                return type;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+        };
+    }
+
+    private Candidate candidate(String passportNo) {
+        return TestCandidates.builder(passportNo)
+                .currentStatus(CandidateStatus.APPLICATION_SUBMITTED)
+                .build();
+    }
+
+    private JobOrder jobOrder(String ref, JobOrderStatus status, int headcount) {
+        return JobOrder.builder()
+                .jobOrderRef(ref)
+                .employer(employer)
+                .jobTitle("Welder")
+                .headcountRequired(headcount)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.dto.DashboardStatsDTO;
+import com.roms.entity.Candidate;
+import com.roms.entity.Employer;
+import com.roms.entity.JobOrder;
+import com.roms.enums.JobOrderStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({JpaAuditConfig.class, DashboardStatsService.class})
+class DashboardStatsServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Employer employer = entityManager.persist(Employer.builder().companyName("Acme").build());
+        Employer deletedEmployer = Employer.builder().companyName("Gone").build();
+        deletedEmployer.softDelete();
+        entityManager.persist(deletedEmployer);
+
+        for (int i = 0; i < 5; i++) {
+            Candidate candidate = entityManager.persist(candidate("P" + i));
+            if (i == 0) {
+                candidate.softDelete();
+            }
+        }
+
+        entityManager.persist(jobOrder(employer, "JO1", JobOrderStatus.OPEN, 3));
+        entityManager.persist(jobOrder(employer, "JO2", JobOrderStatus.OPEN, 4));
+        entityManager.persist(jobOrder(employer, "JO3", JobOrderStatus.CLOSED, 10));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void computesAllFiguresInOneStatementWithoutHydratingEntities() {
+        DashboardStatsDTO stats = dashboardStatsService.getDashboardStats();
+
+        assertThat(stats.getTotalCandidates()).isEqualTo(4L);
+        assertThat(stats.getTotalEmployers()).isEqualTo(1L);
+        assertThat(stats.getTotalJobOrders()).isEqualTo(3L);
+        assertThat(stats.getOpenPositions()).isEqualTo(7L);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1L);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private Candidate candidate(String passportNo) {
+        return TestCandidates.builder(passportNo)
+                .build();
+    }
+
+    private JobOrder jobOrder(Employer employer, String ref, JobOrderStatus status, int headcount) {
+        return JobOrder.builder()
+                .jobOrderRef(ref)
+                .employer(employer)
+                .jobTitle("Welder")
+                .headcountRequired(headcount)
+                .status(status)
+                .build();
+    }
+}
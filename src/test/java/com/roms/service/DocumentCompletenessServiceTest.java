@@ -0,0 +1,122 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.dto.CandidateFilter;
+import com.roms.entity.Candidate;
+import com.roms.entity.CandidateDocument;
+import com.roms.enums.DocumentType;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.projection.CandidateListItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({JpaAuditConfig.class, DocumentCompletenessService.class, ScheduledJobRunner.class})
+class DocumentCompletenessServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CandidateRepository candidateRepository;
+
+    @Autowired
+    private DocumentCompletenessService documentCompletenessService;
+
+    @Test
+    void uploadsAndDeletesMaintainTheMask() {
+        Candidate candidate = persist("P1");
+
+        CandidateDocument firstCv = documentCompletenessService.addDocument(document(candidate, DocumentType.CV, "a"));
+        CandidateDocument secondCv = documentCompletenessService.addDocument(document(candidate, DocumentType.CV, "b"));
+        documentCompletenessService.addDocument(document(candidate, DocumentType.PASSPORT, "c"));
+
+        assertThat(mask(candidate)).isEqualTo(DocumentType.CV.bit() | DocumentType.PASSPORT.bit());
+        assertThat(documentCompletenessService.hasDocuments(reload(candidate), DocumentType.CV, DocumentType.PASSPORT)).isTrue();
+        assertThat(documentCompletenessService.missingDocuments(reload(candidate),
+                DocumentType.PASSPORT, DocumentType.CV, DocumentType.EDUCATIONAL_CERTIFICATE))
+                .containsExactly(DocumentType.EDUCATIONAL_CERTIFICATE);
+
+        // Another CV remains, so the bit stays set until the last one goes
+        documentCompletenessService.removeDocument(firstCv);
+        assertThat(mask(candidate)).isEqualTo(DocumentType.CV.bit() | DocumentType.PASSPORT.bit());
+        documentCompletenessService.removeDocument(secondCv);
+        assertThat(mask(candidate)).isEqualTo(DocumentType.PASSPORT.bit());
+    }
+
+    @Test
+    void repairCorrectsDriftAndBackfillFillsMissingMasks() {
+        ReflectionTestUtils.setField(documentCompletenessService, "repairChunkSize", 1);
+        Candidate drifted = persist("P1");
+        entityManager.persist(document(drifted, DocumentType.VISA, "v"));
+        Candidate unfilled = persist("P2");
+        entityManager.persist(document(unfilled, DocumentType.CV, "cv"));
+        entityManager.flush();
+        entityManager.getEntityManager().createQuery("UPDATE Candidate c SET c.documentMask = NULL WHERE c.id = :id")
+                .setParameter("id", unfilled.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        // Backfill only touches rows without a mask
+        assertThat(documentCompletenessService.backfillMasks()).isEqualTo(1);
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(mask(unfilled)).isEqualTo(DocumentType.CV.bit());
+        assertThat(mask(drifted)).isZero();
+
+        assertThat(documentCompletenessService.repairMasks()).isEqualTo(1);
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(mask(drifted)).isEqualTo(DocumentType.VISA.bit());
+        assertThat(documentCompletenessService.repairMasks()).isZero();
+    }
+
+    @Test
+    void listingFiltersOnMissingDocument() {
+        Candidate withCv = persist("P1");
+        documentCompletenessService.addDocument(document(withCv, DocumentType.CV, "cv"));
+        documentCompletenessService.addDocument(document(withCv, DocumentType.OTHER, "other"));
+        Candidate withoutCv = persist("P2");
+        documentCompletenessService.addDocument(document(withoutCv, DocumentType.VISA, "visa"));
+        entityManager.flush();
+
+        List<CandidateListItem> missingCv = candidateRepository.findListPage(
+                CandidateFilter.builder().missingDocument(DocumentType.CV).build(), null, 10);
+        assertThat(missingCv).extracting(CandidateListItem::getId).containsExactly(withoutCv.getId());
+
+        List<CandidateListItem> missingOther = candidateRepository.findListPage(
+                CandidateFilter.builder().missingDocument(DocumentType.OTHER).build(), null, 10);
+        assertThat(missingOther).extracting(CandidateListItem::getId).containsExactly(withoutCv.getId());
+    }
+
+    private Candidate persist(String passportNo) {
+        Candidate candidate = TestCandidates.builder(passportNo)
+                .build();
+        return entityManager.persist(candidate);
+    }
+
+    private CandidateDocument document(Candidate candidate, DocumentType type, String fileId) {
+        return CandidateDocument.builder()
+                .candidate(candidate)
+                .docType(type)
+                .fileName(fileId + ".pdf")
+                .driveFileId(candidate.getPassportNo() + "-" + fileId)
+                .build();
+    }
+
+    private Candidate reload(Candidate candidate) {
+        return candidateRepository.findById(candidate.getId()).orElseThrow();
+    }
+
+    private long mask(Candidate candidate) {
+        return reload(candidate).getDocumentMask();
+    }
+}
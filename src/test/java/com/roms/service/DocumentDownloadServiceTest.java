@@ -0,0 +1,127 @@
+package com.roms.service;
+
+import com.roms.entity.CandidateDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class DocumentDownloadServiceTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    private final GoogleDriveService driveService = mock(GoogleDriveService.class);
+    private final DocumentDownloadService service = new DocumentDownloadService(driveService);
+
+    @TempDir
+    Path uploads;
+
+    @Test
+    void localRangeIsServedAsPartialContent() throws Exception {
+        Path file = storedFile();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        ResponseEntity<?> response = service.serveLocalFile(document(20L), file, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/20");
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(4);
+        assertThat(body(response)).isEqualTo("2345");
+
+        // With Tomcat sendfile available the container writes the same slice itself
+        request.setAttribute(DocumentDownloadService.SENDFILE_SUPPORT, Boolean.TRUE);
+        ResponseEntity<?> sendfile = service.serveLocalFile(document(20L), file, request);
+        assertThat(sendfile.getBody()).isNull();
+        assertThat(request.getAttribute(DocumentDownloadService.SENDFILE_FILENAME)).isEqualTo(file.toRealPath().toString());
+        assertThat(request.getAttribute(DocumentDownloadService.SENDFILE_START)).isEqualTo(2L);
+        assertThat(request.getAttribute(DocumentDownloadService.SENDFILE_END)).isEqualTo(6L);
+    }
+
+    @Test
+    void conditionalAndInvalidRangeRequests() throws Exception {
+        Path file = storedFile();
+        CandidateDocument document = document(20L);
+        String etag = DocumentDownloadService.etag(document);
+
+        MockHttpServletRequest revalidate = new MockHttpServletRequest();
+        revalidate.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + etag);
+        ResponseEntity<?> notModified = service.serveLocalFile(document, file, revalidate);
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(notModified.getBody()).isNull();
+
+        MockHttpServletRequest beyondEnd = new MockHttpServletRequest();
+        beyondEnd.addHeader(HttpHeaders.RANGE, "bytes=20-");
+        ResponseEntity<?> unsatisfiable = service.serveLocalFile(document, file, beyondEnd);
+        assertThat(unsatisfiable.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(unsatisfiable.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */20");
+
+        MockHttpServletRequest staleIfRange = new MockHttpServletRequest();
+        staleIfRange.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        staleIfRange.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+        ResponseEntity<?> whole = service.serveLocalFile(document, file, staleIfRange);
+        assertThat(whole.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(whole.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(body(whole)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void driveContentIsStreamedWithTheRangeForwarded() throws Exception {
+        CandidateDocument document = document(20L);
+        when(driveService.downloadFile("drive-1", 10L, 19L))
+                .thenReturn(new ByteArrayInputStream("abcdefghij".getBytes(StandardCharsets.UTF_8)));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-10");
+
+        ResponseEntity<?> response = service.serveDriveFile(document, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 10-19/20");
+        assertThat(body(response)).isEqualTo("abcdefghij");
+        verify(driveService).downloadFile("drive-1", 10L, 19L);
+        verifyNoMoreInteractions(driveService);
+
+        // Without a recorded size there is nothing to range over: the whole file, length unknown
+        when(driveService.downloadFile("drive-1"))
+                .thenReturn(new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8)));
+        ResponseEntity<?> whole = service.serveDriveFile(document(null), request);
+        assertThat(whole.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(whole.getHeaders().containsKey(HttpHeaders.ACCEPT_RANGES)).isFalse();
+        assertThat(body(whole)).isEqualTo(CONTENT);
+    }
+
+    private Path storedFile() throws Exception {
+        return Files.writeString(uploads.resolve("stored.pdf"), CONTENT);
+    }
+
+    private static CandidateDocument document(Long size) {
+        CandidateDocument document = new CandidateDocument();
+        document.setDriveFileId("drive-1");
+        document.setFileName("passport.pdf");
+        document.setContentType("application/pdf");
+        document.setFileSize(size);
+        return document;
+    }
+
+    private static String body(ResponseEntity<?> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
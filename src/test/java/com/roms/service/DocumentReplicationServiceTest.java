@@ -0,0 +1,200 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.entity.Candidate;
+import com.roms.entity.CandidateDocument;
+import com.roms.entity.DocumentReplication;
+import com.roms.enums.DocumentType;
+import com.roms.enums.ReplicationStatus;
+import com.roms.repository.CandidateDocumentRepository;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.DocumentReplicationRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write-behind in cloud mode, with an in-memory stand-in for Cloudinary. Commits its data, as the replicator does.
+ */
+@DataJpaTest(properties = {
+        "roms.storage.mode=cloud",
+        "roms.storage.write-behind.enabled=true",
+        "file.upload-dir=target/test-uploads/write-behind",
+        "roms.storage.local.blob-grace-seconds=0"})
+@Import({JpaAuditConfig.class, DocumentStorageService.class, DocumentReplicationService.class,
+        DocumentUploadValidator.class, LocalDocumentStorage.class, LocalFileStorageService.class,
+        DocumentDownloadService.class, DocumentReplicationServiceTest.CloudConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DocumentReplicationServiceTest {
+
+    @MockBean
+    private GoogleDriveService driveService;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private DocumentReplicationService replicationService;
+
+    @Autowired
+    private LocalDocumentStorage localStorage;
+
+    @Autowired
+    private FakeCloudStorage cloud;
+
+    @Autowired
+    private CandidateRepository candidateRepository;
+
+    @Autowired
+    private CandidateDocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentReplicationRepository replicationRepository;
+
+    @AfterEach
+    void cleanUp() {
+        replicationRepository.deleteAll();
+        documentRepository.deleteAll();
+        candidateRepository.deleteAll();
+        cloud.objects.clear();
+        cloud.failing = false;
+    }
+
+    @Test
+    void uploadLandsOnLocalDiskAndIsRepointedToTheCloudCopy() throws Exception {
+        CandidateDocument document = upload("P1", true);
+        String localId = document.getDriveFileId();
+        assertThat(document.getStorageBackend()).isEqualTo(DocumentStorage.LOCAL);
+        assertThat(Files.readString(localStorage.resolve(localId))).isEqualTo("%PDF-P1");
+        assertThat(cloud.objects).isEmpty();
+
+        DocumentReplication replication = replicationRepository.findByLocalStorageId(localId).orElseThrow();
+        assertThat(replicationService.replicate(replication.getId())).isTrue();
+        assertThat(replicationService.replicate(replication.getId())).isFalse();
+
+        CandidateDocument replicated = documentRepository.findById(document.getId()).orElseThrow();
+        assertThat(replicated.getStorageBackend()).isEqualTo(DocumentStorage.CLOUDINARY);
+        assertThat(cloud.objects).containsEntry(replicated.getDriveFileId(), "%PDF-P1");
+        assertThat(Files.exists(localStorage.resolve(localId))).isFalse();
+        assertThat(replicationRepository.findById(replication.getId()).orElseThrow().getStatus())
+                .isEqualTo(ReplicationStatus.DONE);
+    }
+
+    @Test
+    void failedPushesBackOffThenGiveUpUntilRetried() throws Exception {
+        ReflectionTestUtils.setField(replicationService, "maxAttempts", 2);
+        cloud.failing = true;
+        CandidateDocument document = upload("P2", true);
+        Long id = replicationRepository.findByLocalStorageId(document.getDriveFileId()).orElseThrow().getId();
+
+        assertThat(replicationService.replicate(id)).isFalse();
+        DocumentReplication afterFirst = replicationRepository.findById(id).orElseThrow();
+        assertThat(afterFirst.getStatus()).isEqualTo(ReplicationStatus.PENDING);
+        assertThat(afterFirst.getAttempts()).isEqualTo(1);
+        assertThat(afterFirst.getNextAttemptAt()).isAfter(LocalDateTime.now());
+        assertThat(replicationService.replicate(id)).isFalse(); // Not due yet
+
+        afterFirst.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        replicationRepository.save(afterFirst);
+        assertThat(replicationService.replicate(id)).isFalse();
+        assertThat(replicationRepository.findById(id).orElseThrow().getStatus()).isEqualTo(ReplicationStatus.FAILED);
+        assertThat(documentRepository.findById(document.getId()).orElseThrow().getStorageBackend())
+                .isEqualTo(DocumentStorage.LOCAL);
+
+        cloud.failing = false;
+        assertThat(replicationService.retryFailed()).isEqualTo(1);
+        assertThat(replicationService.replicate(id)).isTrue();
+    }
+
+    @Test
+    void uploadWhoseDocumentWasNeverSavedIsDiscarded() throws Exception {
+        CandidateDocument document = upload("P3", false);
+        Long id = replicationRepository.findByLocalStorageId(document.getDriveFileId()).orElseThrow().getId();
+
+        assertThat(replicationService.replicate(id)).isFalse();
+
+        assertThat(replicationRepository.findById(id).orElseThrow().getStatus()).isEqualTo(ReplicationStatus.DISCARDED);
+        assertThat(Files.exists(localStorage.resolve(document.getDriveFileId()))).isFalse();
+        assertThat(cloud.objects).isEmpty();
+    }
+
+    private CandidateDocument upload(String passportNo, boolean save) throws IOException {
+        Candidate candidate = candidateRepository.save(TestCandidates.builder(passportNo)
+                .build());
+        MultipartFile file = new MockMultipartFile("file", passportNo + ".pdf", "application/pdf",
+                ("%PDF-" + passportNo).getBytes(StandardCharsets.UTF_8));
+        CandidateDocument document = new CandidateDocument();
+        document.setCandidate(candidate);
+        document.setDocType(DocumentType.PASSPORT);
+        document.setFileName(file.getOriginalFilename());
+        document.setContentType(file.getContentType());
+        document.setFileSize(file.getSize());
+        documentStorageService.store(document, file);
+        return save ? documentRepository.save(document) : document;
+    }
+
+    @TestConfiguration
+    static class CloudConfig {
+        @Bean
+        FakeCloudStorage fakeCloudStorage() {
+            return new FakeCloudStorage();
+        }
+    }
+
+    static class FakeCloudStorage implements DocumentStorage {
+        final Map<String, String> objects = new ConcurrentHashMap<>();
+        volatile boolean failing;
+
+        @Override
+        public String getName() {
+            return CLOUDINARY;
+        }
+
+        @Override
+        public String store(MultipartFile file, Long candidateId) throws IOException {
+            throw new UnsupportedOperationException("Write-behind uploads go to local disk first");
+        }
+
+        @Override
+        public String store(Path file, String fileName, String contentType, Long candidateId) throws IOException {
+            if (failing) {
+                throw new IOException("Connection reset");
+            }
+            String id = "roms/candidate_" + candidateId + "/" + fileName;
+            objects.put(id, Files.readString(file));
+            return id;
+        }
+
+        @Override
+        public void delete(String storageId) {
+            objects.remove(storageId);
+        }
+
+        @Override
+        public ResponseEntity<?> download(CandidateDocument document, HttpServletRequest request) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.roms.service;
+
+import com.roms.enums.DocumentFormat;
+import com.roms.exception.BusinessValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentUploadValidatorTest {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final DocumentUploadValidator validator = new DocumentUploadValidator();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(validator, "allowedTypes", List.of("PDF", "JPEG", "JPG", "PNG"));
+        ReflectionTestUtils.setField(validator, "maxSizeMb", 1L);
+        validator.init();
+    }
+
+    @Test
+    void formatComesFromTheContentNotTheClaimedType() throws Exception {
+        byte[] png = withHeader(PNG_HEADER, 20_000);
+
+        DocumentUploadValidator.ValidatedUpload upload =
+                validator.validate(new MockMultipartFile("file", "photo.pdf", "application/pdf", png));
+
+        assertThat(upload.getFormat()).isEqualTo(DocumentFormat.PNG);
+        assertThat(upload.getSize()).isEqualTo(png.length);
+        assertThat(upload.getSha256()).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(png)));
+    }
+
+    @Test
+    void pdfHeaderMayFollowLeadingJunk() throws Exception {
+        byte[] pdf = ("\r\n\r\n%PDF-1.7\n%%EOF").getBytes(StandardCharsets.US_ASCII);
+
+        assertThat(validator.validate(new MockMultipartFile("file", "cv.pdf", "application/pdf", pdf)).getFormat())
+                .isEqualTo(DocumentFormat.PDF);
+    }
+
+    @Test
+    void unrecognisedAndDisallowedContentIsRejected() {
+        MockMultipartFile html = new MockMultipartFile("file", "passport.pdf", "application/pdf",
+                "<html><script>alert(1)</script></html>".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> validator.validate(html)).isInstanceOf(BusinessValidationException.class);
+
+        ReflectionTestUtils.setField(validator, "allowedTypes", List.of("PDF"));
+        validator.init();
+        MockMultipartFile jpeg = new MockMultipartFile("file", "photo.jpg", "image/jpeg",
+                withHeader(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0}, 100));
+        assertThatThrownBy(() -> validator.validate(jpeg))
+                .isInstanceOf(BusinessValidationException.class)
+                .hasMessageContaining("Allowed types: PDF");
+
+        MockMultipartFile empty = new MockMultipartFile("file", "empty.pdf", "application/pdf", new byte[0]);
+        assertThatThrownBy(() -> validator.validate(empty)).isInstanceOf(BusinessValidationException.class);
+    }
+
+    @Test
+    void readingStopsOnceTheLimitIsPassedWhateverSizeWasDeclared() {
+        CountingStream content = new CountingStream(withHeader(PNG_HEADER, 4 * 1024 * 1024));
+        MockMultipartFile understated = new MockMultipartFile("file", "scan.png", "image/png", new byte[]{1}) {
+            @Override
+            public InputStream getInputStream() {
+                return content;
+            }
+        };
+
+        assertThatThrownBy(() -> validator.validate(understated))
+                .isInstanceOf(BusinessValidationException.class)
+                .hasMessageContaining("maximum size of 1 MB");
+        assertThat(content.read).isLessThanOrEqualTo(1024 * 1024 + 8192);
+    }
+
+    private static byte[] withHeader(byte[] header, int length) {
+        byte[] content = new byte[length];
+        System.arraycopy(header, 0, content, 0, header.length);
+        return content;
+    }
+
+    private static class CountingStream extends ByteArrayInputStream {
+        long read;
+
+        CountingStream(byte[] content) {
+            super(content);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            int n = super.read(b, off, len);
+            read += Math.max(n, 0);
+            return n;
+        }
+
+        @Override
+        public byte[] readAllBytes() {
+            throw new UnsupportedOperationException("Content must not be buffered whole");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.dto.EmployerDashboardStatsDTO;
+import com.roms.dto.EmployerDashboardStatsDTO.JobOrderStats;
+import com.roms.entity.Assignment;
+import com.roms.entity.Employer;
+import com.roms.entity.JobOrder;
+import com.roms.enums.AssignmentStatus;
+import com.roms.enums.JobOrderStatus;
+import com.roms.repository.JobOrderRepository;
+import com.roms.repository.projection.JobOrderAssignmentCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import({JpaAuditConfig.class, EmployerStatsService.class})
+class EmployerStatsServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JobOrderRepository jobOrderRepository;
+
+    @Autowired
+    private EmployerStatsService employerStatsService;
+
+    private Employer employer;
+    private JobOrder staffed;
+    private JobOrder unstaffed;
+
+    @BeforeEach
+    void setUp() {
+        employer = entityManager.persist(Employer.builder().companyName("Acme").build());
+        Employer otherEmployer = entityManager.persist(Employer.builder().companyName("Other").build());
+
+        staffed = entityManager.persist(jobOrder(employer, "JO1", JobOrderStatus.OPEN, 3, 1));
+        unstaffed = entityManager.persist(jobOrder(employer, "JO2", JobOrderStatus.CLOSED, 2, 0));
+        JobOrder deleted = jobOrder(employer, "JO3", JobOrderStatus.OPEN, 4, 0);
+        deleted.softDelete();
+        entityManager.persist(deleted);
+        JobOrder otherEmployers = entityManager.persist(jobOrder(otherEmployer, "JO4", JobOrderStatus.OPEN, 5, 0));
+
+        assign("A1", staffed, AssignmentStatus.ASSIGNED);
+        assign("A2", staffed, AssignmentStatus.ASSIGNED);
+        assign("A3", staffed, AssignmentStatus.PLACED);
+        assign("A4", deleted, AssignmentStatus.ASSIGNED);
+        assign("A5", otherEmployers, AssignmentStatus.OFFERED);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void groupsByJobOrderAndStatusWithOneRowForAJobOrderWithoutAssignments() {
+        List<JobOrderAssignmentCount> rows = jobOrderRepository.countAssignmentsByJobOrderAndStatus(employer.getId());
+
+        assertThat(rows)
+                .extracting(JobOrderAssignmentCount::getJobOrderRef, JobOrderAssignmentCount::getAssignmentStatus,
+                        JobOrderAssignmentCount::getAssignmentCount)
+                .containsExactlyInAnyOrder(
+                        tuple("JO1", AssignmentStatus.ASSIGNED, 2L),
+                        tuple("JO1", AssignmentStatus.PLACED, 1L),
+                        tuple("JO2", null, 0L));
+    }
+
+    @Test
+    void foldsOnlyTheEmployersActiveJobOrders() {
+        EmployerDashboardStatsDTO stats = employerStatsService.getEmployerStats(employer.getId());
+
+        assertThat(stats.getTotalJobsPosted()).isEqualTo(2L);
+        assertThat(stats.getTotalHeadcountRequired()).isEqualTo(5L);
+        assertThat(stats.getFilledPositions()).isEqualTo(1L);
+        assertThat(stats.getPendingPositionsHeadcount()).isEqualTo(2L);
+        assertThat(stats.getTotalApplicationsReceived()).isEqualTo(3L);
+        assertThat(stats.getTotalPlaced()).isEqualTo(1L);
+        assertThat(stats.getApplicationsByStatus())
+                .containsExactlyInAnyOrderEntriesOf(Map.of(AssignmentStatus.ASSIGNED, 2L, AssignmentStatus.PLACED, 1L));
+
+        assertThat(stats.getJobOrders()).extracting(JobOrderStats::getJobOrderId)
+                .containsExactly(staffed.getId(), unstaffed.getId());
+        JobOrderStats empty = stats.getJobOrders().get(1);
+        assertThat(empty.getTotalApplications()).isZero();
+        assertThat(empty.getApplicationsByStatus()).isEmpty();
+    }
+
+    private void assign(String passportNo, JobOrder jobOrder, AssignmentStatus status) {
+        entityManager.persist(Assignment.builder()
+                .candidate(entityManager.persist(TestCandidates.builder(passportNo).build()))
+                .jobOrder(jobOrder)
+                .status(status)
+                .build());
+    }
+
+    private JobOrder jobOrder(Employer employer, String ref, JobOrderStatus status, int headcount, int filled) {
+        return JobOrder.builder()
+                .jobOrderRef(ref)
+                .employer(employer)
+                .jobTitle("Welder")
+                .headcountRequired(headcount)
+                .headcountFilled(filled)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,211 @@
+package com.roms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roms.enums.CandidateStatus;
+import com.roms.enums.DocumentType;
+import com.roms.enums.UserRole;
+import com.roms.event.CacheInvalidationEvent;
+import com.roms.event.CandidateStatusChangedEvent;
+import com.roms.event.DashboardCountersChangedEvent;
+import com.roms.event.DocumentChangedEvent;
+import com.roms.event.UserTokensRevokedEvent;
+import com.roms.exception.BusinessValidationException;
+import com.roms.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventStreamServiceTest {
+
+    private final TestEventStreamService service = new TestEventStreamService();
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void routesCandidateEventsToStaffAndTheOwningApplicant() throws Exception {
+        RecordingEmitter admin = service.open(user(1L, UserRole.SUPER_ADMIN, null));
+        RecordingEmitter owner = service.open(user(2L, UserRole.APPLICANT, 10L));
+        RecordingEmitter other = service.open(user(3L, UserRole.APPLICANT, 11L));
+
+        service.onCandidateStatusChanged(
+                new CandidateStatusChangedEvent(10L, CandidateStatus.UNDER_REVIEW, CandidateStatus.DOCUMENTS_APPROVED));
+        service.onDocumentChanged(new DocumentChangedEvent(5L, 10L, DocumentType.CV, false));
+        service.onDashboardCountersChanged(new DashboardCountersChangedEvent(Map.of("candidates.status.UNDER_REVIEW", -1L)));
+
+        awaitTrue(() -> admin.events().size() == 4 && owner.events().size() == 3);
+        assertThat(admin.events()).containsExactly(EventStreamService.EVENT_CONNECTED,
+                EventStreamService.EVENT_CANDIDATE_STATUS, EventStreamService.EVENT_DOCUMENT,
+                EventStreamService.EVENT_DASHBOARD_COUNTERS);
+        assertThat(owner.events()).containsExactly(EventStreamService.EVENT_CONNECTED,
+                EventStreamService.EVENT_CANDIDATE_STATUS, EventStreamService.EVENT_DOCUMENT);
+        assertThat(other.events()).containsExactly(EventStreamService.EVENT_CONNECTED);
+        assertThat(owner.payloads().get(1)).contains("\"newStatus\":\"DOCUMENTS_APPROVED\"");
+    }
+
+    @Test
+    void slowSubscriberIsToldToResyncInsteadOfBufferingWithoutLimit() throws Exception {
+        ReflectionTestUtils.setField(service, "bufferSize", 4);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = service.open(user(1L, UserRole.OPERATIONS_STAFF, null));
+        slow.blockUntil(release);
+        ReflectionTestUtils.setField(service, "bufferSize", 64);
+        RecordingEmitter fast = service.open(user(2L, UserRole.SUPER_ADMIN, null));
+
+        for (long i = 0; i < 20; i++) {
+            service.onCandidateStatusChanged(new CandidateStatusChangedEvent(i, null, CandidateStatus.APPLICATION_SUBMITTED));
+        }
+        awaitTrue(() -> fast.events().size() == 21);
+        release.countDown();
+
+        awaitTrue(() -> slow.events().contains(EventStreamService.EVENT_RESYNC));
+        assertThat(service.getOverflowCount()).isPositive();
+        assertThat(slow.events().size()).isLessThan(21);
+        assertThat(fast.events()).doesNotContain(EventStreamService.EVENT_RESYNC);
+    }
+
+    @Test
+    void failedSendsCloseTheStreamAndLimitsApply() throws Exception {
+        RecordingEmitter broken = service.open(user(1L, UserRole.SUPER_ADMIN, null));
+        broken.failSends();
+        service.onDocumentChanged(new DocumentChangedEvent(5L, 10L, DocumentType.CV, true));
+        awaitTrue(() -> service.getSubscriberCount() == 0);
+
+        assertThatThrownBy(() -> service.subscribe(user(9L, UserRole.EMPLOYER, null)))
+                .isInstanceOf(BusinessValidationException.class);
+        ReflectionTestUtils.setField(service, "maxStreamsPerUser", 1);
+        service.open(user(2L, UserRole.APPLICANT, 10L));
+        assertThatThrownBy(() -> service.subscribe(user(2L, UserRole.APPLICANT, 10L)))
+                .isInstanceOf(BusinessValidationException.class);
+    }
+
+    @Test
+    void revokingAUsersTokensClosesTheStreamsTheyOpenedBefore() throws Exception {
+        RecordingEmitter first = service.open(user(2L, UserRole.APPLICANT, 10L));
+        RecordingEmitter second = service.open(user(2L, UserRole.APPLICANT, 10L));
+        RecordingEmitter admin = service.open(user(1L, UserRole.SUPER_ADMIN, null));
+        RecordingEmitter remote = service.open(user(3L, UserRole.OPERATIONS_STAFF, null));
+
+        // Revoked before these streams were opened: they came with newer tokens
+        service.onUserTokensRevoked(new UserTokensRevokedEvent(2L, System.currentTimeMillis() - 60000));
+        assertThat(service.getSubscriberCount()).isEqualTo(4);
+
+        service.onUserTokensRevoked(new UserTokensRevokedEvent(2L, System.currentTimeMillis()));
+        service.onCacheInvalidation(new CacheInvalidationEvent(
+                Set.of(CacheInvalidationEvent.key(CacheInvalidationEvent.USER_TOKENS, "3@" + System.currentTimeMillis())),
+                false));
+
+        assertThat(first.isCompleted()).isTrue();
+        assertThat(second.isCompleted()).isTrue();
+        assertThat(remote.isCompleted()).isTrue();
+        assertThat(admin.isCompleted()).isFalse();
+        assertThat(service.getSubscriberCount()).isEqualTo(1);
+
+        service.onDocumentChanged(new DocumentChangedEvent(5L, 10L, DocumentType.CV, false));
+        awaitTrue(() -> admin.events().contains(EventStreamService.EVENT_DOCUMENT));
+        assertThat(first.events()).doesNotContain(EventStreamService.EVENT_DOCUMENT);
+        // The per-user stream limit is released with them
+        ReflectionTestUtils.setField(service, "maxStreamsPerUser", 1);
+        service.open(user(2L, UserRole.APPLICANT, 10L));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static AuthenticatedUser user(Long userId, UserRole role, Long candidateId) {
+        return new AuthenticatedUser(userId, "user" + userId, null, role, candidateId, null, true, true);
+    }
+
+    private static class TestEventStreamService extends EventStreamService {
+
+        TestEventStreamService() {
+            super(new ObjectMapper(), 2);
+        }
+
+        RecordingEmitter open(AuthenticatedUser user) {
+            return (RecordingEmitter) subscribe(user);
+        }
+
+        @Override
+        SseEmitter createEmitter(long timeoutMs) {
+            return new RecordingEmitter();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch gate;
+        private volatile boolean failing;
+        private volatile boolean completed;
+
+        void blockUntil(CountDownLatch latch) {
+            this.gate = latch;
+        }
+
+        void failSends() {
+            this.failing = true;
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            CountDownLatch latch = gate;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            frames.add(items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        boolean isCompleted() {
+            return completed;
+        }
+
+        List<String> events() {
+            return frames.stream()
+                    .filter(frame -> frame.contains("event:"))
+                    .map(frame -> frame.substring(frame.indexOf("event:") + 6, frame.indexOf('\n', frame.indexOf("event:"))))
+                    .toList();
+        }
+
+        List<String> payloads() {
+            return frames.stream().filter(frame -> frame.contains("event:")).toList();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.entity.Candidate;
+import com.roms.entity.CandidateDocument;
+import com.roms.enums.DocumentType;
+import com.roms.event.DocumentChangedEvent;
+import com.roms.repository.CandidateDocumentRepository;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.ExpiryIndexRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Index refreshes run in their own transactions (they are called after commit), so this test commits its data
+ */
+@DataJpaTest
+@Import({JpaAuditConfig.class, ExpiryMonitoringService.class, ExpiryIndexService.class, ScheduledJobRunner.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExpiryIndexServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 6, 1);
+
+    @Autowired
+    private CandidateRepository candidateRepository;
+
+    @Autowired
+    private CandidateDocumentRepository documentRepository;
+
+    @Autowired
+    private ExpiryIndexRepository expiryIndexRepository;
+
+    @Autowired
+    private ExpiryMonitoringService expiryMonitoringService;
+
+    @AfterEach
+    void cleanUp() {
+        expiryIndexRepository.deleteAll();
+        documentRepository.deleteAll();
+        candidateRepository.deleteAll();
+    }
+
+    @Test
+    void nextDueDateStepsThroughWarningWindowThenExpiry() {
+        LocalDate expiry = TODAY.plusDays(200);
+
+        assertThat(ExpiryIndexService.nextDueDate(expiry, TODAY)).isEqualTo(expiry.minusDays(89));
+        assertThat(ExpiryIndexService.nextDueDate(expiry, expiry.minusDays(89))).isEqualTo(expiry.plusDays(1));
+        assertThat(ExpiryIndexService.nextDueDate(expiry, expiry.plusDays(1))).isNull();
+
+        // Boundaries agree with the flag rules
+        assertThat(ExpiryIndexService.evaluateFlag(List.of(expiry), expiry.minusDays(90), null)).isNull();
+        assertThat(ExpiryIndexService.evaluateFlag(List.of(expiry), expiry.minusDays(89), null)).isEqualTo("EXPIRING_SOON");
+        assertThat(ExpiryIndexService.evaluateFlag(List.of(expiry), expiry, null)).isEqualTo("EXPIRING_SOON");
+        assertThat(ExpiryIndexService.evaluateFlag(List.of(expiry), expiry.plusDays(1), null)).isEqualTo("EXPIRED");
+        assertThat(ExpiryIndexService.evaluateFlag(List.of(expiry), TODAY, "EXPIRED")).isEqualTo("VALID");
+    }
+
+    @Test
+    void dueProcessingFlipsFlagsOnTheDayTheyChange() {
+        Candidate passportSoon = persist("P1", TODAY.plusDays(100), null);
+        Candidate longValid = persist("P2", TODAY.plusYears(5), TODAY.plusYears(3));
+        Candidate visaExpiring = persist("P3", TODAY.plusYears(5), null);
+        document(visaExpiring, DocumentType.VISA, TODAY.plusDays(10));
+        document(visaExpiring, DocumentType.CV, TODAY.minusDays(10));
+
+        assertThat(expiryMonitoringService.rebuildIndex(TODAY)).isEqualTo(3);
+        assertThat(expiryIndexRepository.count()).isEqualTo(5);
+        assertThat(flag(passportSoon)).isNull();
+        assertThat(flag(longValid)).isNull();
+        assertThat(flag(visaExpiring)).isEqualTo("EXPIRING_SOON");
+
+        // Nothing due until the passport enters its warning window
+        assertThat(expiryMonitoringService.processDueExpiries(TODAY.plusDays(10))).isZero();
+
+        assertThat(expiryMonitoringService.processDueExpiries(TODAY.plusDays(11))).isEqualTo(2);
+        assertThat(flag(passportSoon)).isEqualTo("EXPIRING_SOON");
+        assertThat(flag(visaExpiring)).isEqualTo("EXPIRED");
+        assertThat(flag(longValid)).isNull();
+
+        // Already advanced - a second run the same day does no work
+        assertThat(expiryMonitoringService.processDueExpiries(TODAY.plusDays(11))).isZero();
+    }
+
+    @Test
+    void documentChangesRefreshTheCandidate() {
+        Candidate candidate = persist("P1", TODAY.plusYears(5), null);
+        expiryMonitoringService.rebuildIndex(TODAY);
+
+        CandidateDocument clearance = document(candidate, DocumentType.POLICE_CLEARANCE, LocalDate.now().minusDays(1));
+        expiryMonitoringService.onDocumentChanged(new DocumentChangedEvent(
+                clearance.getId(), candidate.getId(), DocumentType.POLICE_CLEARANCE, false));
+        assertThat(flag(candidate)).isEqualTo("EXPIRED");
+
+        documentRepository.delete(clearance);
+        expiryMonitoringService.onDocumentChanged(new DocumentChangedEvent(
+                clearance.getId(), candidate.getId(), DocumentType.POLICE_CLEARANCE, true));
+        assertThat(flag(candidate)).isEqualTo("VALID");
+        assertThat(expiryIndexRepository.findByCandidateIdIn(List.of(candidate.getId()))).hasSize(1);
+    }
+
+    private Candidate persist(String passportNo, LocalDate passportExpiry, LocalDate medicalExpiry) {
+        return candidateRepository.save(TestCandidates.builder(passportNo)
+                .passportExpiry(passportExpiry)
+                .medicalExpiry(medicalExpiry)
+                .build());
+    }
+
+    private CandidateDocument document(Candidate candidate, DocumentType type, LocalDate expiryDate) {
+        return documentRepository.save(CandidateDocument.builder()
+                .candidate(candidate)
+                .docType(type)
+                .fileName(type + ".pdf")
+                .driveFileId(candidate.getPassportNo() + "-" + type)
+                .expiryDate(expiryDate)
+                .build());
+    }
+
+    private String flag(Candidate candidate) {
+        return candidateRepository.findById(candidate.getId()).orElseThrow().getExpiryFlag();
+    }
+}
@@ -0,0 +1,164 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.dto.ExpiryCheckResult;
+import com.roms.entity.Candidate;
+import com.roms.entity.ExpiryIndexEntry;
+import com.roms.entity.ScheduledJob;
+import com.roms.entity.ScheduledJobRun;
+import com.roms.enums.ExpirySource;
+import com.roms.enums.JobRunStatus;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.ExpiryIndexRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import({JpaAuditConfig.class, ExpiryMonitoringService.class, ExpiryIndexService.class, ScheduledJobRunner.class})
+class ExpiryMonitoringServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 6, 1);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CandidateRepository candidateRepository;
+
+    @Autowired
+    private ExpiryMonitoringService expiryMonitoringService;
+
+    @Autowired
+    private ScheduledJobRunner jobRunner;
+
+    @Autowired
+    private ExpiryIndexRepository expiryIndexRepository;
+
+    @Test
+    void flagsOnlyCandidatesWhoseStateChangedAndIsIdempotent() {
+        ReflectionTestUtils.setField(expiryMonitoringService, "chunkSize", 2);
+
+        Long passportExpired = persist("P1", TODAY.minusDays(1), TODAY.plusYears(1), null);
+        Long medicalExpired = persist("P2", TODAY.plusYears(2), TODAY.minusDays(5), "EXPIRING_SOON");
+        Long bothSoonAndExpired = persist("P3", TODAY.minusDays(3), TODAY.plusDays(10), null);
+        Long expiringSoon = persist("P4", TODAY.plusDays(30), null, null);
+        Long renewed = persist("P5", TODAY.plusYears(5), null, "EXPIRED");
+        Long untouched = persist("P6", TODAY.plusYears(5), TODAY.plusYears(1), null);
+        Long alreadyExpired = persist("P7", TODAY.minusYears(1), null, "EXPIRED");
+        entityManager.flush();
+        entityManager.clear();
+
+        ExpiryCheckResult first = expiryMonitoringService.runExpiryCheck(TODAY);
+
+        assertThat(first.getExpired()).isEqualTo(3);
+        assertThat(first.getExpiringSoon()).isEqualTo(1);
+        assertThat(first.getCleared()).isEqualTo(1);
+
+        // Chunks join the test transaction here, so push their changes out before re-reading
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(flag(passportExpired)).isEqualTo("EXPIRED");
+        assertThat(flag(medicalExpired)).isEqualTo("EXPIRED");
+        assertThat(flag(bothSoonAndExpired)).isEqualTo("EXPIRED");
+        assertThat(flag(expiringSoon)).isEqualTo("EXPIRING_SOON");
+        assertThat(flag(renewed)).isEqualTo("VALID");
+        assertThat(flag(untouched)).isNull();
+        assertThat(flag(alreadyExpired)).isEqualTo("EXPIRED");
+
+        ExpiryCheckResult second = expiryMonitoringService.runExpiryCheck(TODAY);
+        assertThat(second.getTotalChanged()).isZero();
+    }
+
+    @Test
+    void interruptedRunResumesFromItsCheckpoint() {
+        Long passportExpired = persist("P1", TODAY.minusDays(1), null, null);
+        Long expiringSoon = persist("P2", TODAY.plusDays(30), null, null);
+        // A node died during the EXPIRING_SOON pass, after flagging 5 candidates EXPIRED
+        LocalDateTime longAgo = LocalDateTime.now().minusHours(1);
+        entityManager.persist(ScheduledJob.builder().jobName(ExpiryMonitoringService.EXPIRY_CHECK_JOB)
+                .leaseOwner("dead-node").leaseExpiresAt(longAgo).createdAt(longAgo).build());
+        Long runId = entityManager.persist(ScheduledJobRun.builder().jobName(ExpiryMonitoringService.EXPIRY_CHECK_JOB)
+                .parameters(TODAY.toString()).status(JobRunStatus.RUNNING).nodeId("dead-node")
+                .startedAt(longAgo).checkpoint("1:0:5:0:0").itemsProcessed(5L).build()).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        ExpiryCheckResult result = jobRunner.<ExpiryCheckResult>run(ExpiryMonitoringService.EXPIRY_CHECK_JOB, TODAY.toString())
+                .orElseThrow();
+
+        assertThat(result.getExpired()).isEqualTo(5);
+        assertThat(result.getExpiringSoon()).isEqualTo(1);
+        entityManager.flush();
+        entityManager.clear();
+        // The EXPIRED pass is not repeated
+        assertThat(flag(passportExpired)).isNull();
+        assertThat(flag(expiringSoon)).isEqualTo("EXPIRING_SOON");
+        ScheduledJobRun run = entityManager.find(ScheduledJobRun.class, runId);
+        assertThat(run.getStatus()).isEqualTo(JobRunStatus.COMPLETED);
+        assertThat(run.getResumeCount()).isEqualTo(1);
+        assertThat(run.getItemsProcessed()).isEqualTo(6L);
+        assertThat(run.getCheckpoint()).isEqualTo("1:" + expiringSoon + ":5:1:0");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void reconciliationFindsCandidatesTheIndexLostAndRepairsTheirRows() {
+        // The index update for this passport date never happened
+        Long drifted = candidateRepository.save(candidate("P8", TODAY.minusDays(2), null, null)).getId();
+        try {
+            ExpiryCheckResult result = expiryMonitoringService.runExpiryCheck(TODAY);
+
+            assertThat(result.getExpired()).isEqualTo(1);
+            assertThat(flag(drifted)).isEqualTo("EXPIRED");
+            assertThat(expiryIndexRepository.findByCandidateIdIn(List.of(drifted)))
+                    .extracting(ExpiryIndexEntry::getSource, ExpiryIndexEntry::getExpiryDate)
+                    .containsExactly(tuple(ExpirySource.PASSPORT, TODAY.minusDays(2)));
+        } finally {
+            expiryIndexRepository.deleteAll();
+            candidateRepository.deleteAll();
+        }
+    }
+
+    private Long persist(String passportNo, LocalDate passportExpiry, LocalDate medicalExpiry, String flag) {
+        Long id = entityManager.persist(candidate(passportNo, passportExpiry, medicalExpiry, flag)).getId();
+        index(id, ExpirySource.PASSPORT, passportExpiry);
+        index(id, ExpirySource.MEDICAL, medicalExpiry);
+        return id;
+    }
+
+    private static Candidate candidate(String passportNo, LocalDate passportExpiry, LocalDate medicalExpiry, String flag) {
+        return TestCandidates.builder(passportNo)
+                .passportExpiry(passportExpiry)
+                .medicalExpiry(medicalExpiry)
+                .expiryFlag(flag)
+                .build();
+    }
+
+    private void index(Long candidateId, ExpirySource source, LocalDate expiryDate) {
+        if (expiryDate != null) {
+            entityManager.persist(ExpiryIndexEntry.builder()
+                    .candidateId(candidateId)
+                    .source(source)
+                    .expiryDate(expiryDate)
+                    .nextDueDate(ExpiryIndexService.nextDueDate(expiryDate, TODAY))
+                    .build());
+        }
+    }
+
+    private String flag(Long id) {
+        return candidateRepository.findById(id).orElseThrow().getExpiryFlag();
+    }
+}
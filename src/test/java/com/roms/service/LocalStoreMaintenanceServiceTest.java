@@ -0,0 +1,181 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.entity.Candidate;
+import com.roms.entity.CandidateDocument;
+import com.roms.enums.DocumentType;
+import com.roms.repository.CandidateDocumentRepository;
+import com.roms.repository.CandidateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Content-addressed local store: deduplication, reference-counted deletes, migration of the flat
+ * directory and cleanup. Commits its data, as the jobs do.
+ */
+@DataJpaTest(properties = {
+        "file.upload-dir=" + LocalStoreMaintenanceServiceTest.UPLOAD_DIR,
+        "roms.storage.local.blob-grace-seconds=0"})
+@Import({JpaAuditConfig.class, LocalFileStorageService.class, LocalDocumentStorage.class,
+        DocumentDownloadService.class, LocalStoreMaintenanceService.class, ScheduledJobRunner.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LocalStoreMaintenanceServiceTest {
+
+    static final String UPLOAD_DIR = "target/test-uploads/content-store";
+
+    @MockBean
+    private GoogleDriveService driveService;
+
+    @Autowired
+    private LocalDocumentStorage localStorage;
+
+    @Autowired
+    private LocalFileStorageService localFileStorageService;
+
+    @Autowired
+    private LocalStoreMaintenanceService maintenanceService;
+
+    @Autowired
+    private CandidateRepository candidateRepository;
+
+    @Autowired
+    private CandidateDocumentRepository documentRepository;
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        documentRepository.deleteAll();
+        candidateRepository.deleteAll();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(Paths.get(UPLOAD_DIR))) {
+            for (Path entry : entries) {
+                if (!entry.getFileName().toString().equals(".incoming")) {
+                    FileSystemUtils.deleteRecursively(entry);
+                }
+            }
+        }
+    }
+
+    @Test
+    void identicalUploadsAreStoredOnceAndKeptUntilTheLastReferenceGoes() throws Exception {
+        Candidate candidate = candidate("S1");
+        CandidateDocument first = save(candidate, localStorage.store(pdf("same passport"), candidate.getId()));
+        CandidateDocument second = save(candidate, localStorage.store(pdf("same passport"), candidate.getId()));
+
+        assertThat(first.getDriveFileId()).isNotEqualTo(second.getDriveFileId());
+        assertThat(first.getContentHash()).hasSize(64).isEqualTo(second.getContentHash());
+        Path blob = localStorage.resolve(first.getDriveFileId());
+        assertThat(localStorage.resolve(second.getDriveFileId())).isEqualTo(blob);
+        assertThat(blob.getParent().getParent().getFileName().toString()).isEqualTo(first.getContentHash().substring(0, 2));
+        assertThat(blob.getParent().getFileName().toString()).isEqualTo(first.getContentHash().substring(2, 4));
+
+        localStorage.delete(first.getDriveFileId());
+        documentRepository.delete(first);
+        assertThat(Files.readString(blob)).isEqualTo("same passport");
+
+        localStorage.delete(second.getDriveFileId());
+        assertThat(Files.exists(blob)).isFalse();
+    }
+
+    @Test
+    void uploadWithAKnownHashIsStoredUnderThatHash() throws Exception {
+        Candidate candidate = candidate("S4");
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest("validated passport".getBytes(StandardCharsets.UTF_8)));
+
+        CandidateDocument stored = save(candidate, localStorage.store(pdf("validated passport"), hash, candidate.getId()));
+        CandidateDocument again = save(candidate, localStorage.store(pdf("validated passport"), hash, candidate.getId()));
+
+        assertThat(stored.getContentHash()).isEqualTo(hash).isEqualTo(again.getContentHash());
+        Path blob = localStorage.resolve(stored.getDriveFileId());
+        assertThat(blob.getFileName().toString()).isEqualTo(hash);
+        assertThat(Files.readString(blob)).isEqualTo("validated passport");
+        assertThat(localStorage.resolve(again.getDriveFileId())).isEqualTo(blob);
+    }
+
+    @Test
+    void migrationMovesFlatFilesIntoTheStoreAndDeduplicatesThem() throws Exception {
+        Candidate candidate = candidate("S2");
+        String flatA = flatFile("cv.pdf", "curriculum vitae");
+        String flatB = flatFile("cv-again.pdf", "curriculum vitae");
+        CandidateDocument a = save(candidate, flatA);
+        CandidateDocument b = save(candidate, flatB);
+        CandidateDocument missing = save(candidate, UUID.randomUUID() + "_lost.pdf");
+
+        assertThat(maintenanceService.runMigration()).contains(2);
+
+        CandidateDocument migratedA = documentRepository.findById(a.getId()).orElseThrow();
+        CandidateDocument migratedB = documentRepository.findById(b.getId()).orElseThrow();
+        assertThat(migratedA.getDriveFileId()).startsWith(LocalFileStorageService.CONTENT_ID_PREFIX);
+        assertThat(migratedA.getStorageBackend()).isEqualTo(DocumentStorage.LOCAL);
+        assertThat(migratedA.getContentHash()).isEqualTo(migratedB.getContentHash());
+        assertThat(Files.readString(localStorage.resolve(migratedA.getDriveFileId()))).isEqualTo("curriculum vitae");
+        assertThat(Files.exists(Paths.get(UPLOAD_DIR, flatA))).isFalse();
+        assertThat(Files.exists(Paths.get(UPLOAD_DIR, flatB))).isFalse();
+        assertThat(documentRepository.findById(missing.getId()).orElseThrow().getDriveFileId())
+                .isEqualTo(missing.getDriveFileId());
+
+        assertThat(maintenanceService.runMigration()).contains(0);
+    }
+
+    @Test
+    void cleanupRemovesOnlyFilesNoDocumentRefersTo() throws Exception {
+        Candidate candidate = candidate("S3");
+        CandidateDocument kept = save(candidate, localStorage.store(pdf("kept"), candidate.getId()));
+        String orphan = localFileStorageService.store(new ByteArrayInputStream("orphan".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(maintenanceService.runCleanUp()).contains(1);
+
+        assertThat(Files.exists(localStorage.resolve(kept.getDriveFileId()))).isTrue();
+        assertThat(Files.exists(localStorage.resolve(orphan))).isFalse();
+    }
+
+    private Candidate candidate(String passportNo) {
+        return candidateRepository.save(TestCandidates.builder(passportNo)
+                .build());
+    }
+
+    private CandidateDocument save(Candidate candidate, String storageId) {
+        CandidateDocument document = new CandidateDocument();
+        document.setCandidate(candidate);
+        document.setDocType(DocumentType.PASSPORT);
+        document.setFileName("passport.pdf");
+        document.setDriveFileId(storageId);
+        document.setStorageBackend(storageId.startsWith(LocalFileStorageService.CONTENT_ID_PREFIX)
+                ? DocumentStorage.LOCAL : null);
+        document.setContentHash(localStorage.contentHashOf(storageId));
+        return documentRepository.save(document);
+    }
+
+    private static MockMultipartFile pdf(String content) {
+        return new MockMultipartFile("file", "passport.pdf", "application/pdf", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A file as the old flat layout stored it
+     */
+    private static String flatFile(String name, String content) throws IOException {
+        String flatId = UUID.randomUUID() + "_" + name;
+        Files.writeString(Paths.get(UPLOAD_DIR, flatId), content);
+        return flatId;
+    }
+}
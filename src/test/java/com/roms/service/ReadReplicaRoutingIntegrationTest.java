@@ -0,0 +1,158 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.config.ReadReplicaConfig;
+import com.roms.entity.Employer;
+import com.roms.repository.EmployerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing through JPA the way a request sees it: one open-in-view EntityManager across several
+ * transactions. The replica pool's connections default to a REPLICA schema of the same H2 database
+ * holding a snapshot of the employers table, so reads that reach it see the row as it was when
+ * the snapshot was taken.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1",
+        "roms.datasource.replica.enabled=true",
+        "roms.datasource.replica.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1;SCHEMA=REPLICA",
+        "roms.datasource.replica.username=sa",
+        "roms.datasource.replica.password="})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaAuditConfig.class, ReadReplicaConfig.class, ReadReplicaRoutingService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private EmployerRepository employerRepository;
+
+    @Autowired
+    private ReadReplicaRoutingService routingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Cache secondLevelCache;
+    private Long employerId;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(routingService, "replicaAvailable", true);
+        ReflectionTestUtils.setField(routingService, "lagCheckMs", 60_000L);
+        ReflectionTestUtils.setField(routingService, "lastCheckNanos", System.nanoTime());
+        secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        secondLevelCache.evictAllRegions();
+
+        employerId = employerRepository.save(Employer.builder().companyName("Acme").country("Kenya").build()).getId();
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS REPLICA");
+        jdbcTemplate.execute("CREATE TABLE REPLICA.employers AS SELECT * FROM PUBLIC.employers");
+        // Committed on the primary, not yet replayed on the replica
+        jdbcTemplate.update("UPDATE employers SET country = 'Qatar' WHERE id = ?", employerId);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS REPLICA.employers");
+        employerRepository.deleteAll();
+        secondLevelCache.evictAllRegions();
+    }
+
+    @Test
+    void writeAfterAReplicaReadInTheSameRequestRunsOnThePrimary() {
+        inRequest(() -> {
+            String replicaCountry = readOnly().execute(status -> countryOf(employerId));
+            assertThat(replicaCountry).isEqualTo("Kenya");
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> entityManager
+                    .createNativeQuery("UPDATE employers SET industry = 'Construction' WHERE id = :id")
+                    .setParameter("id", employerId)
+                    .executeUpdate());
+        });
+
+        assertThat(jdbcTemplate.queryForObject("SELECT industry FROM PUBLIC.employers WHERE id = ?",
+                String.class, employerId)).isEqualTo("Construction");
+        assertThat(jdbcTemplate.queryForObject("SELECT industry FROM REPLICA.employers WHERE id = ?",
+                String.class, employerId)).isNull();
+    }
+
+    @Test
+    void repositoryCallsOutsideATransactionReadThePrimary() {
+        long repositoryPrimaryReads = (Long) routingService.getStats().get("repositoryPrimaryReads");
+        inRequest(() -> {
+            readOnly().execute(status -> countryOf(employerId));
+
+            // A controller's findById -> modify -> save starts from current columns
+            Employer employer = employerRepository.findById(employerId).orElseThrow();
+            assertThat(employer.getCountry()).isEqualTo("Qatar");
+        });
+
+        assertThat((Long) routingService.getStats().get("repositoryPrimaryReads")).isGreaterThan(repositoryPrimaryReads);
+    }
+
+    @Test
+    void replicaReadsAreNotPutIntoTheSecondLevelCache() {
+        inRequest(() -> {
+            Employer stale = readOnly().execute(status -> entityManager.find(Employer.class, employerId));
+            assertThat(stale.getCountry()).isEqualTo("Kenya");
+        });
+        assertThat(secondLevelCache.containsEntity(Employer.class, employerId)).isFalse();
+
+        inRequest(() -> assertThat(employerRepository.findById(employerId).orElseThrow().getCountry())
+                .isEqualTo("Qatar"));
+        assertThat(secondLevelCache.containsEntity(Employer.class, employerId)).isTrue();
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private String countryOf(Long id) {
+        return (String) entityManager.createNativeQuery("SELECT country FROM employers WHERE id = :id")
+                .setParameter("id", id)
+                .getSingleResult();
+    }
+
+    /** Binds one EntityManager for the duration of the work, as open-in-view does for a request */
+    private void inRequest(Runnable work) {
+        EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+        try {
+            work.run();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            requestEntityManager.close();
+        }
+    }
+}
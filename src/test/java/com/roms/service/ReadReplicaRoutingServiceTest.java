@@ -0,0 +1,139 @@
+package com.roms.service;
+
+import com.roms.config.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadReplicaRoutingServiceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final JdbcTemplate replicaJdbcTemplate = mock(JdbcTemplate.class);
+    private final ReadReplicaRoutingService service = new ReadReplicaRoutingService();
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        ReflectionTestUtils.setField(service, "stickyMs", 200L);
+        service.init();
+        service.attachReplica(replica);
+        ReflectionTestUtils.setField(service, "replicaJdbcTemplate", replicaJdbcTemplate);
+        lag(0L);
+
+        routing = new ReplicaRoutingDataSource(service);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primary,
+                ReplicaRoutingDataSource.Target.REPLICA, replica));
+        routing.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaAndWritesThePrimary() throws Exception {
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+        assertThat(connectionIn(false)).isSameAs(primaryConnection);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void ownWritesAreReadFromThePrimaryForTheStickyWindow() throws Exception {
+        signIn("jdoe");
+        assertThat(connectionIn(false)).isSameAs(primaryConnection);
+
+        assertThat(connectionIn(true)).isSameAs(primaryConnection);
+        signIn("other");
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+
+        Thread.sleep(300);
+        signIn("jdoe");
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+        assertThat(service.getStats()).containsEntry("stickyPrimaryReads", 1L).containsEntry("replicaReads", 2L);
+    }
+
+    @Test
+    void laggingOrUnreachableReplicaFallsBackToThePrimary() throws Exception {
+        lag(5000L);
+        assertThat(connectionIn(true)).isSameAs(primaryConnection);
+
+        when(replicaJdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        service.checkReplicaLag();
+        assertThat(connectionIn(true)).isSameAs(primaryConnection);
+
+        // Not streaming: caught up with what it received, but receiving nothing
+        lag(-1L);
+        assertThat(connectionIn(true)).isSameAs(primaryConnection);
+
+        lag(100L);
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+        assertThat(service.getStats()).containsEntry("lagFallbackReads", 3L).containsEntry("replicaLagMs", 100L);
+    }
+
+    @Test
+    void replicaIsNotUsedOnceTheLagCheckHasStoppedRunning() throws Exception {
+        ReflectionTestUtils.setField(service, "lagCheckMs", 50L);
+        lag(0L);
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+
+        Thread.sleep(150);
+        assertThat(connectionIn(true)).isSameAs(primaryConnection);
+
+        lag(0L);
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+    }
+
+    /** Opens a connection the way a transaction's first statement would, then commits */
+    private Connection connectionIn(boolean readOnly) throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        try {
+            Connection connection = routing.getConnection();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            return connection;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private void lag(long millis) {
+        when(replicaJdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(millis);
+        service.checkReplicaLag();
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.NO_AUTHORITIES));
+    }
+}
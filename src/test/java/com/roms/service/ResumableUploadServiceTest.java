@@ -0,0 +1,191 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.entity.Candidate;
+import com.roms.entity.CandidateDocument;
+import com.roms.entity.DocumentUploadSession;
+import com.roms.enums.DocumentType;
+import com.roms.exception.BusinessValidationException;
+import com.roms.exception.ResourceNotFoundException;
+import com.roms.repository.CandidateDocumentRepository;
+import com.roms.repository.CandidateRepository;
+import com.roms.repository.DocumentUploadSessionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Resumable uploads into the local store, end to end. Commits its data, as uploads do.
+ */
+@DataJpaTest(properties = {
+        "file.upload-dir=target/test-uploads/resumable-store",
+        "roms.document.resumable.dir=" + ResumableUploadServiceTest.PARTIAL_DIR})
+@Import({JpaAuditConfig.class, ResumableUploadService.class, DocumentStorageService.class,
+        DocumentReplicationService.class, DocumentUploadValidator.class, DocumentCompletenessService.class,
+        ScheduledJobRunner.class, LocalDocumentStorage.class, LocalFileStorageService.class,
+        DocumentDownloadService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ResumableUploadServiceTest {
+
+    static final String PARTIAL_DIR = "target/test-uploads/resumable-partial";
+
+    @MockBean
+    private GoogleDriveService driveService;
+
+    @Autowired
+    private ResumableUploadService uploadService;
+
+    @Autowired
+    private LocalDocumentStorage localStorage;
+
+    @Autowired
+    private CandidateRepository candidateRepository;
+
+    @Autowired
+    private CandidateDocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentUploadSessionRepository sessionRepository;
+
+    @AfterEach
+    void cleanUp() {
+        sessionRepository.deleteAll();
+        documentRepository.deleteAll();
+        candidateRepository.deleteAll();
+    }
+
+    @Test
+    void interruptedUploadResumesFromTheRecordedOffsetAndBecomesADocument() throws Exception {
+        byte[] content = pdf(3000);
+        Candidate candidate = candidate("R1");
+        String uploadId = create(candidate, content.length).getUploadId();
+
+        uploadService.appendChunk(uploadId, 0, new ByteArrayInputStream(content, 0, 1500));
+        assertThat(uploadService.get(uploadId).getUploadOffset()).isEqualTo(1500L);
+
+        assertThatThrownBy(() -> uploadService.appendChunk(uploadId, 0, new ByteArrayInputStream(content)))
+                .isInstanceOfSatisfying(ResumableUploadService.UploadConflictException.class,
+                        e -> assertThat(e.getCurrentOffset()).isEqualTo(1500L));
+
+        // The connection drops after 500 more bytes: they are kept
+        assertThatThrownBy(() -> uploadService.appendChunk(uploadId, 1500, dropsAfter(content, 1500, 500)))
+                .isInstanceOf(IOException.class);
+        assertThat(uploadService.get(uploadId).getUploadOffset()).isEqualTo(2000L);
+
+        DocumentUploadSession session = uploadService.appendChunk(uploadId, 2000,
+                new ByteArrayInputStream(content, 2000, content.length - 2000));
+
+        CandidateDocument document = documentRepository.findById(session.getDocumentId()).orElseThrow();
+        assertThat(document.getContentType()).isEqualTo("application/pdf");
+        assertThat(document.getFileSize()).isEqualTo(content.length);
+        assertThat(document.getStorageBackend()).isEqualTo(DocumentStorage.LOCAL);
+        assertThat(Files.readAllBytes(localStorage.resolve(document.getDriveFileId()))).isEqualTo(content);
+        assertThat(Files.exists(partial(uploadId))).isFalse();
+
+        // A client that missed the answer gets the same document again
+        assertThat(uploadService.appendChunk(uploadId, content.length, InputStream.nullInputStream()).getDocumentId())
+                .isEqualTo(document.getId());
+    }
+
+    @Test
+    void wrongFileTypeIsRefusedOnItsFirstKilobyte() throws Exception {
+        byte[] html = new byte[5000];
+        Arrays.fill(html, (byte) ' ');
+        System.arraycopy("<html>".getBytes(StandardCharsets.US_ASCII), 0, html, 0, 6);
+        String uploadId = create(candidate("R2"), html.length).getUploadId();
+
+        assertThatThrownBy(() -> uploadService.appendChunk(uploadId, 0, new ByteArrayInputStream(html, 0, 2000)))
+                .isInstanceOf(BusinessValidationException.class);
+
+        assertThatThrownBy(() -> uploadService.get(uploadId)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(Files.exists(partial(uploadId))).isFalse();
+        assertThat(documentRepository.count()).isZero();
+    }
+
+    @Test
+    void uploadsPastTheirExpiryAreRemovedWithTheirPartialFile() throws Exception {
+        byte[] content = pdf(2000);
+        Candidate candidate = candidate("R3");
+        DocumentUploadSession stale = create(candidate, content.length);
+        String activeId = create(candidate, content.length).getUploadId();
+        uploadService.appendChunk(stale.getUploadId(), 0, new ByteArrayInputStream(content, 0, 100));
+
+        DocumentUploadSession expired = uploadService.get(stale.getUploadId());
+        expired.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        sessionRepository.save(expired);
+
+        assertThatThrownBy(() -> uploadService.get(stale.getUploadId())).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> uploadService.appendChunk(stale.getUploadId(), 100,
+                new ByteArrayInputStream(content, 100, 100))).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(uploadService.cleanUpExpired()).isEqualTo(1);
+        assertThat(sessionRepository.findByUploadId(stale.getUploadId())).isEmpty();
+        assertThat(Files.exists(partial(stale.getUploadId()))).isFalse();
+        assertThat(Files.exists(partial(activeId))).isTrue();
+    }
+
+    private DocumentUploadSession create(Candidate candidate, long length) throws IOException {
+        return uploadService.create(candidate.getId(), DocumentType.PASSPORT, "passport-scan.pdf", length,
+                "P123", null, null);
+    }
+
+    private Candidate candidate(String passportNo) {
+        return candidateRepository.save(TestCandidates.builder(passportNo)
+                .build());
+    }
+
+    private static byte[] pdf(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        System.arraycopy("%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII), 0, content, 0, 9);
+        return content;
+    }
+
+    /**
+     * A request body that delivers some bytes and then fails, as when the client's connection drops
+     */
+    private static InputStream dropsAfter(byte[] content, int offset, int delivered) {
+        InputStream arrived = new ByteArrayInputStream(content, offset, delivered);
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                return check(arrived.read());
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return check(arrived.read(b, off, len));
+            }
+
+            private int check(int read) throws IOException {
+                if (read == -1) {
+                    throw new IOException("Connection reset");
+                }
+                return read;
+            }
+        };
+    }
+
+    private static Path partial(String uploadId) {
+        return Paths.get(PARTIAL_DIR, uploadId);
+    }
+}
@@ -0,0 +1,127 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.entity.ScheduledJob;
+import com.roms.entity.ScheduledJobRun;
+import com.roms.enums.JobRunStatus;
+import com.roms.repository.ScheduledJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({JpaAuditConfig.class, ScheduledJobRunner.class})
+class ScheduledJobRunnerTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ScheduledJobRunner jobRunner;
+
+    @Autowired
+    private ScheduledJobRepository jobRepository;
+
+    @Test
+    void onlyTheLeaseHolderRunsAndEveryRunIsRecorded() {
+        List<String> executions = new ArrayList<>();
+        jobRunner.register("sweep", context -> {
+            executions.add(context.getParameters());
+            context.checkpoint("done", 3);
+            return "ok";
+        });
+
+        assertThat(jobRunner.<String>run("sweep", "2026-06-01")).contains("ok");
+
+        // Another node now holds a live lease
+        entityManager.getEntityManager()
+                .createQuery("UPDATE ScheduledJob j SET j.leaseOwner = 'node-b', j.leaseExpiresAt = :expires")
+                .setParameter("expires", LocalDateTime.now().plusMinutes(2))
+                .executeUpdate();
+        assertThat(jobRunner.run("sweep", "2026-06-02")).isEmpty();
+        assertThat(executions).containsExactly("2026-06-01");
+
+        entityManager.clear();
+        List<ScheduledJobRun> runs = jobRunner.getRuns("sweep", 10);
+        assertThat(runs).hasSize(1);
+        assertThat(runs.get(0).getStatus()).isEqualTo(JobRunStatus.COMPLETED);
+        assertThat(runs.get(0).getNodeId()).isEqualTo(jobRunner.getNodeId());
+        assertThat(runs.get(0).getItemsProcessed()).isEqualTo(3L);
+        assertThat(jobRunner.getJobs()).singleElement()
+                .satisfies(job -> assertThat(job.getLastRun().getId()).isEqualTo(runs.get(0).getId()));
+    }
+
+    @Test
+    void leaseExpiryIsSetFromTheDatabaseClock() {
+        List<LocalDateTime> leaseExpiry = new ArrayList<>();
+        jobRunner.register("clocked", context -> {
+            leaseExpiry.add(entityManager.getEntityManager()
+                    .createQuery("SELECT j.leaseExpiresAt FROM ScheduledJob j WHERE j.jobName = 'clocked'", LocalDateTime.class)
+                    .getSingleResult());
+            return null;
+        });
+
+        jobRunner.run("clocked", "2026-06-01");
+
+        LocalDateTime databaseTime = jobRepository.databaseTime();
+        assertThat(leaseExpiry).singleElement().satisfies(expiry -> assertThat(expiry)
+                .isBetween(databaseTime.plusSeconds(110), databaseTime.plusSeconds(120)));
+    }
+
+    @Test
+    void sweepResumesRunsWhoseNodeDied() {
+        List<String> resumedFrom = new ArrayList<>();
+        jobRunner.register("resumable", context -> {
+            resumedFrom.add(context.getCheckpoint());
+            context.checkpoint("400", 100);
+            return null;
+        });
+        LocalDateTime longAgo = LocalDateTime.now().minusMinutes(10);
+        entityManager.persist(ScheduledJob.builder().jobName("resumable")
+                .leaseOwner("dead-node").leaseExpiresAt(longAgo).createdAt(longAgo).build());
+        Long runId = entityManager.persist(ScheduledJobRun.builder().jobName("resumable").parameters("2026-06-01")
+                .status(JobRunStatus.RUNNING).nodeId("dead-node").startedAt(longAgo)
+                .checkpoint("300").chunksCompleted(3).itemsProcessed(300L).build()).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        jobRunner.resumeInterrupted();
+
+        assertThat(resumedFrom).containsExactly("300");
+        entityManager.clear();
+        ScheduledJobRun run = entityManager.find(ScheduledJobRun.class, runId);
+        assertThat(run.getStatus()).isEqualTo(JobRunStatus.COMPLETED);
+        assertThat(run.getChunksCompleted()).isEqualTo(4);
+        assertThat(run.getItemsProcessed()).isEqualTo(400L);
+        assertThat(entityManager.find(ScheduledJob.class, "resumable").getLeaseOwner()).isNull();
+    }
+
+    @Test
+    void jobStopsAtTheNextCheckpointOnceItsLeaseIsTaken() {
+        jobRunner.register("contested", context -> {
+            context.checkpoint("100", 100);
+            entityManager.getEntityManager()
+                    .createQuery("UPDATE ScheduledJob j SET j.leaseOwner = 'node-b'")
+                    .executeUpdate();
+            context.checkpoint("200", 100);
+            return "finished";
+        });
+
+        assertThat(jobRunner.run("contested", "2026-06-01")).isEmpty();
+
+        entityManager.clear();
+        ScheduledJobRun run = jobRunner.getRuns("contested", 1).get(0);
+        // Left for node-b to resume from the last checkpoint it was allowed to write
+        assertThat(run.getStatus()).isEqualTo(JobRunStatus.RUNNING);
+        assertThat(run.getCheckpoint()).isEqualTo("100");
+        assertThat(entityManager.find(ScheduledJob.class, "contested").getLeaseOwner()).isEqualTo("node-b");
+    }
+}
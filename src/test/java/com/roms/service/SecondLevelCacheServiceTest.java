@@ -0,0 +1,104 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.dto.CacheRegionStatsDTO;
+import com.roms.entity.Employer;
+import com.roms.entity.JobOrder;
+import com.roms.repository.EmployerRepository;
+import com.roms.repository.JobOrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * The second-level cache is only populated and read across transactions, so this test commits its data
+ */
+@DataJpaTest
+@Import({JpaAuditConfig.class, SecondLevelCacheService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheServiceTest {
+
+    @Autowired
+    private EmployerRepository employerRepository;
+
+    @Autowired
+    private JobOrderRepository jobOrderRepository;
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        secondLevelCacheService.evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jobOrderRepository.deleteAll();
+        employerRepository.deleteAll();
+        secondLevelCacheService.evictAll();
+    }
+
+    @Test
+    void findByIdIsServedFromTheEntityRegion() {
+        Employer employer = employerRepository.save(Employer.builder().companyName("Acme").build());
+        JobOrder jobOrder = jobOrderRepository.save(JobOrder.builder()
+                .jobOrderRef("JO1").employer(employer).jobTitle("Welder").headcountRequired(10).build());
+        statistics.clear();
+
+        // IDENTITY inserts are not cached, so the first read loads and puts the row
+        jobOrderRepository.findById(jobOrder.getId()).orElseThrow();
+        jobOrderRepository.findById(jobOrder.getId()).orElseThrow();
+        jobOrderRepository.findById(jobOrder.getId()).orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        CacheRegionStatsDTO jobOrders = region("jobOrders");
+        assertThat(jobOrders.getHits()).isEqualTo(2);
+        assertThat(jobOrders.getMisses()).isEqualTo(1);
+        assertThat(jobOrders.getHitRatio()).isCloseTo(2.0 / 3, within(0.001));
+    }
+
+    @Test
+    void naturalKeyLookupIsCachedUntilTheTableChanges() {
+        Employer employer = employerRepository.save(Employer.builder()
+                .companyName("Acme").contactEmail("hr@acme.test").build());
+        statistics.clear();
+
+        employerRepository.findByContactEmail("hr@acme.test").orElseThrow();
+        long afterFirst = statistics.getPrepareStatementCount();
+        employerRepository.findByContactEmail("hr@acme.test").orElseThrow();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(afterFirst);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        // A soft delete writes the row, which invalidates cached queries over employers
+        employer.softDelete();
+        employerRepository.save(employer);
+        assertThat(employerRepository.findAllActive()).isEmpty();
+        assertThat(employerRepository.findByContactEmail("hr@acme.test").orElseThrow().isDeleted()).isTrue();
+    }
+
+    private CacheRegionStatsDTO region(String name) {
+        return secondLevelCacheService.getRegionStats().stream()
+                .filter(stats -> stats.getRegion().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
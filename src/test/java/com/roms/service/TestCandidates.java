@@ -0,0 +1,27 @@
+package com.roms.service;
+
+import com.roms.entity.Candidate;
+
+import java.time.LocalDate;
+
+/**
+ * A candidate with every required column filled in, keyed by passport number. Tests add the
+ * fields they care about before building.
+ */
+final class TestCandidates {
+
+    private TestCandidates() {
+    }
+
+    static Candidate.CandidateBuilder builder(String passportNo) {
+        return Candidate.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .gender("F")
+                .passportNo(passportNo)
+                .email(passportNo.toLowerCase() + "@example.com")
+                .phoneNumber("0700000000")
+                .internalRefNo("CND-" + passportNo);
+    }
+}
@@ -0,0 +1,228 @@
+package com.roms.service;
+
+import com.roms.config.JpaAuditConfig;
+import com.roms.dto.WorkflowAnalyticsDTO;
+import com.roms.entity.Candidate;
+import com.roms.entity.CandidateStatusEvent;
+import com.roms.enums.CandidateStatus;
+import com.roms.event.CandidateStatusChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest
+@Import({JpaAuditConfig.class, WorkflowAnalyticsService.class, CandidateStatusEventService.class})
+class WorkflowAnalyticsServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private WorkflowAnalyticsService workflowAnalyticsService;
+
+    @Autowired
+    private CandidateStatusEventService candidateStatusEventService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(workflowAnalyticsService, "settleSeconds", 0);
+        workflowAnalyticsService.rebuild();
+    }
+
+    @Test
+    void recordAppendsEventAndStampsStageEntry() {
+        Candidate candidate = persist("P1");
+        candidateStatusEventService.record(
+                new CandidateStatusChangedEvent(candidate.getId(), null, CandidateStatus.APPLICATION_SUBMITTED));
+        entityManager.flush();
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Candidate c SET c.statusChangedAt = :at WHERE c.id = :id")
+                .setParameter("at", LocalDateTime.now().minusHours(2))
+                .setParameter("id", candidate.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        candidateStatusEventService.record(new CandidateStatusChangedEvent(candidate.getId(),
+                CandidateStatus.APPLICATION_SUBMITTED, CandidateStatus.UNDER_REVIEW));
+        // No-op changes and deletions are not logged
+        candidateStatusEventService.record(new CandidateStatusChangedEvent(candidate.getId(),
+                CandidateStatus.UNDER_REVIEW, CandidateStatus.UNDER_REVIEW));
+        candidateStatusEventService.record(new CandidateStatusChangedEvent(candidate.getId(),
+                CandidateStatus.UNDER_REVIEW, null));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<CandidateStatusEvent> history = candidateStatusEventService.getHistory(candidate.getId());
+        assertThat(history).extracting(CandidateStatusEvent::getToStatus)
+                .containsExactly(CandidateStatus.APPLICATION_SUBMITTED, CandidateStatus.UNDER_REVIEW);
+        assertThat(history.get(0).getTimeInPreviousStageSeconds()).isNull();
+        assertThat(history.get(1).getTimeInPreviousStageSeconds()).isBetween(7190L, 7300L);
+        assertThat(history.get(1).getActor()).isEqualTo(CandidateStatusEventService.SYSTEM_ACTOR);
+        assertThat(entityManager.find(Candidate.class, candidate.getId()).getStatusChangedAt())
+                .isAfter(LocalDateTime.now().minusMinutes(1));
+    }
+
+    @Test
+    void foldsOnlyNewEventsIntoFunnelAndTimings() {
+        for (long i = 1; i <= 10; i++) {
+            event(i, null, CandidateStatus.APPLICATION_SUBMITTED, null);
+        }
+        // Five move on after 1..5 hours in review, five are rejected after 6..10 hours
+        for (long i = 1; i <= 10; i++) {
+            event(i, CandidateStatus.APPLICATION_SUBMITTED, CandidateStatus.UNDER_REVIEW, 60L);
+        }
+        for (long i = 1; i <= 10; i++) {
+            event(i, CandidateStatus.UNDER_REVIEW, i <= 5 ? CandidateStatus.DOCUMENTS_APPROVED : CandidateStatus.REJECTED,
+                    i * 3600);
+        }
+        entityManager.flush();
+
+        assertThat(workflowAnalyticsService.refresh()).isEqualTo(30);
+        assertThat(workflowAnalyticsService.refresh()).isZero();
+
+        WorkflowAnalyticsDTO analytics = workflowAnalyticsService.getAnalytics();
+        assertThat(analytics.getEventsProcessed()).isEqualTo(30);
+        WorkflowAnalyticsDTO.FunnelStep review = step(analytics, CandidateStatus.UNDER_REVIEW);
+        assertThat(review.getEntries()).isEqualTo(10);
+        assertThat(review.getConversionToNext()).isEqualTo(0.5);
+
+        WorkflowAnalyticsDTO.StageTiming timing = timing(analytics, CandidateStatus.UNDER_REVIEW);
+        assertThat(timing.getExits()).isEqualTo(10);
+        assertThat(timing.getMeanHours()).isCloseTo(5.5, within(0.001));
+        assertThat(timing.getMedianHours()).isCloseTo(5.0, within(0.25));
+        assertThat(timing.getP90Hours()).isCloseTo(9.0, within(0.45));
+
+        // A later event is folded on top of the existing aggregates
+        event(11L, CandidateStatus.DOCUMENTS_APPROVED, CandidateStatus.INTERVIEW_SCHEDULED, 7200L);
+        entityManager.flush();
+        analytics = workflowAnalyticsService.getAnalytics();
+        assertThat(analytics.getEventsProcessed()).isEqualTo(31);
+        assertThat(step(analytics, CandidateStatus.DOCUMENTS_APPROVED).getConversionToNext()).isEqualTo(0.2);
+    }
+
+    @Test
+    void unsettledEventsWaitForTheNextFold() {
+        ReflectionTestUtils.setField(workflowAnalyticsService, "settleSeconds", 3600);
+        event(1L, null, CandidateStatus.APPLICATION_SUBMITTED, null);
+        entityManager.flush();
+
+        assertThat(workflowAnalyticsService.refresh()).isZero();
+    }
+
+    @Test
+    void eventCommittingAfterAHigherIdIsFoldedOnTheNextRefresh() {
+        event(1L, null, CandidateStatus.APPLICATION_SUBMITTED, null);
+        CandidateStatusEvent late = event(2L, null, CandidateStatus.APPLICATION_SUBMITTED, null);
+        event(3L, null, CandidateStatus.APPLICATION_SUBMITTED, null);
+        entityManager.flush();
+        // Still in flight when the fold runs: not settled, so the mark moves past it
+        setOccurredAt(late, LocalDateTime.now().plusMinutes(1));
+        assertThat(workflowAnalyticsService.refresh()).isEqualTo(2);
+
+        setOccurredAt(late, LocalDateTime.now().minusMinutes(1));
+        assertThat(workflowAnalyticsService.refresh()).isEqualTo(1);
+        assertThat(workflowAnalyticsService.refresh()).isZero();
+        assertThat(step(workflowAnalyticsService.getAnalytics(), CandidateStatus.APPLICATION_SUBMITTED).getEntries())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void idFromAnotherNodesSequenceBlockIsFoldedAfterItsGapExpired() throws Exception {
+        event(1L, null, CandidateStatus.APPLICATION_SUBMITTED, null);
+        CandidateStatusEvent fromIdleNode = event(2L, null, CandidateStatus.APPLICATION_SUBMITTED, null);
+        event(3L, null, CandidateStatus.APPLICATION_SUBMITTED, null);
+        entityManager.flush();
+        setOccurredAt(fromIdleNode, LocalDateTime.now().plusDays(1));
+        assertThat(workflowAnalyticsService.refresh()).isEqualTo(2);
+
+        // Hours later the quiet node writes with the id it reserved; the gap is long gone
+        ReflectionTestUtils.setField(workflowAnalyticsService, "gapRetentionMinutes", 0);
+        Thread.sleep(5);
+        setOccurredAt(fromIdleNode, LocalDateTime.now());
+        Thread.sleep(5);
+
+        assertThat(workflowAnalyticsService.refresh()).isEqualTo(1);
+        assertThat(workflowAnalyticsService.refresh()).isZero();
+        assertThat(step(workflowAnalyticsService.getAnalytics(), CandidateStatus.APPLICATION_SUBMITTED).getEntries())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void backlogAgingBucketsByTimeInCurrentStage() {
+        LocalDateTime now = LocalDateTime.now();
+        persist("P1", CandidateStatus.UNDER_REVIEW, now.minusDays(2));
+        persist("P2", CandidateStatus.UNDER_REVIEW, now.minusDays(40));
+        persist("P3", CandidateStatus.UNDER_REVIEW, null);
+        persist("P4", CandidateStatus.MEDICAL_PENDING, now.minusDays(120));
+        entityManager.flush();
+
+        List<WorkflowAnalyticsDTO.StageAging> aging = workflowAnalyticsService.getBacklogAging();
+        WorkflowAnalyticsDTO.StageAging review = aging.stream()
+                .filter(row -> row.getStatus() == CandidateStatus.UNDER_REVIEW).findFirst().orElseThrow();
+        assertThat(review.getTotal()).isEqualTo(3);
+        assertThat(review.getUnder7Days()).isEqualTo(1);
+        assertThat(review.getDays30To90()).isEqualTo(1);
+        assertThat(review.getUnknownAge()).isEqualTo(1);
+        WorkflowAnalyticsDTO.StageAging medical = aging.stream()
+                .filter(row -> row.getStatus() == CandidateStatus.MEDICAL_PENDING).findFirst().orElseThrow();
+        assertThat(medical.getOver90Days()).isEqualTo(1);
+    }
+
+    @Test
+    void bucketsStayWithinFivePercent() {
+        for (long seconds : new long[] {1, 59, 3600, 86_400, 2_592_000}) {
+            double value = WorkflowAnalyticsService.bucketValue(WorkflowAnalyticsService.bucketOf(seconds));
+            assertThat(value).isCloseTo(seconds, within(seconds * 0.05));
+        }
+    }
+
+    private CandidateStatusEvent event(Long candidateId, CandidateStatus from, CandidateStatus to, Long seconds) {
+        return entityManager.persist(CandidateStatusEvent.builder()
+                .candidateId(candidateId)
+                .fromStatus(from)
+                .toStatus(to)
+                .actor("test")
+                .occurredAt(LocalDateTime.now().minusMinutes(5))
+                .timeInPreviousStageSeconds(seconds)
+                .build());
+    }
+
+    private void setOccurredAt(CandidateStatusEvent event, LocalDateTime occurredAt) {
+        entityManager.getEntityManager()
+                .createQuery("UPDATE CandidateStatusEvent e SET e.occurredAt = :at WHERE e.id = :id")
+                .setParameter("at", occurredAt)
+                .setParameter("id", event.getId())
+                .executeUpdate();
+        entityManager.clear();
+    }
+
+    private Candidate persist(String passportNo) {
+        return persist(passportNo, CandidateStatus.APPLICATION_SUBMITTED, null);
+    }
+
+    private Candidate persist(String passportNo, CandidateStatus status, LocalDateTime statusChangedAt) {
+        Candidate candidate = TestCandidates.builder(passportNo)
+                .currentStatus(status)
+                .statusChangedAt(statusChangedAt)
+                .build();
+        return entityManager.persist(candidate);
+    }
+
+    private static WorkflowAnalyticsDTO.FunnelStep step(WorkflowAnalyticsDTO analytics, CandidateStatus status) {
+        return analytics.getFunnel().stream().filter(s -> s.getStatus() == status).findFirst().orElseThrow();
+    }
+
+    private static WorkflowAnalyticsDTO.StageTiming timing(WorkflowAnalyticsDTO analytics, CandidateStatus status) {
+        return analytics.getTimeInStage().stream().filter(t -> t.getStatus() == status).findFirst().orElseThrow();
+    }
+}